@@ -0,0 +1,85 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import com.alibaba.druid.DbType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjy.mapper2sql.SqlUtil;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.output.MapperResultJsonWriter;
+import com.wjy.mapper2sql.mcp.output.OutputFormat;
+import com.wjy.mapper2sql.util.OutPutUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 工具结果序列化的基准测试
+ *
+ * 对比原来的 OutPutUtil.toLineList + ObjectMapper 两步转换与 MapperResultJsonWriter 的流式输出，
+ * 以及 structured 格式全部字段和只输出 sql 的 compact 输出
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int statementCount;
+
+    private static final OutputFormat STRUCTURED = OutputFormat.of(OutputFormat.FORMAT_STRUCTURED, null, null);
+    private static final OutputFormat STRUCTURED_SQL_ONLY = OutputFormat.of(OutputFormat.FORMAT_STRUCTURED,
+            Collections.singletonList("sql"), true);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<MapperSqlInfo> results;
+    private List<MapperResult> mapperResults;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (SyntheticMapperCorpus corpus = SyntheticMapperCorpus.generate(statementCount)) {
+            results = SqlUtil.parseMapper(corpus.getDirectory().toString(), DbType.mysql, false);
+        }
+        mapperResults = results.stream().map(MapperResult::of).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public String lineListWithObjectMapper() throws Exception {
+        return objectMapper.writeValueAsString(OutPutUtil.toLineList(results));
+    }
+
+    @Benchmark
+    public String streamingJsonWriter() throws Exception {
+        return MapperResultJsonWriter.write(mapperResults);
+    }
+
+    @Benchmark
+    public String structuredJsonWriter() throws Exception {
+        return MapperResultJsonWriter.write(mapperResults, STRUCTURED);
+    }
+
+    @Benchmark
+    public String structuredCompactSqlOnly() throws Exception {
+        return MapperResultJsonWriter.write(mapperResults, STRUCTURED_SQL_ONLY);
+    }
+}
@@ -0,0 +1,82 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.SqlUtil;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mcp.parse.SqlMockTemplate;
+import com.wjy.mapper2sql.mock.SqlMock;
+
+import org.apache.ibatis.type.JdbcType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参数模拟的基准测试
+ *
+ * 预先解析出语料中的所有 SQL，只测量 SqlMock.mockSql 本身，字段类型使用固定的 Map，不查询数据库
+ *
+ * renderTemplate 测量预先编译的 SqlMockTemplate 的渲染，即参数模拟模板缓存命中时的开销
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlMockBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int statementCount;
+
+    private List<String> sqlList;
+    private List<SqlMockTemplate> templates;
+    private HashMap<String, JdbcType> columnTypes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (SyntheticMapperCorpus corpus = SyntheticMapperCorpus.generate(statementCount)) {
+            sqlList = new ArrayList<>();
+            for (MapperSqlInfo info : SqlUtil.parseMapper(corpus.getDirectory().toString(), DbType.mysql, false)) {
+                sqlList.addAll(info.getSqlIdMap().values());
+            }
+        }
+        columnTypes = SyntheticMapperCorpus.columnTypes();
+        templates = new ArrayList<>(sqlList.size());
+        for (String sql : sqlList) {
+            templates.add(SqlMockTemplate.compile(sql, DbType.mysql, "?"));
+        }
+    }
+
+    @Benchmark
+    public void mockSql(Blackhole blackhole) {
+        for (String sql : sqlList) {
+            blackhole.consume(SqlMock.mockSql(sql, DbType.mysql, "?", columnTypes));
+        }
+    }
+
+    @Benchmark
+    public void renderTemplate(Blackhole blackhole) {
+        for (SqlMockTemplate template : templates) {
+            blackhole.consume(template.render(columnTypes));
+        }
+    }
+}
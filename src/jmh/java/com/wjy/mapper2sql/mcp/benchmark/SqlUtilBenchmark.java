@@ -0,0 +1,85 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.SqlUtil;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mapper2sql 库解析入口的基准测试
+ *
+ * 直接调用 SqlUtil，作为服务层各项优化的对照基线：
+ * 1）只解析不模拟参数
+ * 2）解析并模拟参数（通过 H2 连接查询表字段类型）
+ * 3）解析、模拟参数并执行 SQL 测试
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlUtilBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int statementCount;
+
+    private SyntheticMapperCorpus corpus;
+    private Connection connection;
+    private String filePath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        corpus = SyntheticMapperCorpus.generate(statementCount);
+        connection = DriverManager.getConnection(corpus.getJdbcUrl(), SyntheticMapperCorpus.USER_NAME,
+                SyntheticMapperCorpus.PASSWORD);
+        filePath = corpus.getDirectory().toString();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncateTables() throws Exception {
+        corpus.truncateTables(connection);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        corpus.close();
+    }
+
+    @Benchmark
+    public List<MapperSqlInfo> parseMapper() throws Exception {
+        return SqlUtil.parseMapper(filePath, DbType.mysql, false);
+    }
+
+    @Benchmark
+    public List<MapperSqlInfo> parseMapperAndMock() throws Exception {
+        return SqlUtil.parseMapper(filePath, DbType.mysql, true, connection);
+    }
+
+    @Benchmark
+    public List<MapperSqlInfo> parseMapperAndRunTest() throws Exception {
+        return SqlUtil.parseMapperAndRunTest(filePath, DbType.mysql, connection);
+    }
+}
@@ -0,0 +1,105 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stdio 服务启动耗时的基准测试
+ *
+ * 每次启动一个新的服务进程，测量从启动到收到第一个 tools/list 响应的耗时，对比四种启动方式：
+ * 1）plain：直接运行解压后的 jar
+ * 2）aot：启用 AOT 处理后的 Bean 定义
+ * 3）cds：使用 CDS 归档
+ * 4）aot-cds：同时启用 AOT 和 CDS
+ *
+ * 需要先执行 mvn -Paot package 生成 target/cds 目录，也可以通过 -Dstartup.dir 指定其他目录
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String INITIALIZE_REQUEST = "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":"
+            + "{\"protocolVersion\":\"2024-11-05\",\"capabilities\":{},\"clientInfo\":{\"name\":\"benchmark\",\"version\":\"1.0.0\"}}}";
+    private static final String INITIALIZED_NOTIFICATION = "{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}";
+    private static final String TOOLS_LIST_REQUEST = "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}";
+
+    @Param({ "plain", "aot", "cds", "aot-cds" })
+    private String startupMode;
+
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Path dir = Paths.get(System.getProperty("startup.dir", "target/cds")).toAbsolutePath();
+        Path jar = dir.resolve(System.getProperty("startup.jar", "mapper2sql-mcp-server-1.0.0.jar"));
+        Path archive = dir.resolve("application.jsa");
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Extracted jar not found, run mvn -Paot package first: " + jar);
+        }
+
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (startupMode.contains("cds")) {
+            if (!Files.isRegularFile(archive)) {
+                throw new IllegalStateException("CDS archive not found, run mvn -Paot package first: " + archive);
+            }
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (startupMode.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+    }
+
+    @Benchmark
+    public String startUntilToolsList() throws Exception {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            OutputStream stdin = process.getOutputStream();
+            String requests = INITIALIZE_REQUEST + "\n" + INITIALIZED_NOTIFICATION + "\n" + TOOLS_LIST_REQUEST + "\n";
+            stdin.write(requests.getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+
+            BufferedReader stdout = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                if (line.contains("\"id\":2")) {
+                    return line;
+                }
+            }
+            throw new IllegalStateException("Server exited before responding to tools/list");
+        } finally {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import org.apache.ibatis.type.JdbcType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试用的合成 mapper 语料
+ *
+ * 按指定的语句总数在临时目录下生成 mapper XML 文件，每个文件最多 {@link #STATEMENTS_PER_FILE} 条语句，
+ * 语句轮流使用带 if/where/set 动态标签的查询、插入、更新和删除，分布在 {@link #TABLE_COUNT} 个表上。
+ * 同时生成对应的 H2 建表脚本，连接 {@link #getJdbcUrl()} 时自动执行
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class SyntheticMapperCorpus implements AutoCloseable {
+
+    public static final int STATEMENTS_PER_FILE = 10;
+    public static final int TABLE_COUNT = 20;
+    public static final String USER_NAME = "sa";
+    public static final String PASSWORD = "bench";
+
+    private static final String MAPPER_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" "
+            + "\"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n";
+
+    private static final String COLUMNS = "id, name, status, amount, created_at";
+
+    private final Path directory;
+    private final Path schemaScript;
+    private final int statementCount;
+    private final int fileCount;
+
+    private SyntheticMapperCorpus(Path directory, Path schemaScript, int statementCount, int fileCount) {
+        this.directory = directory;
+        this.schemaScript = schemaScript;
+        this.statementCount = statementCount;
+        this.fileCount = fileCount;
+    }
+
+    /**
+     * 生成语料
+     *
+     * @param statementCount 语句总数
+     * @return 语料
+     * @throws IOException 写文件失败
+     */
+    public static SyntheticMapperCorpus generate(int statementCount) throws IOException {
+        Path root = Files.createTempDirectory("mapper2sql-bench-");
+        Path mapperDir = Files.createDirectory(root.resolve("mapper"));
+        Path schemaScript = root.resolve("schema.sql");
+        Files.write(schemaScript, schemaSql().getBytes(StandardCharsets.UTF_8));
+
+        int fileCount = 0;
+        for (int first = 0; first < statementCount; first += STATEMENTS_PER_FILE) {
+            int count = Math.min(STATEMENTS_PER_FILE, statementCount - first);
+            Path file = mapperDir.resolve(String.format("BenchMapper%05d.xml", fileCount));
+            Files.write(file, mapperXml(fileCount, count).getBytes(StandardCharsets.UTF_8));
+            fileCount++;
+        }
+        return new SyntheticMapperCorpus(mapperDir, schemaScript, statementCount, fileCount);
+    }
+
+    /**
+     * 获取 mapper 文件所在目录
+     *
+     * @return mapper 文件目录
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 获取第一个 mapper 文件
+     *
+     * @return mapper 文件路径
+     */
+    public Path getFirstFile() {
+        return directory.resolve(String.format("BenchMapper%05d.xml", 0));
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * 获取 H2 内存数据库连接地址，首次连接时执行建表脚本
+     *
+     * @return JDBC 连接地址
+     */
+    public String getJdbcUrl() {
+        String script = schemaScript.toAbsolutePath().toString().replace('\\', '/');
+        return "jdbc:h2:mem:" + directory.getParent().getFileName()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM '" + script + "'";
+    }
+
+    /**
+     * 清空所有表，避免 SQL 测试插入的数据在多次迭代间累积
+     *
+     * @param conn 数据库连接
+     * @throws SQLException 执行失败
+     */
+    public void truncateTables(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            for (int i = 0; i < TABLE_COUNT; i++) {
+                statement.execute("TRUNCATE TABLE " + tableName(i));
+            }
+        }
+    }
+
+    /**
+     * 获取语料中所有表共用的字段类型，与 resultMap 和建表脚本一致
+     *
+     * @return 字段名 -> 字段类型
+     */
+    public static HashMap<String, JdbcType> columnTypes() {
+        HashMap<String, JdbcType> columnTypes = new HashMap<>();
+        columnTypes.put("id", JdbcType.BIGINT);
+        columnTypes.put("name", JdbcType.VARCHAR);
+        columnTypes.put("status", JdbcType.INTEGER);
+        columnTypes.put("amount", JdbcType.DECIMAL);
+        columnTypes.put("created_at", JdbcType.TIMESTAMP);
+        return columnTypes;
+    }
+
+    @Override
+    public void close() {
+        try (Stream<Path> paths = Files.walk(directory.getParent())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String tableName(int index) {
+        return "bench_table_" + (index % TABLE_COUNT);
+    }
+
+    private static String schemaSql() {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            sql.append("CREATE TABLE IF NOT EXISTS ").append(tableName(i)).append(" (")
+                    .append("id BIGINT PRIMARY KEY, ")
+                    .append("name VARCHAR(64), ")
+                    .append("status INT, ")
+                    .append("amount DECIMAL(12, 2), ")
+                    .append("created_at TIMESTAMP);\n");
+        }
+        return sql.toString();
+    }
+
+    private static String mapperXml(int fileIndex, int statementCount) {
+        String table = tableName(fileIndex);
+        StringBuilder xml = new StringBuilder(MAPPER_HEADER);
+        xml.append("<mapper namespace=\"com.bench.dao.BenchMapper").append(fileIndex).append("\">\n");
+        xml.append("    <resultMap id=\"BaseResultMap\" type=\"com.bench.entity.BenchEntity\">\n")
+                .append("        <id column=\"id\" property=\"id\" jdbcType=\"BIGINT\"/>\n")
+                .append("        <result column=\"name\" property=\"name\" jdbcType=\"VARCHAR\"/>\n")
+                .append("        <result column=\"status\" property=\"status\" jdbcType=\"INTEGER\"/>\n")
+                .append("        <result column=\"amount\" property=\"amount\" jdbcType=\"DECIMAL\"/>\n")
+                .append("        <result column=\"created_at\" property=\"createdAt\" jdbcType=\"TIMESTAMP\"/>\n")
+                .append("    </resultMap>\n");
+        for (int i = 0; i < statementCount; i++) {
+            xml.append(statementXml(i, table));
+        }
+        xml.append("</mapper>\n");
+        return xml.toString();
+    }
+
+    private static String statementXml(int index, String table) {
+        switch (index % 5) {
+            case 0:
+                return "    <select id=\"selectById" + index + "\" resultMap=\"BaseResultMap\">\n"
+                        + "        SELECT " + COLUMNS + " FROM " + table + " WHERE id = #{id}\n"
+                        + "    </select>\n";
+            case 1:
+                return "    <select id=\"selectByCondition" + index + "\" resultMap=\"BaseResultMap\">\n"
+                        + "        SELECT " + COLUMNS + " FROM " + table + "\n"
+                        + "        <where>\n"
+                        + "            <if test=\"name != null\">AND name = #{name}</if>\n"
+                        + "            <if test=\"status != null\">AND status = #{status}</if>\n"
+                        + "            <if test=\"createdFrom != null\">AND created_at &gt;= #{createdFrom}</if>\n"
+                        + "        </where>\n"
+                        + "        ORDER BY created_at DESC\n"
+                        + "    </select>\n";
+            case 2:
+                return "    <insert id=\"insert" + index + "\">\n"
+                        + "        INSERT INTO " + table + " (" + COLUMNS + ")\n"
+                        + "        VALUES (#{id}, #{name}, #{status}, #{amount}, #{createdAt})\n"
+                        + "    </insert>\n";
+            case 3:
+                return "    <update id=\"update" + index + "\">\n"
+                        + "        UPDATE " + table + "\n"
+                        + "        <set>\n"
+                        + "            <if test=\"name != null\">name = #{name},</if>\n"
+                        + "            <if test=\"status != null\">status = #{status},</if>\n"
+                        + "            <if test=\"amount != null\">amount = #{amount},</if>\n"
+                        + "        </set>\n"
+                        + "        WHERE id = #{id}\n"
+                        + "    </update>\n";
+            default:
+                return "    <delete id=\"deleteByStatus" + index + "\">\n"
+                        + "        DELETE FROM " + table + " WHERE status = #{status}\n"
+                        + "    </delete>\n";
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.wjy.mapper2sql.mcp.benchmark;
+
+import com.wjy.mapper2sql.mcp.Mapper2SqlMcpService;
+
+import org.h2.Driver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MCP 工具方法的端到端基准测试
+ *
+ * 通过系统属性把服务配置为使用 H2 内存数据库，与真实部署一样从驱动 jar 加载驱动，
+ * 测量三个工具方法从解析到输出 JSON 的完整耗时，并对比启用和禁用解析结果缓存的差异
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToolBenchmark {
+
+    private static final String[] PROPERTIES = { "dbType", "jdbcDriver", "jdbcDriverJar", "jdbcUrl", "userName",
+            "password", "parseCacheEnabled" };
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int statementCount;
+
+    @Param({ "true", "false" })
+    private String parseCacheEnabled;
+
+    private SyntheticMapperCorpus corpus;
+    private Mapper2SqlMcpService service;
+    private String filePath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        corpus = SyntheticMapperCorpus.generate(statementCount);
+        filePath = corpus.getDirectory().toString();
+
+        System.setProperty("dbType", "mysql");
+        System.setProperty("jdbcDriver", Driver.class.getName());
+        System.setProperty("jdbcDriverJar",
+                Paths.get(Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        System.setProperty("jdbcUrl", corpus.getJdbcUrl());
+        System.setProperty("userName", SyntheticMapperCorpus.USER_NAME);
+        System.setProperty("password", SyntheticMapperCorpus.PASSWORD);
+        System.setProperty("parseCacheEnabled", parseCacheEnabled);
+        service = new Mapper2SqlMcpService();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncateTables() throws Exception {
+        try (Connection conn = DriverManager.getConnection(corpus.getJdbcUrl(), SyntheticMapperCorpus.USER_NAME,
+                SyntheticMapperCorpus.PASSWORD)) {
+            corpus.truncateTables(conn);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.destroy();
+        for (String property : PROPERTIES) {
+            System.clearProperty(property);
+        }
+        corpus.close();
+    }
+
+    @Benchmark
+    public String parseMapper() {
+        return service.parseMapper(filePath, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public String parseMapperAndMock() {
+        return service.parseMapperAndMock(filePath, null, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public String parseMapperAndRunTest() {
+        return service.parseMapperAndRunTest(filePath, null, null, null, null, null, null);
+    }
+}
@@ -1,5 +1,8 @@
 package com.wjy.mapper2sql.mcp;
 
+import com.wjy.mapper2sql.mcp.config.ConfigurationLoader;
+import com.wjy.mapper2sql.mcp.tool.BoundedToolCallbackProvider;
+
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
@@ -27,8 +30,15 @@ public class Mapper2SqlMcpApplication {
         SpringApplication.run(Mapper2SqlMcpApplication.class, args);
     }
 
+    /**
+     * 注册工具，工具调用在有界线程池中执行
+     *
+     * stdio 和 HTTP 模式共用同一个服务实例，解析缓存、表字段缓存和连接池在所有客户端之间共享
+     */
     @Bean
-    public ToolCallbackProvider mapper2SqlTools(Mapper2SqlMcpService mapper2SqlMcpService) {
-        return MethodToolCallbackProvider.builder().toolObjects(mapper2SqlMcpService).build();
+    public BoundedToolCallbackProvider mapper2SqlTools(Mapper2SqlMcpService mapper2SqlMcpService) {
+        ToolCallbackProvider delegate = MethodToolCallbackProvider.builder().toolObjects(mapper2SqlMcpService).build();
+        return new BoundedToolCallbackProvider(delegate, ConfigurationLoader.loadToolExecutorConfig(),
+                ConfigurationLoader.loadVirtualThreadsEnabled());
     }
 }
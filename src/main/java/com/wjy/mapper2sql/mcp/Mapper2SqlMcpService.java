@@ -1,13 +1,32 @@
 package com.wjy.mapper2sql.mcp;
 
 import com.alibaba.druid.DbType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.wjy.mapper2sql.SqlUtil;
-import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.cache.PersistentParseCache;
+import com.wjy.mapper2sql.mcp.cache.TableMetadataCache;
 import com.wjy.mapper2sql.mcp.config.ConfigurationLoader;
-import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+import com.wjy.mapper2sql.mcp.config.TableMetadataCacheConfig;
+import com.wjy.mapper2sql.mcp.diff.GitWorkingTree;
+import com.wjy.mapper2sql.mcp.diff.MapperDiffAnalyzer;
+import com.wjy.mapper2sql.mcp.diff.MapperDiffResult;
+import com.wjy.mapper2sql.mcp.jdbc.DataSourceRegistry;
+import com.wjy.mapper2sql.mcp.jdbc.JdbcConnectionPool;
+import com.wjy.mapper2sql.mcp.jdbc.JdbcInitializer;
+import com.wjy.mapper2sql.mcp.jdbc.SqlExplainer;
+import com.wjy.mapper2sql.mcp.jdbc.SqlTestExecutor;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetricsJmxExporter;
+import com.wjy.mapper2sql.mcp.output.MapperResultJsonWriter;
+import com.wjy.mapper2sql.mcp.output.OutputFormat;
+import com.wjy.mapper2sql.mcp.parse.MapperBatchResult;
+import com.wjy.mapper2sql.mcp.parse.MapperDirectoryWatcher;
+import com.wjy.mapper2sql.mcp.parse.MapperParsePage;
+import com.wjy.mapper2sql.mcp.parse.MapperParser;
+import com.wjy.mapper2sql.mcp.parse.SqlMockTemplateCache;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
 import com.wjy.mapper2sql.mcp.util.JdbcDriverLoaderUtil;
-import com.wjy.mapper2sql.util.OutPutUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,9 +34,17 @@ import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Service;
 
-import java.sql.Connection;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * MyBatis Mapper2SQL MCP 服务
@@ -26,6 +53,10 @@ import java.util.List;
  * 1. 基础 SQL 提取（保留占位符）
  * 2. 带参数模拟的 SQL 提取
  * 3. 带 SQL 测试的完整提取
+ * 4. 按 namespace 和语句 id 提取单条语句
+ * 5. 输出服务运行指标
+ *
+ * 可以配置多个命名数据源，需要数据库的工具通过 datasource 参数选择数据源，未指定时使用默认数据源
  *
  * 使用 Spring AI 的 @Tool 注解自动注册为 MCP 工具
  *
@@ -36,37 +67,156 @@ import java.util.List;
 public class Mapper2SqlMcpService {
 
     private static final Logger logger = LoggerFactory.getLogger(Mapper2SqlMcpService.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // 只指定 offset 时每页的默认文件数
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    // parse_mappers_batch 的处理模式
+    private static final String BATCH_MODE_PLAIN = "plain";
+    private static final String BATCH_MODE_MOCK = "mock";
+    private static final String BATCH_MODE_TEST = "test";
+    private static final List<String> BATCH_MODES = Arrays.asList(BATCH_MODE_PLAIN, BATCH_MODE_MOCK,
+            BATCH_MODE_TEST);
+    // 解析结果输出格式参数的说明，各解析工具共用
+    private static final String FORMAT_PARAM_DESCRIPTION = "Output format: lines (default) returns pre-formatted "
+            + "text lines per file; structured returns {file, namespace, dbType, statements: "
+            + "[{id, type, sql, mockedSql, testResult, testMsg}]} objects";
+    private static final String FIELDS_PARAM_DESCRIPTION = "Statement fields to include in the structured format, "
+            + "any of type, sql, mockedSql, testResult, testMsg; id is always included; default all fields, "
+            + "setting fields selects the structured format";
+    private static final String COMPACT_PARAM_DESCRIPTION = "Omit null values, mockedSql equal to sql and empty "
+            + "testMsg in the structured format, default false; setting compact selects the structured format";
+
+    // 各数据源的JDBC资源（驱动、连接池、SQL 测试执行器、表字段元数据缓存），没有完整的JDBC配置时为空
+    private final DataSourceRegistry dataSources;
+
+    // mapper 文件解析器（带解析结果缓存），不使用数据源时使用
+    private final MapperParser mapperParser;
 
-    // 当前服务器的JDBC连接配置
-    private final JdbcConnectionConfig jdbcConfig;
+    // 数据源名称 -> 使用该数据源表字段元数据的解析器视图
+    private final Map<String, MapperParser> dataSourceParsers = new HashMap<>();
+
+    // 是否已将运行指标注册到 JMX
+    private final boolean metricsJmxRegistered;
 
     public Mapper2SqlMcpService() {
-        // 初始化JDBC连接配置
-        this.jdbcConfig = ConfigurationLoader.loadJdbcConfig();
-        if (this.jdbcConfig == null) {
+        boolean virtualThreads = ConfigurationLoader.loadVirtualThreadsEnabled();
+
+        // 初始化各数据源，默认在后台线程中加载驱动，不需要数据库的工具不等待
+        TableMetadataCacheConfig tableMetadataCacheConfig = ConfigurationLoader.loadTableMetadataCacheConfig();
+        this.dataSources = DataSourceRegistry.create(ConfigurationLoader.loadDataSourceConfigs(),
+                ConfigurationLoader.loadDefaultDataSourceName(), ConfigurationLoader.loadJdbcInitConfig(),
+                tableMetadataCacheConfig, virtualThreads);
+        if (dataSources.isEmpty()) {
             logger.warn(
                     "JDBC Config is null, JDBC connection configuration is incomplete, the server will not be able to use the function that requires database connection.");
-        } else {
-            logger.info("JDBC Config initialized: {}", this.jdbcConfig);
-            JdbcDriverLoaderUtil.loadJdbcDriver(jdbcConfig);
-            logger.info("JDBC Driver status: {}", JdbcDriverLoaderUtil.getDriverStatusInfo());
+        }
+
+        // 初始化解析结果缓存
+        ParseCacheConfig parseCacheConfig = ConfigurationLoader.loadParseCacheConfig();
+        MapperParseCache parseCache = parseCacheConfig.isEnabled()
+                ? new MapperParseCache(parseCacheConfig, createPersistentCache(parseCacheConfig),
+                        tableMetadataCacheConfig.getTtlMs())
+                : null;
+        this.mapperParser = new MapperParser(parseCache, createDirectoryWatcher(parseCacheConfig, parseCache),
+                null, ConfigurationLoader.loadParseParallelism(), virtualThreads);
+        for (JdbcInitializer dataSource : dataSources.getAll()) {
+            dataSourceParsers.put(dataSource.getName(),
+                    mapperParser.forDataSource(dataSource.getName(), dataSource.getTableMetadataCache()));
+        }
+
+        // 注册缓存命中率指标
+        if (parseCache != null) {
+            ServerMetrics.bindCache("parse", parseCache, MapperParseCache::getHitCount,
+                    MapperParseCache::getMissCount);
+            if (parseCache.getPersistentCache() != null) {
+                ServerMetrics.bindCache("persistent", parseCache.getPersistentCache(),
+                        PersistentParseCache::getHitCount, PersistentParseCache::getMissCount);
+            }
+        }
+        ServerMetrics.bindCache("sqlMockTemplate", mapperParser.getMockTemplateCache(),
+                SqlMockTemplateCache::getHitCount, SqlMockTemplateCache::getMissCount);
+        for (JdbcInitializer dataSource : dataSources.getAll()) {
+            if (dataSource.getTableMetadataCache() != null) {
+                ServerMetrics.bindCache("tableMetadata." + dataSource.getName(), dataSource.getTableMetadataCache(),
+                        TableMetadataCache::getHitCount, TableMetadataCache::getMissCount);
+            }
+        }
+        this.metricsJmxRegistered = ConfigurationLoader.loadMetricsJmxEnabled()
+                && ServerMetricsJmxExporter.register();
+    }
+
+    /**
+     * 打开解析结果持久化缓存，未配置目录或打开失败时返回null
+     */
+    private static PersistentParseCache createPersistentCache(ParseCacheConfig config) {
+        if (config.getPersistentDir() == null) {
+            return null;
+        }
+        try {
+            return PersistentParseCache.open(Paths.get(config.getPersistentDir()), config.getPersistentMaxEntries());
+        } catch (IOException e) {
+            logger.warn("Failed to open persistent parse cache in {}, parse results will not be persisted: {}",
+                    config.getPersistentDir(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 创建 mapper 目录监听器，未启用或创建失败时返回null
+     */
+    private static MapperDirectoryWatcher createDirectoryWatcher(ParseCacheConfig config, MapperParseCache parseCache) {
+        if (parseCache == null || !config.isWatchEnabled()) {
+            return null;
+        }
+        try {
+            return new MapperDirectoryWatcher(parseCache, config.getWatchMaxRoots());
+        } catch (IOException e) {
+            logger.warn("Failed to create mapper directory watcher, falling back to directory scanning: {}",
+                    e.getMessage());
+            return null;
         }
     }
 
     /**
      * 解析 MyBatis mapper XML 文件并提取 SQL 语句（不进行参数模拟）
      *
-     * @param filePath mapper XML 文件路径或目录路径
+     * @param filePath   mapper XML 文件路径或目录路径
+     * @param offset     分页起始文件下标，可以为null
+     * @param limit      分页文件数，可以为null，offset 和 limit 都为null时不分页
+     * @param datasource 数据源名称，可以为null
+     * @param format     输出格式，lines 或 structured，可以为null
+     * @param fields     structured 格式输出的语句字段，可以为null
+     * @param compact    structured 格式是否省略空值字段，可以为null
      * @return JSON 格式的解析结果
      */
     @Tool(name = "parse_mapper", description = "Parse MyBatis mapper XML files and extract SQL statements with placeholders (no parameter mocking)")
     public String parseMapper(
-            @ToolParam(description = "Path to mapper XML file or directory") String filePath) {
-        logger.info("Executing parse_mapper tool, parameter: filePath={}", filePath);
+            @ToolParam(description = "Path to mapper XML file or directory") String filePath,
+            @ToolParam(description = "Index of the first file to return when paging through a large directory, default 0", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of files to process in this call; when offset or limit is set the result is a page object with nextOffset", required = false) Integer limit,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info(
+                "Executing parse_mapper tool, parameter: filePath={}, offset={}, limit={}, datasource={}, format={}, fields={}, compact={}",
+                filePath, offset, limit, datasource, format, fields, compact);
 
         try {
-            String dbTypeName = (jdbcConfig != null) ? jdbcConfig.getDbType() : "mysql";
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+            JdbcInitializer dataSource = dataSources.get(datasource);
+
+            String dbTypeName = (dataSource != null) ? dataSource.getConfig().getDbType() : "mysql";
             DbType dbType = DbType.of(dbTypeName);
             if (dbType == null) {
                 String errorMsg = "Database type not supported: " + dbTypeName;
@@ -74,14 +224,23 @@ public class Mapper2SqlMcpService {
                 return "Error: " + errorMsg;
             }
 
+            String pageError = validatePage(offset, limit);
+            if (pageError != null) {
+                logger.error(pageError);
+                return "Error: " + pageError;
+            }
+
             // 调用核心解析功能 - 不进行参数模拟
-            List<MapperSqlInfo> results = SqlUtil.parseMapper(filePath, dbType, false);
+            boolean paged = isPaged(offset, limit);
+            MapperParsePage page = mapperParser.parseMapperPage(filePath, dbType, false, null, pageOffset(offset),
+                    pageLimit(paged, limit));
+            logger.info(
+                    "parse_mapper executed successfully, extracted {} mapper files from files [{}, {}) of {}, truncated: {}",
+                    page.getResults().size(), page.getOffset(), page.getOffset() + page.getFileCount(),
+                    page.getTotalFiles(), page.isTruncated());
 
             // 将结果序列化为JSON返回
-            String jsonResult = objectMapper.writeValueAsString(OutPutUtil.toLineList(results));
-            logger.info("parse_mapper executed successfully, extracted {} mapper files", results.size());
-
-            return jsonResult;
+            return write(page, paged, outputFormat);
 
         } catch (Exception e) {
             logger.error("parse_mapper executed failed", e);
@@ -92,16 +251,44 @@ public class Mapper2SqlMcpService {
     /**
      * 解析 MyBatis mapper XML 文件并提取 SQL 语句（带参数模拟）
      *
-     * @param filePath mapper XML 文件路径或目录路径
+     * @param filePath   mapper XML 文件路径或目录路径
+     * @param offset     分页起始文件下标，可以为null
+     * @param limit      分页文件数，可以为null，offset 和 limit 都为null时不分页
+     * @param datasource 数据源名称，可以为null
+     * @param format     输出格式，lines 或 structured，可以为null
+     * @param fields     structured 格式输出的语句字段，可以为null
+     * @param compact    structured 格式是否省略空值字段，可以为null
      * @return JSON 格式的解析结果
      */
     @Tool(name = "parse_mapper_and_mock", description = "Parse MyBatis mapper XML files and extract SQL statements and mock parameters")
     public String parseMapperAndMock(
-            @ToolParam(description = "Path to mapper XML file or directory") String filePath) {
-        logger.info("Executing parse_mapper_and_mock tool, parameter: filePath={}", filePath);
+            @ToolParam(description = "Path to mapper XML file or directory") String filePath,
+            @ToolParam(description = "Index of the first file to return when paging through a large directory, default 0", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of files to process in this call; when offset or limit is set the result is a page object with nextOffset", required = false) Integer limit,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info(
+                "Executing parse_mapper_and_mock tool, parameter: filePath={}, offset={}, limit={}, datasource={}, format={}, fields={}, compact={}",
+                filePath, offset, limit, datasource, format, fields, compact);
 
         try {
-            String dbTypeName = (jdbcConfig != null) ? jdbcConfig.getDbType() : "mysql";
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+            JdbcInitializer dataSource = dataSources.get(datasource);
+
+            String dbTypeName = (dataSource != null) ? dataSource.getConfig().getDbType() : "mysql";
             DbType dbType = DbType.of(dbTypeName);
             if (dbType == null) {
                 String errorMsg = "Database type not supported: " + dbTypeName;
@@ -109,18 +296,22 @@ public class Mapper2SqlMcpService {
                 return "Error: " + errorMsg;
             }
 
-            List<MapperSqlInfo> results = new ArrayList<>();
-            if (JdbcDriverLoaderUtil.isDriverLoaded()) {
-                try (Connection conn = JdbcDriverLoaderUtil.createConnection(jdbcConfig.getJdbcUrl(),
-                        jdbcConfig.getUserName(), jdbcConfig.getPassword())) {
-                    results = SqlUtil.parseMapper(filePath, dbType, true, conn);
-                }
-            } else {
-                results = SqlUtil.parseMapper(filePath, dbType, true);
+            String pageError = validatePage(offset, limit);
+            if (pageError != null) {
+                logger.error(pageError);
+                return "Error: " + pageError;
             }
-            String jsonResult = objectMapper.writeValueAsString(OutPutUtil.toLineList(results));
-            logger.info("parse_mapper_and_mock executed successfully, extracted {} mapper files", results.size());
-            return jsonResult;
+
+            // 并行解析时每个工作线程从连接池借出自己的连接
+            JdbcConnectionPool connectionPool = dataSource != null ? dataSource.getConnectionPool() : null;
+            boolean paged = isPaged(offset, limit);
+            MapperParsePage page = parserFor(dataSource).parseMapperPage(filePath, dbType, true, connectionPool,
+                    pageOffset(offset), pageLimit(paged, limit));
+            logger.info(
+                    "parse_mapper_and_mock executed successfully, extracted {} mapper files from files [{}, {}) of {}, truncated: {}",
+                    page.getResults().size(), page.getOffset(), page.getOffset() + page.getFileCount(),
+                    page.getTotalFiles(), page.isTruncated());
+            return write(page, paged, outputFormat);
         } catch (Exception e) {
             logger.error("parse_mapper_and_mock executed failed", e);
             return "Error: " + e.getMessage();
@@ -130,23 +321,51 @@ public class Mapper2SqlMcpService {
     /**
      * 解析 MyBatis mapper XML 文件，提取 SQL 语句并进行测试执行
      *
-     * @param filePath mapper XML 文件路径或目录路径
+     * @param filePath   mapper XML 文件路径或目录路径
+     * @param offset     分页起始文件下标，可以为null
+     * @param limit      分页文件数，可以为null，offset 和 limit 都为null时不分页
+     * @param datasource 数据源名称，可以为null
+     * @param format     输出格式，lines 或 structured，可以为null
+     * @param fields     structured 格式输出的语句字段，可以为null
+     * @param compact    structured 格式是否省略空值字段，可以为null
      * @return JSON 格式的解析和测试结果
      */
     @Tool(name = "parse_mapper_and_run_test", description = "Parse MyBatis mapper XML files, extract SQL statements with parameter mocking, and test execution")
     public String parseMapperAndRunTest(
-            @ToolParam(description = "Path to mapper XML file or directory") String filePath) {
-        logger.info("Executing parse_mapper_and_run_test tool, parameter: filePath={}", filePath);
+            @ToolParam(description = "Path to mapper XML file or directory") String filePath,
+            @ToolParam(description = "Index of the first file to return when paging through a large directory, default 0", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of files to process in this call; when offset or limit is set the result is a page object with nextOffset", required = false) Integer limit,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info(
+                "Executing parse_mapper_and_run_test tool, parameter: filePath={}, offset={}, limit={}, datasource={}, format={}, fields={}, compact={}",
+                filePath, offset, limit, datasource, format, fields, compact);
 
         try {
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+
             // 检查JDBC配置
-            if (jdbcConfig == null) {
+            JdbcInitializer dataSource = dataSources.get(datasource);
+            if (dataSource == null) {
                 String errorMsg = "parse_mapper_and_run_test tool requires complete JDBC configuration, please provide database connection information through command line parameters or environment variables";
                 logger.error(errorMsg);
                 return "Error: " + errorMsg;
             }
 
-            String dbTypeName = jdbcConfig.getDbType();
+            String dbTypeName = dataSource.getConfig().getDbType();
             DbType dbType = DbType.of(dbTypeName);
             if (dbType == null) {
                 String errorMsg = "Database type not supported: " + dbTypeName;
@@ -154,23 +373,535 @@ public class Mapper2SqlMcpService {
                 return "Error: " + errorMsg;
             }
 
-            if (!JdbcDriverLoaderUtil.isDriverLoaded()) {
-                String errorMsg = "Failed to load JDBC driver: " + jdbcConfig.getJdbcDriver();
+            JdbcConnectionPool connectionPool = dataSource.getConnectionPool();
+            SqlTestExecutor sqlTestExecutor = dataSource.getSqlTestExecutor();
+            if (connectionPool == null) {
+                String errorMsg = "Failed to load JDBC driver: " + dataSource.getConfig().getJdbcDriver();
                 logger.error(errorMsg);
                 return "Error: " + errorMsg;
             }
 
-            List<MapperSqlInfo> results = new ArrayList<>();
-            try (Connection conn = JdbcDriverLoaderUtil.createConnection(jdbcConfig.getJdbcUrl(), jdbcConfig.getUserName(), jdbcConfig.getPassword())) {
-                results = SqlUtil.parseMapperAndRunTest(filePath, dbType, conn);
+            String pageError = validatePage(offset, limit);
+            if (pageError != null) {
+                logger.error(pageError);
+                return "Error: " + pageError;
             }
-            String jsonResult = objectMapper.writeValueAsString(OutPutUtil.toLineList(results));
-            logger.info("parse_mapper_and_run_test executed successfully, extracted and tested {} mapper files",
-                    results.size());
-            return jsonResult;
+
+            // 解析和 mock 参数使用解析结果缓存，SQL 在多个连接上并行执行，分页时只解析和测试当前页的文件
+            boolean paged = isPaged(offset, limit);
+            MapperParsePage parsed = parserFor(dataSource).parseMapperPage(filePath, dbType, true, connectionPool,
+                    pageOffset(offset), pageLimit(paged, limit));
+            MapperParsePage page = withResults(parsed, sqlTestExecutor.runTests(parsed.getResults(), connectionPool));
+            logger.info(
+                    "parse_mapper_and_run_test executed successfully, extracted and tested {} mapper files from files [{}, {}) of {}, truncated: {}",
+                    page.getResults().size(), page.getOffset(), page.getOffset() + page.getFileCount(),
+                    page.getTotalFiles(), page.isTruncated());
+            return write(page, paged, outputFormat);
         } catch (Exception e) {
             logger.error("parse_mapper_and_run_test executed failed", e);
             return "Error: " + e.getMessage();
         }
     }
+
+    /**
+     * 解析 MyBatis mapper XML 文件，模拟参数后只获取每条 SQL 的执行计划，不执行 SQL
+     *
+     * @param filePath   mapper XML 文件路径或目录路径
+     * @param offset     分页起始文件下标，可以为null
+     * @param limit      分页文件数，可以为null，offset 和 limit 都为null时不分页
+     * @param datasource 数据源名称，可以为null
+     * @param format     输出格式，lines 或 structured，可以为null
+     * @param fields     structured 格式输出的语句字段，可以为null
+     * @param compact    structured 格式是否省略空值字段，可以为null
+     * @return JSON 格式的解析结果，testMsg 为执行计划的估算信息
+     */
+    @Tool(name = "parse_mapper_and_explain", description = "Parse MyBatis mapper XML files, mock parameters and validate each SQL statement with the database EXPLAIN instead of executing it; testMsg holds the estimated rows/cost and full table scans")
+    public String parseMapperAndExplain(
+            @ToolParam(description = "Path to mapper XML file or directory") String filePath,
+            @ToolParam(description = "Index of the first file to return when paging through a large directory, default 0", required = false) Integer offset,
+            @ToolParam(description = "Maximum number of files to process in this call; when offset or limit is set the result is a page object with nextOffset", required = false) Integer limit,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info(
+                "Executing parse_mapper_and_explain tool, parameter: filePath={}, offset={}, limit={}, datasource={}, format={}, fields={}, compact={}",
+                filePath, offset, limit, datasource, format, fields, compact);
+
+        try {
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+
+            // 检查JDBC配置
+            JdbcInitializer dataSource = dataSources.get(datasource);
+            if (dataSource == null) {
+                String errorMsg = "parse_mapper_and_explain tool requires complete JDBC configuration, please provide database connection information through command line parameters or environment variables";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String dbTypeName = dataSource.getConfig().getDbType();
+            DbType dbType = DbType.of(dbTypeName);
+            if (dbType == null) {
+                String errorMsg = "Database type not supported: " + dbTypeName;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+            if (!SqlExplainer.isSupported(dbType)) {
+                String errorMsg = "EXPLAIN is not supported for database type: " + dbTypeName;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            JdbcConnectionPool connectionPool = dataSource.getConnectionPool();
+            SqlTestExecutor sqlTestExecutor = dataSource.getSqlTestExecutor();
+            if (connectionPool == null) {
+                String errorMsg = "Failed to load JDBC driver: " + dataSource.getConfig().getJdbcDriver();
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String pageError = validatePage(offset, limit);
+            if (pageError != null) {
+                logger.error(pageError);
+                return "Error: " + pageError;
+            }
+
+            boolean paged = isPaged(offset, limit);
+            MapperParsePage parsed = parserFor(dataSource).parseMapperPage(filePath, dbType, true, connectionPool,
+                    pageOffset(offset), pageLimit(paged, limit));
+            MapperParsePage page = withResults(parsed,
+                    sqlTestExecutor.runExplains(parsed.getResults(), connectionPool, dbType));
+            logger.info(
+                    "parse_mapper_and_explain executed successfully, extracted and explained {} mapper files from files [{}, {}) of {}, truncated: {}",
+                    page.getResults().size(), page.getOffset(), page.getOffset() + page.getFileCount(),
+                    page.getTotalFiles(), page.isTruncated());
+            return write(page, paged, outputFormat);
+        } catch (Exception e) {
+            logger.error("parse_mapper_and_explain executed failed", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 按 namespace 和语句 id 提取单条 SQL 语句
+     *
+     * @param filePath    mapper XML 文件路径或目录路径
+     * @param namespace   mapper namespace
+     * @param statementId select/insert/update/delete 语句的 id
+     * @param mock        是否模拟参数，为null时模拟
+     * @param datasource  数据源名称，可以为null
+     * @param format      输出格式，lines 或 structured，可以为null
+     * @param fields      structured 格式输出的语句字段，可以为null
+     * @param compact     structured 格式是否省略空值字段，可以为null
+     * @return JSON 格式的解析结果，只包含请求的语句
+     */
+    @Tool(name = "get_statement", description = "Extract a single SQL statement by mapper namespace and statement id without parsing the whole directory; parameters are mocked unless mock is false")
+    public String getStatement(
+            @ToolParam(description = "Path to mapper XML file or directory to search") String filePath,
+            @ToolParam(description = "Mapper namespace, e.g. com.example.dao.UserDao") String namespace,
+            @ToolParam(description = "Id of the select/insert/update/delete statement") String statementId,
+            @ToolParam(description = "Whether to mock parameters, default true", required = false) Boolean mock,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info(
+                "Executing get_statement tool, parameter: filePath={}, namespace={}, statementId={}, mock={}, datasource={}, format={}, fields={}, compact={}",
+                filePath, namespace, statementId, mock, datasource, format, fields, compact);
+
+        try {
+            if (namespace == null || namespace.trim().isEmpty() || statementId == null
+                    || statementId.trim().isEmpty()) {
+                String errorMsg = "namespace and statementId must not be empty";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+            JdbcInitializer dataSource = dataSources.get(datasource);
+
+            String dbTypeName = (dataSource != null) ? dataSource.getConfig().getDbType() : "mysql";
+            DbType dbType = DbType.of(dbTypeName);
+            if (dbType == null) {
+                String errorMsg = "Database type not supported: " + dbTypeName;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            boolean mockParams = mock == null || mock;
+            JdbcConnectionPool connectionPool = mockParams && dataSource != null
+                    ? dataSource.getConnectionPool()
+                    : null;
+            MapperResult info = parserFor(dataSource).parseStatement(filePath, namespace.trim(), statementId.trim(), dbType,
+                    mockParams, connectionPool);
+            if (info == null) {
+                String errorMsg = "Statement not found: " + namespace.trim() + "." + statementId.trim();
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+            logger.info("get_statement executed successfully, extracted statement {}.{} from {}", namespace,
+                    statementId, info.getFilePath());
+            return MapperResultJsonWriter.write(Collections.singletonList(info), outputFormat);
+        } catch (Exception e) {
+            logger.error("get_statement executed failed", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 批量解析多个 mapper 路径
+     *
+     * 一次调用只解析一次数据库类型，所有路径下的文件去重后一起解析，模拟参数和 SQL 测试共用同一个数据源的连接池
+     * 和表字段元数据缓存，结果按路径分组后一次序列化
+     *
+     * @param paths      mapper XML 文件、目录或 glob 路径
+     * @param mode       plain 只提取 SQL，mock 模拟参数，test 模拟参数并执行测试，为空时为 plain
+     * @param datasource 数据源名称，可以为null
+     * @param format     输出格式，lines 或 structured，可以为null
+     * @param fields     structured 格式输出的语句字段，可以为null
+     * @param compact    structured 格式是否省略空值字段，可以为null
+     * @return JSON 格式的批量解析结果，按路径分组
+     */
+    @Tool(name = "parse_mappers_batch", description = "Parse several mapper XML files, directories or glob patterns (e.g. src/main/resources/mapper/*Mapper.xml) in one call; files matched by more than one path are parsed once and reported under the first path; the result is keyed by the requested path")
+    public String parseMappersBatch(
+            @ToolParam(description = "Mapper XML file paths, directory paths or glob patterns using / as separator") List<String> paths,
+            @ToolParam(description = "plain: extract SQL with placeholders, mock: mock parameters, test: mock parameters and test execution; default plain", required = false) String mode,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource,
+            @ToolParam(description = FORMAT_PARAM_DESCRIPTION, required = false) String format,
+            @ToolParam(description = FIELDS_PARAM_DESCRIPTION, required = false) List<String> fields,
+            @ToolParam(description = COMPACT_PARAM_DESCRIPTION, required = false) Boolean compact) {
+        logger.info("Executing parse_mappers_batch tool, parameter: paths={}, mode={}, datasource={}, format={}, fields={}, compact={}", paths, mode,
+                datasource, format, fields, compact);
+
+        try {
+            List<String> requested = new ArrayList<>();
+            if (paths != null) {
+                for (String path : paths) {
+                    if (path != null && !path.trim().isEmpty()) {
+                        requested.add(path.trim());
+                    }
+                }
+            }
+            if (requested.isEmpty()) {
+                String errorMsg = "paths must not be empty";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String batchMode = mode == null || mode.trim().isEmpty() ? BATCH_MODE_PLAIN
+                    : mode.trim().toLowerCase(Locale.ROOT);
+            if (!BATCH_MODES.contains(batchMode)) {
+                String errorMsg = "Unsupported mode: " + mode + ", expected one of " + BATCH_MODES;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String formatError = validateOutputFormat(format, fields, compact);
+            if (formatError != null) {
+                logger.error(formatError);
+                return "Error: " + formatError;
+            }
+            OutputFormat outputFormat = OutputFormat.of(format, fields, compact);
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+            JdbcInitializer dataSource = dataSources.get(datasource);
+            boolean test = BATCH_MODE_TEST.equals(batchMode);
+            if (test && dataSource == null) {
+                String errorMsg = "parse_mappers_batch tool requires complete JDBC configuration in test mode, please provide database connection information through command line parameters or environment variables";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String dbTypeName = (dataSource != null) ? dataSource.getConfig().getDbType() : "mysql";
+            DbType dbType = DbType.of(dbTypeName);
+            if (dbType == null) {
+                String errorMsg = "Database type not supported: " + dbTypeName;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            boolean mockParams = !BATCH_MODE_PLAIN.equals(batchMode);
+            JdbcConnectionPool connectionPool = mockParams && dataSource != null ? dataSource.getConnectionPool() : null;
+            if (test && connectionPool == null) {
+                String errorMsg = "Failed to load JDBC driver: " + dataSource.getConfig().getJdbcDriver();
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            // 所有路径的文件一次解析，每个解析工作线程在整个批次中只借出一个连接
+            MapperParser parser = mockParams ? parserFor(dataSource) : mapperParser;
+            MapperBatchResult batch = parser.parseMapperBatch(requested, dbType, mockParams, connectionPool);
+            if (test) {
+                List<MapperResult> tested = dataSource.getSqlTestExecutor().runTests(batch.getResults(),
+                        connectionPool);
+                batch = batch.withResults(tested, ToolDeadline.current().isExpired());
+            }
+            logger.info(
+                    "parse_mappers_batch executed successfully, processed {} paths, {} files ({} duplicates skipped), truncated: {}",
+                    requested.size(), batch.getTotalFiles(), batch.getDuplicateFiles(), batch.isTruncated());
+            return MapperResultJsonWriter.write(batch, outputFormat);
+        } catch (Exception e) {
+            logger.error("parse_mappers_batch executed failed", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 比较 mapper 语句与 git 基准版本的差异，只解析变化的文件，只测试 SQL 变化的语句
+     *
+     * @param filePath     git 工作区中的 mapper XML 文件或目录路径
+     * @param baseRevision 基准版本，例如 origin/main、HEAD~1 或提交哈希
+     * @param test         是否测试新增和修改的语句，为null时不测试
+     * @param datasource   数据源名称，可以为null
+     * @return JSON 格式的语句级差异
+     */
+    @Tool(name = "parse_mapper_diff", description = "Compare mapper SQL statements with a base git revision using the local git working tree (no network): only changed mapper XML files are parsed, and the result lists ADDED, MODIFIED and REMOVED statements; with test=true only added and modified statements are mocked and test executed")
+    public String parseMapperDiff(
+            @ToolParam(description = "Path to a mapper XML file or directory inside a git working tree") String filePath,
+            @ToolParam(description = "Base git revision to compare with, e.g. origin/main, HEAD~1 or a commit hash; uncommitted and untracked files are included") String baseRevision,
+            @ToolParam(description = "Whether to mock parameters and test execute the added and modified statements, default false", required = false) Boolean test,
+            @ToolParam(description = "Name of the configured datasource to use; omit to use the default datasource", required = false) String datasource) {
+        logger.info("Executing parse_mapper_diff tool, parameter: filePath={}, baseRevision={}, test={}, datasource={}",
+                filePath, baseRevision, test, datasource);
+
+        try {
+            if (baseRevision == null || baseRevision.trim().isEmpty()) {
+                String errorMsg = "baseRevision must not be empty";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String dataSourceError = validateDataSource(datasource);
+            if (dataSourceError != null) {
+                logger.error(dataSourceError);
+                return "Error: " + dataSourceError;
+            }
+            JdbcInitializer dataSource = dataSources.get(datasource);
+            boolean runTests = test != null && test;
+            if (runTests && dataSource == null) {
+                String errorMsg = "parse_mapper_diff tool requires complete JDBC configuration when test is true, please provide database connection information through command line parameters or environment variables";
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            String dbTypeName = (dataSource != null) ? dataSource.getConfig().getDbType() : "mysql";
+            DbType dbType = DbType.of(dbTypeName);
+            if (dbType == null) {
+                String errorMsg = "Database type not supported: " + dbTypeName;
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            JdbcConnectionPool connectionPool = runTests ? dataSource.getConnectionPool() : null;
+            if (runTests && connectionPool == null) {
+                String errorMsg = "Failed to load JDBC driver: " + dataSource.getConfig().getJdbcDriver();
+                logger.error(errorMsg);
+                return "Error: " + errorMsg;
+            }
+
+            MapperDiffAnalyzer analyzer = new MapperDiffAnalyzer(parserFor(dataSource),
+                    GitWorkingTree.DEFAULT_COMMAND_TIMEOUT_MS);
+            MapperDiffResult diff = analyzer.diff(filePath, baseRevision, dbType);
+            if (runTests) {
+                diff = analyzer.test(diff, dbType, connectionPool, dataSource.getSqlTestExecutor());
+            }
+            logger.info(
+                    "parse_mapper_diff executed successfully, {} changed files, {} changed statements, {} unchanged, {} failed files, truncated: {}",
+                    diff.getChangedFiles(), diff.getChanges().size(), diff.getUnchangedStatements(),
+                    diff.getErrors().size(), diff.isTruncated());
+            return MapperResultJsonWriter.write(diff);
+        } catch (Exception e) {
+            logger.error("parse_mapper_diff executed failed", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 刷新表字段元数据缓存
+     *
+     * @param tableName  表名，为空时刷新所有表
+     * @param datasource 数据源名称，为空时刷新所有数据源
+     * @return 刷新结果
+     */
+    @Tool(name = "refresh_table_metadata", description = "Invalidate cached table column types used for parameter mocking, call after the database schema changes")
+    public String refreshTableMetadata(
+            @ToolParam(description = "Table name as written in SQL; omit to invalidate all tables", required = false) String tableName,
+            @ToolParam(description = "Name of the configured datasource whose metadata changed; omit to invalidate all datasources", required = false) String datasource) {
+        logger.info("Executing refresh_table_metadata tool, parameter: tableName={}, datasource={}", tableName,
+                datasource);
+
+        String dataSourceError = validateDataSource(datasource);
+        if (dataSourceError != null) {
+            logger.error(dataSourceError);
+            return "Error: " + dataSourceError;
+        }
+        boolean allDataSources = datasource == null || datasource.trim().isEmpty();
+        List<JdbcInitializer> targets = allDataSources ? new ArrayList<>(dataSources.getAll())
+                : Collections.singletonList(dataSources.get(datasource));
+
+        MapperParseCache parseCache = mapperParser.getParseCache();
+        List<String> invalidated = new ArrayList<>();
+        for (JdbcInitializer dataSource : targets) {
+            TableMetadataCache tableMetadataCache = dataSource.getTableMetadataCache();
+            if (tableMetadataCache == null) {
+                continue;
+            }
+            if (tableName == null || tableName.trim().isEmpty()) {
+                tableMetadataCache.invalidateAll();
+            } else {
+                tableMetadataCache.invalidate(tableName.trim());
+            }
+            // 模拟参数的解析结果依赖表字段类型，需要一并失效
+            if (parseCache != null) {
+                parseCache.invalidateMocked(dataSource.getName());
+            }
+            invalidated.add(dataSource.getName());
+        }
+        if (invalidated.isEmpty()) {
+            return "Table metadata cache is not enabled";
+        }
+        return "Table metadata invalidated: " + (tableName == null || tableName.trim().isEmpty() ? "all tables"
+                : tableName.trim()) + ", datasources: " + invalidated;
+    }
+
+    /**
+     * 输出服务运行指标
+     *
+     * @return JSON 格式的指标，包含各工具和热点路径的耗时分位数、计数和缓存命中率
+     */
+    @Tool(name = "server_stats", description = "Report server metrics: per-tool latency (count, mean, max, p50, p99), time spent in file walk, MyBatis parse, parameter mocking, table metadata lookup, JDBC connection, SQL execution and JSON serialization, and cache hit rates")
+    public String serverStats() {
+        logger.info("Executing server_stats tool");
+        try {
+            return ServerMetrics.writeStats();
+        } catch (Exception e) {
+            logger.error("server_stats executed failed", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * 校验 datasource 参数
+     *
+     * @return 错误信息，未指定数据源或数据源存在时返回null
+     */
+    private String validateDataSource(String datasource) {
+        if (datasource != null && !datasource.trim().isEmpty() && dataSources.get(datasource) == null) {
+            return "Unknown datasource: " + datasource.trim() + ", available: " + dataSources.getNames();
+        }
+        return null;
+    }
+
+    /**
+     * 校验 format、fields、compact 参数
+     *
+     * @return 错误信息，参数合法时返回null
+     */
+    private static String validateOutputFormat(String format, List<String> fields, Boolean compact) {
+        try {
+            OutputFormat.of(format, fields, compact);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * 获取使用数据源表字段元数据的解析器，没有数据源时使用不查询表字段元数据的解析器
+     */
+    private MapperParser parserFor(JdbcInitializer dataSource) {
+        return dataSource != null ? dataSourceParsers.get(dataSource.getName()) : mapperParser;
+    }
+
+    /**
+     * 是否分页输出
+     */
+    private static boolean isPaged(Integer offset, Integer limit) {
+        return offset != null || limit != null;
+    }
+
+    private static int pageOffset(Integer offset) {
+        return offset != null ? offset : 0;
+    }
+
+    /**
+     * 分页时未指定 limit 使用默认页大小，不分页时处理所有文件
+     */
+    private static int pageLimit(boolean paged, Integer limit) {
+        if (!paged) {
+            return Integer.MAX_VALUE;
+        }
+        return limit != null ? limit : DEFAULT_PAGE_LIMIT;
+    }
+
+    /**
+     * 用测试结果替换解析结果，SQL 测试因截止时间到达而没有执行完时同样标记为已截断
+     */
+    private static MapperParsePage withResults(MapperParsePage parsed, List<MapperResult> results) {
+        boolean truncated = parsed.isTruncated() || ToolDeadline.current().isExpired();
+        return new MapperParsePage(results, parsed.getOffset(), parsed.getFileCount(), parsed.getTotalFiles(),
+                truncated);
+    }
+
+    /**
+     * 输出解析结果：分页或被截断时输出带 nextOffset 和 truncated 的分页对象，否则输出结果数组
+     */
+    private static String write(MapperParsePage page, boolean paged, OutputFormat format) throws IOException {
+        return paged || page.isTruncated() ? MapperResultJsonWriter.write(page, format)
+                : MapperResultJsonWriter.write(page.getResults(), format);
+    }
+
+    /**
+     * 校验分页参数
+     *
+     * @return 错误信息，参数合法时返回null
+     */
+    private static String validatePage(Integer offset, Integer limit) {
+        if (offset != null && offset < 0) {
+            return "offset must not be negative: " + offset;
+        }
+        if (limit != null && limit <= 0) {
+            return "limit must be positive: " + limit;
+        }
+        return null;
+    }
+
+    /**
+     * 注销 JMX 指标，关闭解析线程池、各数据源的 SQL 测试线程池和JDBC连接池，最后关闭驱动的类加载器
+     */
+    @PreDestroy
+    public void destroy() {
+        if (metricsJmxRegistered) {
+            ServerMetricsJmxExporter.unregister();
+        }
+        mapperParser.close();
+        dataSources.close();
+        JdbcDriverLoaderUtil.clearLoadedDriver();
+    }
 }
@@ -0,0 +1,368 @@
+package com.wjy.mapper2sql.mcp.bo;
+
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.type.JdbcType;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个 mapper 文件的紧凑解析结果
+ *
+ * 代替 MapperSqlInfo 在解析结果缓存、参数模拟、SQL 测试和 JSON 输出之间传递，只保存输出和参数模拟需要的字段：
+ * 1）语句 id 和 SQL 按下标保存在数组中，不再使用 HashMap，顺序与解析时 sqlIdMap 的遍历顺序一致
+ * 2）namespace、语句 id 和列名使用 String.intern，未模拟参数的 SQL 同样去重，内容相同的 SQL 只保留一份
+ * 3）resultMap 只保存合并后的列名和 jdbcType，不再引用 ResultMapping，
+ *    解析完成后 MyBatis Configuration、MappedStatement 等对象不再被解析结果引用
+ * 4）模拟参数后的 SQL 与未模拟参数的 SQL 分开保存，两者相同时为同一个实例
+ *
+ * 对象不可变，缓存中的结果可以被多个调用共享，模拟参数和测试结果通过 with 方法生成新的对象
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class MapperResult {
+
+    private final String filePath;
+    private final String namespace;
+    private final String dbTypeName;
+    private final String[] ids;
+    // 语句类型，解析结果中没有语句类型时为 UNKNOWN
+    private final SqlCommandType[] types;
+    // 未模拟参数的 SQL
+    private final String[] sqls;
+    // 模拟参数后的 SQL，未模拟参数时为null
+    private final String[] mockedSqls;
+    // resultMap 中的列名和 jdbcType，按 ResultMapping 合并，同名列以最后一个为准
+    private final String[] resultColumns;
+    private final JdbcType[] resultJdbcTypes;
+    // 测试结果和信息，未测试时为null，单条语句未执行时结果为null
+    private final Boolean[] testResults;
+    private final String[] testMsgs;
+
+    private MapperResult(String filePath, String namespace, String dbTypeName, String[] ids, SqlCommandType[] types,
+            String[] sqls, String[] mockedSqls, String[] resultColumns, JdbcType[] resultJdbcTypes,
+            Boolean[] testResults, String[] testMsgs) {
+        this.filePath = filePath;
+        this.namespace = namespace;
+        this.dbTypeName = dbTypeName;
+        this.ids = ids;
+        this.types = types;
+        this.sqls = sqls;
+        this.mockedSqls = mockedSqls;
+        this.resultColumns = resultColumns;
+        this.resultJdbcTypes = resultJdbcTypes;
+        this.testResults = testResults;
+        this.testMsgs = testMsgs;
+    }
+
+    /**
+     * 创建解析结果
+     *
+     * @param filePath          mapper XML 文件路径
+     * @param namespace         mapper namespace
+     * @param dbTypeName        数据库类型名称
+     * @param sqlIdMap          语句 id 到未模拟参数的 SQL，按遍历顺序保存
+     * @param resultColumnTypes resultMap 中的列名到 jdbcType
+     * @return 解析结果
+     */
+    public static MapperResult of(String filePath, String namespace, String dbTypeName, Map<String, String> sqlIdMap,
+            Map<String, JdbcType> resultColumnTypes) {
+        return of(filePath, namespace, dbTypeName, sqlIdMap, Collections.emptyMap(), resultColumnTypes);
+    }
+
+    /**
+     * 创建带语句类型的解析结果
+     *
+     * @param filePath          mapper XML 文件路径
+     * @param namespace         mapper namespace
+     * @param dbTypeName        数据库类型名称
+     * @param sqlIdMap          语句 id 到未模拟参数的 SQL，按遍历顺序保存
+     * @param sqlCommandTypes   语句 id 到语句类型，缺少的语句为 UNKNOWN
+     * @param resultColumnTypes resultMap 中的列名到 jdbcType
+     * @return 解析结果
+     */
+    public static MapperResult of(String filePath, String namespace, String dbTypeName, Map<String, String> sqlIdMap,
+            Map<String, SqlCommandType> sqlCommandTypes, Map<String, JdbcType> resultColumnTypes) {
+        String[] ids = new String[sqlIdMap.size()];
+        SqlCommandType[] types = new SqlCommandType[sqlIdMap.size()];
+        String[] sqls = new String[sqlIdMap.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : sqlIdMap.entrySet()) {
+            ids[i] = intern(entry.getKey());
+            types[i] = sqlCommandTypes.getOrDefault(entry.getKey(), SqlCommandType.UNKNOWN);
+            sqls[i] = intern(entry.getValue());
+            i++;
+        }
+        String[] resultColumns = new String[resultColumnTypes.size()];
+        JdbcType[] resultJdbcTypes = new JdbcType[resultColumnTypes.size()];
+        i = 0;
+        for (Map.Entry<String, JdbcType> entry : resultColumnTypes.entrySet()) {
+            resultColumns[i] = intern(entry.getKey());
+            resultJdbcTypes[i] = entry.getValue();
+            i++;
+        }
+        return new MapperResult(filePath, intern(namespace), intern(dbTypeName), ids, types, sqls, null,
+                resultColumns, resultJdbcTypes, null, null);
+    }
+
+    /**
+     * 从 mapper2sql 的解析结果创建，包含已有的测试结果，MapperSqlInfo 中没有语句类型，语句类型为 UNKNOWN
+     *
+     * @param info mapper2sql 的解析结果
+     * @return 解析结果
+     */
+    public static MapperResult of(MapperSqlInfo info) {
+        MapperResult result = of(info.getFilePath(), info.getNamespace(), info.getDbTypeName(), info.getSqlIdMap(),
+                mergeResultMappings(info.getPropertyResultMappings()));
+        if (info.getSqlTestResultInfoMap().isEmpty()) {
+            return result;
+        }
+        Boolean[] testResults = new Boolean[result.ids.length];
+        String[] testMsgs = new String[result.ids.length];
+        for (int i = 0; i < result.ids.length; i++) {
+            MapperSqlInfo.SqlTestResultInfo testResultInfo = info.getSqlTestResultInfoMap().get(result.ids[i]);
+            if (testResultInfo != null) {
+                testResults[i] = testResultInfo.getResult();
+                testMsgs[i] = testResultInfo.getMsg();
+            }
+        }
+        return result.withTestResults(testResults, testMsgs);
+    }
+
+    /**
+     * 按 ResultMapping 顺序合并列名和 jdbcType，与 mapper2sql 模拟参数时的合并方式一致
+     */
+    private static Map<String, JdbcType> mergeResultMappings(Collection<ResultMapping> resultMappings) {
+        Map<String, JdbcType> columnTypes = new HashMap<>();
+        if (resultMappings == null) {
+            return columnTypes;
+        }
+        for (ResultMapping resultMapping : resultMappings) {
+            columnTypes.put(resultMapping.getColumn(), resultMapping.getJdbcType());
+        }
+        return columnTypes;
+    }
+
+    /**
+     * 只保留指定的语句，保持原有顺序
+     *
+     * @param statementIds 需要保留的语句 id，不存在的 id 被忽略
+     * @return 只包含指定语句的解析结果
+     */
+    public MapperResult retain(Collection<String> statementIds) {
+        int count = 0;
+        int[] kept = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            if (statementIds.contains(ids[i])) {
+                kept[count++] = i;
+            }
+        }
+        String[] keptIds = new String[count];
+        SqlCommandType[] keptTypes = new SqlCommandType[count];
+        String[] keptSqls = new String[count];
+        String[] keptMockedSqls = mockedSqls != null ? new String[count] : null;
+        Boolean[] keptResults = testResults != null ? new Boolean[count] : null;
+        String[] keptMsgs = testMsgs != null ? new String[count] : null;
+        for (int i = 0; i < count; i++) {
+            keptIds[i] = ids[kept[i]];
+            keptTypes[i] = types[kept[i]];
+            keptSqls[i] = sqls[kept[i]];
+            if (keptMockedSqls != null) {
+                keptMockedSqls[i] = mockedSqls[kept[i]];
+            }
+            if (keptResults != null) {
+                keptResults[i] = testResults[kept[i]];
+                keptMsgs[i] = testMsgs[kept[i]];
+            }
+        }
+        return new MapperResult(filePath, namespace, dbTypeName, keptIds, keptTypes, keptSqls, keptMockedSqls,
+                resultColumns, resultJdbcTypes, keptResults, keptMsgs);
+    }
+
+    /**
+     * 附加模拟参数后的 SQL，与未模拟参数的 SQL 相同的使用同一个实例
+     *
+     * @param mocked 模拟参数后的 SQL，下标与 getId 一致，为null的（模拟失败）使用未模拟参数的 SQL
+     * @return 新的解析结果，不包含测试结果
+     */
+    public MapperResult withMockedSqls(String[] mocked) {
+        String[] newMockedSqls = new String[sqls.length];
+        for (int i = 0; i < sqls.length; i++) {
+            String sql = mocked[i];
+            newMockedSqls[i] = sql == null || sql.equals(sqls[i]) ? sqls[i] : sql;
+        }
+        return new MapperResult(filePath, namespace, dbTypeName, ids, types, sqls, newMockedSqls, resultColumns,
+                resultJdbcTypes, null, null);
+    }
+
+    /**
+     * 附加测试结果
+     *
+     * @param results 测试结果，下标与 getId 一致，为null表示未执行
+     * @param msgs    测试信息，下标与 getId 一致
+     * @return 带测试结果的解析结果
+     */
+    public MapperResult withTestResults(Boolean[] results, String[] msgs) {
+        return new MapperResult(filePath, namespace, dbTypeName, ids, types, sqls, mockedSqls, resultColumns,
+                resultJdbcTypes, Arrays.copyOf(results, ids.length), Arrays.copyOf(msgs, ids.length));
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getDbTypeName() {
+        return dbTypeName;
+    }
+
+    /**
+     * 获取语句数
+     *
+     * @return 语句数
+     */
+    public int getStatementCount() {
+        return ids.length;
+    }
+
+    public String getId(int index) {
+        return ids[index];
+    }
+
+    public SqlCommandType getType(int index) {
+        return types[index];
+    }
+
+    /**
+     * 获取未模拟参数的 SQL
+     *
+     * @param index 语句下标
+     * @return 带 ? 占位符的 SQL
+     */
+    public String getSql(int index) {
+        return sqls[index];
+    }
+
+    /**
+     * 是否已模拟参数
+     *
+     * @return true表示带有模拟参数后的 SQL
+     */
+    public boolean isMocked() {
+        return mockedSqls != null;
+    }
+
+    /**
+     * 获取模拟参数后的 SQL
+     *
+     * @param index 语句下标
+     * @return 模拟参数后的 SQL，未模拟参数时返回null
+     */
+    public String getMockedSql(int index) {
+        return mockedSqls != null ? mockedSqls[index] : null;
+    }
+
+    /**
+     * 获取用于测试执行和文本输出的 SQL
+     *
+     * @param index 语句下标
+     * @return 已模拟参数时为模拟参数后的 SQL，否则为未模拟参数的 SQL
+     */
+    public String getEffectiveSql(int index) {
+        return mockedSqls != null ? mockedSqls[index] : sqls[index];
+    }
+
+    /**
+     * 查找语句下标
+     *
+     * @param id 语句 id
+     * @return 语句下标，不存在时返回-1
+     */
+    public int indexOf(String id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 是否带有测试结果
+     *
+     * @return true表示已测试
+     */
+    public boolean isTested() {
+        return testResults != null;
+    }
+
+    /**
+     * 获取语句的测试结果
+     *
+     * @param index 语句下标
+     * @return 测试结果，未测试时返回null
+     */
+    public Boolean getTestResult(int index) {
+        return testResults != null ? testResults[index] : null;
+    }
+
+    /**
+     * 获取语句的测试信息
+     *
+     * @param index 语句下标
+     * @return 测试信息，未测试时返回null
+     */
+    public String getTestMsg(int index) {
+        return testMsgs != null ? testMsgs[index] : null;
+    }
+
+    /**
+     * 获取 resultMap 中的列数
+     *
+     * @return 列数
+     */
+    public int getResultColumnCount() {
+        return resultColumns.length;
+    }
+
+    /**
+     * 获取 resultMap 中的列名和 jdbcType，返回新的 Map，模拟参数时可以继续加入表字段类型
+     *
+     * @return 列名到 jdbcType
+     */
+    public HashMap<String, JdbcType> getResultColumnTypes() {
+        HashMap<String, JdbcType> columnTypes = new HashMap<>();
+        for (int i = 0; i < resultColumns.length; i++) {
+            columnTypes.put(resultColumns[i], resultJdbcTypes[i]);
+        }
+        return columnTypes;
+    }
+
+    /**
+     * 获取语句 id 到未模拟参数的 SQL 的映射
+     *
+     * @return 新的 Map，顺序与 getId 一致
+     */
+    public Map<String, String> toSqlIdMap() {
+        Map<String, String> sqlIdMap = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            sqlIdMap.put(ids[i], sqls[i]);
+        }
+        return sqlIdMap;
+    }
+
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+}
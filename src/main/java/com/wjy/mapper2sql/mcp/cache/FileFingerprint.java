@@ -0,0 +1,105 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * 文件指纹
+ *
+ * 由文件大小、最后修改时间和内容哈希组成
+ * 大小和修改时间一致时直接认为文件未变化，否则再比较内容哈希，
+ * 避免 touch、git checkout 等只改变修改时间的操作导致重新解析
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class FileFingerprint {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final long size;
+    private final long lastModified;
+    private final byte[] contentHash;
+
+    public FileFingerprint(long size, long lastModified, byte[] contentHash) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * 计算文件指纹
+     *
+     * @param file         文件路径
+     * @param size         文件大小
+     * @param lastModified 最后修改时间（毫秒）
+     * @return 文件指纹
+     * @throws IOException 读取文件失败
+     */
+    public static FileFingerprint of(Path file, long size, long lastModified) throws IOException {
+        return new FileFingerprint(size, lastModified, hashContent(file));
+    }
+
+    /**
+     * 计算文件内容哈希
+     *
+     * @param file 文件路径
+     * @return SHA-256 哈希值
+     * @throws IOException 读取文件失败
+     */
+    public static byte[] hashContent(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " not available", e);
+        }
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 文件大小和修改时间是否一致
+     *
+     * @param otherSize         文件大小
+     * @param otherLastModified 最后修改时间（毫秒）
+     * @return true表示一致
+     */
+    public boolean sameMetadata(long otherSize, long otherLastModified) {
+        return size == otherSize && lastModified == otherLastModified;
+    }
+
+    /**
+     * 文件内容哈希是否一致
+     *
+     * @param otherContentHash 内容哈希
+     * @return true表示一致
+     */
+    public boolean sameContent(byte[] otherContentHash) {
+        return Arrays.equals(contentHash, otherContentHash);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public byte[] getContentHash() {
+        return contentHash;
+    }
+}
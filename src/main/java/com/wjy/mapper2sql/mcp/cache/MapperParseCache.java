@@ -0,0 +1,501 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * mapper 文件解析结果缓存
+ *
+ * 以（规范化文件路径、数据库类型、是否模拟参数）为键缓存单个文件的解析结果，
+ * 模拟参数的结果依赖表字段类型，按提供表字段类型的数据源分别缓存，
+ * 命中时再用文件指纹（大小、修改时间、内容哈希）校验文件是否变化，
+ * 未变化的文件直接返回缓存结果，变化的文件才重新解析
+ *
+ * 缓存按条目数和估算内存占用限制大小，超出后按LRU淘汰
+ * 非 mapper 的 XML 文件同样会被缓存（解析结果为null），避免每次重复识别
+ *
+ * 配置了 PersistentParseCache 时，内存未命中的未模拟参数的请求先按内容哈希查找持久化缓存，
+ * 新解析的结果同时写入持久化缓存，服务重启后内容未变化的文件不再重新解析
+ *
+ * 模拟参数的条目从解析开始计算，在表字段元数据的有效期后过期，过期后重新模拟参数；
+ * 解析时使用的元数据缓存条目最多已存在一个有效期，表结构变化最迟在两个有效期后反映到模拟参数的结果中，
+ * 需要立即生效时调用 invalidateMocked
+ *
+ * 缓存返回的 MapperResult 为不可变的共享对象，不引用 MyBatis 的解析对象
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperParseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperParseCache.class);
+
+    // 单个缓存条目的固定估算开销（字节）
+    private static final long ENTRY_BASE_WEIGHT = 512;
+    // resultMap 中单个列的估算开销（字节）
+    private static final long RESULT_COLUMN_WEIGHT = 32;
+
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    // 模拟参数的条目的有效期（毫秒）
+    private final long mockedTtlMs;
+    // 持久化缓存，为null表示不持久化
+    private final PersistentParseCache persistentCache;
+
+    // accessOrder=true，按访问顺序排列，头部为最久未访问的条目
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalWeight = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    // 失效次数，用于识别解析期间被失效的条目
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    /**
+     * mapper 文件解析函数
+     */
+    @FunctionalInterface
+    public interface MapperFileLoader {
+
+        /**
+         * 解析单个文件
+         *
+         * @param filePath 文件路径
+         * @return 解析结果，非 mapper 文件返回null
+         * @throws Exception 解析失败
+         */
+        MapperResult load(String filePath) throws Exception;
+    }
+
+    public MapperParseCache(ParseCacheConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param config          解析结果缓存配置
+     * @param persistentCache 持久化缓存，可以为null
+     */
+    public MapperParseCache(ParseCacheConfig config, PersistentParseCache persistentCache) {
+        this(config, persistentCache, Long.MAX_VALUE);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param config          解析结果缓存配置
+     * @param persistentCache 持久化缓存，可以为null
+     * @param mockedTtlMs     模拟参数的条目的有效期（毫秒），通常与表字段元数据缓存的有效期一致
+     */
+    public MapperParseCache(ParseCacheConfig config, PersistentParseCache persistentCache, long mockedTtlMs) {
+        this.maxEntries = config.getMaxEntries();
+        this.maxWeightBytes = config.getMaxWeightBytes();
+        this.persistentCache = persistentCache;
+        this.mockedTtlMs = mockedTtlMs;
+    }
+
+    /**
+     * 获取文件解析结果，缓存未命中或文件已变化时调用 loader 重新解析
+     *
+     * @param file   文件路径
+     * @param dbType 数据库类型
+     * @param mock   是否模拟参数
+     * @param loader 解析函数
+     * @return 解析结果，非 mapper 文件返回null
+     * @throws Exception 读取或解析文件失败
+     */
+    public MapperResult getOrLoad(Path file, DbType dbType, boolean mock, MapperFileLoader loader)
+            throws Exception {
+        return getOrLoad(file, dbType, mock, null, loader);
+    }
+
+    /**
+     * 获取文件解析结果，缓存未命中或文件已变化时调用 loader 重新解析
+     *
+     * @param file       文件路径
+     * @param dbType     数据库类型
+     * @param mock       是否模拟参数
+     * @param dataSource 模拟参数时提供表字段类型的数据源名称，可以为null，不模拟参数时忽略
+     * @param loader     解析函数
+     * @return 解析结果，非 mapper 文件返回null
+     * @throws Exception 读取或解析文件失败
+     */
+    public MapperResult getOrLoad(Path file, DbType dbType, boolean mock, String dataSource,
+            MapperFileLoader loader) throws Exception {
+        Path canonicalFile = file.toRealPath();
+        BasicFileAttributes attrs = Files.readAttributes(canonicalFile, BasicFileAttributes.class);
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        CacheKey key = new CacheKey(canonicalFile.toString(), dbType, mock, dataSource);
+
+        CacheEntry cached = getUnexpired(key);
+        if (cached != null && cached.fingerprint.sameMetadata(size, lastModified)) {
+            hitCount.incrementAndGet();
+            if (!cached.trusted) {
+                put(key, cached.withFingerprint(cached.fingerprint, true));
+            }
+            return cached.info;
+        }
+
+        FileFingerprint fingerprint = FileFingerprint.of(canonicalFile, size, lastModified);
+        if (cached != null && cached.fingerprint.sameContent(fingerprint.getContentHash())) {
+            // 仅修改时间变化，内容未变
+            hitCount.incrementAndGet();
+            put(key, cached.withFingerprint(fingerprint, true));
+            return cached.info;
+        }
+
+        missCount.incrementAndGet();
+        long epoch = invalidationEpoch.get();
+        // 有效期从解析开始计算，模拟参数使用的表字段类型不早于该时间查询
+        long expiresAt = mock ? expiresAt(System.currentTimeMillis()) : Long.MAX_VALUE;
+        MapperResult info = loadPersistent(file, dbType, mock, fingerprint.getContentHash(), loader);
+        // 解析期间发生过失效，文件可能在计算指纹后又被修改，下次访问时需重新校验指纹
+        boolean trusted = epoch == invalidationEpoch.get();
+        put(key, new CacheEntry(fingerprint, info, estimateWeight(key, info), trusted, expiresAt));
+        return info;
+    }
+
+    /**
+     * 从持久化缓存加载解析结果，未命中时调用 loader 解析并写入持久化缓存
+     *
+     * 模拟参数的结果依赖数据库表结构，不经过持久化缓存
+     */
+    private MapperResult loadPersistent(Path file, DbType dbType, boolean mock, byte[] contentHash,
+            MapperFileLoader loader) throws Exception {
+        if (persistentCache == null || mock) {
+            return loader.load(file.toString());
+        }
+        PersistentParseCache.Hit hit = persistentCache.get(contentHash, dbType, file.toString());
+        if (hit != null) {
+            return hit.getInfo();
+        }
+        MapperResult info = loader.load(file.toString());
+        persistentCache.put(contentHash, dbType, info);
+        return info;
+    }
+
+    /**
+     * 获取持久化缓存
+     *
+     * @return 持久化缓存，未启用时返回null
+     */
+    public PersistentParseCache getPersistentCache() {
+        return persistentCache;
+    }
+
+    /**
+     * 关闭持久化缓存文件
+     */
+    public void close() {
+        if (persistentCache != null) {
+            persistentCache.close();
+        }
+    }
+
+    /**
+     * 获取被监听目录下文件的解析结果
+     *
+     * 文件变化由 MapperDirectoryWatcher 负责使缓存失效，命中时不再读取文件属性和计算指纹
+     *
+     * @param canonicalFile 规范化文件路径
+     * @param dbType        数据库类型
+     * @param mock          是否模拟参数
+     * @param loader        解析函数
+     * @return 解析结果，非 mapper 文件返回null
+     * @throws Exception 读取或解析文件失败
+     */
+    public MapperResult getOrLoadWatched(Path canonicalFile, DbType dbType, boolean mock, MapperFileLoader loader)
+            throws Exception {
+        return getOrLoadWatched(canonicalFile, dbType, mock, null, loader);
+    }
+
+    /**
+     * 获取被监听目录下文件的解析结果
+     *
+     * @param canonicalFile 规范化文件路径
+     * @param dbType        数据库类型
+     * @param mock          是否模拟参数
+     * @param dataSource    模拟参数时提供表字段类型的数据源名称，可以为null，不模拟参数时忽略
+     * @param loader        解析函数
+     * @return 解析结果，非 mapper 文件返回null
+     * @throws Exception 读取或解析文件失败
+     */
+    public MapperResult getOrLoadWatched(Path canonicalFile, DbType dbType, boolean mock, String dataSource,
+            MapperFileLoader loader) throws Exception {
+        CacheEntry cached = getUnexpired(new CacheKey(canonicalFile.toString(), dbType, mock, dataSource));
+        if (cached != null && cached.trusted) {
+            hitCount.incrementAndGet();
+            return cached.info;
+        }
+        return getOrLoad(canonicalFile, dbType, mock, dataSource, loader);
+    }
+
+    /**
+     * 使指定文件的所有缓存条目失效
+     *
+     * @param file 文件路径
+     */
+    public synchronized void invalidate(Path file) {
+        String canonicalPath;
+        try {
+            canonicalPath = file.toRealPath().toString();
+        } catch (IOException e) {
+            // 文件已被删除，按绝对路径匹配
+            canonicalPath = file.toAbsolutePath().normalize().toString();
+        }
+        invalidationEpoch.incrementAndGet();
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().canonicalPath.equals(canonicalPath)) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 使指定目录下所有文件的缓存条目失效
+     *
+     * @param dir 规范化目录路径
+     */
+    public synchronized void invalidateUnder(Path dir) {
+        invalidationEpoch.incrementAndGet();
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (Paths.get(entry.getKey().canonicalPath).startsWith(dir)) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 使所有模拟参数的缓存条目失效
+     *
+     * 模拟参数的结果依赖表字段元数据，表结构变化后需要重新解析
+     */
+    public synchronized void invalidateMocked() {
+        invalidationEpoch.incrementAndGet();
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().mock) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 使指定数据源模拟参数的缓存条目失效，其他数据源的条目保留
+     *
+     * @param dataSource 数据源名称
+     */
+    public synchronized void invalidateMocked(String dataSource) {
+        invalidationEpoch.incrementAndGet();
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().mock && Objects.equals(dataSource, entry.getKey().dataSource)) {
+                totalWeight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 将指定目录下的缓存条目标记为待校验
+     *
+     * 目录开始被监听之前缓存的条目无法保证与文件一致，下一次访问时重新校验指纹
+     *
+     * @param dir 规范化目录路径
+     */
+    public synchronized void distrustUnder(Path dir) {
+        for (Map.Entry<CacheKey, CacheEntry> entry : entries.entrySet()) {
+            CacheEntry cached = entry.getValue();
+            if (cached.trusted && Paths.get(entry.getKey().canonicalPath).startsWith(dir)) {
+                entry.setValue(cached.withFingerprint(cached.fingerprint, false));
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        invalidationEpoch.incrementAndGet();
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 缓存统计信息
+     */
+    public String getStatsInfo() {
+        String stats = String.format("Parse cache: entries=%d, weight=%d bytes, hits=%d, misses=%d, evictions=%d",
+                size(), getTotalWeight(), getHitCount(), getMissCount(), getEvictionCount());
+        if (persistentCache == null) {
+            return stats;
+        }
+        return stats + String.format(", persistentEntries=%d, persistentHits=%d, persistentWrites=%d",
+                persistentCache.size(), persistentCache.getHitCount(), persistentCache.getWriteCount());
+    }
+
+    /**
+     * 获取未过期的条目，过期的模拟参数条目按未命中处理
+     */
+    private synchronized CacheEntry getUnexpired(CacheKey key) {
+        CacheEntry cached = entries.get(key);
+        return cached != null && System.currentTimeMillis() < cached.expiresAt ? cached : null;
+    }
+
+    private long expiresAt(long loadedAt) {
+        return mockedTtlMs > Long.MAX_VALUE - loadedAt ? Long.MAX_VALUE : loadedAt + mockedTtlMs;
+    }
+
+    private synchronized void put(CacheKey key, CacheEntry entry) {
+        CacheEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += entry.weight;
+        evictIfNecessary();
+    }
+
+    private void evictIfNecessary() {
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        // 至少保留最近写入的一个条目
+        while ((entries.size() > maxEntries || totalWeight > maxWeightBytes) && entries.size() > 1
+                && iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> eldest = iterator.next();
+            totalWeight -= eldest.getValue().weight;
+            iterator.remove();
+            evictionCount.incrementAndGet();
+            logger.debug("Evicted parse cache entry: {}", eldest.getKey().canonicalPath);
+        }
+    }
+
+    /**
+     * 估算缓存条目的内存占用
+     */
+    private static long estimateWeight(CacheKey key, MapperResult info) {
+        long weight = ENTRY_BASE_WEIGHT + 2L * key.canonicalPath.length();
+        if (info == null) {
+            return weight;
+        }
+        for (int i = 0; i < info.getStatementCount(); i++) {
+            weight += 2L * (info.getId(i).length() + info.getSql(i).length()) + 32;
+            // 与原 SQL 相同的模拟结果共用同一个实例
+            String mockedSql = info.getMockedSql(i);
+            if (mockedSql != null && mockedSql != info.getSql(i)) {
+                weight += 2L * mockedSql.length();
+            }
+        }
+        weight += RESULT_COLUMN_WEIGHT * info.getResultColumnCount();
+        return weight;
+    }
+
+    /**
+     * 缓存键
+     */
+    private static final class CacheKey {
+        private final String canonicalPath;
+        private final DbType dbType;
+        private final boolean mock;
+        // 模拟参数时提供表字段类型的数据源名称，不模拟参数时为null
+        private final String dataSource;
+
+        private CacheKey(String canonicalPath, DbType dbType, boolean mock, String dataSource) {
+            this.canonicalPath = canonicalPath;
+            this.dbType = dbType;
+            this.mock = mock;
+            this.dataSource = mock ? dataSource : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return mock == other.mock && dbType == other.dbType && canonicalPath.equals(other.canonicalPath)
+                    && Objects.equals(dataSource, other.dataSource);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(canonicalPath, dbType, mock, dataSource);
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class CacheEntry {
+        private final FileFingerprint fingerprint;
+        private final MapperResult info;
+        private final long weight;
+        // 指纹是否可信，为false时被监听目录下的访问也要重新校验指纹
+        private final boolean trusted;
+        // 过期时间，只有模拟参数的条目会过期
+        private final long expiresAt;
+
+        private CacheEntry(FileFingerprint fingerprint, MapperResult info, long weight, boolean trusted,
+                long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.info = info;
+            this.weight = weight;
+            this.trusted = trusted;
+            this.expiresAt = expiresAt;
+        }
+
+        private CacheEntry withFingerprint(FileFingerprint fingerprint, boolean trusted) {
+            return new CacheEntry(fingerprint, info, weight, trusted, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.type.JdbcType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 持久化的 mapper 文件解析结果缓存
+ *
+ * 以（文件内容哈希、数据库类型）为键，将未模拟参数的解析结果（namespace、语句、resultMap 的列类型）
+ * 以紧凑的二进制格式追加写入缓存目录下的单个文件，服务启动时一次性读入内存，
+ * 内容未变化的文件不再重新解析；模拟参数的结果依赖数据库表结构，不做持久化
+ *
+ * 文件格式：文件头（魔数、格式版本），之后为若干条记录，每条记录为（载荷长度、CRC32、载荷）；
+ * 同一个键只写入一次，进程异常退出留下的不完整记录和校验失败的记录在启动时丢弃，
+ * 启动时发现无效记录或条目数超过上限时重写文件，只保留最近写入的条目
+ *
+ * 多个进程共享缓存目录时，启动时的读入和重写持有目录下锁文件的排他锁，互不干扰；
+ * 运行期间各进程以追加方式写入整条记录。某个进程启动时重写文件后，
+ * 已在运行的进程之后追加的记录写入被替换的旧文件而丢失，不影响缓存文件的正确性
+ *
+ * resultMap 只保存列名和 jdbcType，与 MapperResult 一致，参数模拟只依赖这两项
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class PersistentParseCache implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentParseCache.class);
+
+    static final String FILE_NAME = "mapper-parse-cache.bin";
+    static final String LOCK_FILE_NAME = "mapper-parse-cache.lock";
+    // "M2PC"
+    private static final int MAGIC = 0x4D325043;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    // 载荷长度（int）+ CRC32（long）
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    private final Path file;
+    private final int maxEntries;
+    // 按写入顺序排列，头部为最早写入的条目，值为记录载荷
+    private final LinkedHashMap<DiskKey, byte[]> records = new LinkedHashMap<>();
+    // 追加写入的输出流，写入失败后为null，不再持久化新的条目
+    private OutputStream out;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private PersistentParseCache(Path file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * 打开缓存目录，读入已持久化的解析结果
+     *
+     * @param dir        缓存目录，不存在时自动创建
+     * @param maxEntries 最大条目数
+     * @return 持久化缓存
+     * @throws IOException 创建目录或读写缓存文件失败
+     */
+    public static PersistentParseCache open(Path dir, int maxEntries) throws IOException {
+        Files.createDirectories(dir);
+        PersistentParseCache cache = new PersistentParseCache(dir.resolve(FILE_NAME), maxEntries);
+        // 多个进程同时启动时，读入和重写缓存文件依次进行；文件锁由进程持有，进程内另外加锁
+        synchronized (PersistentParseCache.class) {
+            try (FileChannel lockChannel = FileChannel.open(dir.resolve(LOCK_FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = lockChannel.lock()) {
+                cache.load();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 查找文件内容对应的解析结果
+     *
+     * @param contentHash 文件内容哈希
+     * @param dbType      数据库类型
+     * @param filePath    文件路径，写入返回结果的 filePath
+     * @return 命中结果，未命中时返回null；命中结果中的解析结果为null表示不是 mapper 文件
+     */
+    public Hit get(byte[] contentHash, DbType dbType, String filePath) {
+        DiskKey key = new DiskKey(contentHash, dbType);
+        byte[] payload;
+        synchronized (this) {
+            payload = records.get(key);
+        }
+        if (payload == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        try {
+            Hit hit = new Hit(decodeInfo(payload, filePath));
+            hitCount.incrementAndGet();
+            return hit;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to decode persistent parse cache entry for {}, reparsing: {}", filePath,
+                    e.getMessage());
+            synchronized (this) {
+                records.remove(key);
+            }
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * 持久化文件内容对应的解析结果，已存在时忽略
+     *
+     * @param contentHash 文件内容哈希
+     * @param dbType      数据库类型
+     * @param info        未模拟参数的解析结果，非 mapper 文件为null
+     */
+    public void put(byte[] contentHash, DbType dbType, MapperResult info) {
+        DiskKey key = new DiskKey(contentHash, dbType);
+        synchronized (this) {
+            if (records.containsKey(key)) {
+                return;
+            }
+        }
+        byte[] payload;
+        try {
+            payload = encode(key, info);
+        } catch (IOException e) {
+            logger.warn("Failed to encode parse result for {}: {}", info != null ? info.getFilePath() : null,
+                    e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            if (records.putIfAbsent(key, payload) != null) {
+                return;
+            }
+            // 超出上限时只淘汰内存中的条目，文件在下次启动时重写
+            Iterator<DiskKey> eldest = records.keySet().iterator();
+            while (records.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+            if (out == null) {
+                return;
+            }
+            try {
+                // 整条记录以一次追加写入，多个进程共享本地缓存目录时记录之间不会交错
+                out.write(toRecord(payload));
+                writeCount.incrementAndGet();
+            } catch (IOException e) {
+                logger.warn("Failed to write persistent parse cache {}, disabling persistence: {}", file,
+                        e.getMessage());
+                closeQuietly();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * 关闭缓存文件
+     */
+    @Override
+    public synchronized void close() {
+        closeQuietly();
+    }
+
+    /**
+     * 读入缓存文件，文件不存在、格式不匹配或包含无效记录时重写
+     */
+    private void load() throws IOException {
+        long start = System.currentTimeMillis();
+        boolean rewrite = true;
+        int recordCount = 0;
+        if (Files.isRegularFile(file)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (buffer.remaining() >= HEADER_SIZE && buffer.getInt() == MAGIC && buffer.getInt() == FORMAT_VERSION) {
+                boolean valid = true;
+                while (buffer.hasRemaining()) {
+                    byte[] payload = readRecord(buffer);
+                    if (payload == null) {
+                        valid = false;
+                        break;
+                    }
+                    recordCount++;
+                    try {
+                        DiskKey key = decodeKey(new DataInputStream(new ByteArrayInputStream(payload)));
+                        // 重复的键以最后写入的为准
+                        records.remove(key);
+                        records.put(key, payload);
+                    } catch (IOException | RuntimeException e) {
+                        valid = false;
+                        break;
+                    }
+                }
+                Iterator<DiskKey> eldest = records.keySet().iterator();
+                while (records.size() > maxEntries && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+                rewrite = !valid || recordCount != records.size();
+                if (!valid) {
+                    logger.warn("Persistent parse cache {} contains an invalid record, keeping {} valid entries",
+                            file, records.size());
+                }
+            } else {
+                logger.warn("Persistent parse cache {} has an unknown format, discarding it", file);
+            }
+        }
+        if (rewrite) {
+            rewrite();
+        }
+        out = Files.newOutputStream(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logger.info("Persistent parse cache loaded from {}: {} entries in {} ms", file, records.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 将内存中的条目写入同一目录下的临时文件后替换缓存文件，调用方需持有锁文件的排他锁
+     */
+    private void rewrite() throws IOException {
+        Path tempFile = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+        try {
+            try (DataOutputStream data = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                data.writeInt(MAGIC);
+                data.writeInt(FORMAT_VERSION);
+                for (byte[] payload : records.values()) {
+                    data.write(toRecord(payload));
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 读取一条记录的载荷，记录不完整或校验失败时返回null
+     */
+    private static byte[] readRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt();
+        long checksum = buffer.getLong();
+        if (length < 0 || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        return checksum(payload) == checksum ? payload : null;
+    }
+
+    private static byte[] toRecord(byte[] payload) {
+        return ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putLong(checksum(payload))
+                .put(payload)
+                .array();
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return crc.getValue();
+    }
+
+    private static byte[] encode(DiskKey key, MapperResult info) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeShort(key.contentHash.length);
+        data.write(key.contentHash);
+        writeString(data, key.dbType.name());
+        data.writeBoolean(info != null);
+        if (info != null) {
+            writeString(data, info.getNamespace());
+            writeString(data, info.getDbTypeName());
+            data.writeInt(info.getStatementCount());
+            for (int i = 0; i < info.getStatementCount(); i++) {
+                writeString(data, info.getId(i));
+                writeString(data, info.getType(i).name());
+                writeString(data, info.getSql(i));
+            }
+            Map<String, JdbcType> columnTypes = info.getResultColumnTypes();
+            data.writeInt(columnTypes.size());
+            for (Map.Entry<String, JdbcType> columnType : columnTypes.entrySet()) {
+                writeString(data, columnType.getKey());
+                writeString(data, columnType.getValue() != null ? columnType.getValue().name() : null);
+            }
+        }
+        data.flush();
+        return bytes.toByteArray();
+    }
+
+    private static DiskKey decodeKey(DataInputStream data) throws IOException {
+        byte[] contentHash = new byte[data.readUnsignedShort()];
+        data.readFully(contentHash);
+        DbType dbType = DbType.valueOf(readString(data));
+        return new DiskKey(contentHash, dbType);
+    }
+
+    private static MapperResult decodeInfo(byte[] payload, String filePath) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+        decodeKey(data);
+        if (!data.readBoolean()) {
+            return null;
+        }
+        String namespace = readString(data);
+        String dbTypeName = readString(data);
+        int sqlCount = data.readInt();
+        // 按写入顺序读回，语句顺序与解析时一致
+        Map<String, String> sqlIdMap = new LinkedHashMap<>(Math.max(16, sqlCount * 2));
+        Map<String, SqlCommandType> sqlCommandTypes = new HashMap<>(Math.max(16, sqlCount * 2));
+        for (int i = 0; i < sqlCount; i++) {
+            String id = readString(data);
+            sqlCommandTypes.put(id, SqlCommandType.valueOf(readString(data)));
+            sqlIdMap.put(id, readString(data));
+        }
+        int columnCount = data.readInt();
+        Map<String, JdbcType> columnTypes = new LinkedHashMap<>(Math.max(16, columnCount * 2));
+        for (int i = 0; i < columnCount; i++) {
+            String column = readString(data);
+            String jdbcType = readString(data);
+            columnTypes.put(column, jdbcType != null ? JdbcType.valueOf(jdbcType) : null);
+        }
+        return MapperResult.of(filePath, namespace, dbTypeName, sqlIdMap, sqlCommandTypes, columnTypes);
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close persistent parse cache {}", file, e);
+        }
+        out = null;
+    }
+
+    /**
+     * 命中结果
+     */
+    public static final class Hit {
+        private final MapperResult info;
+
+        private Hit(MapperResult info) {
+            this.info = info;
+        }
+
+        /**
+         * 获取解析结果
+         *
+         * @return 解析结果，非 mapper 文件为null
+         */
+        public MapperResult getInfo() {
+            return info;
+        }
+    }
+
+    /**
+     * 持久化缓存键
+     */
+    private static final class DiskKey {
+        private final byte[] contentHash;
+        private final DbType dbType;
+
+        private DiskKey(byte[] contentHash, DbType dbType) {
+            this.contentHash = contentHash;
+            this.dbType = dbType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DiskKey)) {
+                return false;
+            }
+            DiskKey other = (DiskKey) o;
+            return dbType == other.dbType && Arrays.equals(contentHash, other.contentHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(contentHash) + dbType.hashCode();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.wjy.mapper2sql.mcp.config.TableMetadataCacheConfig;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+
+import org.apache.ibatis.type.JdbcType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表字段元数据缓存
+ *
+ * 参数模拟时需要查询 SQL 中每个表的字段类型，同一个表被多个 mapper 文件引用时
+ * 每次都会产生一次 DatabaseMetaData 查询。本缓存在服务器范围内按（catalog、schema、表名）
+ * 缓存字段类型，条目超过有效期后重新查询，也可以显式失效
+ *
+ * 不存在的表同样缓存为空结果，避免对别名、临时表名等反复查询
+ * 查询失败的结果不缓存
+ *
+ * 注意：缓存返回的字段类型 Map 为共享对象，调用方不能修改其内容
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class TableMetadataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableMetadataCache.class);
+
+    private final long ttlMs;
+    private final ConcurrentHashMap<TableKey, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 数据库连接来源，仅在缓存未命中时调用
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+
+        /**
+         * 获取数据库连接
+         *
+         * @return 数据库连接，无法获取时返回null
+         */
+        Connection getConnection();
+    }
+
+    public TableMetadataCache(TableMetadataCacheConfig config) {
+        this.ttlMs = config.getTtlMs();
+    }
+
+    /**
+     * 获取表的字段类型
+     *
+     * @param tableName        SQL 中出现的表名，可以带 catalog、schema 前缀
+     * @param connectionSource 数据库连接来源
+     * @return 字段名 -> 字段类型，无法获取时返回空Map
+     */
+    public Map<String, JdbcType> getColumnTypes(String tableName, ConnectionSource connectionSource) {
+        TableKey key = TableKey.parse(tableName);
+        CacheEntry cached = entries.get(key);
+        if (cached != null && !cached.isExpired(ttlMs)) {
+            hitCount.incrementAndGet();
+            return cached.columnTypes;
+        }
+
+        missCount.incrementAndGet();
+        Connection conn = connectionSource.getConnection();
+        if (conn == null) {
+            return new HashMap<>();
+        }
+        long start = System.nanoTime();
+        try {
+            Map<String, JdbcType> columnTypes = loadColumnTypes(conn, key);
+            entries.put(key, new CacheEntry(columnTypes));
+            return columnTypes;
+        } catch (SQLException e) {
+            logger.warn("Failed to load column types of table {}: {}", tableName, e.getMessage());
+            return new HashMap<>();
+        } finally {
+            ServerMetrics.record(ServerMetrics.METADATA_LOOKUP, start);
+        }
+    }
+
+    /**
+     * 预加载连接当前 catalog、schema 下所有表的字段类型
+     *
+     * 使用一次 getColumns 查询批量加载，结果按不带前缀的表名缓存，
+     * 与查询不带前缀的表名时使用相同的 catalog、schema
+     *
+     * @param conn 数据库连接
+     * @return 加载的表数量
+     * @throws SQLException 查询元数据失败
+     */
+    public int warmUp(Connection conn) throws SQLException {
+        long start = System.currentTimeMillis();
+        Map<String, Map<String, JdbcType>> tables = new HashMap<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getColumns(conn.getCatalog(), currentSchema(conn), "%", null)) {
+            while (rs.next()) {
+                tables.computeIfAbsent(rs.getString("TABLE_NAME"), name -> new HashMap<>())
+                        .put(rs.getString("COLUMN_NAME"), JdbcType.forCode(rs.getInt("DATA_TYPE")));
+            }
+        }
+        for (Map.Entry<String, Map<String, JdbcType>> table : tables.entrySet()) {
+            entries.put(new TableKey(null, null, table.getKey()), new CacheEntry(table.getValue()));
+        }
+        logger.info("Table metadata cache warmed up: {} tables in {} ms", tables.size(),
+                System.currentTimeMillis() - start);
+        return tables.size();
+    }
+
+    /**
+     * 使指定表的缓存失效
+     *
+     * @param tableName SQL 中出现的表名，可以带 catalog、schema 前缀
+     */
+    public void invalidate(String tableName) {
+        entries.remove(TableKey.parse(tableName));
+    }
+
+    /**
+     * 使所有缓存失效
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 缓存统计信息
+     */
+    public String getStatsInfo() {
+        return String.format("Table metadata cache: tables=%d, hits=%d, misses=%d", size(), getHitCount(),
+                getMissCount());
+    }
+
+    /**
+     * 查询表的字段类型，未指定的 catalog、schema 使用连接当前的 catalog、schema，与预加载一致
+     *
+     * 两段式表名在不支持 schema 的数据库（如 MySQL）中前缀为 catalog
+     */
+    private static Map<String, JdbcType> loadColumnTypes(Connection conn, TableKey key) throws SQLException {
+        Map<String, JdbcType> columnTypes = new HashMap<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        String catalog = key.catalog;
+        String schema = key.schema;
+        if (catalog == null && schema != null && !metaData.supportsSchemasInTableDefinitions()) {
+            catalog = schema;
+            schema = null;
+        }
+        if (catalog == null) {
+            catalog = conn.getCatalog();
+        }
+        if (schema == null && key.schema == null) {
+            schema = currentSchema(conn);
+        }
+        try (ResultSet rs = metaData.getColumns(catalog, schema, key.table, null)) {
+            while (rs.next()) {
+                columnTypes.put(rs.getString("COLUMN_NAME"), JdbcType.forCode(rs.getInt("DATA_TYPE")));
+            }
+        }
+        return columnTypes;
+    }
+
+    /**
+     * 获取连接当前的 schema，旧版本驱动不支持时返回null，即不按 schema 过滤
+     */
+    private static String currentSchema(Connection conn) {
+        try {
+            return conn.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 缓存键
+     */
+    private static final class TableKey {
+        private final String catalog;
+        private final String schema;
+        private final String table;
+
+        private TableKey(String catalog, String schema, String table) {
+            this.catalog = catalog;
+            this.schema = schema;
+            this.table = table;
+        }
+
+        /**
+         * 按 SQL 中的写法拆分表名，不带前缀的表名对应连接当前的 catalog、schema
+         */
+        private static TableKey parse(String tableName) {
+            String[] parts = tableName.split("\\.", 3);
+            if (parts.length == 3) {
+                return new TableKey(parts[0], parts[1], parts[2]);
+            }
+            if (parts.length == 2) {
+                return new TableKey(null, parts[0], parts[1]);
+            }
+            return new TableKey(null, null, tableName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) o;
+            return Objects.equals(catalog, other.catalog) && Objects.equals(schema, other.schema)
+                    && table.equals(other.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(catalog, schema, table);
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class CacheEntry {
+        private final Map<String, JdbcType> columnTypes;
+        private final long loadedAt;
+
+        private CacheEntry(Map<String, JdbcType> columnTypes) {
+            this.columnTypes = columnTypes;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        private boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - loadedAt > ttlMs;
+        }
+    }
+}
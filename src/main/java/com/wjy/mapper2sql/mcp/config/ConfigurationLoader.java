@@ -1,8 +1,13 @@
 package com.wjy.mapper2sql.mcp.config;
 
+import com.wjy.mapper2sql.mcp.util.VirtualThreadUtil;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 配置加载器
  *
@@ -16,6 +21,9 @@ public class ConfigurationLoader {
 
     private static final Logger logger = LoggerFactory.getLogger(ConfigurationLoader.class);
 
+    // 未命名的JDBC连接配置（dbType、jdbcUrl 等）对应的数据源名称
+    public static final String DEFAULT_DATASOURCE = "default";
+
     // 系统属性名称（命令行参数 -D）
     private static final String PROP_DB_TYPE = "dbType";
     private static final String PROP_JDBC_DRIVER = "jdbcDriver";
@@ -23,6 +31,37 @@ public class ConfigurationLoader {
     private static final String PROP_JDBC_URL = "jdbcUrl";
     private static final String PROP_USERNAME = "userName";
     private static final String PROP_PASSWORD = "password";
+    private static final String PROP_DATASOURCES = "datasources";
+    private static final String PROP_DATASOURCE_PREFIX = "datasource.";
+    private static final String PROP_DEFAULT_DATASOURCE = "defaultDatasource";
+    private static final String PROP_PARSE_CACHE_ENABLED = "parseCacheEnabled";
+    private static final String PROP_PARSE_CACHE_MAX_ENTRIES = "parseCacheMaxEntries";
+    private static final String PROP_PARSE_CACHE_MAX_SIZE_MB = "parseCacheMaxSizeMb";
+    private static final String PROP_PARSE_WATCH_ENABLED = "parseWatchEnabled";
+    private static final String PROP_PARSE_WATCH_MAX_ROOTS = "parseWatchMaxRoots";
+    private static final String PROP_PARSE_CACHE_DIR = "parseCacheDir";
+    private static final String PROP_PARSE_CACHE_DIR_MAX_ENTRIES = "parseCacheDirMaxEntries";
+    private static final String PROP_PARSE_PARALLELISM = "parseParallelism";
+    private static final String PROP_TABLE_METADATA_CACHE_ENABLED = "tableMetadataCacheEnabled";
+    private static final String PROP_TABLE_METADATA_CACHE_TTL_SECONDS = "tableMetadataCacheTtlSeconds";
+    private static final String PROP_TABLE_METADATA_WARM_UP = "tableMetadataWarmUp";
+    private static final String PROP_SQL_TEST_PARALLELISM = "sqlTestParallelism";
+    private static final String PROP_SQL_TEST_QUERY_TIMEOUT_SECONDS = "sqlTestQueryTimeoutSeconds";
+    private static final String PROP_SQL_TEST_ROLLBACK = "sqlTestRollback";
+    private static final String PROP_JDBC_INIT_MODE = "jdbcInitMode";
+    private static final String PROP_JDBC_INIT_TIMEOUT_MS = "jdbcInitTimeoutMs";
+    private static final String PROP_JDBC_WARM_UP_CONNECTION = "jdbcWarmUpConnection";
+    private static final String PROP_VIRTUAL_THREADS_ENABLED = "virtualThreadsEnabled";
+    private static final String PROP_METRICS_JMX_ENABLED = "metricsJmxEnabled";
+    private static final String PROP_TOOL_MAX_CONCURRENCY = "toolMaxConcurrency";
+    private static final String PROP_TOOL_QUEUE_CAPACITY = "toolQueueCapacity";
+    private static final String PROP_TOOL_TIMEOUT_MS = "toolTimeoutMs";
+    private static final String PROP_POOL_MAX_SIZE = "poolMaxSize";
+    private static final String PROP_POOL_BORROW_TIMEOUT_MS = "poolBorrowTimeoutMs";
+    private static final String PROP_POOL_VALIDATION_TIMEOUT_SECONDS = "poolValidationTimeoutSeconds";
+    private static final String PROP_POOL_IDLE_TIMEOUT_MS = "poolIdleTimeoutMs";
+    private static final String PROP_POOL_MAX_LIFETIME_MS = "poolMaxLifetimeMs";
+    private static final String PROP_POOL_EVICTION_INTERVAL_MS = "poolEvictionIntervalMs";
 
     // 环境变量名称
     private static final String ENV_DB_TYPE = "DB_TYPE";
@@ -31,10 +70,56 @@ public class ConfigurationLoader {
     private static final String ENV_JDBC_URL = "JDBC_URL";
     private static final String ENV_USERNAME = "DB_USERNAME";
     private static final String ENV_PASSWORD = "DB_PASSWORD";
+    private static final String ENV_DATASOURCES = "DATASOURCES";
+    private static final String ENV_DATASOURCE_PREFIX = "DATASOURCE_";
+    private static final String ENV_DEFAULT_DATASOURCE = "DEFAULT_DATASOURCE";
+    private static final String ENV_PARSE_CACHE_ENABLED = "PARSE_CACHE_ENABLED";
+    private static final String ENV_PARSE_CACHE_MAX_ENTRIES = "PARSE_CACHE_MAX_ENTRIES";
+    private static final String ENV_PARSE_CACHE_MAX_SIZE_MB = "PARSE_CACHE_MAX_SIZE_MB";
+    private static final String ENV_PARSE_WATCH_ENABLED = "PARSE_WATCH_ENABLED";
+    private static final String ENV_PARSE_WATCH_MAX_ROOTS = "PARSE_WATCH_MAX_ROOTS";
+    private static final String ENV_PARSE_CACHE_DIR = "PARSE_CACHE_DIR";
+    private static final String ENV_PARSE_CACHE_DIR_MAX_ENTRIES = "PARSE_CACHE_DIR_MAX_ENTRIES";
+    private static final String ENV_PARSE_PARALLELISM = "PARSE_PARALLELISM";
+    private static final String ENV_TABLE_METADATA_CACHE_ENABLED = "TABLE_METADATA_CACHE_ENABLED";
+    private static final String ENV_TABLE_METADATA_CACHE_TTL_SECONDS = "TABLE_METADATA_CACHE_TTL_SECONDS";
+    private static final String ENV_TABLE_METADATA_WARM_UP = "TABLE_METADATA_WARM_UP";
+    private static final String ENV_SQL_TEST_PARALLELISM = "SQL_TEST_PARALLELISM";
+    private static final String ENV_SQL_TEST_QUERY_TIMEOUT_SECONDS = "SQL_TEST_QUERY_TIMEOUT_SECONDS";
+    private static final String ENV_SQL_TEST_ROLLBACK = "SQL_TEST_ROLLBACK";
+    private static final String ENV_JDBC_INIT_MODE = "JDBC_INIT_MODE";
+    private static final String ENV_JDBC_INIT_TIMEOUT_MS = "JDBC_INIT_TIMEOUT_MS";
+    private static final String ENV_JDBC_WARM_UP_CONNECTION = "JDBC_WARM_UP_CONNECTION";
+    private static final String ENV_VIRTUAL_THREADS_ENABLED = "VIRTUAL_THREADS_ENABLED";
+    private static final String ENV_METRICS_JMX_ENABLED = "METRICS_JMX_ENABLED";
+    private static final String ENV_TOOL_MAX_CONCURRENCY = "TOOL_MAX_CONCURRENCY";
+    private static final String ENV_TOOL_QUEUE_CAPACITY = "TOOL_QUEUE_CAPACITY";
+    private static final String ENV_TOOL_TIMEOUT_MS = "TOOL_TIMEOUT_MS";
+    private static final String ENV_POOL_MAX_SIZE = "POOL_MAX_SIZE";
+    private static final String ENV_POOL_BORROW_TIMEOUT_MS = "POOL_BORROW_TIMEOUT_MS";
+    private static final String ENV_POOL_VALIDATION_TIMEOUT_SECONDS = "POOL_VALIDATION_TIMEOUT_SECONDS";
+    private static final String ENV_POOL_IDLE_TIMEOUT_MS = "POOL_IDLE_TIMEOUT_MS";
+    private static final String ENV_POOL_MAX_LIFETIME_MS = "POOL_MAX_LIFETIME_MS";
+    private static final String ENV_POOL_EVICTION_INTERVAL_MS = "POOL_EVICTION_INTERVAL_MS";
 
     // 默认值
     private static final String DEFAULT_DB_TYPE = "mysql";
     private static final String DEFAULT_JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final int DEFAULT_PARSE_CACHE_MAX_ENTRIES = 5000;
+    private static final int DEFAULT_PARSE_CACHE_MAX_SIZE_MB = 256;
+    private static final int DEFAULT_PARSE_CACHE_DIR_MAX_ENTRIES = 50000;
+    private static final long DEFAULT_TABLE_METADATA_CACHE_TTL_SECONDS = 10 * 60L;
+    private static final int DEFAULT_SQL_TEST_QUERY_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_TOOL_QUEUE_CAPACITY = 64;
+    // 低于常见 MCP 客户端 60 秒的请求超时，留出返回部分结果的时间
+    private static final long DEFAULT_TOOL_TIMEOUT_MS = 50_000L;
+    private static final long DEFAULT_JDBC_INIT_TIMEOUT_MS = 30_000L;
+    private static final int DEFAULT_POOL_MAX_SIZE = 4;
+    private static final long DEFAULT_POOL_BORROW_TIMEOUT_MS = 30_000L;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT_SECONDS = 3;
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT_MS = 10 * 60_000L;
+    private static final long DEFAULT_POOL_MAX_LIFETIME_MS = 30 * 60_000L;
+    private static final long DEFAULT_POOL_EVICTION_INTERVAL_MS = 30_000L;
 
     /**
      * 校验数据库类型，如果校验失败，则退出程序
@@ -96,6 +181,255 @@ public class ConfigurationLoader {
         return config;
     }
 
+    /**
+     * 加载所有数据源的JDBC连接配置
+     *
+     * 未命名的JDBC连接配置完整时作为名为 default 的数据源；
+     * datasources 为逗号分隔的数据源名称，每个数据源的参数为 datasource.&lt;name&gt;.jdbcUrl 等系统属性
+     * 或 DATASOURCE_&lt;NAME&gt;_JDBC_URL 等环境变量（名称转为大写，非字母数字字符替换为下划线），
+     * 参数名与未命名的配置一致，配置不完整或数据库类型不支持的数据源被忽略
+     *
+     * @return 数据源名称 -> JDBC连接配置，按配置顺序排列，没有可用数据源时为空
+     */
+    public static Map<String, JdbcConnectionConfig> loadDataSourceConfigs() {
+        Map<String, JdbcConnectionConfig> configs = new LinkedHashMap<>();
+        JdbcConnectionConfig defaultConfig = loadJdbcConfig();
+        if (defaultConfig != null) {
+            configs.put(DEFAULT_DATASOURCE, defaultConfig);
+        }
+
+        String names = getConfigValue(PROP_DATASOURCES, ENV_DATASOURCES, null);
+        if (names == null) {
+            return configs;
+        }
+        for (String rawName : names.split(",")) {
+            String name = rawName.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (configs.containsKey(name)) {
+                logger.warn("Datasource {} is defined more than once, ignoring the duplicate", name);
+                continue;
+            }
+            JdbcConnectionConfig config = loadDataSourceConfig(name);
+            if (config != null) {
+                configs.put(name, config);
+            }
+        }
+        logger.info("Datasources loaded: {}", configs.keySet());
+        return configs;
+    }
+
+    /**
+     * 加载默认数据源名称，工具调用没有指定 datasource 参数时使用
+     *
+     * @return 默认数据源名称，未配置时返回null
+     */
+    public static String loadDefaultDataSourceName() {
+        return getConfigValue(PROP_DEFAULT_DATASOURCE, ENV_DEFAULT_DATASOURCE, null);
+    }
+
+    /**
+     * 加载单个命名数据源的JDBC连接配置
+     *
+     * @param name 数据源名称
+     * @return JDBC连接配置对象，配置不完整或数据库类型不支持时返回null
+     */
+    private static JdbcConnectionConfig loadDataSourceConfig(String name) {
+        String propPrefix = PROP_DATASOURCE_PREFIX + name + ".";
+        String envPrefix = ENV_DATASOURCE_PREFIX + name.toUpperCase().replaceAll("[^A-Z0-9]", "_") + "_";
+
+        String rawDbType = getConfigValue(propPrefix + PROP_DB_TYPE, envPrefix + ENV_DB_TYPE, null);
+        String dbType;
+        try {
+            dbType = validateDbType(rawDbType);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Datasource {} ignored: {}", name, e.getMessage());
+            return null;
+        }
+        JdbcConnectionConfig config = new JdbcConnectionConfig(dbType,
+                getConfigValue(propPrefix + PROP_JDBC_DRIVER, envPrefix + ENV_JDBC_DRIVER, DEFAULT_JDBC_DRIVER),
+                getConfigValue(propPrefix + PROP_JDBC_DRIVER_JAR, envPrefix + ENV_JDBC_DRIVER_JAR, null),
+                getConfigValue(propPrefix + PROP_JDBC_URL, envPrefix + ENV_JDBC_URL, null),
+                getConfigValue(propPrefix + PROP_USERNAME, envPrefix + ENV_USERNAME, null),
+                getConfigValue(propPrefix + PROP_PASSWORD, envPrefix + ENV_PASSWORD, null));
+        if (!config.isValid()) {
+            logger.warn("Datasource {} ignored, JDBC connection configuration incomplete: {}", name, config);
+            return null;
+        }
+        logger.info("Datasource {} configuration loaded successfully: {}", name, config);
+        return config;
+    }
+
+    /**
+     * 加载解析结果缓存配置
+     *
+     * @return 解析结果缓存配置对象
+     */
+    public static ParseCacheConfig loadParseCacheConfig() {
+        boolean enabled = getBooleanConfigValue(PROP_PARSE_CACHE_ENABLED, ENV_PARSE_CACHE_ENABLED, true);
+        int maxEntries = getIntConfigValue(PROP_PARSE_CACHE_MAX_ENTRIES, ENV_PARSE_CACHE_MAX_ENTRIES,
+                DEFAULT_PARSE_CACHE_MAX_ENTRIES);
+        int maxSizeMb = getIntConfigValue(PROP_PARSE_CACHE_MAX_SIZE_MB, ENV_PARSE_CACHE_MAX_SIZE_MB,
+                DEFAULT_PARSE_CACHE_MAX_SIZE_MB);
+
+        boolean watchEnabled = getBooleanConfigValue(PROP_PARSE_WATCH_ENABLED, ENV_PARSE_WATCH_ENABLED, false);
+        int watchMaxRoots = getIntConfigValue(PROP_PARSE_WATCH_MAX_ROOTS, ENV_PARSE_WATCH_MAX_ROOTS,
+                ParseCacheConfig.DEFAULT_WATCH_MAX_ROOTS);
+
+        String persistentDir = getConfigValue(PROP_PARSE_CACHE_DIR, ENV_PARSE_CACHE_DIR, null);
+        int persistentMaxEntries = getIntConfigValue(PROP_PARSE_CACHE_DIR_MAX_ENTRIES,
+                ENV_PARSE_CACHE_DIR_MAX_ENTRIES, DEFAULT_PARSE_CACHE_DIR_MAX_ENTRIES);
+
+        ParseCacheConfig config = new ParseCacheConfig(enabled, maxEntries, maxSizeMb * 1024L * 1024L,
+                watchEnabled, watchMaxRoots, persistentDir, persistentMaxEntries);
+        logger.info("Parse cache configuration loaded: {}", config);
+        return config;
+    }
+
+    /**
+     * 加载 mapper 文件解析并行度
+     *
+     * 默认为CPU核数，配置为1时在调用线程上串行解析
+     *
+     * @return 解析并行度
+     */
+    public static int loadParseParallelism() {
+        int parallelism = getIntConfigValue(PROP_PARSE_PARALLELISM, ENV_PARSE_PARALLELISM,
+                Runtime.getRuntime().availableProcessors());
+        logger.info("Parse parallelism: {}", parallelism);
+        return parallelism;
+    }
+
+    /**
+     * 加载表字段元数据缓存配置
+     *
+     * @return 表字段元数据缓存配置对象
+     */
+    public static TableMetadataCacheConfig loadTableMetadataCacheConfig() {
+        boolean enabled = getBooleanConfigValue(PROP_TABLE_METADATA_CACHE_ENABLED, ENV_TABLE_METADATA_CACHE_ENABLED,
+                true);
+        long ttlSeconds = getLongConfigValue(PROP_TABLE_METADATA_CACHE_TTL_SECONDS,
+                ENV_TABLE_METADATA_CACHE_TTL_SECONDS, DEFAULT_TABLE_METADATA_CACHE_TTL_SECONDS);
+        boolean warmUp = getBooleanConfigValue(PROP_TABLE_METADATA_WARM_UP, ENV_TABLE_METADATA_WARM_UP, false);
+
+        TableMetadataCacheConfig config = new TableMetadataCacheConfig(enabled, ttlSeconds * 1000L, warmUp);
+        logger.info("Table metadata cache configuration loaded: {}", config);
+        return config;
+    }
+
+    /**
+     * 加载 SQL 测试执行配置
+     *
+     * 并行度默认与连接池最大连接数一致
+     *
+     * @return SQL 测试执行配置对象
+     */
+    public static SqlTestConfig loadSqlTestConfig() {
+        int defaultParallelism = getIntConfigValue(PROP_POOL_MAX_SIZE, ENV_POOL_MAX_SIZE, DEFAULT_POOL_MAX_SIZE);
+        SqlTestConfig config = new SqlTestConfig(
+                getIntConfigValue(PROP_SQL_TEST_PARALLELISM, ENV_SQL_TEST_PARALLELISM, defaultParallelism),
+                getIntConfigValue(PROP_SQL_TEST_QUERY_TIMEOUT_SECONDS, ENV_SQL_TEST_QUERY_TIMEOUT_SECONDS,
+                        DEFAULT_SQL_TEST_QUERY_TIMEOUT_SECONDS),
+                getBooleanConfigValue(PROP_SQL_TEST_ROLLBACK, ENV_SQL_TEST_ROLLBACK, true));
+        logger.info("SQL test configuration loaded: {}", config);
+        return config;
+    }
+
+    /**
+     * 加载JDBC资源初始化配置
+     *
+     * 初始化时机默认为 background：服务启动时在后台线程中加载驱动并创建连接池，不阻塞 MCP 握手；
+     * eager 为服务启动时同步初始化，lazy 为首次调用需要数据库的工具时再初始化
+     *
+     * @return JDBC资源初始化配置对象
+     */
+    public static JdbcInitConfig loadJdbcInitConfig() {
+        String value = getConfigValue(PROP_JDBC_INIT_MODE, ENV_JDBC_INIT_MODE, null);
+        JdbcInitConfig.Mode mode = JdbcInitConfig.Mode.BACKGROUND;
+        if (value != null) {
+            try {
+                mode = JdbcInitConfig.Mode.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Configuration item {} is not a valid mode: {}, using default value: {}",
+                        PROP_JDBC_INIT_MODE, value, mode);
+            }
+        }
+        JdbcInitConfig config = new JdbcInitConfig(mode,
+                getLongConfigValue(PROP_JDBC_INIT_TIMEOUT_MS, ENV_JDBC_INIT_TIMEOUT_MS, DEFAULT_JDBC_INIT_TIMEOUT_MS),
+                getBooleanConfigValue(PROP_JDBC_WARM_UP_CONNECTION, ENV_JDBC_WARM_UP_CONNECTION, false));
+        logger.info("JDBC init configuration loaded: {}", config);
+        return config;
+    }
+
+    /**
+     * 加载是否使用虚拟线程执行工具调用、文件解析和 SQL 测试
+     *
+     * 运行环境低于 JDK 21 时不支持虚拟线程，始终返回false
+     *
+     * @return true表示使用虚拟线程
+     */
+    public static boolean loadVirtualThreadsEnabled() {
+        boolean enabled = getBooleanConfigValue(PROP_VIRTUAL_THREADS_ENABLED, ENV_VIRTUAL_THREADS_ENABLED, false);
+        if (enabled && !VirtualThreadUtil.isSupported()) {
+            logger.warn("Virtual threads require Java 21 or later, current version: {}, using platform threads",
+                    Runtime.version());
+            enabled = false;
+        }
+        logger.info("Virtual threads enabled: {}", enabled);
+        return enabled;
+    }
+
+    /**
+     * 加载是否通过 JMX 暴露服务运行指标
+     *
+     * @return true表示注册 JMX MBean
+     */
+    public static boolean loadMetricsJmxEnabled() {
+        boolean enabled = getBooleanConfigValue(PROP_METRICS_JMX_ENABLED, ENV_METRICS_JMX_ENABLED, false);
+        logger.info("Metrics JMX enabled: {}", enabled);
+        return enabled;
+    }
+
+    /**
+     * 加载工具调用线程池配置
+     *
+     * 最大并发数默认为CPU核数，单次调用的截止时间默认为50秒
+     *
+     * @return 工具调用线程池配置对象
+     */
+    public static ToolExecutorConfig loadToolExecutorConfig() {
+        ToolExecutorConfig config = new ToolExecutorConfig(
+                getIntConfigValue(PROP_TOOL_MAX_CONCURRENCY, ENV_TOOL_MAX_CONCURRENCY,
+                        Runtime.getRuntime().availableProcessors()),
+                getIntConfigValue(PROP_TOOL_QUEUE_CAPACITY, ENV_TOOL_QUEUE_CAPACITY, DEFAULT_TOOL_QUEUE_CAPACITY),
+                getLongConfigValue(PROP_TOOL_TIMEOUT_MS, ENV_TOOL_TIMEOUT_MS, DEFAULT_TOOL_TIMEOUT_MS));
+        logger.info("Tool executor configuration loaded: {}", config);
+        return config;
+    }
+
+    /**
+     * 加载JDBC连接池配置
+     *
+     * @return JDBC连接池配置对象
+     */
+    public static JdbcPoolConfig loadJdbcPoolConfig() {
+        JdbcPoolConfig config = new JdbcPoolConfig(
+                getIntConfigValue(PROP_POOL_MAX_SIZE, ENV_POOL_MAX_SIZE, DEFAULT_POOL_MAX_SIZE),
+                getLongConfigValue(PROP_POOL_BORROW_TIMEOUT_MS, ENV_POOL_BORROW_TIMEOUT_MS,
+                        DEFAULT_POOL_BORROW_TIMEOUT_MS),
+                getIntConfigValue(PROP_POOL_VALIDATION_TIMEOUT_SECONDS, ENV_POOL_VALIDATION_TIMEOUT_SECONDS,
+                        DEFAULT_POOL_VALIDATION_TIMEOUT_SECONDS),
+                getLongConfigValue(PROP_POOL_IDLE_TIMEOUT_MS, ENV_POOL_IDLE_TIMEOUT_MS,
+                        DEFAULT_POOL_IDLE_TIMEOUT_MS),
+                getLongConfigValue(PROP_POOL_MAX_LIFETIME_MS, ENV_POOL_MAX_LIFETIME_MS,
+                        DEFAULT_POOL_MAX_LIFETIME_MS),
+                getLongConfigValue(PROP_POOL_EVICTION_INTERVAL_MS, ENV_POOL_EVICTION_INTERVAL_MS,
+                        DEFAULT_POOL_EVICTION_INTERVAL_MS));
+        logger.info("JDBC pool configuration loaded: {}", config);
+        return config;
+    }
+
     /**
      * 获取配置值
      *
@@ -134,6 +468,78 @@ public class ConfigurationLoader {
         return null;
     }
 
+    /**
+     * 获取整数类型的配置值
+     *
+     * 配置值无法解析为正整数时使用默认值
+     *
+     * @param propertyName 系统属性名称
+     * @param envName      环境变量名称
+     * @param defaultValue 默认值
+     * @return 配置值
+     */
+    public static int getIntConfigValue(String propertyName, String envName, int defaultValue) {
+        String value = getConfigValue(propertyName, envName, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue > 0) {
+                return intValue;
+            }
+            logger.warn("Configuration item {} must be positive, using default value: {}", propertyName, defaultValue);
+        } catch (NumberFormatException e) {
+            logger.warn("Configuration item {} is not a valid integer: {}, using default value: {}", propertyName,
+                    value, defaultValue);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 获取长整数类型的配置值
+     *
+     * 配置值无法解析为正整数时使用默认值
+     *
+     * @param propertyName 系统属性名称
+     * @param envName      环境变量名称
+     * @param defaultValue 默认值
+     * @return 配置值
+     */
+    public static long getLongConfigValue(String propertyName, String envName, long defaultValue) {
+        String value = getConfigValue(propertyName, envName, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long longValue = Long.parseLong(value);
+            if (longValue > 0) {
+                return longValue;
+            }
+            logger.warn("Configuration item {} must be positive, using default value: {}", propertyName, defaultValue);
+        } catch (NumberFormatException e) {
+            logger.warn("Configuration item {} is not a valid integer: {}, using default value: {}", propertyName,
+                    value, defaultValue);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 获取布尔类型的配置值
+     *
+     * @param propertyName 系统属性名称
+     * @param envName      环境变量名称
+     * @param defaultValue 默认值
+     * @return 配置值
+     */
+    public static boolean getBooleanConfigValue(String propertyName, String envName, boolean defaultValue) {
+        String value = getConfigValue(propertyName, envName, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
     /**
      * 掩码敏感信息
      *
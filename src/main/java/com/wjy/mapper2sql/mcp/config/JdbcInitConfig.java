@@ -0,0 +1,77 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * JDBC资源初始化配置类
+ *
+ * 用于控制JDBC驱动加载和连接池创建的时机，以及需要数据库的工具等待初始化完成的最长时间
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcInitConfig {
+
+    /**
+     * 初始化时机
+     */
+    public enum Mode {
+        // 服务启动时同步初始化
+        EAGER,
+        // 首次调用需要数据库的工具时初始化
+        LAZY,
+        // 服务启动时在后台线程中初始化
+        BACKGROUND
+    }
+
+    private final Mode mode;
+    private final long timeoutMs;
+    private final boolean warmUpConnection;
+
+    /**
+     * 构造函数
+     *
+     * @param mode             初始化时机
+     * @param timeoutMs        后台初始化时，需要数据库的工具等待初始化完成的最长时间（毫秒）
+     * @param warmUpConnection 连接池创建后是否预先建立第一个连接
+     */
+    public JdbcInitConfig(Mode mode, long timeoutMs, boolean warmUpConnection) {
+        this.mode = mode;
+        this.timeoutMs = timeoutMs;
+        this.warmUpConnection = warmUpConnection;
+    }
+
+    /**
+     * 获取初始化时机
+     *
+     * @return 初始化时机
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 获取等待初始化完成的最长时间
+     *
+     * @return 等待时间（毫秒）
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * 连接池创建后是否预先建立第一个连接
+     *
+     * @return true表示预先建立连接
+     */
+    public boolean isWarmUpConnection() {
+        return warmUpConnection;
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcInitConfig{" +
+                "mode=" + mode +
+                ", timeoutMs=" + timeoutMs +
+                ", warmUpConnection=" + warmUpConnection +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * JDBC连接池配置类
+ *
+ * 用于控制基于动态加载驱动创建的连接池的大小和连接回收策略
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcPoolConfig {
+
+    private final int maxPoolSize;
+    private final long borrowTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final long evictionIntervalMs;
+
+    /**
+     * 构造函数
+     *
+     * @param maxPoolSize              连接池最大连接数
+     * @param borrowTimeoutMs          获取连接的最大等待时间（毫秒）
+     * @param validationTimeoutSeconds 借出连接前校验连接有效性的超时时间（秒）
+     * @param idleTimeoutMs            空闲连接的最大存活时间（毫秒）
+     * @param maxLifetimeMs            连接的最大生命周期（毫秒）
+     * @param evictionIntervalMs       空闲连接回收任务的执行间隔（毫秒）
+     */
+    public JdbcPoolConfig(int maxPoolSize, long borrowTimeoutMs, int validationTimeoutSeconds,
+            long idleTimeoutMs, long maxLifetimeMs, long evictionIntervalMs) {
+        this.maxPoolSize = maxPoolSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.evictionIntervalMs = evictionIntervalMs;
+    }
+
+    /**
+     * 获取连接池最大连接数
+     *
+     * @return 最大连接数
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * 获取连接的最大等待时间
+     *
+     * @return 最大等待时间（毫秒）
+     */
+    public long getBorrowTimeoutMs() {
+        return borrowTimeoutMs;
+    }
+
+    /**
+     * 获取校验连接有效性的超时时间
+     *
+     * @return 超时时间（秒）
+     */
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    /**
+     * 获取空闲连接的最大存活时间
+     *
+     * @return 最大存活时间（毫秒）
+     */
+    public long getIdleTimeoutMs() {
+        return idleTimeoutMs;
+    }
+
+    /**
+     * 获取连接的最大生命周期
+     *
+     * @return 最大生命周期（毫秒）
+     */
+    public long getMaxLifetimeMs() {
+        return maxLifetimeMs;
+    }
+
+    /**
+     * 获取空闲连接回收任务的执行间隔
+     *
+     * @return 执行间隔（毫秒）
+     */
+    public long getEvictionIntervalMs() {
+        return evictionIntervalMs;
+    }
+
+    @Override
+    public String toString() {
+        return "JdbcPoolConfig{" +
+                "maxPoolSize=" + maxPoolSize +
+                ", borrowTimeoutMs=" + borrowTimeoutMs +
+                ", validationTimeoutSeconds=" + validationTimeoutSeconds +
+                ", idleTimeoutMs=" + idleTimeoutMs +
+                ", maxLifetimeMs=" + maxLifetimeMs +
+                ", evictionIntervalMs=" + evictionIntervalMs +
+                '}';
+    }
+}
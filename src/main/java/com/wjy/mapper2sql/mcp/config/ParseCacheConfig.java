@@ -0,0 +1,155 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * 解析结果缓存配置类
+ *
+ * 用于控制 mapper 文件解析结果的进程内缓存
+ * 缓存按条目数和估算内存占用两个维度限制大小，超出后按LRU淘汰
+ * 配置持久化目录后，解析结果同时写入磁盘，服务重启后未变化的文件不再重新解析
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class ParseCacheConfig {
+
+    /**
+     * 默认最多监听的根目录数
+     */
+    public static final int DEFAULT_WATCH_MAX_ROOTS = 64;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final boolean watchEnabled;
+    private final int watchMaxRoots;
+    private final String persistentDir;
+    private final int persistentMaxEntries;
+
+    /**
+     * 构造函数，不启用持久化
+     *
+     * @param enabled        是否启用缓存
+     * @param maxEntries     最大缓存条目数（每个mapper文件一个条目）
+     * @param maxWeightBytes 缓存估算内存占用上限（字节）
+     * @param watchEnabled   是否监听已解析目录的文件变化
+     */
+    public ParseCacheConfig(boolean enabled, int maxEntries, long maxWeightBytes, boolean watchEnabled) {
+        this(enabled, maxEntries, maxWeightBytes, watchEnabled, null, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param enabled              是否启用缓存
+     * @param maxEntries           最大缓存条目数（每个mapper文件一个条目）
+     * @param maxWeightBytes       缓存估算内存占用上限（字节）
+     * @param watchEnabled         是否监听已解析目录的文件变化
+     * @param persistentDir        持久化目录，为null表示不持久化
+     * @param persistentMaxEntries 持久化的最大条目数
+     */
+    public ParseCacheConfig(boolean enabled, int maxEntries, long maxWeightBytes, boolean watchEnabled,
+            String persistentDir, int persistentMaxEntries) {
+        this(enabled, maxEntries, maxWeightBytes, watchEnabled, DEFAULT_WATCH_MAX_ROOTS, persistentDir,
+                persistentMaxEntries);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param enabled              是否启用缓存
+     * @param maxEntries           最大缓存条目数（每个mapper文件一个条目）
+     * @param maxWeightBytes       缓存估算内存占用上限（字节）
+     * @param watchEnabled         是否监听已解析目录的文件变化
+     * @param watchMaxRoots        最多监听的根目录数
+     * @param persistentDir        持久化目录，为null表示不持久化
+     * @param persistentMaxEntries 持久化的最大条目数
+     */
+    public ParseCacheConfig(boolean enabled, int maxEntries, long maxWeightBytes, boolean watchEnabled,
+            int watchMaxRoots, String persistentDir, int persistentMaxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.watchEnabled = watchEnabled;
+        this.watchMaxRoots = watchMaxRoots;
+        this.persistentDir = persistentDir;
+        this.persistentMaxEntries = persistentMaxEntries;
+    }
+
+    /**
+     * 是否启用缓存
+     *
+     * @return true表示启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取最大缓存条目数
+     *
+     * @return 最大缓存条目数
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * 获取缓存估算内存占用上限
+     *
+     * @return 内存占用上限（字节）
+     */
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    /**
+     * 是否监听已解析目录的文件变化
+     *
+     * 启用后目录下的解析结果由文件变化事件驱动失效，不再每次遍历目录和校验文件指纹
+     *
+     * @return true表示启用
+     */
+    public boolean isWatchEnabled() {
+        return watchEnabled;
+    }
+
+    /**
+     * 获取最多监听的根目录数，超出后注销最久未访问的根目录
+     *
+     * @return 最多监听的根目录数
+     */
+    public int getWatchMaxRoots() {
+        return watchMaxRoots;
+    }
+
+    /**
+     * 获取持久化目录
+     *
+     * @return 持久化目录，为null表示不持久化
+     */
+    public String getPersistentDir() {
+        return persistentDir;
+    }
+
+    /**
+     * 获取持久化的最大条目数，超出后启动时只保留最近写入的条目
+     *
+     * @return 最大条目数
+     */
+    public int getPersistentMaxEntries() {
+        return persistentMaxEntries;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseCacheConfig{" +
+                "enabled=" + enabled +
+                ", maxEntries=" + maxEntries +
+                ", maxWeightBytes=" + maxWeightBytes +
+                ", watchEnabled=" + watchEnabled +
+                ", watchMaxRoots=" + watchMaxRoots +
+                ", persistentDir='" + persistentDir + '\'' +
+                ", persistentMaxEntries=" + persistentMaxEntries +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * SQL 测试执行配置类
+ *
+ * 用于控制 parse_mapper_and_run_test 执行 SQL 的并行度、单条语句超时和事务回滚
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlTestConfig {
+
+    private final int parallelism;
+    private final int queryTimeoutSeconds;
+    private final boolean rollback;
+
+    /**
+     * 构造函数
+     *
+     * @param parallelism         并行执行 SQL 的线程数，实际不超过连接池大小
+     * @param queryTimeoutSeconds 单条语句的执行超时时间（秒）
+     * @param rollback            是否在事务中执行每条语句并回滚
+     */
+    public SqlTestConfig(int parallelism, int queryTimeoutSeconds, boolean rollback) {
+        this.parallelism = parallelism;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.rollback = rollback;
+    }
+
+    /**
+     * 获取并行执行 SQL 的线程数
+     *
+     * @return 线程数
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 获取单条语句的执行超时时间
+     *
+     * @return 超时时间（秒）
+     */
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    /**
+     * 是否在事务中执行每条语句并回滚
+     *
+     * @return true表示回滚，DML 语句不会持久化
+     */
+    public boolean isRollback() {
+        return rollback;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlTestConfig{" +
+                "parallelism=" + parallelism +
+                ", queryTimeoutSeconds=" + queryTimeoutSeconds +
+                ", rollback=" + rollback +
+                '}';
+    }
+}
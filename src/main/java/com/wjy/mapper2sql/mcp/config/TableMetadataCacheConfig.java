@@ -0,0 +1,65 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * 表字段元数据缓存配置类
+ *
+ * 用于控制参数模拟时表字段类型查询结果的缓存
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class TableMetadataCacheConfig {
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final boolean warmUpEnabled;
+
+    /**
+     * 构造函数
+     *
+     * @param enabled       是否启用缓存
+     * @param ttlMs         缓存条目的有效期（毫秒）
+     * @param warmUpEnabled 启动时是否预加载当前 schema 下所有表的字段类型
+     */
+    public TableMetadataCacheConfig(boolean enabled, long ttlMs, boolean warmUpEnabled) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.warmUpEnabled = warmUpEnabled;
+    }
+
+    /**
+     * 是否启用缓存
+     *
+     * @return true表示启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取缓存条目的有效期
+     *
+     * @return 有效期（毫秒）
+     */
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * 启动时是否预加载
+     *
+     * @return true表示预加载
+     */
+    public boolean isWarmUpEnabled() {
+        return warmUpEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return "TableMetadataCacheConfig{" +
+                "enabled=" + enabled +
+                ", ttlMs=" + ttlMs +
+                ", warmUpEnabled=" + warmUpEnabled +
+                '}';
+    }
+}
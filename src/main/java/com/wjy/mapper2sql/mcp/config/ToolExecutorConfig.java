@@ -0,0 +1,75 @@
+package com.wjy.mapper2sql.mcp.config;
+
+/**
+ * 工具调用线程池配置类
+ *
+ * 用于限制同时执行的工具调用数，HTTP 模式下多个客户端共用一个服务实例时避免过载
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class ToolExecutorConfig {
+
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final long timeoutMs;
+
+    /**
+     * 构造函数，工具调用不设置截止时间
+     *
+     * @param maxConcurrency 同时执行的最大工具调用数
+     * @param queueCapacity  等待执行的最大工具调用数，超出后直接返回错误
+     */
+    public ToolExecutorConfig(int maxConcurrency, int queueCapacity) {
+        this(maxConcurrency, queueCapacity, 0);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param maxConcurrency 同时执行的最大工具调用数
+     * @param queueCapacity  等待执行的最大工具调用数，超出后直接返回错误
+     * @param timeoutMs      单次工具调用的截止时间（毫秒，包括排队时间），不大于0时不限制
+     */
+    public ToolExecutorConfig(int maxConcurrency, int queueCapacity, long timeoutMs) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 获取同时执行的最大工具调用数
+     *
+     * @return 最大工具调用数
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 获取等待执行的最大工具调用数
+     *
+     * @return 等待队列容量
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * 获取单次工具调用的截止时间
+     *
+     * @return 截止时间（毫秒），不大于0时不限制
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ToolExecutorConfig{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", queueCapacity=" + queueCapacity +
+                ", timeoutMs=" + timeoutMs +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+/**
+ * 相对于基准版本发生变化的文件
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class ChangedFile {
+
+    /**
+     * 变更类型，重命名按删除和新增处理，类型变更和未合并等状态按修改处理
+     */
+    public enum Status {
+        ADDED, MODIFIED, DELETED;
+
+        /**
+         * 解析 git diff --name-status 输出的状态
+         *
+         * @param status 状态字母，例如 A、M、D
+         * @return 变更类型
+         */
+        public static Status of(String status) {
+            if (status.startsWith("A")) {
+                return ADDED;
+            }
+            if (status.startsWith("D")) {
+                return DELETED;
+            }
+            return MODIFIED;
+        }
+    }
+
+    // 相对于工作区根目录的路径，使用 / 作为分隔符
+    private final String path;
+    private final Status status;
+
+    public ChangedFile(String path, Status status) {
+        this.path = path;
+        this.status = status;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * 基准版本中是否存在该文件
+     *
+     * @return true表示存在
+     */
+    public boolean existsInBase() {
+        return status != Status.ADDED;
+    }
+
+    /**
+     * 工作区中是否存在该文件
+     *
+     * @return true表示存在
+     */
+    public boolean existsInWorkingTree() {
+        return status != Status.DELETED;
+    }
+
+    @Override
+    public String toString() {
+        return status + " " + path;
+    }
+}
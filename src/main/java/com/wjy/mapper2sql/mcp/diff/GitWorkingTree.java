@@ -0,0 +1,223 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地 git 工作区
+ *
+ * 通过本地 git 命令读取工作区相对于某个版本的变更文件和历史版本的文件内容，不访问远程仓库：
+ * 1）变更文件包括已提交、已暂存和未暂存的修改，以及未被忽略的未跟踪文件
+ * 2）重命名按删除旧文件和新增新文件处理
+ *
+ * 每条命令有执行超时时间，工具调用的截止时间到达或调用被取消时终止正在执行的命令
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class GitWorkingTree {
+
+    private static final Logger logger = LoggerFactory.getLogger(GitWorkingTree.class);
+
+    public static final long DEFAULT_COMMAND_TIMEOUT_MS = 60_000;
+
+    private final Path topLevel;
+    private final long commandTimeoutMs;
+
+    private GitWorkingTree(Path topLevel, long commandTimeoutMs) {
+        this.topLevel = topLevel;
+        this.commandTimeoutMs = commandTimeoutMs;
+    }
+
+    /**
+     * 打开路径所在的 git 工作区
+     *
+     * @param path             工作区中的文件或目录
+     * @param commandTimeoutMs 每条 git 命令的超时时间（毫秒）
+     * @return git 工作区
+     * @throws IOException 路径不存在、不在 git 工作区中或 git 命令执行失败
+     */
+    public static GitWorkingTree open(Path path, long commandTimeoutMs) throws IOException {
+        if (!Files.exists(path)) {
+            throw new IOException("Path not found: " + path);
+        }
+        Path dir = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        String output;
+        try {
+            output = run(dir, commandTimeoutMs, "rev-parse", "--show-toplevel").trim();
+        } catch (IOException e) {
+            throw new IOException("Not a git working tree: " + path + ", " + e.getMessage(), e);
+        }
+        if (output.isEmpty()) {
+            throw new IOException("Not a git working tree: " + path);
+        }
+        return new GitWorkingTree(Path.of(output).toRealPath(), commandTimeoutMs);
+    }
+
+    /**
+     * 获取工作区根目录
+     *
+     * @return 工作区根目录的真实路径
+     */
+    public Path getTopLevel() {
+        return topLevel;
+    }
+
+    /**
+     * 解析版本号
+     *
+     * @param revision 分支、标签、提交或 HEAD~1 等版本表达式
+     * @return 提交的完整哈希
+     * @throws IOException 版本不存在或 git 命令执行失败
+     */
+    public String resolveCommit(String revision) throws IOException {
+        if (revision == null || revision.trim().isEmpty() || revision.trim().startsWith("-")) {
+            throw new IOException("Invalid revision: " + revision);
+        }
+        try {
+            return run(topLevel, commandTimeoutMs, "rev-parse", "--verify", "--quiet",
+                    revision.trim() + "^{commit}").trim();
+        } catch (IOException e) {
+            throw new IOException("Unknown revision: " + revision.trim(), e);
+        }
+    }
+
+    /**
+     * 列出路径下相对于指定提交发生变化的文件
+     *
+     * @param commit 基准提交
+     * @param scope  工作区中的文件或目录，只列出该路径下的变更
+     * @return 变更文件，按路径去重，顺序与 git 输出一致
+     * @throws IOException git 命令执行失败
+     */
+    public List<ChangedFile> changedFiles(String commit, Path scope) throws IOException {
+        String pathSpec = pathSpec(scope);
+        Map<String, ChangedFile> changed = new LinkedHashMap<>();
+        // -z 输出为 状态\0路径\0 交替，路径不转义
+        String[] diff = split(run(topLevel, commandTimeoutMs, "diff", "--name-status", "--no-renames", "-z", commit,
+                "--", pathSpec));
+        for (int i = 0; i + 1 < diff.length; i += 2) {
+            changed.put(diff[i + 1], new ChangedFile(diff[i + 1], ChangedFile.Status.of(diff[i])));
+        }
+        for (String path : split(run(topLevel, commandTimeoutMs, "ls-files", "--others", "--exclude-standard", "-z",
+                "--", pathSpec))) {
+            changed.putIfAbsent(path, new ChangedFile(path, ChangedFile.Status.ADDED));
+        }
+        return new ArrayList<>(changed.values());
+    }
+
+    /**
+     * 读取文件在指定提交中的内容
+     *
+     * @param commit 提交
+     * @param path   相对于工作区根目录的路径，使用 / 作为分隔符
+     * @return 文件内容
+     * @throws IOException 文件在该提交中不存在或 git 命令执行失败
+     */
+    public byte[] show(String commit, String path) throws IOException {
+        return runForBytes(topLevel, commandTimeoutMs, "show", commit + ":" + path);
+    }
+
+    /**
+     * 获取变更文件在工作区中的路径
+     *
+     * @param file 变更文件
+     * @return 工作区中的路径，文件已删除时该路径不存在
+     */
+    public Path resolve(ChangedFile file) {
+        return topLevel.resolve(file.getPath());
+    }
+
+    private String pathSpec(Path scope) throws IOException {
+        Path relative = topLevel.relativize(scope.toRealPath());
+        if (relative.toString().isEmpty()) {
+            return ".";
+        }
+        if (relative.startsWith("..")) {
+            throw new IOException("Path is outside of the git working tree " + topLevel + ": " + scope);
+        }
+        // 按字面路径匹配，路径中的 * ? [ 不作为通配符
+        return ":(literal)" + relative.toString().replace('\\', '/');
+    }
+
+    private static String[] split(String output) {
+        return output.isEmpty() ? new String[0] : output.split("\0");
+    }
+
+    private static String run(Path dir, long timeoutMs, String... args) throws IOException {
+        return new String(runForBytes(dir, timeoutMs, args), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] runForBytes(Path dir, long timeoutMs, String... args) throws IOException {
+        List<String> command = new ArrayList<>(args.length + 3);
+        command.add("git");
+        command.add("-C");
+        command.add(dir.toString());
+        command.addAll(Arrays.asList(args));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        // 不使用凭据提示，命令都只读取本地仓库
+        builder.environment().put("GIT_TERMINAL_PROMPT", "0");
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            throw new IOException("Failed to run git, please make sure git is installed: " + e.getMessage(), e);
+        }
+
+        // 超时后终止进程，读取输出的线程随之结束
+        CompletableFuture<Void> timeout = CompletableFuture.runAsync(process::destroyForcibly,
+                CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS));
+        ToolDeadline deadline = ToolDeadline.current();
+        try (ToolDeadline.Registration ignored = deadline.onCancel(process::destroyForcibly)) {
+            // 标准错误在另一个线程中读取，避免输出较多时阻塞 git 进程
+            CompletableFuture<byte[]> stderr = CompletableFuture.supplyAsync(() -> readQuietly(process.getErrorStream()));
+            byte[] stdout;
+            try (InputStream in = process.getInputStream()) {
+                stdout = in.readAllBytes();
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                if (timeout.isDone()) {
+                    throw new IOException("git " + args[0] + " timed out after " + timeoutMs + " ms");
+                }
+                if (deadline.isExpired()) {
+                    throw new IOException("git " + args[0] + " cancelled, deadline reached");
+                }
+                String message = new String(stderr.join(), StandardCharsets.UTF_8).trim();
+                logger.debug("git {} exited with {}: {}", command, exitCode, message);
+                throw new IOException("git " + args[0] + " failed: "
+                        + (message.isEmpty() ? "exit code " + exitCode : message));
+            }
+            return stdout;
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("git " + args[0] + " interrupted", e);
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    private static byte[] readQuietly(InputStream in) {
+        try (InputStream input = in) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.jdbc.ConnectionProvider;
+import com.wjy.mapper2sql.mcp.jdbc.SqlTestExecutor;
+import com.wjy.mapper2sql.mcp.parse.MapperParser;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * mapper 语句级差异分析器
+ *
+ * 只处理相对于基准版本发生变化的 mapper XML 文件：
+ * 1）通过本地 git 列出路径下变化的 XML 文件（含未提交的修改和未跟踪的文件）
+ * 2）基准版本的文件内容导出为临时文件后解析，工作区的文件使用解析结果缓存解析
+ * 3）按 namespace 和语句 id 对应两边的语句，比较格式化后未模拟参数的 SQL，得到新增、修改和删除的语句，
+ *    语句在文件之间移动且 SQL 未变化时不算变化
+ * 4）需要测试时只对新增和修改的语句模拟参数并执行测试
+ *
+ * 任意一边解析失败的文件记录错误信息后跳过，不影响其他文件的比较
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperDiffAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperDiffAnalyzer.class);
+
+    private final MapperParser mapperParser;
+    private final long gitCommandTimeoutMs;
+
+    /**
+     * 构造函数
+     *
+     * @param mapperParser        解析器，测试时使用该解析器的表字段元数据模拟参数
+     * @param gitCommandTimeoutMs 每条 git 命令的超时时间（毫秒）
+     */
+    public MapperDiffAnalyzer(MapperParser mapperParser, long gitCommandTimeoutMs) {
+        this.mapperParser = mapperParser;
+        this.gitCommandTimeoutMs = gitCommandTimeoutMs;
+    }
+
+    /**
+     * 比较路径下的 mapper 语句与基准版本的差异
+     *
+     * @param filePath     git 工作区中的 mapper XML 文件或目录路径
+     * @param baseRevision 基准版本，例如 origin/main、HEAD~1 或提交哈希
+     * @param dbType       数据库类型
+     * @return 语句级差异，截止时间到达时只包含已比较的文件
+     * @throws Exception 路径不在 git 工作区中、版本不存在或读取基准版本的文件失败
+     */
+    public MapperDiffResult diff(String filePath, String baseRevision, DbType dbType) throws Exception {
+        ToolDeadline deadline = ToolDeadline.current();
+        GitWorkingTree git = GitWorkingTree.open(Paths.get(filePath), gitCommandTimeoutMs);
+        String commit = git.resolveCommit(baseRevision);
+        List<ChangedFile> files = git.changedFiles(commit, Paths.get(filePath)).stream()
+                .filter(file -> file.getPath().toLowerCase(Locale.ROOT).endsWith(".xml"))
+                .collect(Collectors.toList());
+        logger.info("{} changed XML files under {} since {} ({})", files.size(), filePath, baseRevision, commit);
+
+        Map<String, Statement> baseStatements = new LinkedHashMap<>();
+        Map<String, Statement> currentStatements = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        boolean truncated = false;
+        Path snapshotDir = Files.createTempDirectory("mapper2sql-diff-");
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                if (deadline.isExpired()) {
+                    logger.warn("Deadline reached, compared {} of {} changed files", i, files.size());
+                    truncated = true;
+                    break;
+                }
+                ChangedFile file = files.get(i);
+                MapperResult base = null;
+                if (file.existsInBase()) {
+                    // 保留原文件名，每个文件使用单独的子目录避免重名
+                    Path snapshot = Files.createDirectory(snapshotDir.resolve(String.valueOf(i)))
+                            .resolve(Paths.get(file.getPath()).getFileName());
+                    Files.write(snapshot, git.show(commit, file.getPath()));
+                    try {
+                        base = mapperParser.parseSnapshot(snapshot, dbType);
+                    } catch (Exception e) {
+                        recordError(errors, file.getPath(), "Failed to parse base version: ", e);
+                        continue;
+                    }
+                }
+                MapperResult current = null;
+                Path workingFile = git.resolve(file);
+                if (file.existsInWorkingTree() && Files.isRegularFile(workingFile)) {
+                    try {
+                        current = mapperParser.parseFile(workingFile, dbType);
+                    } catch (Exception e) {
+                        recordError(errors, file.getPath(), "Failed to parse working tree version: ", e);
+                        continue;
+                    }
+                }
+                // 两边都解析成功后再收集，避免只有一边的语句被当作新增或删除
+                collect(base, file.getPath(), baseStatements);
+                collect(current, file.getPath(), currentStatements);
+            }
+        } finally {
+            deleteQuietly(snapshotDir);
+        }
+
+        List<StatementChange> changes = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<String, Statement> entry : currentStatements.entrySet()) {
+            Statement current = entry.getValue();
+            Statement base = baseStatements.get(entry.getKey());
+            if (base == null) {
+                changes.add(new StatementChange(StatementChange.Type.ADDED, current.namespace, current.id,
+                        current.file, null, current.sql));
+            } else if (!base.sql.equals(current.sql)) {
+                changes.add(new StatementChange(StatementChange.Type.MODIFIED, current.namespace, current.id,
+                        current.file, base.sql, current.sql));
+            } else {
+                unchanged++;
+            }
+        }
+        for (Map.Entry<String, Statement> entry : baseStatements.entrySet()) {
+            if (!currentStatements.containsKey(entry.getKey())) {
+                Statement base = entry.getValue();
+                changes.add(new StatementChange(StatementChange.Type.REMOVED, base.namespace, base.id, base.file,
+                        base.sql, null));
+            }
+        }
+        return new MapperDiffResult(baseRevision.trim(), commit, git.getTopLevel(), files.size(), unchanged,
+                changes, errors, truncated);
+    }
+
+    private static void recordError(Map<String, String> errors, String file, String prefix, Exception e) {
+        logger.warn("Skipped changed mapper file {}: {}{}", file, prefix, e.getMessage());
+        errors.put(file, prefix + e.getMessage());
+    }
+
+    /**
+     * 对新增和修改的语句模拟参数并执行测试
+     *
+     * 每个文件只解析一次（使用解析结果缓存），并且只对需要测试的语句模拟参数
+     *
+     * @param diff               语句级差异
+     * @param dbType             数据库类型
+     * @param connectionProvider 数据库连接提供者
+     * @param sqlTestExecutor    SQL 测试执行器
+     * @return 新增和修改的语句附带模拟参数后的 SQL 和测试结果
+     * @throws Exception 解析失败或测试被中断
+     */
+    public MapperDiffResult test(MapperDiffResult diff, DbType dbType, ConnectionProvider connectionProvider,
+            SqlTestExecutor sqlTestExecutor) throws Exception {
+        Map<String, List<String>> statementsByFile = new LinkedHashMap<>();
+        for (StatementChange change : diff.getChanges()) {
+            if (change.needsTest()) {
+                statementsByFile.computeIfAbsent(change.getFile(), file -> new ArrayList<>()).add(change.getId());
+            }
+        }
+        List<MapperResult> mocked = new ArrayList<>(statementsByFile.size());
+        List<String> mockedFiles = new ArrayList<>(statementsByFile.size());
+        for (Map.Entry<String, List<String>> entry : statementsByFile.entrySet()) {
+            MapperResult info = mapperParser.parseStatements(diff.getWorkingTree().resolve(entry.getKey()),
+                    entry.getValue(), dbType, true, connectionProvider);
+            if (info != null) {
+                mocked.add(info);
+                mockedFiles.add(entry.getKey());
+            }
+        }
+        List<MapperResult> tested = sqlTestExecutor.runTests(mocked, connectionProvider);
+
+        Map<String, MapperResult> testedByFile = new LinkedHashMap<>();
+        for (int i = 0; i < tested.size(); i++) {
+            testedByFile.put(mockedFiles.get(i), tested.get(i));
+        }
+        List<StatementChange> changes = new ArrayList<>(diff.getChanges().size());
+        for (StatementChange change : diff.getChanges()) {
+            MapperResult info = change.needsTest() ? testedByFile.get(change.getFile()) : null;
+            int index = info != null ? info.indexOf(change.getId()) : -1;
+            if (index < 0) {
+                changes.add(change);
+                continue;
+            }
+            String testMsg = info.getTestMsg(index);
+            changes.add(change.withTestResult(info.getEffectiveSql(index), info.getTestResult(index),
+                    testMsg != null ? testMsg : ""));
+        }
+        return diff.withChanges(changes, ToolDeadline.current().isExpired());
+    }
+
+    /**
+     * 按 namespace + 语句 id 收集文件中的语句，语句按 id 排序
+     */
+    private static void collect(MapperResult info, String file, Map<String, Statement> statements) {
+        if (info == null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : new TreeMap<>(info.toSqlIdMap()).entrySet()) {
+            statements.put(info.getNamespace() + "." + entry.getKey(),
+                    new Statement(info.getNamespace(), entry.getKey(), file, entry.getValue()));
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.debug("Failed to delete {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("Failed to delete {}", dir, e);
+        }
+    }
+
+    /**
+     * 一侧版本中的语句
+     */
+    private static final class Statement {
+        private final String namespace;
+        private final String id;
+        private final String file;
+        private final String sql;
+
+        private Statement(String namespace, String id, String file, String sql) {
+            this.namespace = namespace;
+            this.id = id;
+            this.file = file;
+            this.sql = sql;
+        }
+    }
+}
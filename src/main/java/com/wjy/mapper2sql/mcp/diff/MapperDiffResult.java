@@ -0,0 +1,93 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * mapper 语句级差异结果
+ *
+ * 截止时间到达时只包含已比较的文件，truncated 为true
+ * 基准版本或工作区中解析失败的文件记录在 errors 中，不参与比较
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperDiffResult {
+
+    private final String baseRevision;
+    private final String baseCommit;
+    // git 工作区根目录，语句所在文件的路径相对于该目录
+    private final Path workingTree;
+    // 发生变化的 mapper XML 文件数（按文件名过滤后）
+    private final int changedFiles;
+    // 变化的文件中 SQL 未变化的语句数
+    private final int unchangedStatements;
+    private final List<StatementChange> changes;
+    // 解析失败的文件（相对于工作区根目录的路径） -> 错误信息
+    private final Map<String, String> errors;
+    private final boolean truncated;
+
+    public MapperDiffResult(String baseRevision, String baseCommit, Path workingTree, int changedFiles,
+            int unchangedStatements, List<StatementChange> changes, boolean truncated) {
+        this(baseRevision, baseCommit, workingTree, changedFiles, unchangedStatements, changes,
+                Collections.emptyMap(), truncated);
+    }
+
+    public MapperDiffResult(String baseRevision, String baseCommit, Path workingTree, int changedFiles,
+            int unchangedStatements, List<StatementChange> changes, Map<String, String> errors, boolean truncated) {
+        this.baseRevision = baseRevision;
+        this.baseCommit = baseCommit;
+        this.workingTree = workingTree;
+        this.changedFiles = changedFiles;
+        this.unchangedStatements = unchangedStatements;
+        this.changes = changes;
+        this.errors = errors;
+        this.truncated = truncated;
+    }
+
+    /**
+     * 用带测试结果的语句变化替换
+     *
+     * @param changes   带测试结果的语句变化
+     * @param truncated SQL 测试是否被截断
+     * @return 新的差异结果
+     */
+    public MapperDiffResult withChanges(List<StatementChange> changes, boolean truncated) {
+        return new MapperDiffResult(baseRevision, baseCommit, workingTree, changedFiles, unchangedStatements, changes,
+                errors, this.truncated || truncated);
+    }
+
+    public String getBaseRevision() {
+        return baseRevision;
+    }
+
+    public String getBaseCommit() {
+        return baseCommit;
+    }
+
+    public Path getWorkingTree() {
+        return workingTree;
+    }
+
+    public int getChangedFiles() {
+        return changedFiles;
+    }
+
+    public int getUnchangedStatements() {
+        return unchangedStatements;
+    }
+
+    public List<StatementChange> getChanges() {
+        return changes;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
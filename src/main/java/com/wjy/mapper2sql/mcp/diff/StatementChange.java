@@ -0,0 +1,107 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+/**
+ * 单条语句相对于基准版本的变化
+ *
+ * 语句按 namespace 和语句 id 对应，比较的是格式化后未模拟参数的 SQL，只有空白和换行不同时视为未变化
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class StatementChange {
+
+    /**
+     * 变化类型
+     */
+    public enum Type {
+        ADDED, MODIFIED, REMOVED
+    }
+
+    private final Type type;
+    private final String namespace;
+    private final String id;
+    // 语句所在文件，删除的语句为基准版本中的文件，相对于工作区根目录
+    private final String file;
+    // 基准版本的 SQL，新增的语句为null
+    private final String baseSql;
+    // 当前的 SQL，删除的语句为null
+    private final String sql;
+    // 模拟参数后的 SQL 和测试结果，未测试时为null
+    private final String mockedSql;
+    private final Boolean testResult;
+    private final String testMsg;
+
+    public StatementChange(Type type, String namespace, String id, String file, String baseSql, String sql) {
+        this(type, namespace, id, file, baseSql, sql, null, null, null);
+    }
+
+    private StatementChange(Type type, String namespace, String id, String file, String baseSql, String sql,
+            String mockedSql, Boolean testResult, String testMsg) {
+        this.type = type;
+        this.namespace = namespace;
+        this.id = id;
+        this.file = file;
+        this.baseSql = baseSql;
+        this.sql = sql;
+        this.mockedSql = mockedSql;
+        this.testResult = testResult;
+        this.testMsg = testMsg;
+    }
+
+    /**
+     * 附加测试结果
+     *
+     * @param mockedSql  模拟参数后的 SQL
+     * @param testResult 测试结果，未执行时为null
+     * @param testMsg    测试信息
+     * @return 带测试结果的语句变化
+     */
+    public StatementChange withTestResult(String mockedSql, Boolean testResult, String testMsg) {
+        return new StatementChange(type, namespace, id, file, baseSql, sql, mockedSql, testResult, testMsg);
+    }
+
+    /**
+     * 是否需要重新测试，新增和修改的语句需要测试
+     *
+     * @return true表示需要测试
+     */
+    public boolean needsTest() {
+        return type != Type.REMOVED;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getBaseSql() {
+        return baseSql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getMockedSql() {
+        return mockedSql;
+    }
+
+    public Boolean getTestResult() {
+        return testResult;
+    }
+
+    public String getTestMsg() {
+        return testMsg;
+    }
+}
@@ -0,0 +1,30 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 数据库连接提供者
+ *
+ * 并行解析时每个工作线程通过它获取自己的连接，不再共享同一个连接
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public interface ConnectionProvider {
+
+    /**
+     * 获取连接，使用完毕后由调用方关闭
+     *
+     * @return 连接
+     * @throws SQLException 获取连接失败
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * 最多可同时获取的连接数，用于限制使用数据库的工作线程数
+     *
+     * @return 最大连接数
+     */
+    int getMaxConnections();
+}
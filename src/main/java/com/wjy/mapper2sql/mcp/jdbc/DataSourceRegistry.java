@@ -0,0 +1,150 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.cache.TableMetadataCache;
+import com.wjy.mapper2sql.mcp.config.ConfigurationLoader;
+import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcInitConfig;
+import com.wjy.mapper2sql.mcp.config.TableMetadataCacheConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 命名数据源注册表
+ *
+ * 按名称管理多个数据源的 JdbcInitializer，每个数据源有独立的连接池、SQL 测试执行器和表字段元数据缓存，
+ * 工具调用通过 datasource 参数选择数据源，未指定时使用默认数据源：
+ * 1）配置了 defaultDatasource 且该数据源存在时使用该数据源
+ * 2）否则存在 default 数据源（未命名的JDBC连接配置）时使用 default
+ * 3）否则使用第一个配置的数据源
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class DataSourceRegistry implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRegistry.class);
+
+    private final Map<String, JdbcInitializer> dataSources = new LinkedHashMap<>();
+    // 默认数据源名称，没有数据源时为null
+    private final String defaultName;
+
+    /**
+     * 构造函数
+     *
+     * @param dataSources 各数据源的初始化器，按配置顺序排列
+     * @param defaultName 配置的默认数据源名称，可以为null
+     */
+    public DataSourceRegistry(List<JdbcInitializer> dataSources, String defaultName) {
+        for (JdbcInitializer dataSource : dataSources) {
+            this.dataSources.put(dataSource.getName(), dataSource);
+        }
+        this.defaultName = resolveDefaultName(defaultName);
+    }
+
+    /**
+     * 按配置创建所有数据源的初始化器，并按初始化时机启动初始化
+     *
+     * @param configs             数据源名称 -> JDBC连接配置
+     * @param defaultName         配置的默认数据源名称，可以为null
+     * @param initConfig          JDBC资源初始化配置
+     * @param tableMetadataConfig 表字段元数据缓存配置，每个数据源各自创建缓存
+     * @param virtualThreads      SQL 测试执行器是否使用虚拟线程
+     * @return 数据源注册表
+     */
+    public static DataSourceRegistry create(Map<String, JdbcConnectionConfig> configs, String defaultName,
+            JdbcInitConfig initConfig, TableMetadataCacheConfig tableMetadataConfig, boolean virtualThreads) {
+        List<JdbcInitializer> initializers = new ArrayList<>(configs.size());
+        for (Map.Entry<String, JdbcConnectionConfig> entry : configs.entrySet()) {
+            TableMetadataCache tableMetadataCache = tableMetadataConfig.isEnabled()
+                    ? new TableMetadataCache(tableMetadataConfig)
+                    : null;
+            JdbcInitializer initializer = new JdbcInitializer(entry.getKey(), entry.getValue(), initConfig,
+                    tableMetadataCache, tableMetadataConfig.isWarmUpEnabled(), virtualThreads);
+            initializer.start();
+            initializers.add(initializer);
+        }
+        DataSourceRegistry registry = new DataSourceRegistry(initializers, defaultName);
+        if (!registry.isEmpty()) {
+            logger.info("Datasources registered: {}, default: {}", registry.getNames(), registry.getDefaultName());
+        }
+        return registry;
+    }
+
+    /**
+     * 按名称获取数据源
+     *
+     * @param name 数据源名称，为空时返回默认数据源
+     * @return 数据源的初始化器，数据源不存在或没有任何数据源时返回null
+     */
+    public JdbcInitializer get(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return defaultName != null ? dataSources.get(defaultName) : null;
+        }
+        return dataSources.get(name.trim());
+    }
+
+    /**
+     * 获取所有数据源名称
+     *
+     * @return 数据源名称，按配置顺序排列
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(new ArrayList<>(dataSources.keySet()));
+    }
+
+    /**
+     * 获取所有数据源
+     *
+     * @return 各数据源的初始化器，按配置顺序排列
+     */
+    public Collection<JdbcInitializer> getAll() {
+        return Collections.unmodifiableCollection(dataSources.values());
+    }
+
+    /**
+     * 获取默认数据源名称
+     *
+     * @return 默认数据源名称，没有任何数据源时返回null
+     */
+    public String getDefaultName() {
+        return defaultName;
+    }
+
+    /**
+     * 是否没有任何可用的数据源
+     *
+     * @return true表示没有数据源
+     */
+    public boolean isEmpty() {
+        return dataSources.isEmpty();
+    }
+
+    /**
+     * 关闭所有数据源的 SQL 测试执行器和连接池
+     */
+    @Override
+    public void close() {
+        dataSources.values().forEach(JdbcInitializer::close);
+    }
+
+    private String resolveDefaultName(String configured) {
+        if (configured != null && !configured.trim().isEmpty()) {
+            if (dataSources.containsKey(configured.trim())) {
+                return configured.trim();
+            }
+            logger.warn("Default datasource {} is not configured, available: {}", configured, dataSources.keySet());
+        }
+        if (dataSources.containsKey(ConfigurationLoader.DEFAULT_DATASOURCE)) {
+            return ConfigurationLoader.DEFAULT_DATASOURCE;
+        }
+        return dataSources.isEmpty() ? null : dataSources.keySet().iterator().next();
+    }
+}
@@ -0,0 +1,424 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.config.JdbcPoolConfig;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * JDBC连接池
+ *
+ * 基于动态加载的驱动实例创建物理连接，不经过 DriverManager：
+ * 1）DriverManager.getConnection() 内部的 isDriverAllowed 会隔离类加载器，取不到外部JAR加载的驱动
+ * 2）所以连接池直接持有驱动实例并调用 driver.connect()，建立连接时将线程上下文类加载器切换为驱动的类加载器
+ *
+ * 借出的连接为代理对象，调用 close() 时归还到连接池而不是关闭物理连接
+ * 归还时还原自动提交、只读、事务隔离级别和 catalog，还原失败的连接直接关闭
+ * 借出前校验连接有效性，后台任务定期回收超过空闲时间或生命周期的连接
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcConnectionPool implements ConnectionProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    private final Driver driver;
+    private final String jdbcUrl;
+    private final Properties connectProps;
+    private final JdbcPoolConfig config;
+
+    // 空闲连接，后进先出，优先借出最近使用的连接
+    private final ConcurrentLinkedDeque<PooledConnection> idleConnections = new ConcurrentLinkedDeque<>();
+    // 控制连接总数（空闲 + 借出）不超过最大连接数
+    private final Semaphore permits;
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private volatile boolean closed = false;
+    // 关闭连接池且借出的连接全部归还后执行一次，用于释放驱动类加载器的引用
+    private final AtomicReference<Runnable> onClose;
+
+    /**
+     * 构造函数
+     *
+     * @param driver   动态加载的驱动实例
+     * @param jdbcUrl  JDBC URL
+     * @param userName 用户名
+     * @param password 密码
+     * @param config   连接池配置
+     */
+    public JdbcConnectionPool(Driver driver, String jdbcUrl, String userName, String password,
+            JdbcPoolConfig config) {
+        this(driver, jdbcUrl, userName, password, config, null);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param driver   动态加载的驱动实例
+     * @param jdbcUrl  JDBC URL
+     * @param userName 用户名
+     * @param password 密码
+     * @param config   连接池配置
+     * @param onClose  关闭连接池且借出的连接全部归还后执行一次的回调，可以为null
+     */
+    public JdbcConnectionPool(Driver driver, String jdbcUrl, String userName, String password,
+            JdbcPoolConfig config, Runnable onClose) {
+        this.driver = driver;
+        this.onClose = new AtomicReference<>(onClose);
+        this.jdbcUrl = jdbcUrl;
+        this.config = config;
+        this.connectProps = new Properties();
+        this.connectProps.setProperty("user", userName);
+        this.connectProps.setProperty("password", password);
+        this.permits = new Semaphore(config.getMaxPoolSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections, config.getEvictionIntervalMs(),
+                config.getEvictionIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从连接池借出连接
+     *
+     * 使用完毕后调用 close() 归还连接
+     *
+     * @return 连接
+     * @throws SQLException 等待超时或创建连接失败
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("JDBC connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new SQLException(String.format("Timeout after %d ms waiting for a JDBC connection (pool size %d)",
+                        config.getBorrowTimeoutMs(), config.getMaxPoolSize()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a JDBC connection", e);
+        }
+        if (closed) {
+            // 等待许可期间连接池被关闭
+            permits.release();
+            runOnCloseIfIdle();
+            throw new SQLException("JDBC connection pool is closed");
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (isUsable(pooled, System.currentTimeMillis())) {
+                    break;
+                }
+                closePhysical(pooled);
+            }
+            if (pooled == null) {
+                pooled = createPhysical();
+            }
+            borrowCount.incrementAndGet();
+            // 包含等待许可、校验空闲连接和创建物理连接的耗时
+            ServerMetrics.record(ServerMetrics.CONNECTION_BORROW, start);
+            return pooled.borrow();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return config.getMaxPoolSize();
+    }
+
+    /**
+     * 关闭连接池及所有空闲连接
+     *
+     * 已借出的连接在归还时关闭，最后一个连接归还后才执行关闭回调
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            closePhysical(pooled);
+        }
+        runOnCloseIfIdle();
+        logger.info("JDBC connection pool closed: {}", getStatusInfo());
+    }
+
+    /**
+     * 连接池已关闭且没有借出的连接时执行关闭回调，多次调用只执行一次
+     */
+    private void runOnCloseIfIdle() {
+        if (getActiveCount() > 0) {
+            return;
+        }
+        Runnable callback = onClose.getAndSet(null);
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * 获取连接池状态信息
+     *
+     * @return 连接池状态信息
+     */
+    public String getStatusInfo() {
+        return String.format("JDBC pool: total=%d, idle=%d, active=%d, max=%d, created=%d, borrowed=%d",
+                totalConnections.get(), idleConnections.size(), getActiveCount(), config.getMaxPoolSize(),
+                createdCount.get(), borrowCount.get());
+    }
+
+    public int getActiveCount() {
+        return config.getMaxPoolSize() - permits.availablePermits();
+    }
+
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * 创建物理连接
+     */
+    private PooledConnection createPhysical() throws SQLException {
+        Thread currentThread = Thread.currentThread();
+        ClassLoader originalLoader = currentThread.getContextClassLoader();
+        Connection connection;
+        long start = System.nanoTime();
+        try {
+            // 部分驱动在建立连接时通过上下文类加载器加载扩展类
+            currentThread.setContextClassLoader(driver.getClass().getClassLoader());
+            connection = driver.connect(jdbcUrl, connectProps);
+        } finally {
+            currentThread.setContextClassLoader(originalLoader);
+            ServerMetrics.record(ServerMetrics.CONNECTION_CREATE, start);
+        }
+        if (connection == null) {
+            throw new SQLException("Driver returned null connection for URL: " + jdbcUrl);
+        }
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        logger.info("Created pooled JDBC connection to: {}, {}", jdbcUrl, getStatusInfo());
+        return new PooledConnection(connection);
+    }
+
+    /**
+     * 借出前检查连接是否可用：未超过生命周期、未超过空闲时间且校验有效
+     */
+    private boolean isUsable(PooledConnection pooled, long now) {
+        if (isExpired(pooled, now)) {
+            return false;
+        }
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            logger.debug("Pooled JDBC connection validation failed", e);
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt > config.getMaxLifetimeMs()
+                || now - pooled.lastReturnedAt > config.getIdleTimeoutMs();
+    }
+
+    /**
+     * 回收超过空闲时间或生命周期的空闲连接
+     */
+    private void evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> iterator = idleConnections.iterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            if (isExpired(pooled, now) && idleConnections.removeFirstOccurrence(pooled)) {
+                closePhysical(pooled);
+                logger.debug("Evicted idle JDBC connection, {}", getStatusInfo());
+            }
+        }
+    }
+
+    /**
+     * 归还连接
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                closePhysical(pooled);
+                return;
+            }
+            // 还原连接状态，避免影响下一个使用者
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.resetState();
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            idleConnections.offerFirst(pooled);
+            if (closed && idleConnections.removeFirstOccurrence(pooled)) {
+                // 归还期间连接池被关闭，close() 可能已清空过空闲连接
+                closePhysical(pooled);
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to reset pooled JDBC connection, closing it", e);
+            closePhysical(pooled);
+        } finally {
+            permits.release();
+            if (closed) {
+                runOnCloseIfIdle();
+            }
+        }
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close JDBC connection", e);
+        }
+    }
+
+    /**
+     * 连接池中的物理连接
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final long createdAt;
+        private volatile long lastReturnedAt;
+        // 借出期间是否修改过只读、事务隔离级别或 catalog，只在借出线程中访问
+        private boolean stateChanged = false;
+        // 第一次修改前的连接状态，归还时还原
+        private boolean initialStateCaptured = false;
+        private boolean initialReadOnly;
+        private int initialIsolation;
+        private String initialCatalog;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturnedAt = this.createdAt;
+        }
+
+        /**
+         * 修改连接状态前记录初始状态
+         */
+        private void beforeStateChange() throws SQLException {
+            if (!initialStateCaptured) {
+                initialReadOnly = physical.isReadOnly();
+                initialIsolation = physical.getTransactionIsolation();
+                initialCatalog = physical.getCatalog();
+                initialStateCaptured = true;
+            }
+            stateChanged = true;
+        }
+
+        /**
+         * 还原借出期间修改过的连接状态
+         */
+        private void resetState() throws SQLException {
+            if (!stateChanged) {
+                return;
+            }
+            if (physical.isReadOnly() != initialReadOnly) {
+                physical.setReadOnly(initialReadOnly);
+            }
+            if (physical.getTransactionIsolation() != initialIsolation) {
+                physical.setTransactionIsolation(initialIsolation);
+            }
+            if (initialCatalog != null && !initialCatalog.equals(physical.getCatalog())) {
+                physical.setCatalog(initialCatalog);
+            }
+            stateChanged = false;
+        }
+
+        /**
+         * 创建借出给调用方的代理连接
+         */
+        private Connection borrow() {
+            return (Connection) Proxy.newProxyInstance(JdbcConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new ConnectionHandler(this));
+        }
+    }
+
+    /**
+     * 代理连接的调用处理器，close() 归还连接，其余方法委托给物理连接
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean logicallyClosed = false;
+
+        private ConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (logicallyClosed) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            switch (method.getName()) {
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                    pooled.beforeStateChange();
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.cache.TableMetadataCache;
+import com.wjy.mapper2sql.mcp.config.ConfigurationLoader;
+import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcInitConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcPoolConfig;
+import com.wjy.mapper2sql.mcp.config.SqlTestConfig;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.util.JdbcDriverLoaderUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JDBC 资源初始化器
+ *
+ * 负责加载JDBC驱动，并创建连接池和 SQL 测试执行器，支持三种初始化时机：
+ * 1）EAGER：服务启动时同步初始化
+ * 2）LAZY：首次获取连接池或 SQL 测试执行器时才初始化
+ * 3）BACKGROUND：服务启动时在后台线程中初始化，获取连接池或 SQL 测试执行器时最多等待 timeoutMs，
+ * 超时抛出 TimeoutException，调用方可以稍后重试
+ *
+ * LAZY 和 BACKGROUND 模式下服务启动和不需要数据库的 parse_mapper 都不再等待驱动加载
+ *
+ * 每个数据源有自己的初始化器，连接池、SQL 测试执行器和表字段元数据缓存互不共享；
+ * 驱动实例由 JdbcDriverLoaderUtil 按 JAR 文件和驱动类名缓存，不同 JAR 的驱动在各自的类加载器中加载
+ *
+ * 初始化只执行一次，驱动加载或连接池创建失败时不再重试，连接池和 SQL 测试执行器为null；
+ * 启用连接预热时，连接池创建后先借出并归还一个连接，首次调用工具时不再等待建立物理连接
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcInitializer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcInitializer.class);
+
+    // 数据源名称
+    private final String name;
+    private final JdbcConnectionConfig config;
+    private final JdbcInitConfig initConfig;
+    // 表字段元数据缓存，为null表示不启用缓存
+    private final TableMetadataCache tableMetadataCache;
+    private final boolean warmUpTableMetadata;
+    private final boolean virtualThreads;
+
+    // 初始化完成（无论成功与否）或关闭时计数归零
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private volatile boolean initialized = false;
+    private volatile boolean backgroundStarted = false;
+    private boolean closed = false;
+    // 本数据源使用的驱动实例，与使用相同 JAR 和驱动类的数据源共享
+    private Driver driver;
+    private JdbcConnectionPool connectionPool;
+    private SqlTestExecutor sqlTestExecutor;
+
+    /**
+     * 构造函数
+     *
+     * @param config              JDBC连接配置
+     * @param initConfig          JDBC资源初始化配置
+     * @param tableMetadataCache  表字段元数据缓存，可以为null
+     * @param warmUpTableMetadata 连接池创建后是否在后台预加载表字段元数据
+     * @param virtualThreads      SQL 测试执行器是否使用虚拟线程
+     */
+    public JdbcInitializer(JdbcConnectionConfig config, JdbcInitConfig initConfig,
+            TableMetadataCache tableMetadataCache, boolean warmUpTableMetadata, boolean virtualThreads) {
+        this(ConfigurationLoader.DEFAULT_DATASOURCE, config, initConfig, tableMetadataCache, warmUpTableMetadata,
+                virtualThreads);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name                数据源名称
+     * @param config              JDBC连接配置
+     * @param initConfig          JDBC资源初始化配置
+     * @param tableMetadataCache  表字段元数据缓存，可以为null
+     * @param warmUpTableMetadata 连接池创建后是否在后台预加载表字段元数据
+     * @param virtualThreads      SQL 测试执行器是否使用虚拟线程
+     */
+    public JdbcInitializer(String name, JdbcConnectionConfig config, JdbcInitConfig initConfig,
+            TableMetadataCache tableMetadataCache, boolean warmUpTableMetadata, boolean virtualThreads) {
+        this.name = name;
+        this.config = config;
+        this.initConfig = initConfig;
+        this.tableMetadataCache = tableMetadataCache;
+        this.warmUpTableMetadata = warmUpTableMetadata;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * 按初始化时机启动初始化：EAGER 同步初始化，BACKGROUND 启动后台线程，LAZY 不做任何事
+     */
+    public void start() {
+        switch (initConfig.getMode()) {
+            case EAGER:
+                initialize();
+                break;
+            case BACKGROUND:
+                backgroundStarted = true;
+                Thread initThread = new Thread(this::initialize, "jdbc-initializer-" + name);
+                initThread.setDaemon(true);
+                initThread.start();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 加载JDBC驱动并创建连接池和 SQL 测试执行器，已初始化时直接返回
+     */
+    public void initialize() {
+        if (initialized) {
+            return;
+        }
+        synchronized (this) {
+            if (initialized || closed) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                driver = JdbcDriverLoaderUtil.getOrLoadDriver(config);
+                logger.info("JDBC Driver status of datasource {}: {}", name,
+                        driver != null ? "loaded " + driver.getClass().getName() : "not loaded");
+                JdbcPoolConfig poolConfig = ConfigurationLoader.loadJdbcPoolConfig();
+                connectionPool = JdbcDriverLoaderUtil.createConnectionPool(config, poolConfig, driver);
+                if (connectionPool != null) {
+                    ServerMetrics.gauge(ServerMetrics.POOL_ACTIVE, connectionPool, JdbcConnectionPool::getActiveCount,
+                            "datasource", name);
+                    ServerMetrics.gauge(ServerMetrics.POOL_IDLE, connectionPool, JdbcConnectionPool::getIdleCount,
+                            "datasource", name);
+                    SqlTestConfig sqlTestConfig = ConfigurationLoader.loadSqlTestConfig();
+                    sqlTestExecutor = new SqlTestExecutor(sqlTestConfig, virtualThreads);
+                    if (initConfig.isWarmUpConnection()) {
+                        warmUpConnection(connectionPool);
+                    }
+                    if (tableMetadataCache != null && warmUpTableMetadata) {
+                        startTableMetadataWarmUp(connectionPool);
+                    }
+                }
+                logger.info("JDBC resources of datasource {} initialized in {} ms", name,
+                        System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                logger.error("Failed to initialize JDBC resources of datasource {}", name, e);
+            } finally {
+                initialized = true;
+                ready.countDown();
+            }
+        }
+    }
+
+    /**
+     * 获取JDBC连接池，未初始化时先初始化，后台初始化时等待完成
+     *
+     * @return JDBC连接池，驱动加载失败时返回null
+     * @throws TimeoutException 后台初始化在等待时间内没有完成
+     */
+    public JdbcConnectionPool getConnectionPool() throws TimeoutException {
+        awaitInitialized();
+        return connectionPool;
+    }
+
+    /**
+     * 获取 SQL 测试执行器，未初始化时先初始化，后台初始化时等待完成
+     *
+     * @return SQL 测试执行器，驱动加载失败时返回null
+     * @throws TimeoutException 后台初始化在等待时间内没有完成
+     */
+    public SqlTestExecutor getSqlTestExecutor() throws TimeoutException {
+        awaitInitialized();
+        return sqlTestExecutor;
+    }
+
+    /**
+     * 获取数据源名称
+     *
+     * @return 数据源名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取JDBC连接配置
+     *
+     * @return JDBC连接配置
+     */
+    public JdbcConnectionConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取表字段元数据缓存
+     *
+     * @return 表字段元数据缓存，未启用时返回null
+     */
+    public TableMetadataCache getTableMetadataCache() {
+        return tableMetadataCache;
+    }
+
+    /**
+     * 是否已完成初始化
+     *
+     * @return true表示已初始化
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /**
+     * 关闭 SQL 测试执行器和连接池，关闭后不再初始化
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ready.countDown();
+        if (sqlTestExecutor != null) {
+            sqlTestExecutor.close();
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+    }
+
+    private void awaitInitialized() throws TimeoutException {
+        if (initialized) {
+            return;
+        }
+        if (!backgroundStarted) {
+            initialize();
+            return;
+        }
+        try {
+            if (!ready.await(initConfig.getTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException(String.format(
+                        "JDBC resources are still initializing after %d ms, please retry later",
+                        initConfig.getTimeoutMs()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for JDBC resources to initialize");
+        }
+    }
+
+    /**
+     * 借出并归还一个连接，使连接池中保留一个已建立的物理连接
+     */
+    private static void warmUpConnection(JdbcConnectionPool pool) {
+        long start = System.currentTimeMillis();
+        try (Connection conn = pool.getConnection()) {
+            logger.info("JDBC connection warmed up in {} ms", System.currentTimeMillis() - start);
+        } catch (SQLException e) {
+            logger.warn("Failed to warm up JDBC connection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在后台线程中预加载表字段元数据，不阻塞初始化
+     */
+    private void startTableMetadataWarmUp(JdbcConnectionPool pool) {
+        Thread warmUpThread = new Thread(() -> {
+            try (Connection conn = pool.getConnection()) {
+                tableMetadataCache.warmUp(conn);
+            } catch (SQLException e) {
+                logger.warn("Failed to warm up table metadata cache: {}", e.getMessage());
+            }
+        }, "table-metadata-warm-up-" + name);
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+}
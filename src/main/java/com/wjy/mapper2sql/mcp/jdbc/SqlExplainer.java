@@ -0,0 +1,242 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 执行计划查询工具类
+ *
+ * 按数据库方言获取 SQL 的执行计划而不执行 SQL，并汇总为一行估算信息：
+ * 1）MySQL 系：EXPLAIN 返回表格，累加各行的 rows，type 为 ALL 的表记为全表扫描
+ * 2）PostgreSQL 系、H2：EXPLAIN 返回计划文本，取根节点的 cost 和 rows，Seq Scan / tableScan 的表记为全表扫描
+ * 3）Oracle 系：EXPLAIN PLAN 写入 PLAN_TABLE 后查询根节点的 cost 和 cardinality，调用方需回滚事务清理 PLAN_TABLE
+ *
+ * 按 EXPLAIN 返回的结果格式而不是 dbType 汇总，dbType 与实际数据库不一致（例如用 H2 代替 MySQL）时也能得到结果
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlExplainer {
+
+    private static final Pattern PG_COST_PATTERN = Pattern.compile("cost=[\\d.]+\\.\\.([\\d.]+) rows=(\\d+)");
+    private static final Pattern PG_SEQ_SCAN_PATTERN = Pattern.compile("Seq Scan on (\\S+)");
+    private static final Pattern H2_TABLE_SCAN_PATTERN = Pattern.compile("(\\S+)\\.tableScan");
+
+    private static final AtomicLong statementIdSequence = new AtomicLong();
+
+    private SqlExplainer() {
+    }
+
+    /**
+     * 是否支持该数据库类型
+     *
+     * @param dbType 数据库类型
+     * @return true表示支持
+     */
+    public static boolean isSupported(DbType dbType) {
+        return dialectOf(dbType) != null;
+    }
+
+    /**
+     * 获取 SQL 的执行计划估算信息
+     *
+     * @param conn                数据库连接
+     * @param sql                 mock 参数后的 SQL
+     * @param dbType              数据库类型
+     * @param queryTimeoutSeconds 执行计划查询的超时时间（秒）
+     * @return 估算信息，例如 rows=120, cost=35.50, fullScan=[orders]
+     * @throws SQLException 获取执行计划失败，通常说明 SQL 无效
+     */
+    public static String explain(Connection conn, String sql, DbType dbType, int queryTimeoutSeconds)
+            throws SQLException {
+        return explain(conn, sql, dbType, queryTimeoutSeconds, ToolDeadline.none());
+    }
+
+    /**
+     * 获取 SQL 的执行计划估算信息，截止时间到达或调用被取消时取消正在执行的查询
+     *
+     * @param conn                数据库连接
+     * @param sql                 mock 参数后的 SQL
+     * @param dbType              数据库类型
+     * @param queryTimeoutSeconds 执行计划查询的超时时间（秒），实际不超过截止时间前的剩余时间
+     * @param deadline            工具调用截止时间
+     * @return 估算信息，例如 rows=120, cost=35.50, fullScan=[orders]
+     * @throws SQLException 获取执行计划失败，通常说明 SQL 无效
+     */
+    public static String explain(Connection conn, String sql, DbType dbType, int queryTimeoutSeconds,
+            ToolDeadline deadline) throws SQLException {
+        Dialect dialect = dialectOf(dbType);
+        if (dialect == null) {
+            throw new SQLException("EXPLAIN is not supported for database type: " + dbType);
+        }
+        String explainedSql = stripTrailingSemicolon(sql);
+        int timeoutSeconds = deadline.queryTimeoutSeconds(queryTimeoutSeconds);
+        if (dialect == Dialect.EXPLAIN_PLAN) {
+            return explainOracle(conn, explainedSql, timeoutSeconds, deadline);
+        }
+        try (Statement statement = conn.createStatement();
+                ToolDeadline.Registration cancel = deadline.onCancel(() -> SqlTestExecutor.cancelQuietly(statement))) {
+            statement.setQueryTimeout(timeoutSeconds);
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + explainedSql)) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                return findColumn(metaData, "rows") > 0 ? summarizeTable(rs, metaData) : summarizeText(rs);
+            }
+        }
+    }
+
+    private static Dialect dialectOf(DbType dbType) {
+        if (dbType == null) {
+            return null;
+        }
+        switch (dbType) {
+            case mysql:
+            case mariadb:
+            case tidb:
+            case oceanbase:
+            case polardb:
+            case drds:
+            case goldendb:
+            case postgresql:
+            case greenplum:
+            case edb:
+            case kingbase:
+            case highgo:
+            case gaussdb:
+            case h2:
+                return Dialect.EXPLAIN;
+            case oracle:
+            case ali_oracle:
+            case oceanbase_oracle:
+            case dm:
+                return Dialect.EXPLAIN_PLAN;
+            default:
+                return null;
+        }
+    }
+
+    private static String summarizeTable(ResultSet rs, ResultSetMetaData metaData) throws SQLException {
+        int rowsColumn = findColumn(metaData, "rows");
+        int typeColumn = findColumn(metaData, "type");
+        int tableColumn = findColumn(metaData, "table");
+        long rows = 0;
+        List<String> fullScans = new ArrayList<>();
+        while (rs.next()) {
+            rows += rs.getLong(rowsColumn);
+            if (typeColumn > 0 && tableColumn > 0 && "ALL".equalsIgnoreCase(rs.getString(typeColumn))) {
+                fullScans.add(rs.getString(tableColumn));
+            }
+        }
+        return format(rows, null, fullScans);
+    }
+
+    private static String summarizeText(ResultSet rs) throws SQLException {
+        Long rows = null;
+        String cost = null;
+        List<String> fullScans = new ArrayList<>();
+        while (rs.next()) {
+            String line = rs.getString(1);
+            if (line == null) {
+                continue;
+            }
+            // 第一行为根节点，其 cost 和 rows 即整条语句的估算
+            Matcher costMatcher = PG_COST_PATTERN.matcher(line);
+            if (rows == null && costMatcher.find()) {
+                cost = costMatcher.group(1);
+                rows = Long.parseLong(costMatcher.group(2));
+            }
+            Matcher seqScanMatcher = PG_SEQ_SCAN_PATTERN.matcher(line);
+            while (seqScanMatcher.find()) {
+                fullScans.add(seqScanMatcher.group(1));
+            }
+            Matcher tableScanMatcher = H2_TABLE_SCAN_PATTERN.matcher(line);
+            while (tableScanMatcher.find()) {
+                fullScans.add(tableScanMatcher.group(1));
+            }
+        }
+        return format(rows, cost, fullScans);
+    }
+
+    private static String explainOracle(Connection conn, String sql, int queryTimeoutSeconds, ToolDeadline deadline)
+            throws SQLException {
+        String statementId = "m2s_" + statementIdSequence.incrementAndGet();
+        try (Statement statement = conn.createStatement();
+                ToolDeadline.Registration cancel = deadline.onCancel(() -> SqlTestExecutor.cancelQuietly(statement))) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.execute("EXPLAIN PLAN SET STATEMENT_ID = '" + statementId + "' FOR " + sql);
+        }
+        Long rows = null;
+        String cost = null;
+        List<String> fullScans = new ArrayList<>();
+        try (PreparedStatement statement = conn.prepareStatement(
+                "SELECT id, cost, cardinality, operation, options, object_name FROM plan_table "
+                        + "WHERE statement_id = ? ORDER BY id")) {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.setString(1, statementId);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getInt("id") == 0) {
+                        cost = rs.getString("cost");
+                        rows = rs.getLong("cardinality");
+                    }
+                    if ("TABLE ACCESS".equals(rs.getString("operation")) && "FULL".equals(rs.getString("options"))) {
+                        fullScans.add(rs.getString("object_name"));
+                    }
+                }
+            }
+        }
+        return format(rows, cost, fullScans);
+    }
+
+    private static int findColumn(ResultSetMetaData metaData, String name) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (name.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static String format(Long rows, String cost, List<String> fullScans) {
+        List<String> parts = new ArrayList<>();
+        if (rows != null) {
+            parts.add("rows=" + rows);
+        }
+        if (cost != null) {
+            parts.add("cost=" + cost);
+        }
+        if (!fullScans.isEmpty()) {
+            parts.add("fullScan=" + fullScans);
+        }
+        return parts.isEmpty() ? "no estimate" : String.join(", ", parts);
+    }
+
+    private static String stripTrailingSemicolon(String sql) {
+        String trimmed = sql.trim();
+        while (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    /**
+     * 执行计划的查询方式
+     */
+    private enum Dialect {
+        // EXPLAIN 直接返回执行计划
+        EXPLAIN,
+        // EXPLAIN PLAN 写入 PLAN_TABLE 后再查询
+        EXPLAIN_PLAN
+    }
+}
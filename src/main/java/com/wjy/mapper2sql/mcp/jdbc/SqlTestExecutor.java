@@ -0,0 +1,315 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.config.SqlTestConfig;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+import com.wjy.mapper2sql.mcp.util.VirtualThreadUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SQL 测试执行器
+ *
+ * 代替 SqlUtil 中逐条串行执行的 runTest，在多个连接上并行执行 mock 后的 SQL：
+ * 1）每个工作线程借出一个连接，从共享下标中领取语句执行，工作线程数不超过连接池大小
+ * 2）每条语句设置执行超时，超时或失败只记录到该语句的测试结果中
+ * 3）启用回滚时关闭自动提交，每条语句执行后回滚，DML 不会持久化（DDL 在部分数据库上会隐式提交，无法回滚）
+ *
+ * 也可以只获取每条语句的执行计划而不执行（见 {@link SqlExplainer}），测试结果的 msg 为执行计划的估算信息，
+ * 该模式下始终回滚
+ *
+ * 启用虚拟线程时每个工作线程为一个虚拟线程，等待连接时不占用平台线程，
+ * 同时使用的连接数由连接池的许可信号量限制
+ *
+ * 测试结果写入新的 MapperResult，传入的解析结果不可变，可以直接来自缓存
+ *
+ * 调用线程绑定了工具调用截止时间（见 ToolDeadline）时，单条语句的超时不超过剩余时间，
+ * 截止时间到达或调用被取消时取消正在执行的 Statement，未执行的语句在测试结果中标记为未执行
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlTestExecutor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTestExecutor.class);
+
+    private final SqlTestConfig config;
+    // 执行线程池，并行度为1时为null，在调用线程上串行执行
+    private final ExecutorService executor;
+
+    public SqlTestExecutor(SqlTestConfig config, boolean virtualThreads) {
+        this.config = config;
+        this.executor = config.getParallelism() > 1
+                ? VirtualThreadUtil.newExecutor("sql-test-", config.getParallelism(), virtualThreads)
+                : null;
+    }
+
+    /**
+     * 单条语句的测试动作
+     */
+    @FunctionalInterface
+    private interface StatementAction {
+
+        /**
+         * 测试单条语句
+         *
+         * @param conn     数据库连接
+         * @param sql      mock 参数后的 SQL
+         * @param deadline 工具调用截止时间
+         * @return 测试成功时的 msg
+         * @throws Exception 测试失败
+         */
+        String apply(Connection conn, String sql, ToolDeadline deadline) throws Exception;
+    }
+
+    /**
+     * 执行解析结果中的所有 SQL
+     *
+     * @param results            解析并 mock 参数后的结果
+     * @param connectionProvider 数据库连接提供者
+     * @return 带测试结果的解析结果，顺序与传入的结果一致
+     * @throws Exception 执行被中断
+     */
+    public List<MapperResult> runTests(List<MapperResult> results, ConnectionProvider connectionProvider)
+            throws Exception {
+        return run(results, connectionProvider, "test", this::executeSql, config.isRollback());
+    }
+
+    /**
+     * 获取解析结果中所有 SQL 的执行计划，不执行 SQL
+     *
+     * @param results            解析并 mock 参数后的结果
+     * @param connectionProvider 数据库连接提供者
+     * @param dbType             数据库类型，决定执行计划的查询方式
+     * @return 带测试结果的解析结果，msg 为执行计划的估算信息，顺序与传入的结果一致
+     * @throws Exception 执行被中断
+     */
+    public List<MapperResult> runExplains(List<MapperResult> results, ConnectionProvider connectionProvider,
+            DbType dbType) throws Exception {
+        return run(results, connectionProvider, "explain",
+                (conn, sql, deadline) -> SqlExplainer.explain(conn, sql, dbType, config.getQueryTimeoutSeconds(),
+                        deadline),
+                true);
+    }
+
+    private List<MapperResult> run(List<MapperResult> results, ConnectionProvider connectionProvider, String mode,
+            StatementAction action, boolean rollback) throws Exception {
+        List<SqlTask> tasks = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            MapperResult info = results.get(i);
+            for (int j = 0; j < info.getStatementCount(); j++) {
+                tasks.add(new SqlTask(i, j, info.getId(j), info.getEffectiveSql(j)));
+            }
+        }
+
+        int workers = Math.min(Math.min(config.getParallelism(), connectionProvider.getMaxConnections()),
+                tasks.size());
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicReference<String> connectionError = new AtomicReference<>();
+        ToolDeadline deadline = ToolDeadline.current();
+        if (workers <= 1 || executor == null) {
+            new TestWorker(tasks, nextIndex, connectionError, connectionProvider, mode, action, rollback, deadline)
+                    .run();
+        } else {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(new TestWorker(tasks, nextIndex, connectionError, connectionProvider,
+                        mode, action, rollback, deadline)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+
+        // 全部执行完成后在调用线程上汇总测试结果
+        Boolean[][] testResults = new Boolean[results.size()][];
+        String[][] testMsgs = new String[results.size()][];
+        for (int i = 0; i < results.size(); i++) {
+            testResults[i] = new Boolean[results.get(i).getStatementCount()];
+            testMsgs[i] = new String[results.get(i).getStatementCount()];
+        }
+        for (SqlTask task : tasks) {
+            if (task.result != null) {
+                testResults[task.resultIndex][task.statementIndex] = task.result;
+                testMsgs[task.resultIndex][task.statementIndex] = task.msg;
+            } else {
+                // 获取连接失败、截止时间到达或被中断而没有执行的语句
+                testResults[task.resultIndex][task.statementIndex] = false;
+                testMsgs[task.resultIndex][task.statementIndex] = connectionError.get() != null
+                        ? "Not executed: " + connectionError.get()
+                        : deadline.isExpired() ? "Not executed: tool call deadline reached" : "Not executed";
+            }
+        }
+        List<MapperResult> tested = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            tested.add(results.get(i).withTestResults(testResults[i], testMsgs[i]));
+        }
+        return tested;
+    }
+
+    /**
+     * 关闭执行线程池
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private String executeSql(Connection conn, String sql, ToolDeadline deadline) throws SQLException {
+        try (Statement statement = conn.createStatement();
+                ToolDeadline.Registration cancel = deadline.onCancel(() -> cancelQuietly(statement))) {
+            statement.setQueryTimeout(deadline.queryTimeoutSeconds(config.getQueryTimeoutSeconds()));
+            statement.execute(sql);
+        }
+        return "";
+    }
+
+    /**
+     * 取消正在执行的语句，由截止时间到达或取消调用的线程执行
+     *
+     * @param statement 正在执行的语句
+     */
+    static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            logger.debug("Failed to cancel SQL test statement: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 单条待执行的语句，执行结果由领取它的工作线程写入
+     */
+    private static final class SqlTask {
+        // 语句所在的解析结果下标和语句下标
+        private final int resultIndex;
+        private final int statementIndex;
+        private final String id;
+        private final String sql;
+        // 先写 msg 再写 result，result 不为null时 msg 可见
+        private volatile String msg;
+        private volatile Boolean result;
+
+        private SqlTask(int resultIndex, int statementIndex, String id, String sql) {
+            this.resultIndex = resultIndex;
+            this.statementIndex = statementIndex;
+            this.id = id;
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * 执行工作线程，整个任务期间独占一个连接
+     */
+    private final class TestWorker implements Runnable {
+        private final List<SqlTask> tasks;
+        private final AtomicInteger nextIndex;
+        private final AtomicReference<String> connectionError;
+        private final ConnectionProvider connectionProvider;
+        // 执行方式，test 或 explain，作为 SQL 执行耗时指标的标签
+        private final String mode;
+        private final StatementAction action;
+        private final boolean rollback;
+        private final ToolDeadline deadline;
+
+        private TestWorker(List<SqlTask> tasks, AtomicInteger nextIndex, AtomicReference<String> connectionError,
+                ConnectionProvider connectionProvider, String mode, StatementAction action, boolean rollback,
+                ToolDeadline deadline) {
+            this.tasks = tasks;
+            this.nextIndex = nextIndex;
+            this.connectionError = connectionError;
+            this.connectionProvider = connectionProvider;
+            this.mode = mode;
+            this.action = action;
+            this.rollback = rollback;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            if (nextIndex.get() >= tasks.size() || deadline.isExpired()) {
+                return;
+            }
+            Connection conn;
+            try {
+                conn = connectionProvider.getConnection();
+            } catch (SQLException e) {
+                // 其他工作线程会继续领取剩余语句
+                logger.warn("Failed to get connection for SQL test: {}", e.getMessage());
+                connectionError.set("Failed to get connection: " + e.getMessage());
+                return;
+            }
+            try {
+                boolean autoCommit = conn.getAutoCommit();
+                if (rollback && autoCommit) {
+                    conn.setAutoCommit(false);
+                }
+                try {
+                    int index;
+                    while (!deadline.isExpired() && (index = nextIndex.getAndIncrement()) < tasks.size()) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        execute(conn, tasks.get(index));
+                    }
+                } finally {
+                    if (rollback && autoCommit) {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            } catch (SQLException e) {
+                logger.warn("SQL test connection failed: {}", e.getMessage());
+            } finally {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.warn("Failed to close SQL test connection: {}", e.getMessage());
+                }
+            }
+        }
+
+        private void execute(Connection conn, SqlTask task) {
+            boolean result = true;
+            String msg;
+            long start = System.nanoTime();
+            try {
+                msg = action.apply(conn, task.sql, deadline);
+            } catch (Throwable e) {
+                result = false;
+                msg = e.getMessage();
+            } finally {
+                ServerMetrics.record(ServerMetrics.SQL_EXECUTE, start, "mode", mode);
+                if (rollback) {
+                    try {
+                        conn.rollback();
+                    } catch (SQLException e) {
+                        logger.warn("Failed to roll back SQL test statement {}: {}", task.id, e.getMessage());
+                    }
+                }
+            }
+            task.msg = msg;
+            task.result = result;
+        }
+    }
+}
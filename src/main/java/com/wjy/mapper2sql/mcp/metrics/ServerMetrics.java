@@ -0,0 +1,306 @@
+package com.wjy.mapper2sql.mcp.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 服务运行指标
+ *
+ * 基于 Micrometer 的进程内指标注册表，记录热点路径的耗时和次数：
+ * 1）工具调用耗时（按工具名和结果区分）、排队等待耗时和被拒绝次数
+ * 2）目录遍历、MyBatis 解析、参数 mock、表字段元数据查询的耗时
+ * 3）JDBC 连接创建和借出等待的耗时、SQL 执行耗时、JSON 序列化耗时
+ * 4）解析结果缓存、持久化缓存和表字段元数据缓存的命中和未命中次数
+ *
+ * 计时器统计 p50 和 p99，由 server_stats 工具输出，启用 JMX 时同时通过 ServerMetricsJmxExporter 暴露
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class ServerMetrics {
+
+    public static final String TOOL_CALLS = "mapper2sql.tool.calls";
+    public static final String TOOL_QUEUE_WAIT = "mapper2sql.tool.queue.wait";
+    public static final String TOOL_REJECTED = "mapper2sql.tool.rejected";
+    public static final String TOOL_ACTIVE = "mapper2sql.tool.active";
+    public static final String TOOL_QUEUED = "mapper2sql.tool.queued";
+    public static final String PARSE_WALK = "mapper2sql.parse.walk";
+    public static final String PARSE_FILE = "mapper2sql.parse.file";
+    public static final String PARSE_MOCK = "mapper2sql.parse.mock";
+    public static final String METADATA_LOOKUP = "mapper2sql.metadata.lookup";
+    public static final String CONNECTION_CREATE = "mapper2sql.jdbc.connection.create";
+    public static final String CONNECTION_BORROW = "mapper2sql.jdbc.connection.borrow";
+    public static final String POOL_ACTIVE = "mapper2sql.jdbc.pool.active";
+    public static final String POOL_IDLE = "mapper2sql.jdbc.pool.idle";
+    public static final String SQL_EXECUTE = "mapper2sql.sql.execute";
+    public static final String OUTPUT_SERIALIZE = "mapper2sql.output.serialize";
+    public static final String CACHE_HITS = "mapper2sql.cache.hits";
+    public static final String CACHE_MISSES = "mapper2sql.cache.misses";
+
+    private static final double[] PERCENTILES = { 0.5, 0.99 };
+    private static final MeterRegistry registry = new SimpleMeterRegistry();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final long startTime = System.currentTimeMillis();
+
+    private ServerMetrics() {
+    }
+
+    /**
+     * 获取指标注册表
+     *
+     * @return 指标注册表
+     */
+    public static MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 获取计时器，不存在时创建
+     *
+     * @param name 指标名称
+     * @param tags 标签，键值交替
+     * @return 计时器
+     */
+    public static Timer timer(String name, String... tags) {
+        return Timer.builder(name).tags(tags).publishPercentiles(PERCENTILES).register(registry);
+    }
+
+    /**
+     * 记录从 startNanos 到现在的耗时
+     *
+     * @param name       指标名称
+     * @param startNanos System.nanoTime() 的起始值
+     * @param tags       标签，键值交替
+     */
+    public static void record(String name, long startNanos, String... tags) {
+        timer(name, tags).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param name 指标名称
+     * @param tags 标签，键值交替
+     */
+    public static void increment(String name, String... tags) {
+        Counter.builder(name).tags(tags).register(registry).increment();
+    }
+
+    /**
+     * 注册缓存的命中和未命中次数，同一个缓存名只保留首次注册的对象
+     *
+     * @param cache  缓存名称
+     * @param obj    缓存对象
+     * @param hits   命中次数函数
+     * @param misses 未命中次数函数
+     * @param <T>    缓存类型
+     */
+    public static <T> void bindCache(String cache, T obj, ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder(CACHE_HITS, obj, hits).tag("cache", cache).register(registry);
+        FunctionCounter.builder(CACHE_MISSES, obj, misses).tag("cache", cache).register(registry);
+    }
+
+    /**
+     * 注册瞬时值，同一个名称和标签只保留首次注册的对象
+     *
+     * @param name  指标名称
+     * @param obj   被观测的对象
+     * @param value 取值函数
+     * @param tags  标签，键值交替
+     * @param <T>   对象类型
+     */
+    public static <T> void gauge(String name, T obj, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, obj, value).tags(tags).register(registry);
+    }
+
+    /**
+     * 将所有指标展开为（名称、统计项）-> 数值，用于 JMX 属性
+     *
+     * @return 按名称排序的指标值，计时器的耗时单位为毫秒
+     */
+    public static Map<String, Double> flatten() {
+        Map<String, Double> values = new TreeMap<>();
+        for (Meter meter : sortedMeters()) {
+            String prefix = meterKey(meter);
+            if (meter instanceof Timer) {
+                HistogramSnapshot snapshot = ((Timer) meter).takeSnapshot();
+                values.put(prefix + ".count", (double) snapshot.count());
+                values.put(prefix + ".meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+                values.put(prefix + ".maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    values.put(prefix + "." + percentileName(percentile), percentile.value(TimeUnit.MILLISECONDS));
+                }
+            } else {
+                for (Measurement measurement : meter.measure()) {
+                    values.put(prefix + "." + measurement.getStatistic().getTagValueRepresentation(),
+                            measurement.getValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 输出所有指标
+     *
+     * @return JSON 对象，包含 uptimeMs、timers、counters、gauges 和 caches（含命中率）
+     * @throws IOException 写出失败
+     */
+    public static String writeStats() throws IOException {
+        List<Meter> meters = sortedMeters();
+        Map<String, double[]> caches = new LinkedHashMap<>();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeNumberField("uptimeMs", System.currentTimeMillis() - startTime);
+
+            generator.writeArrayFieldStart("timers");
+            for (Meter meter : meters) {
+                if (meter instanceof Timer) {
+                    writeTimer(generator, (Timer) meter);
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("counters");
+            for (Meter meter : meters) {
+                double count;
+                if (meter instanceof Counter) {
+                    count = ((Counter) meter).count();
+                } else if (meter instanceof FunctionCounter) {
+                    count = ((FunctionCounter) meter).count();
+                    String cache = meter.getId().getTag("cache");
+                    if (cache != null) {
+                        // [0]命中次数，[1]未命中次数
+                        int index = CACHE_HITS.equals(meter.getId().getName()) ? 0 : 1;
+                        caches.computeIfAbsent(cache, name -> new double[2])[index] = count;
+                    }
+                } else {
+                    continue;
+                }
+                generator.writeStartObject();
+                writeId(generator, meter);
+                generator.writeNumberField("count", (long) count);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("gauges");
+            for (Meter meter : meters) {
+                if (meter instanceof Gauge) {
+                    generator.writeStartObject();
+                    writeId(generator, meter);
+                    generator.writeNumberField("value", ((Gauge) meter).value());
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("caches");
+            for (Map.Entry<String, double[]> cache : caches.entrySet()) {
+                double hits = cache.getValue()[0];
+                double misses = cache.getValue()[1];
+                generator.writeStartObject();
+                generator.writeStringField("cache", cache.getKey());
+                generator.writeNumberField("hits", (long) hits);
+                generator.writeNumberField("misses", (long) misses);
+                generator.writeNumberField("hitRate", hits + misses > 0 ? round(hits / (hits + misses)) : 0);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 清空所有指标，仅用于测试
+     */
+    static void clear() {
+        registry.clear();
+    }
+
+    private static void writeTimer(JsonGenerator generator, Timer timer) throws IOException {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        generator.writeStartObject();
+        writeId(generator, timer);
+        generator.writeNumberField("count", snapshot.count());
+        generator.writeNumberField("totalMs", round(snapshot.total(TimeUnit.MILLISECONDS)));
+        generator.writeNumberField("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        generator.writeNumberField("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            generator.writeNumberField(percentileName(percentile), round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeId(JsonGenerator generator, Meter meter) throws IOException {
+        generator.writeStringField("name", meter.getId().getName());
+        List<Tag> tags = meter.getId().getTags();
+        if (!tags.isEmpty()) {
+            generator.writeObjectFieldStart("tags");
+            for (Tag tag : tags) {
+                generator.writeStringField(tag.getKey(), tag.getValue());
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static List<Meter> sortedMeters() {
+        List<Meter> meters = new ArrayList<>(registry.getMeters());
+        meters.sort(Comparator.comparing(ServerMetrics::meterKey));
+        return meters;
+    }
+
+    /**
+     * 指标名称加标签，例如 mapper2sql.tool.calls[outcome=success,tool=parse_mapper]
+     */
+    private static String meterKey(Meter meter) {
+        List<Tag> tags = meter.getId().getTags();
+        if (tags.isEmpty()) {
+            return meter.getId().getName();
+        }
+        StringBuilder key = new StringBuilder(meter.getId().getName()).append('[');
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(tags.get(i).getKey()).append('=').append(tags.get(i).getValue());
+        }
+        return key.append(']').toString();
+    }
+
+    /**
+     * 0.5 -> p50Ms，0.99 -> p99Ms
+     */
+    private static String percentileName(ValueAtPercentile percentile) {
+        return "p" + Math.round(percentile.percentile() * 100) + "Ms";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.wjy.mapper2sql.mcp.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 以 JMX 方式暴露服务运行指标
+ *
+ * 注册为 com.wjy.mapper2sql:type=ServerMetrics，每个指标的每个统计项为一个只读属性，
+ * 属性名与 ServerMetrics.flatten() 的键一致，例如 mapper2sql.tool.calls[outcome=success,tool=parse_mapper].p99Ms，
+ * 属性列表随新注册的指标动态变化
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class ServerMetricsJmxExporter implements DynamicMBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServerMetricsJmxExporter.class);
+
+    public static final String OBJECT_NAME = "com.wjy.mapper2sql:type=ServerMetrics";
+
+    /**
+     * 注册到平台 MBeanServer，已注册时忽略
+     *
+     * @return 是否注册成功
+     */
+    public static boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new ServerMetricsJmxExporter(), name);
+                logger.info("Server metrics registered to JMX: {}", OBJECT_NAME);
+            }
+            return true;
+        } catch (JMException e) {
+            logger.warn("Failed to register server metrics to JMX: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 从平台 MBeanServer 注销
+     */
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            logger.debug("Failed to unregister server metrics from JMX", e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Double value = ServerMetrics.flatten().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Double> values = ServerMetrics.flatten();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Double value = values.get(attribute);
+            if (value != null) {
+                list.add(new Attribute(attribute, value));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Server metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operations on server metrics: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Double> values = ServerMetrics.flatten();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+        int i = 0;
+        for (String name : values.keySet()) {
+            attributes[i++] = new MBeanAttributeInfo(name, Double.class.getName(), name, true, false, false);
+        }
+        return new MBeanInfo(ServerMetricsJmxExporter.class.getName(), "mapper2sql MCP server metrics", attributes,
+                null, null, null);
+    }
+}
@@ -0,0 +1,306 @@
+package com.wjy.mapper2sql.mcp.output;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.diff.MapperDiffResult;
+import com.wjy.mapper2sql.mcp.diff.StatementChange;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.parse.MapperBatchResult;
+import com.wjy.mapper2sql.mcp.parse.MapperParsePage;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * mapper 解析结果 JSON 输出工具类
+ *
+ * 使用 JsonGenerator 逐行写出解析结果，输出格式与 OutPutUtil.toLineList 序列化后的格式一致，
+ * 不再构建 List<List<String>> 中间结果；指定 structured 格式时每个 mapper 文件输出为
+ * {"file", "namespace", "dbType", "statements"} 对象，只写出选择的语句字段
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperResultJsonWriter {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private MapperResultJsonWriter() {
+    }
+
+    /**
+     * 输出全部解析结果
+     *
+     * @param results 解析结果
+     * @return JSON 数组，每个 mapper 文件对应一个字符串数组
+     * @throws IOException 写出失败
+     */
+    public static String write(List<MapperResult> results) throws IOException {
+        return write(results, OutputFormat.LINES);
+    }
+
+    /**
+     * 按指定格式输出全部解析结果
+     *
+     * @param results 解析结果
+     * @param format  输出格式
+     * @return JSON 数组，每个 mapper 文件对应一个字符串数组或 structured 格式的对象
+     * @throws IOException 写出失败
+     */
+    public static String write(List<MapperResult> results, OutputFormat format) throws IOException {
+        long start = System.nanoTime();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            writeResults(generator, results, format);
+        }
+        ServerMetrics.record(ServerMetrics.OUTPUT_SERIALIZE, start);
+        return writer.toString();
+    }
+
+    /**
+     * 输出一页解析结果
+     *
+     * @param page 分页解析结果
+     * @return JSON 对象，包含分页信息、截断标记 truncated 和 results 数组
+     * @throws IOException 写出失败
+     */
+    public static String write(MapperParsePage page) throws IOException {
+        return write(page, OutputFormat.LINES);
+    }
+
+    /**
+     * 按指定格式输出一页解析结果
+     *
+     * @param page   分页解析结果
+     * @param format 输出格式
+     * @return JSON 对象，包含分页信息、截断标记 truncated 和 results 数组
+     * @throws IOException 写出失败
+     */
+    public static String write(MapperParsePage page, OutputFormat format) throws IOException {
+        long start = System.nanoTime();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeNumberField("offset", page.getOffset());
+            generator.writeNumberField("fileCount", page.getFileCount());
+            generator.writeNumberField("totalFiles", page.getTotalFiles());
+            Integer nextOffset = page.getNextOffset();
+            if (nextOffset != null) {
+                generator.writeNumberField("nextOffset", nextOffset);
+            } else {
+                generator.writeNullField("nextOffset");
+            }
+            generator.writeBooleanField("truncated", page.isTruncated());
+            generator.writeFieldName("results");
+            writeResults(generator, page.getResults(), format);
+            generator.writeEndObject();
+        }
+        ServerMetrics.record(ServerMetrics.OUTPUT_SERIALIZE, start);
+        return writer.toString();
+    }
+
+    /**
+     * 输出批量解析结果
+     *
+     * @param batch 批量解析结果
+     * @return JSON 对象，包含去重后的文件总数 totalFiles、重复文件数 duplicateFiles、截断标记 truncated，
+     *         以及按请求路径分组的 results 对象，每个路径对应 fileCount、truncated 和 results 数组，
+     *         路径不存在时只有 error
+     * @throws IOException 写出失败
+     */
+    public static String write(MapperBatchResult batch) throws IOException {
+        return write(batch, OutputFormat.LINES);
+    }
+
+    /**
+     * 按指定格式输出批量解析结果
+     *
+     * @param batch  批量解析结果
+     * @param format 输出格式
+     * @return JSON 对象，格式同 write(MapperBatchResult)，每个路径的 results 按指定格式输出
+     * @throws IOException 写出失败
+     */
+    public static String write(MapperBatchResult batch, OutputFormat format) throws IOException {
+        long start = System.nanoTime();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeNumberField("totalFiles", batch.getTotalFiles());
+            generator.writeNumberField("duplicateFiles", batch.getDuplicateFiles());
+            generator.writeBooleanField("truncated", batch.isTruncated());
+            generator.writeObjectFieldStart("results");
+            for (MapperBatchResult.PathResult pathResult : batch.getPathResults()) {
+                generator.writeObjectFieldStart(pathResult.getPath());
+                if (pathResult.getError() != null) {
+                    generator.writeStringField("error", pathResult.getError());
+                } else {
+                    generator.writeNumberField("fileCount", pathResult.getFileCount());
+                    generator.writeBooleanField("truncated", pathResult.isTruncated());
+                    generator.writeFieldName("results");
+                    writeResults(generator, pathResult.getResults(), format);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        ServerMetrics.record(ServerMetrics.OUTPUT_SERIALIZE, start);
+        return writer.toString();
+    }
+
+    /**
+     * 输出语句级差异
+     *
+     * @param diff 语句级差异
+     * @return JSON 对象，包含基准版本、变化的文件数、未变化的语句数、截断标记 truncated 和 statements 数组，
+     *         每条语句包含 change、namespace、id、file 以及 baseSql、sql，测试后还包含 mockedSql、testResult 和 testMsg，
+     *         testResult 为布尔值，未得到测试结果时为null；有解析失败的文件时包含 errors 对象（文件 -> 错误信息）
+     * @throws IOException 写出失败
+     */
+    public static String write(MapperDiffResult diff) throws IOException {
+        long start = System.nanoTime();
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("baseRevision", diff.getBaseRevision());
+            generator.writeStringField("baseCommit", diff.getBaseCommit());
+            generator.writeNumberField("changedFiles", diff.getChangedFiles());
+            generator.writeNumberField("unchangedStatements", diff.getUnchangedStatements());
+            generator.writeBooleanField("truncated", diff.isTruncated());
+            generator.writeArrayFieldStart("statements");
+            for (StatementChange change : diff.getChanges()) {
+                generator.writeStartObject();
+                generator.writeStringField("change", change.getType().name());
+                generator.writeStringField("namespace", change.getNamespace());
+                generator.writeStringField("id", change.getId());
+                generator.writeStringField("file", change.getFile());
+                if (change.getBaseSql() != null) {
+                    generator.writeStringField("baseSql", change.getBaseSql());
+                }
+                if (change.getSql() != null) {
+                    generator.writeStringField("sql", change.getSql());
+                }
+                if (change.getMockedSql() != null) {
+                    generator.writeStringField("mockedSql", change.getMockedSql());
+                    if (change.getTestResult() != null) {
+                        generator.writeBooleanField("testResult", change.getTestResult());
+                    } else {
+                        generator.writeNullField("testResult");
+                    }
+                    generator.writeStringField("testMsg", change.getTestMsg());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            if (!diff.getErrors().isEmpty()) {
+                generator.writeObjectFieldStart("errors");
+                for (Map.Entry<String, String> error : diff.getErrors().entrySet()) {
+                    generator.writeStringField(error.getKey(), error.getValue());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        ServerMetrics.record(ServerMetrics.OUTPUT_SERIALIZE, start);
+        return writer.toString();
+    }
+
+    private static void writeResults(JsonGenerator generator, List<MapperResult> results, OutputFormat format)
+            throws IOException {
+        generator.writeStartArray();
+        for (MapperResult info : results) {
+            if (format.isStructured()) {
+                writeStructuredResult(generator, info, format);
+            } else {
+                writeMapperResult(generator, info);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * 写出单个 mapper 文件的 structured 格式结果
+     */
+    private static void writeStructuredResult(JsonGenerator generator, MapperResult info, OutputFormat format)
+            throws IOException {
+        boolean compact = format.isCompact();
+        generator.writeStartObject();
+        generator.writeStringField("file", info.getFilePath());
+        generator.writeStringField("namespace", info.getNamespace());
+        generator.writeStringField("dbType", info.getDbTypeName());
+        generator.writeArrayFieldStart("statements");
+        for (int i = 0; i < info.getStatementCount(); i++) {
+            generator.writeStartObject();
+            generator.writeStringField("id", info.getId(i));
+            if (format.includes(OutputFormat.Field.TYPE)) {
+                generator.writeStringField("type", info.getType(i).name().toLowerCase(Locale.ROOT));
+            }
+            if (format.includes(OutputFormat.Field.SQL)) {
+                generator.writeStringField("sql", info.getSql(i));
+            }
+            if (format.includes(OutputFormat.Field.MOCKED_SQL)) {
+                String mockedSql = info.getMockedSql(i);
+                // 同时输出 sql 时，与 sql 相同的 mockedSql 不再重复输出
+                boolean redundant = mockedSql == null
+                        || format.includes(OutputFormat.Field.SQL) && mockedSql.equals(info.getSql(i));
+                if (!compact || !redundant) {
+                    writeNullableString(generator, "mockedSql", mockedSql);
+                }
+            }
+            if (format.includes(OutputFormat.Field.TEST_RESULT)) {
+                Boolean testResult = info.getTestResult(i);
+                if (testResult != null) {
+                    generator.writeBooleanField("testResult", testResult);
+                } else if (!compact) {
+                    generator.writeNullField("testResult");
+                }
+            }
+            if (format.includes(OutputFormat.Field.TEST_MSG)) {
+                String testMsg = info.getTestMsg(i);
+                if (!compact || testMsg != null && !testMsg.isEmpty()) {
+                    writeNullableString(generator, "testMsg", testMsg);
+                }
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeNullableString(JsonGenerator generator, String fieldName, String value)
+            throws IOException {
+        if (value != null) {
+            generator.writeStringField(fieldName, value);
+        } else {
+            generator.writeNullField(fieldName);
+        }
+    }
+
+    /**
+     * 写出单个 mapper 文件的结果，与 OutPutUtil 的行格式保持一致
+     */
+    private static void writeMapperResult(JsonGenerator generator, MapperResult info) throws IOException {
+        generator.writeStartArray();
+        generator.writeString(String.format("---namespace=[%s], dbType=[%s], file=[%s]", info.getNamespace(),
+                info.getDbTypeName(), info.getFilePath()));
+        generator.writeString("");
+        for (int i = 0; i < info.getStatementCount(); i++) {
+            Boolean result = info.getTestResult(i);
+            String testResult = "unknown";
+            String testMsg = "";
+            if (result != null) {
+                testResult = result.toString();
+                testMsg = info.getTestMsg(i) != null ? info.getTestMsg(i).replace("\n", "") : "";
+            }
+            generator.writeString(String.format("---id=[%s], testResult=[%s], testMsg=[%s]", info.getId(i),
+                    testResult, testMsg));
+            generator.writeString(info.getEffectiveSql(i));
+            generator.writeString("");
+        }
+        generator.writeEndArray();
+    }
+}
@@ -0,0 +1,138 @@
+package com.wjy.mapper2sql.mcp.output;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 解析结果的输出格式
+ *
+ * 1）lines：默认格式，与 OutPutUtil.toLineList 一致，每个 mapper 文件为一个文本行数组
+ * 2）structured：按 文件 → namespace → 语句 输出 JSON 对象，每条语句包含 id 和 fields 选择的字段，
+ *    compact 时省略值为null的字段、与 sql 相同的 mockedSql 和空的 testMsg
+ *
+ * 指定 fields 或 compact 但未指定格式时使用 structured
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class OutputFormat {
+
+    public static final String FORMAT_LINES = "lines";
+    public static final String FORMAT_STRUCTURED = "structured";
+    private static final List<String> FORMATS = Arrays.asList(FORMAT_LINES, FORMAT_STRUCTURED);
+
+    /**
+     * 默认的文本行格式
+     */
+    public static final OutputFormat LINES = new OutputFormat(false, EnumSet.allOf(Field.class), false);
+
+    /**
+     * structured 格式中语句的可选字段，id 始终输出
+     */
+    public enum Field {
+        TYPE("type"),
+        SQL("sql"),
+        MOCKED_SQL("mockedSql"),
+        TEST_RESULT("testResult"),
+        TEST_MSG("testMsg");
+
+        private final String jsonName;
+
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        private static Field of(String name) {
+            for (Field field : values()) {
+                if (field.jsonName.equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final boolean structured;
+    private final Set<Field> fields;
+    private final boolean compact;
+
+    private OutputFormat(boolean structured, Set<Field> fields, boolean compact) {
+        this.structured = structured;
+        this.fields = Collections.unmodifiableSet(fields);
+        this.compact = compact;
+    }
+
+    /**
+     * 按工具参数创建输出格式
+     *
+     * @param format  lines 或 structured，为空时为 lines，指定 fields 或 compact 时为 structured
+     * @param fields  structured 格式输出的语句字段，为空时输出全部字段，只有 id 时只输出 id
+     * @param compact 是否省略空值字段
+     * @return 输出格式
+     * @throws IllegalArgumentException 格式或字段名不支持，或 lines 格式指定了 fields、compact
+     */
+    public static OutputFormat of(String format, List<String> fields, Boolean compact) {
+        EnumSet<Field> selected = EnumSet.noneOf(Field.class);
+        boolean projected = false;
+        if (fields != null) {
+            for (String name : fields) {
+                if (name == null || name.trim().isEmpty()) {
+                    continue;
+                }
+                projected = true;
+                if ("id".equalsIgnoreCase(name.trim())) {
+                    continue;
+                }
+                Field field = Field.of(name.trim());
+                if (field == null) {
+                    throw new IllegalArgumentException("Unsupported field: " + name + ", expected one of "
+                            + Arrays.stream(Field.values()).map(Field::getJsonName).collect(Collectors.toList()));
+                }
+                selected.add(field);
+            }
+        }
+        boolean compactOutput = compact != null && compact;
+
+        String formatName = format == null || format.trim().isEmpty()
+                ? (projected || compactOutput ? FORMAT_STRUCTURED : FORMAT_LINES)
+                : format.trim().toLowerCase(Locale.ROOT);
+        if (!FORMATS.contains(formatName)) {
+            throw new IllegalArgumentException("Unsupported format: " + format + ", expected one of " + FORMATS);
+        }
+        if (FORMAT_LINES.equals(formatName)) {
+            if (projected || compactOutput) {
+                throw new IllegalArgumentException("fields and compact are only supported by the "
+                        + FORMAT_STRUCTURED + " format");
+            }
+            return LINES;
+        }
+        return new OutputFormat(true, projected ? selected : EnumSet.allOf(Field.class), compactOutput);
+    }
+
+    public boolean isStructured() {
+        return structured;
+    }
+
+    /**
+     * 是否输出语句字段
+     *
+     * @param field 语句字段
+     * @return true表示输出
+     */
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+}
@@ -0,0 +1,145 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 多路径批量解析结果
+ *
+ * 按请求的路径顺序保存每个路径的解析结果，多个路径匹配到同一个文件时只解析一次，
+ * 结果只归属于第一个匹配的路径，duplicateFiles 为因此跳过的文件数
+ *
+ * 截止时间到达时只包含部分结果，未处理完的路径标记为已截断
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperBatchResult {
+
+    private final List<PathResult> pathResults;
+    private final int totalFiles;
+    private final int duplicateFiles;
+    private final boolean truncated;
+
+    /**
+     * 构造函数
+     *
+     * @param pathResults    各路径的解析结果，顺序与请求的路径一致
+     * @param totalFiles     去重后的文件总数
+     * @param duplicateFiles 被多个路径重复匹配而跳过的文件数
+     * @param truncated      是否因截止时间到达或调用取消而只有部分结果
+     */
+    public MapperBatchResult(List<PathResult> pathResults, int totalFiles, int duplicateFiles, boolean truncated) {
+        this.pathResults = pathResults;
+        this.totalFiles = totalFiles;
+        this.duplicateFiles = duplicateFiles;
+        this.truncated = truncated;
+    }
+
+    public List<PathResult> getPathResults() {
+        return pathResults;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public int getDuplicateFiles() {
+        return duplicateFiles;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 获取所有路径的解析结果，按路径顺序排列
+     *
+     * @return 解析结果
+     */
+    public List<MapperResult> getResults() {
+        List<MapperResult> results = new ArrayList<>();
+        for (PathResult pathResult : pathResults) {
+            results.addAll(pathResult.getResults());
+        }
+        return results;
+    }
+
+    /**
+     * 用测试结果替换解析结果
+     *
+     * @param results   测试结果，顺序和数量与 getResults() 一致
+     * @param truncated SQL 测试是否被截断
+     * @return 新的批量解析结果
+     */
+    public MapperBatchResult withResults(List<MapperResult> results, boolean truncated) {
+        List<PathResult> replaced = new ArrayList<>(pathResults.size());
+        int index = 0;
+        for (PathResult pathResult : pathResults) {
+            int count = pathResult.getResults().size();
+            replaced.add(new PathResult(pathResult.getPath(), results.subList(index, index + count),
+                    pathResult.getFileCount(), pathResult.isTruncated() || truncated, pathResult.getError()));
+            index += count;
+        }
+        return new MapperBatchResult(replaced, totalFiles, duplicateFiles, this.truncated || truncated);
+    }
+
+    /**
+     * 单个路径的解析结果
+     */
+    public static class PathResult {
+        private final String path;
+        private final List<MapperResult> results;
+        private final int fileCount;
+        private final boolean truncated;
+        // 路径不存在等错误信息，为null表示没有错误
+        private final String error;
+
+        public PathResult(String path, List<MapperResult> results, int fileCount, boolean truncated, String error) {
+            this.path = path;
+            this.results = results;
+            this.fileCount = fileCount;
+            this.truncated = truncated;
+            this.error = error;
+        }
+
+        /**
+         * 创建路径错误的结果
+         *
+         * @param path  请求的路径
+         * @param error 错误信息
+         * @return 没有解析结果的路径结果
+         */
+        public static PathResult error(String path, String error) {
+            return new PathResult(path, Collections.emptyList(), 0, false, error);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public List<MapperResult> getResults() {
+            return results;
+        }
+
+        /**
+         * 获取归属于该路径的文件数，不含已归属于前面路径的重复文件
+         *
+         * @return 文件数
+         */
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * mapper 目录监听器
+ *
+ * 目录第一次被解析时注册到 WatchService，并建立该目录下的文件索引：
+ * 1）之后的解析直接从索引取文件列表，不再遍历磁盘
+ * 2）文件的新增、修改、删除事件由后台线程处理，只使对应文件的解析缓存失效
+ * 3）未变化文件的缓存条目不再校验文件指纹，解析调用变为内存查找
+ *
+ * 事件丢失（OVERFLOW）时重新扫描整个目录，扫描结果整体替换原索引，并使该目录下的缓存全部失效
+ * 索引中的文件按路径排序，保证返回顺序稳定
+ *
+ * 监听的根目录数超过上限时注销最久未访问的根目录，该目录下的缓存条目恢复为按文件指纹校验
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperDirectoryWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperDirectoryWatcher.class);
+
+    private final MapperParseCache parseCache;
+    private final int maxRoots;
+    private final WatchService watchService;
+    private final Thread watchThread;
+
+    // 已注册的根目录 -> 文件索引
+    private final Map<Path, WatchedRoot> roots = new ConcurrentHashMap<>();
+    // WatchKey -> 被监听的目录
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    public MapperDirectoryWatcher(MapperParseCache parseCache) throws IOException {
+        this(parseCache, ParseCacheConfig.DEFAULT_WATCH_MAX_ROOTS);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param parseCache 解析结果缓存
+     * @param maxRoots   最多监听的根目录数，超出后注销最久未访问的根目录
+     * @throws IOException 创建 WatchService 失败
+     */
+    public MapperDirectoryWatcher(MapperParseCache parseCache, int maxRoots) throws IOException {
+        this.parseCache = parseCache;
+        this.maxRoots = Math.max(1, maxRoots);
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchThread = new Thread(this::processEvents, "mapper-dir-watcher");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    /**
+     * 获取路径下的文件列表
+     *
+     * 路径位于已监听的目录下时直接返回索引内容；
+     * 路径为未监听的目录时注册监听并建立索引；
+     * 路径为未监听目录下的单个文件，或注册监听失败（例如超出 inotify 监听数上限）时返回null，由调用方自行遍历目录
+     *
+     * @param filePath 文件或目录路径
+     * @return 规范化的文件路径列表，无法使用索引时返回null
+     * @throws IOException 路径不存在
+     */
+    public List<Path> listFiles(String filePath) throws IOException {
+        Path requested = Paths.get(filePath).toRealPath();
+        WatchedRoot root = findRoot(requested);
+        if (root == null) {
+            if (!Files.isDirectory(requested) || closed) {
+                return null;
+            }
+            try {
+                root = roots.computeIfAbsent(requested, this::registerRoot);
+            } catch (UncheckedIOException e) {
+                logger.warn("Failed to watch mapper directory {}, falling back to directory scanning: {}",
+                        requested, e.getCause().toString());
+                return null;
+            }
+        }
+        root.lastAccessNanos = System.nanoTime();
+        if (roots.size() > maxRoots) {
+            evictLeastRecentlyUsed();
+        }
+        return root.filesUnder(requested);
+    }
+
+    /**
+     * 获取已监听的根目录数
+     *
+     * @return 已监听的根目录数
+     */
+    public int getWatchedRootCount() {
+        return roots.size();
+    }
+
+    /**
+     * 获取已注册监听的目录数
+     *
+     * @return 已注册监听的目录数
+     */
+    public int getWatchedDirCount() {
+        return watchedDirs.size();
+    }
+
+    /**
+     * 停止监听
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close watch service", e);
+        }
+        watchThread.interrupt();
+    }
+
+    private WatchedRoot findRoot(Path path) {
+        for (WatchedRoot root : roots.values()) {
+            if (path.startsWith(root.path)) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    private WatchedRoot registerRoot(Path rootPath) {
+        WatchedRoot root = new WatchedRoot(rootPath);
+        try {
+            registerTree(rootPath, root.files);
+        } catch (IOException | RuntimeException e) {
+            // 注册到一半失败时取消已注册的监听，根目录尚未加入 roots，其他根目录下的监听不受影响
+            cancelWatchesUnder(rootPath);
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e)
+                    : new UncheckedIOException(new IOException(e));
+        }
+        parseCache.distrustUnder(rootPath);
+        logger.info("Watching mapper directory: {}, {} files indexed", rootPath, root.files.size());
+        return root;
+    }
+
+    /**
+     * 注销最久未访问的根目录，直到根目录数不超过上限
+     */
+    private synchronized void evictLeastRecentlyUsed() {
+        while (roots.size() > maxRoots) {
+            WatchedRoot eldest = null;
+            for (WatchedRoot root : roots.values()) {
+                if (eldest == null || root.lastAccessNanos - eldest.lastAccessNanos < 0) {
+                    eldest = root;
+                }
+            }
+            if (eldest == null || !roots.remove(eldest.path, eldest)) {
+                return;
+            }
+            unregisterRoot(eldest);
+        }
+    }
+
+    /**
+     * 取消根目录下不属于其他根目录的目录监听，该目录下的缓存条目改为按文件指纹校验
+     */
+    private void unregisterRoot(WatchedRoot root) {
+        cancelWatchesUnder(root.path);
+        parseCache.distrustUnder(root.path);
+        logger.info("Stopped watching least recently used mapper directory: {}", root.path);
+    }
+
+    /**
+     * 取消目录下不属于任何已注册根目录的监听
+     */
+    private void cancelWatchesUnder(Path rootPath) {
+        watchedDirs.entrySet().removeIf(entry -> {
+            Path dir = entry.getValue();
+            if (!dir.startsWith(rootPath) || findRoot(dir) != null) {
+                return false;
+            }
+            entry.getKey().cancel();
+            return true;
+        });
+    }
+
+    /**
+     * 注册单个目录的监听，测试中可以覆盖以模拟注册失败
+     */
+    WatchKey register(Path dir) throws IOException {
+        return dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * 注册目录树下的所有目录并索引文件
+     * 先注册目录再列出文件，避免遗漏注册期间新增的文件
+     */
+    private void registerTree(Path dir, Set<Path> files) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                watchedDirs.put(register(subDir), subDir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 后台线程处理文件变化事件
+     */
+    private void processEvents() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = watchedDirs.get(key);
+            if (dir != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        handleEvent(dir, event);
+                    } catch (Exception e) {
+                        logger.warn("Failed to handle file event {} in {}", event.kind().name(), dir, e);
+                    }
+                }
+            }
+            if (!key.reset()) {
+                // 目录已被删除或不可访问
+                watchedDirs.remove(key);
+            }
+        }
+    }
+
+    private void handleEvent(Path dir, WatchEvent<?> event) throws IOException {
+        // 根目录之间可能嵌套，同一个目录的事件需要更新所有包含它的索引
+        for (WatchedRoot root : roots.values()) {
+            if (!dir.startsWith(root.path)) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                rescan(root);
+                continue;
+            }
+
+            Path child = dir.resolve((Path) event.context());
+            logger.debug("Mapper directory event: {} {}", event.kind().name(), child);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // 删除的可能是文件也可能是目录
+                root.files.removeIf(file -> file.startsWith(child));
+                parseCache.invalidateUnder(child);
+            } else if (Files.isDirectory(child)) {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    registerTree(child, root.files);
+                    parseCache.invalidateUnder(child);
+                }
+            } else if (Files.isRegularFile(child)) {
+                root.files.add(child);
+                parseCache.invalidate(child);
+            }
+        }
+    }
+
+    /**
+     * 重新扫描根目录
+     *
+     * 在新的集合中建立索引后整体替换，并发的 listFiles 只会看到替换前或替换后的完整列表；
+     * 事件只在监听线程中处理，扫描期间不会有事件写入被替换的集合
+     */
+    private void rescan(WatchedRoot root) throws IOException {
+        logger.warn("File events overflowed, rescanning mapper directory: {}", root.path);
+        NavigableSet<Path> files = new ConcurrentSkipListSet<>();
+        registerTree(root.path, files);
+        root.files = files;
+        parseCache.invalidateUnder(root.path);
+    }
+
+    /**
+     * 已监听的根目录
+     */
+    private static final class WatchedRoot {
+        private final Path path;
+        private volatile NavigableSet<Path> files = new ConcurrentSkipListSet<>();
+        // 最近一次 listFiles 访问的时间，用于淘汰最久未访问的根目录
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private WatchedRoot(Path path) {
+            this.path = path;
+        }
+
+        private List<Path> filesUnder(Path requested) {
+            NavigableSet<Path> current = files;
+            if (requested.equals(path)) {
+                return new ArrayList<>(current);
+            }
+            List<Path> result = new ArrayList<>();
+            for (Path file : current) {
+                if (file.startsWith(requested)) {
+                    result.add(file);
+                }
+            }
+            return result;
+        }
+    }
+}
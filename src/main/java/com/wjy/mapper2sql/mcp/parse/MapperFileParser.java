@@ -0,0 +1,235 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.SQLUtils;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.parse.param.SimpleSqlParamMap;
+import com.wjy.mapper2sql.parse.token.SimpleTokenHandler;
+import com.wjy.mapper2sql.parse.type.SimpleTypeAliasRegistry;
+import com.wjy.mapper2sql.parse.xmltag.SimpleIfSqlNode;
+import com.wjy.mapper2sql.util.ReflectUtil;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.scripting.xmltags.ChooseSqlNode;
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.scripting.xmltags.IfSqlNode;
+import org.apache.ibatis.scripting.xmltags.SqlNode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个 mapper 文件的 SQL 解析器
+ *
+ * 解析逻辑与 SqlParse.parseMapperFile 一致，区别是不再为每个文件新建 MyBatis Configuration：
+ * 1）Configuration 的类型别名、类型处理器、反射缓存等注册表只在创建时初始化一次
+ * 2）解析完成后清空 mapper 相关的状态（MappedStatement、ResultMap、sql 片段等）并归还到池中复用
+ * 3）池中的 Configuration 同一时刻只被一个线程使用
+ * 4）解析结果为 MapperResult，resultMap 只保留列名和 jdbcType，结果不引用 Configuration 中的任何对象
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperFileParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperFileParser.class);
+
+    private static final String PARAM_MAP_PATTERN = "com.wjy.mapper2sql.parse.param.SimpleSqlParamMap@\\d+";
+
+    private final int maxPooledConfigurations;
+    private final Queue<ReusableConfiguration> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledCount = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param maxPooledConfigurations 池中最多保留的 Configuration 数，通常为解析并行度
+     */
+    public MapperFileParser(int maxPooledConfigurations) {
+        this.maxPooledConfigurations = Math.max(1, maxPooledConfigurations);
+    }
+
+    /**
+     * 解析单个 mapper 文件
+     *
+     * @param filePath mapper XML 文件路径
+     * @param dbType   数据库类型
+     * @return 解析结果
+     * @throws Exception 解析失败
+     */
+    public MapperResult parse(String filePath, DbType dbType) throws Exception {
+        ReusableConfiguration configuration = borrow();
+        try {
+            XMLMapperBuilder mapperParser;
+            try (InputStream inputStream = new FileInputStream(filePath)) {
+                mapperParser = new XMLMapperBuilder(inputStream, configuration, filePath,
+                        configuration.getSqlFragments());
+            }
+            mapperParser.parse();
+
+            // 与 MapperSqlInfo 一样先放入 HashMap，语句顺序与 mapper2sql 的输出一致
+            HashMap<String, String> sqlIdMap = new HashMap<>();
+            Map<String, SqlCommandType> sqlCommandTypes = new HashMap<>();
+            for (MappedStatement statement : new HashSet<>(configuration.getMappedStatements())) {
+                String id = statement.getId();
+                id = id.substring(id.lastIndexOf('.') + 1);
+                String sql = parseSql(statement, configuration) + ";";
+                sqlIdMap.put(id, SQLUtils.format(sql, dbType));
+                sqlCommandTypes.put(id, statement.getSqlCommandType());
+            }
+            return MapperResult.of(filePath, getNamespace(mapperParser), dbType.name(), sqlIdMap, sqlCommandTypes,
+                    getResultColumnTypes(configuration));
+        } finally {
+            release(configuration);
+        }
+    }
+
+    /**
+     * 获取池中空闲的 Configuration 数
+     *
+     * @return 空闲的 Configuration 数
+     */
+    public int getPooledCount() {
+        return pooledCount.get();
+    }
+
+    private ReusableConfiguration borrow() throws ReflectiveOperationException {
+        ReusableConfiguration configuration = pool.poll();
+        if (configuration != null) {
+            pooledCount.decrementAndGet();
+            return configuration;
+        }
+        return new ReusableConfiguration();
+    }
+
+    private void release(ReusableConfiguration configuration) {
+        // namespace 绑定到了 classpath 上的 Mapper 接口，mapperRegistry 无法清空，不再复用
+        if (!configuration.getMapperRegistry().getMappers().isEmpty()) {
+            return;
+        }
+        configuration.reset();
+        if (pooledCount.incrementAndGet() <= maxPooledConfigurations) {
+            pool.offer(configuration);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    private static String getNamespace(XMLMapperBuilder mapperParser) throws ReflectiveOperationException {
+        MapperBuilderAssistant builderAssistant = (MapperBuilderAssistant) ReflectUtil
+                .getFieldValueMaxDeep1(mapperParser, "builderAssistant");
+        return builderAssistant.getCurrentNamespace();
+    }
+
+    /**
+     * 按 ResultMapping 顺序合并 resultMap 中的列名和 jdbcType
+     */
+    private static Map<String, JdbcType> getResultColumnTypes(Configuration configuration) {
+        Map<String, JdbcType> columnTypes = new HashMap<>();
+        try {
+            for (ResultMap resultMap : new HashSet<>(configuration.getResultMaps())) {
+                for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
+                    columnTypes.put(resultMapping.getColumn(), resultMapping.getJdbcType());
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to collect result mappings: {}", e.getMessage());
+        }
+        return columnTypes;
+    }
+
+    private static String parseSql(MappedStatement statement, Configuration configuration) throws Exception {
+        SqlSource sqlSource = statement.getSqlSource();
+        String sql;
+        if (sqlSource instanceof DynamicSqlSource) {
+            DynamicContext context = new DynamicContext(configuration, new SimpleSqlParamMap());
+            SqlNode rootSqlNode = (SqlNode) ReflectUtil.getFieldValueMaxDeep1(sqlSource, "rootSqlNode");
+            rootSqlNode = resetIfSqlNode(rootSqlNode);
+            rootSqlNode.apply(context);
+            GenericTokenParser tokenParser = new GenericTokenParser("#{", "}", new SimpleTokenHandler());
+            sql = tokenParser.parse(context.getSql());
+        } else {
+            sql = statement.getBoundSql(new SimpleSqlParamMap()).getSql();
+        }
+        return sql.replaceAll(PARAM_MAP_PATTERN, "?");
+    }
+
+    /**
+     * 将 if 节点替换为始终生效的节点，使所有条件分支都输出到 SQL 中
+     */
+    @SuppressWarnings("unchecked")
+    private static SqlNode resetIfSqlNode(SqlNode sqlNode) {
+        String fieldName = "contents";
+        try {
+            if (sqlNode instanceof IfSqlNode) {
+                sqlNode = new SimpleIfSqlNode((SqlNode) ReflectUtil.getFieldValueMaxDeep1(sqlNode, fieldName));
+            } else if (sqlNode instanceof ChooseSqlNode) {
+                fieldName = "ifSqlNodes";
+            }
+            Object contents = ReflectUtil.getFieldValueMaxDeep1(sqlNode, fieldName);
+            if (contents == null) {
+                return sqlNode;
+            }
+            if (contents instanceof List) {
+                List<SqlNode> children = (List<SqlNode>) contents;
+                for (int i = 0; i < children.size(); i++) {
+                    children.set(i, resetIfSqlNode(children.get(i)));
+                }
+            } else if (contents instanceof SqlNode) {
+                ReflectUtil.setFieldValueMaxDeep1(sqlNode, fieldName, resetIfSqlNode((SqlNode) contents));
+            }
+        } catch (NoSuchFieldException e) {
+            // 叶子节点没有子节点
+        } catch (Exception e) {
+            logger.warn("Failed to reset if sql node: {}", e.getMessage());
+        }
+        return sqlNode;
+    }
+
+    /**
+     * 可重置的 MyBatis Configuration
+     *
+     * 只清空解析 mapper 文件时写入的状态，注册表等初始化开销较大的部分保留
+     */
+    private static final class ReusableConfiguration extends Configuration {
+
+        private ReusableConfiguration() throws ReflectiveOperationException {
+            super();
+            ReflectUtil.setFieldValueMaxDeep1(this, "typeAliasRegistry", new SimpleTypeAliasRegistry());
+        }
+
+        private void reset() {
+            mappedStatements.clear();
+            caches.clear();
+            resultMaps.clear();
+            parameterMaps.clear();
+            keyGenerators.clear();
+            loadedResources.clear();
+            sqlFragments.clear();
+            incompleteStatements.clear();
+            incompleteCacheRefs.clear();
+            incompleteResultMaps.clear();
+            incompleteMethods.clear();
+            cacheRefMap.clear();
+        }
+    }
+}
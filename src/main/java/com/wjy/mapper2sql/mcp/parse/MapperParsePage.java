@@ -0,0 +1,87 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+
+import java.util.List;
+
+/**
+ * mapper 文件分页解析结果
+ *
+ * 分页按路径下的文件计数，一页中的非 mapper 文件没有解析结果，
+ * 因此 results 的数量可能少于 fileCount
+ *
+ * 工具调用到达截止时间时返回部分结果，truncated 为true：
+ * 解析被截断时 fileCount 只包含已连续处理完成的文件，从 nextOffset 继续即可取得剩余结果；
+ * SQL 测试被截断时未执行的语句在测试结果中标记为未执行
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperParsePage {
+
+    private final List<MapperResult> results;
+    private final int offset;
+    private final int fileCount;
+    private final int totalFiles;
+    private final boolean truncated;
+
+    /**
+     * 构造函数
+     *
+     * @param results    当前页的解析结果
+     * @param offset     当前页的起始文件下标
+     * @param fileCount  当前页包含的文件数
+     * @param totalFiles 路径下的文件总数
+     */
+    public MapperParsePage(List<MapperResult> results, int offset, int fileCount, int totalFiles) {
+        this(results, offset, fileCount, totalFiles, false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param results    当前页的解析结果
+     * @param offset     当前页的起始文件下标
+     * @param fileCount  当前页已处理完成的文件数
+     * @param totalFiles 路径下的文件总数
+     * @param truncated  是否因截止时间到达或调用取消而只有部分结果
+     */
+    public MapperParsePage(List<MapperResult> results, int offset, int fileCount, int totalFiles,
+            boolean truncated) {
+        this.results = results;
+        this.offset = offset;
+        this.fileCount = fileCount;
+        this.totalFiles = totalFiles;
+        this.truncated = truncated;
+    }
+
+    public List<MapperResult> getResults() {
+        return results;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 获取下一页的起始文件下标
+     *
+     * @return 下一页的起始下标，已是最后一页时返回null
+     */
+    public Integer getNextOffset() {
+        int next = offset + fileCount;
+        return next < totalFiles ? next : null;
+    }
+}
@@ -0,0 +1,805 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.cache.TableMetadataCache;
+import com.wjy.mapper2sql.mcp.jdbc.ConnectionProvider;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+import com.wjy.mapper2sql.mcp.util.VirtualThreadUtil;
+import com.wjy.mapper2sql.util.FileUtil;
+import com.wjy.mapper2sql.util.MybatisUtil;
+
+import org.apache.ibatis.type.JdbcType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * mapper 文件解析器
+ *
+ * 按单个文件解析（逻辑与 SqlUtil 一致，由 MapperFileParser 复用 MyBatis Configuration），
+ * 并使用 MapperParseCache 缓存每个文件的解析结果，
+ * 未变化的文件直接返回缓存结果，只有新增或修改的文件才重新解析
+ *
+ * 目录下的文件由固定大小的线程池并行解析：
+ * 1）每个工作线程从共享下标中领取文件，结果按文件遍历顺序写回，返回顺序与串行解析一致
+ * 2）单个文件解析失败只记录日志，不影响其他文件
+ * 3）需要数据库连接时每个工作线程在首次查询表字段类型时借出一个连接，整个任务期间独占使用
+ *
+ * 启用虚拟线程时每个工作线程为一个虚拟线程，多个工具调用同时解析时不再共用固定大小的线程池，
+ * 改为由 parallelism 个许可的信号量限制同时读取和解析文件的数量
+ *
+ * 启用目录监听时，目录下的文件列表来自 MapperDirectoryWatcher 的索引，不再遍历磁盘，
+ * 缓存命中时也不再校验文件指纹
+ *
+ * 按 namespace 和语句 id 查询单条语句时，由 MapperStatementIndex 定位所在文件，只解析该文件
+ *
+ * 批量解析多个路径（parseMapperBatch）时，所有路径下的文件去重后由同一组工作线程一次解析，结果再按路径分组
+ *
+ * 模拟参数时每条语句由 SqlMockTemplateCache 编译为参数模拟模板并按语句缓存，
+ * 重新模拟（表字段元数据刷新、切换数据源、文件中其他语句被修改）时直接渲染模板，不再用 Druid 解析 SQL
+ *
+ * 配置了多个数据源时，通过 forDataSource 为每个数据源创建使用自己表字段元数据缓存的视图，
+ * 视图与原解析器共享线程池、解析结果缓存、目录监听和语句索引，模拟参数的缓存结果按数据源区分
+ *
+ * 解析结果为不可变的 MapperResult，模拟参数时生成新的结果，缓存中的共享结果不被修改
+ *
+ * 调用线程绑定了工具调用截止时间（见 ToolDeadline）时，截止时间到达后停止遍历目录，工作线程不再领取新的文件，
+ * 只返回从第一个文件开始连续解析完成的部分，并标记为已截断
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperParser implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperParser.class);
+
+    // 解析结果缓存，为null表示不启用缓存
+    private final MapperParseCache parseCache;
+    // 目录监听器，为null表示不启用监听
+    private final MapperDirectoryWatcher directoryWatcher;
+    // 表字段元数据缓存，为null表示每次直接查询数据库
+    private final TableMetadataCache tableMetadataCache;
+    private final int parallelism;
+    // 单文件解析器，复用 MyBatis Configuration
+    private final MapperFileParser mapperFileParser;
+    // 解析线程池，并行度为1时为null，在调用线程上串行解析
+    private final ExecutorService executor;
+    // 同时解析文件数的许可，只在使用虚拟线程时不为null
+    private final Semaphore diskPermits;
+    // namespace + 语句 id 到所在文件的索引
+    private final MapperStatementIndex statementIndex;
+    // 参数模拟模板缓存
+    private final SqlMockTemplateCache mockTemplates;
+    // 提供表字段元数据的数据源名称，模拟参数的缓存结果按数据源区分，为null表示未区分数据源
+    private final String dataSource;
+    // 是否为 forDataSource 创建的视图，视图不关闭共享的资源
+    private final boolean view;
+
+    public MapperParser(MapperParseCache parseCache, MapperDirectoryWatcher directoryWatcher,
+            TableMetadataCache tableMetadataCache, int parallelism, boolean virtualThreads) {
+        this.parseCache = parseCache;
+        this.directoryWatcher = parseCache != null ? directoryWatcher : null;
+        this.tableMetadataCache = tableMetadataCache;
+        this.parallelism = Math.max(1, parallelism);
+        this.mapperFileParser = new MapperFileParser(this.parallelism);
+        this.executor = this.parallelism > 1
+                ? VirtualThreadUtil.newExecutor("mapper-parse-", this.parallelism, virtualThreads)
+                : null;
+        this.diskPermits = virtualThreads ? new Semaphore(this.parallelism, true) : null;
+        this.statementIndex = new MapperStatementIndex();
+        this.mockTemplates = new SqlMockTemplateCache();
+        this.dataSource = null;
+        this.view = false;
+    }
+
+    private MapperParser(MapperParser parent, String dataSource, TableMetadataCache tableMetadataCache) {
+        this.parseCache = parent.parseCache;
+        this.directoryWatcher = parent.directoryWatcher;
+        this.tableMetadataCache = tableMetadataCache;
+        this.parallelism = parent.parallelism;
+        this.mapperFileParser = parent.mapperFileParser;
+        this.executor = parent.executor;
+        this.diskPermits = parent.diskPermits;
+        this.statementIndex = parent.statementIndex;
+        this.mockTemplates = parent.mockTemplates;
+        this.dataSource = dataSource;
+        this.view = true;
+    }
+
+    /**
+     * 创建使用指定数据源表字段元数据的解析器视图
+     *
+     * 视图共享本解析器的线程池、解析结果缓存、目录监听、语句索引和参数模拟模板，关闭视图不释放这些资源
+     *
+     * @param dataSource         数据源名称
+     * @param tableMetadataCache 该数据源的表字段元数据缓存，可以为null
+     * @return 解析器视图
+     */
+    public MapperParser forDataSource(String dataSource, TableMetadataCache tableMetadataCache) {
+        return new MapperParser(this, dataSource, tableMetadataCache);
+    }
+
+    /**
+     * 解析 mapper 文件或目录
+     *
+     * @param filePath           mapper XML 文件路径或目录路径
+     * @param dbType             数据库类型
+     * @param mock               是否模拟参数
+     * @param connectionProvider 数据库连接提供者，用于获取表字段类型，可以为null
+     * @return 解析结果，按文件路径排序，截止时间到达时只包含部分结果（需要截断标记时使用 parseMapperPage）
+     * @throws Exception 遍历目录失败或解析被中断
+     */
+    public List<MapperResult> parseMapper(String filePath, DbType dbType, boolean mock,
+            ConnectionProvider connectionProvider) throws Exception {
+        return parseMapperPage(filePath, dbType, mock, connectionProvider, 0, Integer.MAX_VALUE).getResults();
+    }
+
+    /**
+     * 分页解析 mapper 文件或目录
+     *
+     * 按文件路径顺序分页，只解析当前页的文件，非 mapper 文件同样占用页内位置
+     *
+     * @param filePath           mapper XML 文件路径或目录路径
+     * @param dbType             数据库类型
+     * @param mock               是否模拟参数
+     * @param connectionProvider 数据库连接提供者，用于获取表字段类型，可以为null
+     * @param offset             起始文件下标，从0开始
+     * @param limit              本页最多解析的文件数
+     * @return 当前页的解析结果，截止时间到达时只包含部分结果
+     * @throws Exception 遍历目录失败或解析被中断
+     */
+    public MapperParsePage parseMapperPage(String filePath, DbType dbType, boolean mock,
+            ConnectionProvider connectionProvider, int offset, int limit) throws Exception {
+        ToolDeadline deadline = ToolDeadline.current();
+        long start = System.nanoTime();
+        List<Path> files = directoryWatcher != null ? directoryWatcher.listFiles(filePath) : null;
+        boolean watched = files != null;
+        if (!watched) {
+            files = walkFiles(filePath, deadline);
+        }
+        ServerMetrics.record(ServerMetrics.PARSE_WALK, start);
+        if (deadline.isExpired()) {
+            // 目录遍历未完成，文件列表不完整，不解析任何文件
+            logger.warn("Deadline reached while listing {}, {} files listed", filePath, files.size());
+            return new MapperParsePage(new ArrayList<>(), offset, 0, files.size(), true);
+        }
+        List<Path> pageFiles = slice(files, offset, limit);
+        return parseFiles(pageFiles, watched, dbType, mock, connectionProvider, offset, files.size(), deadline);
+    }
+
+    /**
+     * 截取文件列表中的一页
+     *
+     * @param files  文件列表
+     * @param offset 起始下标
+     * @param limit  最多截取的文件数
+     * @return 当前页的文件，offset 超出范围时返回空列表
+     */
+    public static List<Path> slice(List<Path> files, int offset, int limit) {
+        int from = Math.min(offset, files.size());
+        int to = (int) Math.min((long) from + limit, files.size());
+        return files.subList(from, to);
+    }
+
+    /**
+     * 按 namespace 和语句 id 解析单条语句
+     *
+     * 通过 MapperStatementIndex 定位语句所在文件，只解析该文件（使用解析结果缓存），
+     * 并且只对请求的语句模拟参数。索引定位的文件中找不到语句，或索引中没有该语句但目录下的文件已变化时，
+     * 重建一次索引；索引中没有该语句且文件未变化时直接返回不存在
+     *
+     * @param filePath           mapper XML 文件路径或目录路径
+     * @param namespace          mapper namespace
+     * @param statementId        语句 id
+     * @param dbType             数据库类型
+     * @param mock               是否模拟参数
+     * @param connectionProvider 数据库连接提供者，用于获取表字段类型，可以为null
+     * @return 只包含该语句的解析结果，语句不存在时返回null
+     * @throws Exception 遍历目录或解析文件失败
+     */
+    public MapperResult parseStatement(String filePath, String namespace, String statementId, DbType dbType,
+            boolean mock, ConnectionProvider connectionProvider) throws Exception {
+        Path root = Paths.get(filePath);
+        MapperStatementIndex.FileLister lister = this::listFiles;
+        MapperStatementIndex.StatementLocation location = statementIndex.find(root, namespace, statementId, lister,
+                false);
+        MapperResult info = location != null
+                ? parseStatementAt(location, namespace, statementId, dbType, mock, connectionProvider)
+                : null;
+        if (info != null) {
+            return info;
+        }
+        if (location == null && !statementIndex.isStale(root, lister)) {
+            return null;
+        }
+        // 文件被修改、移动或新增，重建索引后再查找一次
+        location = statementIndex.find(root, namespace, statementId, lister, true);
+        return location != null
+                ? parseStatementAt(location, namespace, statementId, dbType, mock, connectionProvider)
+                : null;
+    }
+
+    private MapperResult parseStatementAt(MapperStatementIndex.StatementLocation location, String namespace,
+            String statementId, DbType dbType, boolean mock, ConnectionProvider connectionProvider) throws Exception {
+        Path file = location.getFile();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        logger.debug("Statement {}.{} located at {}", namespace, statementId, location);
+        MapperResult info = parseStatements(file, Collections.singleton(statementId), dbType, mock,
+                connectionProvider);
+        if (info == null || !namespace.equals(info.getNamespace()) || info.indexOf(statementId) < 0) {
+            return null;
+        }
+        return info;
+    }
+
+    /**
+     * 解析单个文件并只保留指定的语句
+     *
+     * 使用解析结果缓存，只对保留的语句模拟参数
+     *
+     * @param file               mapper XML 文件
+     * @param statementIds       需要保留的语句 id，文件中不存在的 id 被忽略
+     * @param dbType             数据库类型
+     * @param mock               是否模拟参数
+     * @param connectionProvider 数据库连接提供者，用于获取表字段类型，可以为null
+     * @return 只包含指定语句的解析结果，不是 mapper 文件时返回null
+     * @throws Exception 解析文件失败
+     */
+    public MapperResult parseStatements(Path file, Collection<String> statementIds, DbType dbType, boolean mock,
+            ConnectionProvider connectionProvider) throws Exception {
+        MapperResult parsed = parseFile(file, dbType);
+        if (parsed == null) {
+            return null;
+        }
+
+        MapperResult info = parsed.retain(statementIds);
+        if (!mock || info.getStatementCount() == 0) {
+            return info;
+        }
+
+        try (BorrowedConnection connection = new BorrowedConnection(connectionProvider)) {
+            return mockStatements(info, dbType, connection);
+        }
+    }
+
+    /**
+     * 解析单个文件，不模拟参数
+     *
+     * 使用解析结果缓存，返回的结果可能被缓存共享
+     *
+     * @param file   mapper XML 文件
+     * @param dbType 数据库类型
+     * @return 解析结果，不是 mapper 文件时返回null
+     * @throws Exception 解析文件失败
+     */
+    public MapperResult parseFile(Path file, DbType dbType) throws Exception {
+        return parseCache != null
+                ? parseCache.getOrLoad(file, dbType, false, path -> parseSingleFile(path, dbType, false, null))
+                : parseSingleFile(file.toString(), dbType, false, null);
+    }
+
+    /**
+     * 解析不属于工作区的文件快照（例如从 git 历史版本导出的临时文件），不模拟参数，不使用解析结果缓存
+     *
+     * @param file   mapper XML 文件快照
+     * @param dbType 数据库类型
+     * @return 解析结果，不是 mapper 文件时返回null
+     * @throws Exception 解析文件失败
+     */
+    public MapperResult parseSnapshot(Path file, DbType dbType) throws Exception {
+        return parseSingleFile(file.toString(), dbType, false, null);
+    }
+
+    /**
+     * 批量解析多个路径
+     *
+     * 路径可以是文件、目录或 glob（例如 src/main/resources/mapper/*Mapper.xml，只支持 / 作为分隔符）。
+     * 所有路径下的文件先按规范化路径去重，再由同一组工作线程解析，模拟参数时每个工作线程在整个批次中
+     * 只借出一个连接；重复的文件只解析一次，结果归属于第一个匹配的路径
+     *
+     * 路径不存在时该路径记录错误信息，不影响其他路径
+     *
+     * @param paths              文件、目录或 glob 路径，重复的路径只处理一次
+     * @param dbType             数据库类型
+     * @param mock               是否模拟参数
+     * @param connectionProvider 数据库连接提供者，用于获取表字段类型，可以为null
+     * @return 按路径分组的解析结果，截止时间到达时只包含部分结果
+     * @throws Exception 遍历目录失败或解析被中断
+     */
+    public MapperBatchResult parseMapperBatch(List<String> paths, DbType dbType, boolean mock,
+            ConnectionProvider connectionProvider) throws Exception {
+        ToolDeadline deadline = ToolDeadline.current();
+        long start = System.nanoTime();
+        List<String> requested = new ArrayList<>(new LinkedHashSet<>(paths));
+        List<Path> files = new ArrayList<>();
+        // 每个文件归属的路径下标
+        List<Integer> owners = new ArrayList<>();
+        // 各路径的错误信息，为null表示没有错误
+        String[] errors = new String[requested.size()];
+        Set<Path> seen = new HashSet<>();
+        int duplicateFiles = 0;
+        boolean watched = true;
+        for (int i = 0; i < requested.size() && !deadline.isExpired(); i++) {
+            ListedFiles listed = listBatchPath(requested.get(i), deadline);
+            if (listed == null) {
+                errors[i] = "Path not found: " + requested.get(i);
+                continue;
+            }
+            watched &= listed.watched;
+            for (Path file : listed.files) {
+                if (seen.add(file.toAbsolutePath().normalize())) {
+                    files.add(file);
+                    owners.add(i);
+                } else {
+                    duplicateFiles++;
+                }
+            }
+        }
+        ServerMetrics.record(ServerMetrics.PARSE_WALK, start);
+
+        MapperResult[] slots = new MapperResult[files.size()];
+        boolean[] done = new boolean[files.size()];
+        boolean listingExpired = deadline.isExpired();
+        if (listingExpired) {
+            // 文件列表不完整，不解析任何文件
+            logger.warn("Deadline reached while listing batch paths, {} files listed", files.size());
+        } else {
+            parseInto(files, watched, slots, done, dbType, mock, connectionProvider, deadline);
+        }
+
+        int completed = completedCount(done);
+        List<List<MapperResult>> grouped = new ArrayList<>(requested.size());
+        int[] fileCounts = new int[requested.size()];
+        int[] completedCounts = new int[requested.size()];
+        for (int i = 0; i < requested.size(); i++) {
+            grouped.add(new ArrayList<>());
+        }
+        for (int i = 0; i < files.size(); i++) {
+            int owner = owners.get(i);
+            fileCounts[owner]++;
+            if (i < completed) {
+                completedCounts[owner]++;
+                if (slots[i] != null) {
+                    grouped.get(owner).add(slots[i]);
+                }
+            }
+        }
+        boolean truncated = listingExpired || completed < files.size();
+        List<MapperBatchResult.PathResult> pathResults = new ArrayList<>(requested.size());
+        for (int i = 0; i < requested.size(); i++) {
+            if (errors[i] != null) {
+                pathResults.add(MapperBatchResult.PathResult.error(requested.get(i), errors[i]));
+            } else {
+                pathResults.add(new MapperBatchResult.PathResult(requested.get(i), grouped.get(i),
+                        completedCounts[i], listingExpired || completedCounts[i] < fileCounts[i], null));
+            }
+        }
+        if (truncated) {
+            logger.warn("Deadline reached, returning {} of {} batch files", completed, files.size());
+        }
+        return new MapperBatchResult(pathResults, files.size(), duplicateFiles, truncated);
+    }
+
+    /**
+     * 列出批量解析中一个路径下的文件，glob 路径只保留匹配的文件
+     *
+     * @return 文件列表，路径不存在时返回null
+     */
+    private ListedFiles listBatchPath(String path, ToolDeadline deadline) throws Exception {
+        int globIndex = indexOfGlob(path);
+        String base = path;
+        PathMatcher matcher = null;
+        if (globIndex >= 0) {
+            int separator = path.lastIndexOf('/', globIndex);
+            base = separator > 0 ? path.substring(0, separator) : separator == 0 ? "/" : ".";
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.substring(separator + 1));
+        }
+        if (!Files.exists(Paths.get(base))) {
+            return null;
+        }
+        List<Path> files = directoryWatcher != null ? directoryWatcher.listFiles(base) : null;
+        boolean watched = files != null;
+        if (!watched) {
+            files = walkFiles(base, deadline);
+        }
+        if (matcher != null) {
+            // 监听索引中的路径为真实路径，遍历得到的路径以 base 开头
+            Path root = watched ? Paths.get(base).toRealPath() : Paths.get(base);
+            List<Path> matched = new ArrayList<>();
+            for (Path file : files) {
+                if (matcher.matches(root.relativize(file))) {
+                    matched.add(file);
+                }
+            }
+            files = matched;
+        }
+        return new ListedFiles(files, watched);
+    }
+
+    private static int indexOfGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if ("*?[{".indexOf(path.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private MapperParsePage parseFiles(List<Path> files, boolean watched, DbType dbType, boolean mock,
+            ConnectionProvider connectionProvider, int offset, int totalFiles, ToolDeadline deadline)
+            throws Exception {
+        MapperResult[] slots = new MapperResult[files.size()];
+        // 已处理完成的文件，非 mapper 文件和解析失败的文件同样标记为完成
+        boolean[] done = new boolean[files.size()];
+        parseInto(files, watched, slots, done, dbType, mock, connectionProvider, deadline);
+
+        // 只返回从第一个文件开始连续处理完成的部分，保证 nextOffset 之前的文件都已处理
+        int completed = completedCount(done);
+        List<MapperResult> results = new ArrayList<>(completed);
+        for (int i = 0; i < completed; i++) {
+            if (slots[i] != null) {
+                results.add(slots[i]);
+            }
+        }
+        boolean truncated = completed < files.size();
+        if (truncated) {
+            logger.warn("Deadline reached, returning {} of {} files starting at {}", completed, files.size(), offset);
+        }
+        return new MapperParsePage(results, offset, completed, totalFiles, truncated);
+    }
+
+    /**
+     * 由工作线程解析文件，结果按文件下标写入 slots，处理完成的文件在 done 中标记
+     */
+    private void parseInto(List<Path> files, boolean watched, MapperResult[] slots, boolean[] done, DbType dbType,
+            boolean mock, ConnectionProvider connectionProvider, ToolDeadline deadline) throws Exception {
+        int workers = Math.min(parallelism, files.size());
+        if (mock && connectionProvider != null) {
+            // 每个工作线程独占一个连接，工作线程数不超过连接池大小
+            workers = Math.min(workers, connectionProvider.getMaxConnections());
+        }
+
+        AtomicInteger nextIndex = new AtomicInteger();
+        ConnectionProvider provider = mock ? connectionProvider : null;
+        if (workers <= 1 || executor == null) {
+            new ParseWorker(files, watched, slots, done, nextIndex, dbType, mock, provider, deadline).run();
+        } else {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(
+                        new ParseWorker(files, watched, slots, done, nextIndex, dbType, mock, provider, deadline)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+        if (parseCache != null) {
+            logger.debug("{}", parseCache.getStatsInfo());
+        }
+    }
+
+    /**
+     * 从第一个文件开始连续处理完成的文件数
+     */
+    private static int completedCount(boolean[] done) {
+        int completed = 0;
+        while (completed < done.length && done[completed]) {
+            completed++;
+        }
+        return completed;
+    }
+
+    /**
+     * 获取解析结果缓存
+     *
+     * @return 解析结果缓存，未启用时返回null
+     */
+    public MapperParseCache getParseCache() {
+        return parseCache;
+    }
+
+    /**
+     * 获取表字段元数据缓存
+     *
+     * @return 表字段元数据缓存，未启用时返回null
+     */
+    public TableMetadataCache getTableMetadataCache() {
+        return tableMetadataCache;
+    }
+
+    /**
+     * 获取参数模拟模板缓存
+     *
+     * @return 参数模拟模板缓存
+     */
+    public SqlMockTemplateCache getMockTemplateCache() {
+        return mockTemplates;
+    }
+
+    /**
+     * 关闭解析线程池、目录监听和持久化缓存文件，视图不做任何事
+     */
+    @Override
+    public void close() {
+        if (view) {
+            return;
+        }
+        if (directoryWatcher != null) {
+            directoryWatcher.close();
+        }
+        if (parseCache != null) {
+            parseCache.close();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 列出路径下所有文件，启用目录监听时使用监听索引
+     */
+    private List<Path> listFiles(Path root) throws Exception {
+        long start = System.nanoTime();
+        List<Path> files = directoryWatcher != null ? directoryWatcher.listFiles(root.toString()) : null;
+        if (files == null) {
+            files = walkFiles(root.toString(), ToolDeadline.none());
+        }
+        ServerMetrics.record(ServerMetrics.PARSE_WALK, start);
+        return files;
+    }
+
+    /**
+     * 列出路径下所有文件，按路径排序，与目录监听索引的顺序一致，分页时不因是否启用监听而错位
+     * 是否为 mapper 文件由解析时判断，非 mapper 文件的判断结果同样会被缓存
+     * 截止时间到达后停止遍历，返回已列出的文件
+     */
+    private static List<Path> walkFiles(String filePath, ToolDeadline deadline) throws Exception {
+        try (Stream<Path> paths = Files.walk(Paths.get(filePath))) {
+            List<Path> files = paths.takeWhile(path -> !deadline.isExpired()).filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+            Collections.sort(files);
+            return files;
+        }
+    }
+
+    /**
+     * 解析单个文件，非 mapper 文件返回null
+     *
+     * 与 SqlUtil.parseMapper 的单文件处理逻辑一致，表字段类型改为通过 TableMetadataCache 查询，
+     * 全部命中缓存时不需要数据库连接
+     */
+    private MapperResult parseSingleFile(String filePath, DbType dbType, boolean mock,
+            TableMetadataCache.ConnectionSource connectionSource) throws Exception {
+        if (!FileUtil.isMapperXml(filePath)) {
+            return null;
+        }
+        if (mock && parseCache != null && parseCache.getPersistentCache() != null) {
+            // 模拟参数的结果不持久化，先取未模拟参数的结果（重启后可能来自持久化缓存），复制后再模拟参数
+            MapperResult parsed = parseCache.getOrLoad(Paths.get(filePath), dbType, false,
+                    path -> parseSingleFile(path, dbType, false, null));
+            return parsed != null ? mockStatements(parsed, dbType, connectionSource) : null;
+        }
+        MapperResult info;
+        if (diskPermits == null) {
+            info = parseMapperFile(filePath, dbType);
+        } else {
+            diskPermits.acquire();
+            try {
+                info = parseMapperFile(filePath, dbType);
+            } finally {
+                diskPermits.release();
+            }
+        }
+        return mock ? mockStatements(info, dbType, connectionSource) : info;
+    }
+
+    private MapperResult parseMapperFile(String filePath, DbType dbType) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return mapperFileParser.parse(filePath, dbType);
+        } finally {
+            ServerMetrics.record(ServerMetrics.PARSE_FILE, start);
+        }
+    }
+
+    /**
+     * 模拟解析结果中所有语句的参数
+     *
+     * @return 模拟参数后的新结果，没有需要模拟的语句时返回原结果
+     */
+    private MapperResult mockStatements(MapperResult info, DbType dbType,
+            TableMetadataCache.ConnectionSource connectionSource) {
+        HashMap<String, JdbcType> columnTypes = info.getResultColumnTypes();
+        if (info.getStatementCount() == 0) {
+            return info;
+        }
+        if (columnTypes.isEmpty()) {
+            // 没有可用的列类型，模拟参数后的 SQL 与原 SQL 相同
+            return info.withMockedSqls(new String[info.getStatementCount()]);
+        }
+        String[] mocked = new String[info.getStatementCount()];
+        for (int i = 0; i < mocked.length; i++) {
+            try {
+                // 模拟耗时为模板编译和渲染的合计，不含查询表字段类型
+                long start = System.nanoTime();
+                SqlMockTemplate template = mockTemplates.getOrCompile(info.getNamespace(), info.getId(i),
+                        info.getSql(i), dbType);
+                long mockNanos = System.nanoTime() - start;
+                for (String table : template.getTables()) {
+                    columnTypes.putAll(getColumnTypes(table, connectionSource));
+                }
+                start = System.nanoTime();
+                mocked[i] = template.render(columnTypes);
+                mockNanos += System.nanoTime() - start;
+                ServerMetrics.timer(ServerMetrics.PARSE_MOCK).record(mockNanos, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                logger.warn("Failed to mock sql {} in {}: {}", info.getId(i), info.getFilePath(), e.getMessage());
+            }
+        }
+        return info.withMockedSqls(mocked);
+    }
+
+    /**
+     * 查询表字段类型，未启用元数据缓存时直接查询数据库
+     */
+    private Map<String, JdbcType> getColumnTypes(String table, TableMetadataCache.ConnectionSource connectionSource) {
+        if (tableMetadataCache != null) {
+            return tableMetadataCache.getColumnTypes(table, connectionSource);
+        }
+        Connection conn = connectionSource.getConnection();
+        if (conn == null) {
+            return new HashMap<>();
+        }
+        long start = System.nanoTime();
+        try {
+            return MybatisUtil.getTableColumnType(table, conn);
+        } finally {
+            ServerMetrics.record(ServerMetrics.METADATA_LOOKUP, start);
+        }
+    }
+
+    /**
+     * 解析工作线程任务
+     */
+    private final class ParseWorker implements Runnable {
+        private final List<Path> files;
+        // 文件列表是否来自目录监听索引
+        private final boolean watched;
+        private final MapperResult[] slots;
+        private final boolean[] done;
+        private final AtomicInteger nextIndex;
+        private final DbType dbType;
+        private final boolean mock;
+        // 本工作线程独占的连接，首次需要时借出
+        private final BorrowedConnection connection;
+        private final ToolDeadline deadline;
+
+        private ParseWorker(List<Path> files, boolean watched, MapperResult[] slots, boolean[] done,
+                AtomicInteger nextIndex, DbType dbType, boolean mock, ConnectionProvider connectionProvider,
+                ToolDeadline deadline) {
+            this.files = files;
+            this.watched = watched;
+            this.slots = slots;
+            this.done = done;
+            this.nextIndex = nextIndex;
+            this.dbType = dbType;
+            this.mock = mock;
+            this.connection = new BorrowedConnection(connectionProvider);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int index;
+                while (!deadline.isExpired() && (index = nextIndex.getAndIncrement()) < files.size()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    Path file = files.get(index);
+                    try {
+                        if (parseCache == null) {
+                            slots[index] = parseSingleFile(file.toString(), dbType, mock, connection);
+                        } else if (watched) {
+                            slots[index] = parseCache.getOrLoadWatched(file, dbType, mock, dataSource,
+                                    path -> parseSingleFile(path, dbType, mock, connection));
+                        } else {
+                            slots[index] = parseCache.getOrLoad(file, dbType, mock, dataSource,
+                                    path -> parseSingleFile(path, dbType, mock, connection));
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Failed to parse mapper file: {}", file, e);
+                    }
+                    done[index] = true;
+                }
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * 路径下的文件列表，watched 表示来自目录监听的索引
+     */
+    private static final class ListedFiles {
+        private final List<Path> files;
+        private final boolean watched;
+
+        private ListedFiles(List<Path> files, boolean watched) {
+            this.files = files;
+            this.watched = watched;
+        }
+    }
+
+    /**
+     * 首次需要时才从连接提供者借出的连接，借出失败时不再重试，按无表字段元数据模拟参数
+     */
+    private static final class BorrowedConnection implements TableMetadataCache.ConnectionSource, AutoCloseable {
+        private final ConnectionProvider connectionProvider;
+        private Connection conn;
+        private boolean connectionAttempted = false;
+
+        private BorrowedConnection(ConnectionProvider connectionProvider) {
+            this.connectionProvider = connectionProvider;
+        }
+
+        @Override
+        public Connection getConnection() {
+            if (!connectionAttempted && connectionProvider != null) {
+                connectionAttempted = true;
+                try {
+                    conn = connectionProvider.getConnection();
+                } catch (SQLException e) {
+                    logger.warn("Failed to borrow JDBC connection, mocking without table metadata: {}",
+                            e.getMessage());
+                }
+            }
+            return conn;
+        }
+
+        @Override
+        public void close() {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.debug("Failed to release JDBC connection", e);
+                }
+            }
+        }
+    }
+}
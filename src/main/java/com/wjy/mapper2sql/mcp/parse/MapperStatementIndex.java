@@ -0,0 +1,270 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * mapper 语句索引
+ *
+ * 按目录建立 namespace + 语句 id 到所在文件和行号的索引，用于按 id 直接定位单条语句，
+ * 不需要解析目录下的所有 mapper 文件
+ *
+ * 索引使用 StAX 流式扫描文件，只读取根元素 mapper 的 namespace 和
+ * select/insert/update/delete 子元素的 id，不加载 DTD，也不构建 MyBatis Configuration
+ *
+ * 每个目录只在首次查询时建立一次索引，并记录建立时每个 XML 文件的修改时间。之后文件新增、移动或语句被删除时，
+ * 由调用方发现定位结果失效，或通过 isStale 发现文件变化后重建
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperStatementIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperStatementIndex.class);
+
+    private static final String MAPPER_ELEMENT = "mapper";
+
+    private final XMLInputFactory xmlInputFactory;
+    // 目录（规范化绝对路径）-> 目录索引
+    private final Map<Path, RootIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 目录下的文件列表函数
+     */
+    @FunctionalInterface
+    public interface FileLister {
+
+        /**
+         * 列出路径下的所有文件
+         *
+         * @param root 文件或目录路径
+         * @return 文件列表
+         * @throws Exception 遍历目录失败
+         */
+        List<Path> list(Path root) throws Exception;
+    }
+
+    public MapperStatementIndex() {
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    /**
+     * 查找语句所在位置，目录尚未建立索引时先建立索引
+     *
+     * @param root        mapper 文件或目录路径
+     * @param namespace   mapper namespace
+     * @param statementId 语句 id
+     * @param lister      目录下的文件列表函数
+     * @param rebuild     是否丢弃已有索引并重建
+     * @return 语句位置，不存在时返回null
+     * @throws Exception 遍历目录失败
+     */
+    public StatementLocation find(Path root, String namespace, String statementId, FileLister lister,
+            boolean rebuild) throws Exception {
+        Path key = root.toAbsolutePath().normalize();
+        RootIndex index = rebuild ? null : indexes.get(key);
+        if (index == null) {
+            // 并发首次查询时可能重复建立索引，结果相同，后写入的覆盖先写入的
+            index = build(lister.list(key));
+            indexes.put(key, index);
+            logger.info("Statement index built for {}: {} statements", key, index.statements.size());
+        }
+        return index.statements.get(statementKey(namespace, statementId));
+    }
+
+    /**
+     * 目录的索引是否已过期：尚未建立索引，或 XML 文件有新增、删除、修改
+     *
+     * 只列出文件并读取修改时间，不扫描文件内容
+     *
+     * @param root   mapper 文件或目录路径
+     * @param lister 目录下的文件列表函数
+     * @return true表示需要重建索引
+     * @throws Exception 遍历目录失败
+     */
+    public boolean isStale(Path root, FileLister lister) throws Exception {
+        Path key = root.toAbsolutePath().normalize();
+        RootIndex index = indexes.get(key);
+        if (index == null) {
+            return true;
+        }
+        int xmlFiles = 0;
+        for (Path file : lister.list(key)) {
+            if (!isXml(file)) {
+                continue;
+            }
+            xmlFiles++;
+            Long indexedAt = index.fileTimes.get(file);
+            if (indexedAt == null || indexedAt != lastModified(file)) {
+                return true;
+            }
+        }
+        return xmlFiles != index.fileTimes.size();
+    }
+
+    /**
+     * 丢弃目录的索引
+     *
+     * @param root mapper 文件或目录路径
+     */
+    public void invalidate(Path root) {
+        indexes.remove(root.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 获取已建立索引的目录数
+     *
+     * @return 目录数
+     */
+    public int getIndexedRootCount() {
+        return indexes.size();
+    }
+
+    private RootIndex build(List<Path> files) {
+        Map<String, StatementLocation> index = new HashMap<>();
+        Map<Path, Long> fileTimes = new HashMap<>();
+        for (Path file : files) {
+            if (!isXml(file)) {
+                continue;
+            }
+            // 扫描前记录修改时间，扫描期间被修改的文件在下次检查时视为已变化
+            fileTimes.put(file, lastModified(file));
+            try {
+                scan(file, index);
+            } catch (Exception e) {
+                // 非 mapper 或格式错误的 XML 文件不进入索引
+                logger.debug("Skip indexing file {}: {}", file, e.getMessage());
+            }
+        }
+        return new RootIndex(Collections.unmodifiableMap(index), Collections.unmodifiableMap(fileTimes));
+    }
+
+    private static boolean isXml(Path file) {
+        return file.getFileName().toString().endsWith(".xml");
+    }
+
+    /**
+     * 文件修改时间，文件已不存在时返回-1
+     */
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 扫描单个文件，根元素不是 mapper 时立即返回
+     */
+    private void scan(Path file, Map<String, StatementLocation> index) throws Exception {
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                String namespace = null;
+                int depth = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        continue;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    depth++;
+                    if (depth == 1) {
+                        if (!MAPPER_ELEMENT.equals(reader.getLocalName())) {
+                            return;
+                        }
+                        namespace = reader.getAttributeValue(null, "namespace");
+                    } else if (depth == 2 && isStatement(reader.getLocalName())) {
+                        String id = reader.getAttributeValue(null, "id");
+                        if (id != null) {
+                            index.putIfAbsent(statementKey(namespace, id),
+                                    new StatementLocation(file, reader.getLocation().getLineNumber()));
+                        }
+                    }
+                }
+            } finally {
+                closeQuietly(reader);
+            }
+        }
+    }
+
+    private static boolean isStatement(String element) {
+        return "select".equals(element) || "insert".equals(element) || "update".equals(element)
+                || "delete".equals(element);
+    }
+
+    private static String statementKey(String namespace, String statementId) {
+        return (namespace != null ? namespace : "") + "." + statementId;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            logger.debug("Failed to close XML reader", e);
+        }
+    }
+
+    /**
+     * 目录索引，创建后不再修改
+     */
+    private static final class RootIndex {
+        // namespace.id -> 语句位置
+        private final Map<String, StatementLocation> statements;
+        // 建立索引时的 XML 文件 -> 修改时间
+        private final Map<Path, Long> fileTimes;
+
+        private RootIndex(Map<String, StatementLocation> statements, Map<Path, Long> fileTimes) {
+            this.statements = statements;
+            this.fileTimes = fileTimes;
+        }
+    }
+
+    /**
+     * 语句位置
+     */
+    public static final class StatementLocation {
+        private final Path file;
+        // 语句元素起始标签所在行号
+        private final int line;
+
+        public StatementLocation(Path file, int line) {
+            this.file = file;
+            this.line = line;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        @Override
+        public String toString() {
+            return file + ":" + line;
+        }
+    }
+}
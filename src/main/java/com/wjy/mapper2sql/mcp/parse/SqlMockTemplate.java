@@ -0,0 +1,279 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+
+import org.apache.ibatis.type.JdbcType;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 编译后的参数模拟模板
+ *
+ * 每条语句只用 Druid 格式化和解析一次，按 SqlMock.mockSql 的规则切分为字面量片段和占位符槽位：
+ * 1）格式化后的 SQL 按行切分，不含占位符的行整体作为字面量
+ * 2）含占位符的行按空格切分为单词，含占位符的单词为一个槽位，其余单词原样作为字面量
+ * 3）槽位的类型取同一行中前面最近的、在字段类型中存在的单词（去掉表别名）的类型，
+ *    没有时以 LIMIT 或 OFFSET 开头的行取 INTEGER，否则保留占位符不模拟
+ *
+ * 渲染时按字段类型解析每个槽位的类型，在一个 StringBuilder 中依次追加字面量和模拟值，不再解析 SQL。
+ * 模拟值的格式与 JdbcTypeMockUtil 一致，同一单词中的多个占位符使用同一个模拟值
+ *
+ * 含占位符的单词不作为字段名，字段名中不会出现占位符，与 SqlMock 的结果一致
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class SqlMockTemplate {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // 当前秒的格式化时间，同一秒内的时间类型模拟值复用
+    private static volatile FormattedSecond formattedSecond = new FormattedSecond(Long.MIN_VALUE, "");
+
+    // 编译时的原始 SQL
+    private final String sql;
+    private final List<String> tables;
+    // 字面量片段，比槽位多一个，渲染顺序为 literals[0] slots[0] literals[1] ...
+    private final String[] literals;
+    private final Slot[] slots;
+    // 渲染结果的预估长度
+    private final int estimatedLength;
+
+    private SqlMockTemplate(String sql, List<String> tables, String[] literals, Slot[] slots) {
+        this.sql = sql;
+        this.tables = tables;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length + slots.length * 8;
+    }
+
+    /**
+     * 编译语句的参数模拟模板
+     *
+     * @param sql         语句 SQL
+     * @param dbType      数据库类型
+     * @param placeholder 参数占位符
+     * @return 模板
+     */
+    public static SqlMockTemplate compile(String sql, DbType dbType, String placeholder) {
+        List<String> tables = Collections.unmodifiableList(new ArrayList<>(SQLParserUtils.getTables(sql, dbType)));
+        String formatted = SQLUtils.format(sql, dbType);
+
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(formatted.length());
+        String[] lines = formatted.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (!line.contains(placeholder)) {
+                literal.append(line);
+            } else {
+                compileLine(line, placeholder, literal, literals, slots);
+            }
+            if (i < lines.length - 1) {
+                literal.append('\n');
+            }
+        }
+        literals.add(literal.toString());
+        return new SqlMockTemplate(sql, tables, literals.toArray(new String[0]), slots.toArray(new Slot[0]));
+    }
+
+    private static void compileLine(String line, String placeholder, StringBuilder literal, List<String> literals,
+            List<Slot> slots) {
+        String[] words = line.split(" ");
+        JdbcType lineType = words.length > 0
+                && ("limit".equalsIgnoreCase(words[0]) || "offset".equalsIgnoreCase(words[0]))
+                        ? JdbcType.INTEGER
+                        : null;
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            if (word.contains(placeholder)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(new Slot(word, split(word, placeholder), columns.toArray(new String[0]), lineType));
+            } else {
+                literal.append(word);
+                int dot = word.lastIndexOf('.');
+                columns.add(dot >= 0 ? word.substring(dot + 1) : word);
+            }
+            if (i < words.length - 1) {
+                literal.append(' ');
+            }
+        }
+    }
+
+    private static String[] split(String word, String placeholder) {
+        List<String> parts = new ArrayList<>();
+        int from = 0;
+        int index;
+        while ((index = word.indexOf(placeholder, from)) >= 0) {
+            parts.add(word.substring(from, index));
+            from = index + placeholder.length();
+        }
+        parts.add(word.substring(from));
+        return parts.toArray(new String[0]);
+    }
+
+    /**
+     * 使用字段类型渲染模拟参数后的 SQL
+     *
+     * @param columnTypes 字段名 -> 字段类型
+     * @return 模拟参数后的 SQL
+     */
+    public String render(Map<String, JdbcType> columnTypes) {
+        StringBuilder sb = new StringBuilder(estimatedLength);
+        for (int i = 0; i < slots.length; i++) {
+            sb.append(literals[i]);
+            slots[i].render(sb, columnTypes);
+        }
+        return sb.append(literals[slots.length]).toString();
+    }
+
+    /**
+     * 获取编译时的原始 SQL
+     *
+     * @return 原始 SQL
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 获取语句引用的表名
+     *
+     * @return 表名，不可修改
+     */
+    public List<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * 获取占位符槽位数
+     *
+     * @return 槽位数
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * 按字段类型追加模拟值，格式与 JdbcTypeMockUtil.mockValue 一致
+     */
+    static void appendMockValue(StringBuilder sb, JdbcType type) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (type) {
+            case BOOLEAN:
+                sb.append(random.nextBoolean());
+                break;
+            case CHAR:
+            case VARCHAR:
+            case ARRAY:
+            case CLOB:
+                sb.append('\'');
+                for (int i = 0; i < 4; i++) {
+                    sb.append(HEX_DIGITS[random.nextInt(16)]);
+                }
+                sb.append('\'');
+                break;
+            case SMALLINT:
+            case INTEGER:
+            case FLOAT:
+            case DOUBLE:
+            case BIGINT:
+            case DECIMAL:
+                sb.append((char) ('0' + random.nextInt(10)));
+                break;
+            case TIME:
+            case TIMESTAMP:
+            case DATE:
+                sb.append('\'').append(currentDateTime()).append('\'');
+                break;
+            default:
+                sb.append("''");
+        }
+    }
+
+    private static String currentDateTime() {
+        long second = System.currentTimeMillis() / 1000;
+        FormattedSecond cached = formattedSecond;
+        if (cached.second != second) {
+            cached = new FormattedSecond(second, LocalDateTime.now().format(DATE_TIME_FORMATTER));
+            formattedSecond = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * 占位符槽位，对应格式化后 SQL 中一个含占位符的单词
+     */
+    private static final class Slot {
+        // 原始单词，类型无法确定时原样输出
+        private final String word;
+        // 按占位符切分的单词片段
+        private final String[] parts;
+        // 同一行中槽位之前的候选字段名，按出现顺序排列
+        private final String[] columns;
+        // 没有匹配的字段时使用的类型，为null表示不模拟
+        private final JdbcType lineType;
+
+        private Slot(String word, String[] parts, String[] columns, JdbcType lineType) {
+            this.word = word;
+            this.parts = parts;
+            this.columns = columns;
+            this.lineType = lineType;
+        }
+
+        private void render(StringBuilder sb, Map<String, JdbcType> columnTypes) {
+            JdbcType type = resolveType(columnTypes);
+            if (type == null) {
+                sb.append(word);
+                return;
+            }
+            if (parts.length == 2) {
+                sb.append(parts[0]);
+                appendMockValue(sb, type);
+                sb.append(parts[1]);
+                return;
+            }
+            StringBuilder value = new StringBuilder(24);
+            appendMockValue(value, type);
+            sb.append(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                sb.append(value).append(parts[i]);
+            }
+        }
+
+        private JdbcType resolveType(Map<String, JdbcType> columnTypes) {
+            for (int i = columns.length - 1; i >= 0; i--) {
+                if (columnTypes.containsKey(columns[i])) {
+                    return columnTypes.get(columns[i]);
+                }
+            }
+            return lineType;
+        }
+    }
+
+    private static final class FormattedSecond {
+        private final long second;
+        private final String text;
+
+        private FormattedSecond(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
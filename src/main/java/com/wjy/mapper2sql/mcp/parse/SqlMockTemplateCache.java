@@ -0,0 +1,83 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 参数模拟模板缓存
+ *
+ * 按数据库类型、namespace 和语句 id 缓存编译后的 SqlMockTemplate，
+ * 语句 SQL 与编译时不一致（文件被修改）时重新编译并替换。
+ * 模板只依赖 SQL 文本，与字段类型无关，表字段元数据刷新或切换数据源后仍可复用
+ *
+ * 条目数超过上限时整体清空，由后续解析重新编译
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlMockTemplateCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private static final String PLACEHOLDER = "?";
+
+    private final Map<String, SqlMockTemplate> templates = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public SqlMockTemplateCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public SqlMockTemplateCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * 获取语句的参数模拟模板，不存在或 SQL 已变化时编译
+     *
+     * @param namespace mapper namespace
+     * @param id        语句 id
+     * @param sql       语句 SQL
+     * @param dbType    数据库类型
+     * @return 模板
+     */
+    public SqlMockTemplate getOrCompile(String namespace, String id, String sql, DbType dbType) {
+        String key = dbType.name() + ':' + namespace + '.' + id;
+        SqlMockTemplate template = templates.get(key);
+        if (template != null && template.getSql().equals(sql)) {
+            hitCount.incrementAndGet();
+            return template;
+        }
+        missCount.incrementAndGet();
+        template = SqlMockTemplate.compile(sql, dbType, PLACEHOLDER);
+        if (templates.size() >= maxEntries) {
+            templates.clear();
+        }
+        templates.put(key, template);
+        return template;
+    }
+
+    /**
+     * 清空所有模板
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
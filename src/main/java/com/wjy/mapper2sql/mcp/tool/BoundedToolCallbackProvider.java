@@ -0,0 +1,234 @@
+package com.wjy.mapper2sql.mcp.tool;
+
+import com.wjy.mapper2sql.mcp.config.ToolExecutorConfig;
+import com.wjy.mapper2sql.mcp.metrics.ServerMetrics;
+import com.wjy.mapper2sql.mcp.util.VirtualThreadUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 有界线程池工具回调提供者
+ *
+ * 包装已有的工具回调，所有工具调用都在线程池中执行：
+ * 1）同时执行的调用数不超过 maxConcurrency，其余调用最多 queueCapacity 个排队等待
+ * 2）排队已满时直接返回错误，而不是无限堆积请求
+ *
+ * 两个上限都由信号量控制，与执行线程的类型无关：默认使用 maxConcurrency 个平台线程，
+ * 启用虚拟线程时每个调用一个虚拟线程，排队中的调用只占用虚拟线程，不占用平台线程
+ *
+ * HTTP 模式下多个客户端的请求由 Web 容器线程并发接收，通过本类限制同时解析和访问数据库的调用数；
+ * stdio 模式下只有一个客户端，行为与直接调用一致
+ *
+ * 每个调用从进入队列开始计算截止时间（见 {@link ToolDeadline}）：
+ * 1）截止时间到达时取消正在执行的 SQL，工具停止领取新的文件和语句，返回带截断标记的部分结果
+ * 2）截止时间之后再等待 {@link #CANCEL_GRACE_MS} 毫秒仍未返回时中断执行线程并返回错误
+ * 3）等待结果的线程被中断（客户端取消请求或断开连接）时取消调用并中断执行线程，不再继续占用连接和 CPU
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class BoundedToolCallbackProvider implements ToolCallbackProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedToolCallbackProvider.class);
+
+    // 截止时间到达后等待工具返回部分结果的时间（毫秒）
+    static final long CANCEL_GRACE_MS = 5_000L;
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final int maxAdmitted;
+    // 单次调用的截止时间（毫秒），不大于0时不限制
+    private final long timeoutMs;
+    // 执行中和排队中的调用总数许可
+    private final Semaphore admitted;
+    // 执行中的调用数许可
+    private final Semaphore running;
+    private final ToolCallback[] toolCallbacks;
+
+    /**
+     * 构造函数
+     *
+     * @param delegate 被包装的工具回调提供者
+     * @param config         工具调用线程池配置
+     * @param virtualThreads 是否使用虚拟线程执行工具调用
+     */
+    public BoundedToolCallbackProvider(ToolCallbackProvider delegate, ToolExecutorConfig config,
+            boolean virtualThreads) {
+        this.maxConcurrency = config.getMaxConcurrency();
+        this.maxAdmitted = config.getMaxConcurrency() + config.getQueueCapacity();
+        this.timeoutMs = config.getTimeoutMs();
+        this.admitted = new Semaphore(maxAdmitted);
+        this.running = new Semaphore(maxConcurrency, true);
+        this.executor = VirtualThreadUtil.newExecutor("mcp-tool-", maxConcurrency, virtualThreads);
+        ServerMetrics.gauge(ServerMetrics.TOOL_ACTIVE, this, BoundedToolCallbackProvider::getActiveCount);
+        ServerMetrics.gauge(ServerMetrics.TOOL_QUEUED, this, BoundedToolCallbackProvider::getQueuedCount);
+        ToolCallback[] delegates = delegate.getToolCallbacks();
+        this.toolCallbacks = new ToolCallback[delegates.length];
+        for (int i = 0; i < delegates.length; i++) {
+            this.toolCallbacks[i] = new BoundedToolCallback(delegates[i]);
+        }
+    }
+
+    @Override
+    public ToolCallback[] getToolCallbacks() {
+        return toolCallbacks.clone();
+    }
+
+    /**
+     * 获取正在执行的工具调用数
+     *
+     * @return 正在执行的调用数
+     */
+    public int getActiveCount() {
+        return maxConcurrency - running.availablePermits();
+    }
+
+    /**
+     * 获取等待执行的工具调用数
+     *
+     * @return 等待执行的调用数
+     */
+    public int getQueuedCount() {
+        return Math.max(0, maxAdmitted - admitted.availablePermits() - getActiveCount());
+    }
+
+    /**
+     * 关闭线程池，不再接收新的工具调用
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private String execute(String toolName, Callable<String> call) {
+        if (!admitted.tryAcquire()) {
+            ServerMetrics.increment(ServerMetrics.TOOL_REJECTED, "tool", toolName);
+            logger.warn("Tool call rejected, executor is saturated: {}, active: {}, queued: {}", toolName,
+                    getActiveCount(), getQueuedCount());
+            return "Error: Server is busy, too many concurrent tool calls, please retry later";
+        }
+        long submitted = System.nanoTime();
+        ToolDeadline deadline = ToolDeadline.after(timeoutMs);
+        try {
+            Future<String> future;
+            try {
+                future = executor.submit(() -> {
+                    running.acquire();
+                    ServerMetrics.record(ServerMetrics.TOOL_QUEUE_WAIT, submitted, "tool", toolName);
+                    long start = System.nanoTime();
+                    String outcome = "error";
+                    try (ToolDeadline.Scope scope = deadline.bind()) {
+                        if (deadline.isExpired()) {
+                            return "Error: Tool call deadline expired while queued: " + toolName;
+                        }
+                        String result = call.call();
+                        if (!isErrorResult(result)) {
+                            outcome = "success";
+                        }
+                        return result;
+                    } finally {
+                        running.release();
+                        ServerMetrics.record(ServerMetrics.TOOL_CALLS, start, "tool", toolName, "outcome", outcome);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return "Error: Tool executor is closed";
+            }
+            try {
+                return await(toolName, future, deadline);
+            } catch (InterruptedException e) {
+                // 客户端已取消请求，结果不会再被使用
+                logger.warn("Tool call cancelled: {}", toolName);
+                deadline.cancel();
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return "Error: Tool call interrupted: " + toolName;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        } finally {
+            admitted.release();
+        }
+    }
+
+    /**
+     * 等待工具返回，截止时间到达后通知工具提前结束，宽限时间内仍未返回时中断执行线程
+     */
+    private String await(String toolName, Future<String> future, ToolDeadline deadline)
+            throws InterruptedException, ExecutionException {
+        if (!deadline.isLimited()) {
+            return future.get();
+        }
+        try {
+            return future.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Tool call reached its deadline of {} ms, returning partial results: {}",
+                    deadline.getTimeoutMs(), toolName);
+            deadline.expire();
+        }
+        try {
+            return future.get(CANCEL_GRACE_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return "Error: Tool call exceeded its deadline of " + deadline.getTimeoutMs() + " ms: " + toolName;
+        }
+    }
+
+    /**
+     * 工具是否返回了错误信息，工具返回的字符串会被序列化为 JSON 字符串
+     */
+    private static boolean isErrorResult(String result) {
+        return result != null && (result.startsWith("Error:") || result.startsWith("\"Error:"));
+    }
+
+    /**
+     * 在线程池中执行的工具回调
+     */
+    private class BoundedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+
+        BoundedToolCallback(ToolCallback delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return execute(delegate.getToolDefinition().name(), () -> delegate.call(toolInput));
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            return execute(delegate.getToolDefinition().name(), () -> delegate.call(toolInput, toolContext));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.wjy.mapper2sql.mcp.tool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工具调用截止时间
+ *
+ * 每个工具调用由 BoundedToolCallbackProvider 创建一个截止时间，并在执行工具的线程上绑定为当前截止时间，
+ * 解析和 SQL 测试在各自的工作线程中通过调用线程上取得的实例判断是否需要提前结束：
+ * 1）截止时间已到或调用被取消后，目录解析和 SQL 测试不再领取新的文件和语句，返回已完成的部分结果
+ * 2）截止时间已到或调用被取消时执行已注册的取消动作，例如取消正在执行的 Statement
+ *
+ * 未绑定截止时间的线程（例如单元测试和基准测试直接调用解析器）使用永不过期的实例
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public final class ToolDeadline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolDeadline.class);
+
+    private static final ToolDeadline NONE = new ToolDeadline(0);
+    private static final ThreadLocal<ToolDeadline> current = new ThreadLocal<>();
+
+    // 截止时间的 System.nanoTime() 值，timeoutMs 不大于0时不使用
+    private final long deadlineNanos;
+    private final long timeoutMs;
+    // 截止时间已到，由等待工具结果的线程标记
+    private volatile boolean expired = false;
+    // 调用已被客户端取消
+    private volatile boolean cancelled = false;
+    // 取消动作，截止时间到达或调用被取消时执行一次
+    private final List<Runnable> cancelActions = new ArrayList<>();
+
+    private ToolDeadline(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs));
+    }
+
+    /**
+     * 创建从现在开始计时的截止时间
+     *
+     * @param timeoutMs 超时时间（毫秒），不大于0时表示不限制
+     * @return 截止时间
+     */
+    public static ToolDeadline after(long timeoutMs) {
+        return new ToolDeadline(timeoutMs);
+    }
+
+    /**
+     * 获取永不过期的截止时间
+     *
+     * @return 永不过期的截止时间
+     */
+    public static ToolDeadline none() {
+        return NONE;
+    }
+
+    /**
+     * 获取当前线程绑定的截止时间
+     *
+     * @return 当前截止时间，未绑定时返回永不过期的实例
+     */
+    public static ToolDeadline current() {
+        ToolDeadline deadline = current.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    /**
+     * 将截止时间绑定到当前线程，关闭返回的作用域时恢复之前的绑定
+     *
+     * @return 绑定作用域
+     */
+    public Scope bind() {
+        ToolDeadline previous = current.get();
+        current.set(this);
+        return () -> {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        };
+    }
+
+    /**
+     * 是否设置了超时时间
+     *
+     * @return true表示设置了超时时间
+     */
+    public boolean isLimited() {
+        return timeoutMs > 0;
+    }
+
+    /**
+     * 获取超时时间
+     *
+     * @return 超时时间（毫秒），不限制时为0
+     */
+    public long getTimeoutMs() {
+        return Math.max(0, timeoutMs);
+    }
+
+    /**
+     * 截止时间是否已到或调用已被取消，为true时应停止领取新的工作并返回部分结果
+     *
+     * @return true表示应提前结束
+     */
+    public boolean isExpired() {
+        return expired || cancelled || (isLimited() && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    /**
+     * 调用是否已被客户端取消
+     *
+     * @return true表示已取消，此时结果不会再返回给客户端
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 获取剩余时间
+     *
+     * @return 剩余毫秒数，不限制时返回 Long.MAX_VALUE，已过期时返回0
+     */
+    public long remainingMillis() {
+        if (!isLimited()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * 计算单条语句的执行超时时间，不超过剩余时间
+     *
+     * @param queryTimeoutSeconds 配置的执行超时时间（秒）
+     * @return 执行超时时间（秒），至少为1
+     */
+    public int queryTimeoutSeconds(int queryTimeoutSeconds) {
+        long remaining = remainingMillis();
+        if (remaining == Long.MAX_VALUE) {
+            return queryTimeoutSeconds;
+        }
+        long remainingSeconds = Math.max(1, (remaining + 999) / 1000);
+        return (int) Math.min(queryTimeoutSeconds, remainingSeconds);
+    }
+
+    /**
+     * 标记截止时间已到，并执行已注册的取消动作
+     */
+    public void expire() {
+        if (this == NONE) {
+            return;
+        }
+        expired = true;
+        runCancelActions();
+    }
+
+    /**
+     * 标记调用已被取消，并执行已注册的取消动作
+     */
+    public void cancel() {
+        if (this == NONE) {
+            return;
+        }
+        cancelled = true;
+        runCancelActions();
+    }
+
+    /**
+     * 注册取消动作，截止时间已到或已取消时立即执行
+     *
+     * @param action 取消动作，例如 Statement.cancel()
+     * @return 注册句柄，关闭时移除取消动作
+     */
+    public Registration onCancel(Runnable action) {
+        if (this == NONE) {
+            return () -> {
+            };
+        }
+        boolean runNow;
+        synchronized (cancelActions) {
+            runNow = expired || cancelled;
+            if (!runNow) {
+                cancelActions.add(action);
+            }
+        }
+        if (runNow) {
+            runQuietly(action);
+            return () -> {
+            };
+        }
+        return () -> {
+            synchronized (cancelActions) {
+                cancelActions.remove(action);
+            }
+        };
+    }
+
+    private void runCancelActions() {
+        List<Runnable> actions;
+        synchronized (cancelActions) {
+            actions = new ArrayList<>(cancelActions);
+            cancelActions.clear();
+        }
+        actions.forEach(ToolDeadline::runQuietly);
+    }
+
+    private static void runQuietly(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.debug("Cancel action failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 线程绑定作用域
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    /**
+     * 取消动作注册句柄
+     */
+    @FunctionalInterface
+    public interface Registration extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
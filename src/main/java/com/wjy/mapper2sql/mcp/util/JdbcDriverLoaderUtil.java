@@ -9,15 +9,31 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.sql.Connection;
 import java.sql.Driver;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcPoolConfig;
+import com.wjy.mapper2sql.mcp.jdbc.JdbcConnectionPool;
 
 /**
  * JDBC驱动加载器
  *
- * 负责动态加载用户指定的JDBC驱动JAR文件
- * 支持从文件系统路径加载驱动类，并缓存已加载的驱动避免重复加载
+ * 负责动态加载用户指定的JDBC驱动JAR文件，已加载的驱动按（JAR 文件规范化路径、驱动类名）缓存在并发注册表中：
+ * 1）每个键只创建一个类加载器和一个驱动实例，驱动实例按 JDBC 规范是线程安全的，由所有连接池共享
+ * 2）注册表的条目不可变，通过 ConcurrentHashMap 安全发布，命中时只读取不加锁，未命中时同一个键只加载一次
+ * 3）JAR 文件被替换（修改时间或大小变化）后重新加载，被替换的类加载器在没有连接池引用后关闭
+ * 4）不同 JAR 的驱动在各自的类加载器中加载，多个数据源可以使用不同的驱动或同一驱动的不同版本
+ *
+ * 建立连接时直接使用缓存的驱动实例，不再反射创建驱动
  *
  * @author handsomestWei
  * @version 1.0.0
@@ -26,14 +42,18 @@ public class JdbcDriverLoaderUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JdbcDriverLoaderUtil.class);
 
-    // 已加载的JDBC驱动类，避免重复加载
-    private static Class<?> loadedDriver = null;
+    // 已加载的驱动注册表
+    private static final ConcurrentMap<DriverKey, LoadedDriver> drivers = new ConcurrentHashMap<>();
+
+    // 驱动实例 -> 已加载的驱动，包含已被替换但仍被连接池引用的驱动，用于创建连接池时登记引用
+    private static final Map<Driver, LoadedDriver> driversByInstance = Collections
+            .synchronizedMap(new IdentityHashMap<>());
 
-    // 动态加载的类加载器
-    private static URLClassLoader dynamicClassLoader = null;
+    // loadJdbcDriver 最近加载的驱动，供不指定配置的 createConnection 和 createConnectionPool 使用
+    private static final AtomicReference<LoadedDriver> currentDriver = new AtomicReference<>();
 
     /**
-     * 加载JDBC驱动
+     * 加载JDBC驱动，并设置为 createConnection 使用的当前驱动
      *
      * 从外部文件系统加载JDBC驱动JAR文件
      *
@@ -41,77 +61,113 @@ public class JdbcDriverLoaderUtil {
      * @return 加载的驱动类，如果加载失败则返回null
      */
     public static Class<?> loadJdbcDriver(JdbcConnectionConfig config) {
-        try {
-            // 检查配置是否支持动态加载
-            if (!config.supportsDynamicLoading()) {
-                logger.warn(
-                        "JDBC configuration does not support dynamic loading, missing driver class name or JAR file path");
-                logger.warn("Configuration details: {}", config);
-                return null;
-            }
-
-            String driverClassName = config.getJdbcDriver();
-            String driverJarPath = config.getJdbcDriverJar();
+        LoadedDriver loaded = getOrLoad(config);
+        if (loaded == null) {
+            return null;
+        }
+        currentDriver.set(loaded);
+        return loaded.driver.getClass();
+    }
 
-            // 检查是否已经加载过
-            if (loadedDriver != null) {
-                logger.debug("JDBC driver already loaded: {}", driverClassName);
-                return loadedDriver;
-            }
+    /**
+     * 获取JDBC驱动实例，注册表中没有或JAR文件已被替换时加载
+     *
+     * 相同 JAR 文件和驱动类名的配置共享同一个驱动实例，调用方不需要也不应该关闭驱动的类加载器
+     *
+     * @param config JDBC连接配置
+     * @return 驱动实例，如果加载失败则返回null
+     */
+    public static Driver getOrLoadDriver(JdbcConnectionConfig config) {
+        LoadedDriver loaded = getOrLoad(config);
+        return loaded != null ? loaded.driver : null;
+    }
 
-            // 从外部文件系统加载
-            if (driverJarPath != null && !driverJarPath.trim().isEmpty()) {
-                Class<?> driverClass = loadFromExternalJar(driverJarPath, driverClassName);
-                if (driverClass != null) {
-                    logger.info("Successfully loaded JDBC driver: {} from {}", driverClassName, driverJarPath);
-                    loadedDriver = driverClass;
-                    return driverClass;
-                }
-            }
+    private static LoadedDriver getOrLoad(JdbcConnectionConfig config) {
+        // 检查配置是否支持动态加载
+        if (!config.supportsDynamicLoading()) {
+            logger.warn(
+                    "JDBC configuration does not support dynamic loading, missing driver class name or JAR file path");
+            logger.warn("Configuration details: {}", config);
+            return null;
+        }
 
+        String driverClassName = config.getJdbcDriver().trim();
+        String driverJarPath = config.getJdbcDriverJar().trim();
+        if (!validateJarFile(driverJarPath)) {
+            logger.warn("External JAR file validation failed: {}", driverJarPath);
             logger.error("Driver loading failed: {}", driverClassName);
             return null;
+        }
 
-        } catch (Exception e) {
-            logger.error("Failed to load JDBC driver: {}", config.getJdbcDriver(), e);
-            return null;
+        File jarFile = canonicalFile(driverJarPath);
+        DriverKey key = new DriverKey(jarFile.getPath(), driverClassName);
+        long lastModified = jarFile.lastModified();
+        long size = jarFile.length();
+
+        // 已加载且JAR文件未变化，直接返回
+        LoadedDriver loaded = drivers.get(key);
+        if (loaded != null && loaded.isCurrent(lastModified, size)) {
+            logger.debug("JDBC driver already loaded: {}", key);
+            return loaded;
+        }
+
+        List<LoadedDriver> superseded = new ArrayList<>(1);
+        LoadedDriver result = drivers.compute(key, (k, existing) -> {
+            if (existing != null && existing.isCurrent(lastModified, size)) {
+                return existing;
+            }
+            LoadedDriver fresh = loadFromExternalJar(jarFile, driverClassName, lastModified, size);
+            if (fresh == null) {
+                // 重新加载失败时保留原来的驱动
+                return existing;
+            }
+            if (existing != null) {
+                superseded.add(existing);
+            }
+            // 在 compute 内登记，驱动对其他线程可见时已能按实例查到
+            driversByInstance.put(fresh.driver, fresh);
+            return fresh;
+        });
+        for (LoadedDriver old : superseded) {
+            currentDriver.compareAndSet(old, result);
+            logger.info("JDBC driver JAR changed, reloaded {}, the superseded class loader is closed "
+                    + "once no connection pool uses it", key);
+            old.retire();
         }
+        if (result == null) {
+            logger.error("Driver loading failed: {}", driverClassName);
+        }
+        return result;
     }
 
     /**
-     * 从外部JAR文件加载驱动
+     * 从外部JAR文件加载驱动并创建驱动实例
      *
-     * @param jarPath         JAR文件路径
+     * @param jarFile         JAR文件
      * @param driverClassName 驱动类名
-     * @return 加载的驱动类，如果失败则返回null
+     * @param lastModified    JAR文件的修改时间
+     * @param size            JAR文件的大小
+     * @return 加载的驱动，如果失败则返回null
      */
-    private static Class<?> loadFromExternalJar(String jarPath, String driverClassName) {
+    private static LoadedDriver loadFromExternalJar(File jarFile, String driverClassName, long lastModified,
+            long size) {
+        URLClassLoader externalLoader = null;
         try {
-            // 验证JAR文件
-            if (!validateJarFile(jarPath)) {
-                logger.warn("External JAR file validation failed: {}", jarPath);
-                return null;
-            }
-
             // 创建URLClassLoader加载外部JAR
-            File jarFile = new File(jarPath);
             URL jarUrl = jarFile.toURI().toURL();
-
-            URLClassLoader externalLoader = new URLClassLoader(new URL[] { jarUrl },
-                    JdbcDriverLoaderUtil.class.getClassLoader());
-
-            try {
-                Class<?> driverClass = externalLoader.loadClass(driverClassName);
-                return driverClass;
-            } catch (ClassNotFoundException e) {
-                logger.warn("Driver class not found in external JAR: {} in {}", driverClassName, jarPath);
-                return null;
-            }
-
+            externalLoader = new URLClassLoader(new URL[] { jarUrl }, JdbcDriverLoaderUtil.class.getClassLoader());
+
+            Class<?> driverClass = externalLoader.loadClass(driverClassName);
+            Driver driver = (Driver) driverClass.getDeclaredConstructor().newInstance();
+            logger.info("Successfully loaded JDBC driver: {} from {}", driverClassName, jarFile);
+            return new LoadedDriver(driver, externalLoader, lastModified, size);
+        } catch (ClassNotFoundException e) {
+            logger.warn("Driver class not found in external JAR: {} in {}", driverClassName, jarFile);
         } catch (Exception e) {
-            logger.warn("Failed to load driver from external JAR: {} from {}", driverClassName, jarPath, e);
-            return null;
+            logger.warn("Failed to load driver from external JAR: {} from {}", driverClassName, jarFile, e);
         }
+        closeQuietly(externalLoader);
+        return null;
     }
 
     /**
@@ -126,19 +182,15 @@ public class JdbcDriverLoaderUtil {
      * @return JDBC连接，如果失败则返回null
      */
     public static Connection createConnection(String jdbcUrl, String userName, String password) {
-        if (loadedDriver == null) {
+        LoadedDriver loaded = currentDriver.get();
+        if (loaded == null) {
             logger.warn("No JDBC driver loaded, cannot create connection");
             return null;
         }
 
         try {
-            // 使用已加载的驱动类创建连接
-            Driver driver = (Driver) loadedDriver.getDeclaredConstructor().newInstance();
-            Properties props = new Properties();
-            props.setProperty("user", userName);
-            props.setProperty("password", password);
-
-            Connection connection = driver.connect(jdbcUrl, props);
+            // 使用缓存的驱动实例创建连接
+            Connection connection = loaded.driver.connect(jdbcUrl, connectProperties(userName, password));
             if (connection != null) {
                 logger.info("Successfully created JDBC connection to: {}", jdbcUrl);
                 return connection;
@@ -153,13 +205,69 @@ public class JdbcDriverLoaderUtil {
         }
     }
 
+    /**
+     * 使用已加载的驱动创建JDBC连接池
+     *
+     * 连接池持有一个驱动实例，后续借出连接不再反射创建驱动
+     *
+     * @param config     JDBC连接配置
+     * @param poolConfig 连接池配置
+     * @return JDBC连接池，如果驱动未加载或实例化失败则返回null
+     */
+    public static JdbcConnectionPool createConnectionPool(JdbcConnectionConfig config, JdbcPoolConfig poolConfig) {
+        LoadedDriver loaded = currentDriver.get();
+        if (loaded == null) {
+            logger.warn("No JDBC driver loaded, cannot create connection pool");
+            return null;
+        }
+        return createConnectionPool(config, poolConfig, loaded.driver);
+    }
+
+    /**
+     * 使用指定的驱动实例创建JDBC连接池
+     *
+     * 驱动来自本注册表时，连接池持有驱动类加载器的一个引用，关闭连接池时释放，
+     * JAR 文件被替换后旧的类加载器在所有引用释放后才关闭
+     *
+     * @param config     JDBC连接配置
+     * @param poolConfig 连接池配置
+     * @param driver     驱动实例，通常来自 getOrLoadDriver
+     * @return JDBC连接池，如果驱动为null或创建失败则返回null
+     */
+    public static JdbcConnectionPool createConnectionPool(JdbcConnectionConfig config, JdbcPoolConfig poolConfig,
+            Driver driver) {
+        if (driver == null) {
+            logger.warn("No JDBC driver loaded, cannot create connection pool");
+            return null;
+        }
+
+        LoadedDriver loaded = driversByInstance.get(driver);
+        if (loaded != null && !loaded.acquire()) {
+            logger.warn("JDBC driver class loader already closed, cannot create connection pool");
+            return null;
+        }
+        try {
+            JdbcConnectionPool pool = new JdbcConnectionPool(driver, config.getJdbcUrl(),
+                    config.getUserName(), config.getPassword(), poolConfig,
+                    loaded != null ? loaded::release : null);
+            logger.info("Successfully created JDBC connection pool for: {}", config.getJdbcUrl());
+            return pool;
+        } catch (Exception e) {
+            logger.error("Failed to create JDBC connection pool: {}", e.getMessage(), e);
+            if (loaded != null) {
+                loaded.release();
+            }
+            return null;
+        }
+    }
+
     /**
      * 检查驱动是否已加载
      *
      * @return true表示已加载，false表示未加载
      */
     public static boolean isDriverLoaded() {
-        return loadedDriver != null;
+        return currentDriver.get() != null;
     }
 
     /**
@@ -168,28 +276,24 @@ public class JdbcDriverLoaderUtil {
      * @return 已加载的驱动类，如果未加载则返回null
      */
     public static Class<?> getLoadedDriver() {
-        return loadedDriver;
+        LoadedDriver loaded = currentDriver.get();
+        return loaded != null ? loaded.driver.getClass() : null;
     }
 
     /**
-     * 清除已加载的驱动
+     * 清除所有已加载的驱动，驱动的类加载器在没有连接池引用后关闭
      *
-     * 主要用于测试或重新加载驱动
+     * 用于服务关闭、测试或重新加载驱动，应在关闭连接池之后调用
      */
     public static void clearLoadedDriver() {
-        loadedDriver = null;
-
-        // 清理动态类加载器
-        if (dynamicClassLoader != null) {
-            try {
-                dynamicClassLoader.close();
-            } catch (IOException e) {
-                logger.warn("Failed to close dynamic class loader", e);
+        currentDriver.set(null);
+        for (DriverKey key : new ArrayList<>(drivers.keySet())) {
+            LoadedDriver loaded = drivers.remove(key);
+            if (loaded != null) {
+                loaded.retire();
             }
-            dynamicClassLoader = null;
         }
-
-        logger.debug("Cleared cached JDBC driver and class loader");
+        logger.debug("Cleared cached JDBC drivers and class loaders");
     }
 
     /**
@@ -242,16 +346,195 @@ public class JdbcDriverLoaderUtil {
      * @return 驱动加载状态信息
      */
     public static String getDriverStatusInfo() {
-        StringBuilder info = new StringBuilder();
-        if (loadedDriver == null) {
-            info.append("JDBC driver not loaded");
-        } else {
-            info.append(String.format("JDBC driver loaded: %s", loadedDriver.getName()));
-            info.append(String.format(" (loader: %s)", loadedDriver.getClassLoader().getClass().getSimpleName()));
+        if (drivers.isEmpty()) {
+            return "JDBC driver not loaded";
+        }
+        StringBuilder info = new StringBuilder("JDBC drivers loaded: ");
+        boolean first = true;
+        for (DriverKey key : drivers.keySet()) {
+            if (!first) {
+                info.append(", ");
+            }
+            info.append(key);
+            first = false;
         }
-        if (dynamicClassLoader != null) {
-            info.append(", dynamic class loader created");
+        LoadedDriver loaded = currentDriver.get();
+        if (loaded != null) {
+            info.append(String.format(" (current: %s)", loaded.driver.getClass().getName()));
+        }
+        int retired = retiredDriverCount();
+        if (retired > 0) {
+            info.append(String.format(", superseded class loaders still used by pools: %d", retired));
         }
         return info.toString();
     }
+
+    /**
+     * 已被替换或清除、但仍被连接池引用的驱动数
+     */
+    private static int retiredDriverCount() {
+        synchronized (driversByInstance) {
+            int count = 0;
+            for (LoadedDriver loaded : driversByInstance.values()) {
+                if (loaded.isRetired()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 创建连接属性，每次调用创建新的实例，驱动可能修改传入的 Properties
+     */
+    private static Properties connectProperties(String userName, String password) {
+        Properties properties = new Properties();
+        properties.setProperty("user", userName);
+        properties.setProperty("password", password);
+        return properties;
+    }
+
+    private static File canonicalFile(String path) {
+        File file = new File(path);
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    private static void closeQuietly(URLClassLoader classLoader) {
+        if (classLoader == null) {
+            return;
+        }
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close driver class loader", e);
+        }
+    }
+
+    /**
+     * 驱动注册表的键：JAR 文件规范化路径 + 驱动类名
+     */
+    private static final class DriverKey {
+        private final String jarPath;
+        private final String className;
+
+        private DriverKey(String jarPath, String className) {
+            this.jarPath = jarPath;
+            this.className = className;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DriverKey)) {
+                return false;
+            }
+            DriverKey other = (DriverKey) o;
+            return jarPath.equals(other.jarPath) && className.equals(other.className);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jarPath, className);
+        }
+
+        @Override
+        public String toString() {
+            return className + " from " + jarPath;
+        }
+    }
+
+    /**
+     * 已加载的驱动
+     *
+     * 驱动和JAR文件信息创建后不再修改，连接池引用数和状态在对象锁内修改：
+     * 被替换或清除后标记为退役，退役且没有连接池引用时关闭类加载器
+     */
+    private static final class LoadedDriver {
+        private final Driver driver;
+        private final URLClassLoader classLoader;
+        // 加载时JAR文件的修改时间和大小，用于判断JAR文件是否被替换
+        private final long jarLastModified;
+        private final long jarSize;
+        private int poolReferences;
+        private boolean retired;
+        private boolean closed;
+
+        private LoadedDriver(Driver driver, URLClassLoader classLoader, long jarLastModified, long jarSize) {
+            this.driver = driver;
+            this.classLoader = classLoader;
+            this.jarLastModified = jarLastModified;
+            this.jarSize = jarSize;
+        }
+
+        private boolean isCurrent(long lastModified, long size) {
+            return jarLastModified == lastModified && jarSize == size;
+        }
+
+        /**
+         * 登记连接池引用
+         *
+         * @return false表示类加载器已关闭
+         */
+        private synchronized boolean acquire() {
+            if (closed) {
+                return false;
+            }
+            poolReferences++;
+            return true;
+        }
+
+        /**
+         * 释放连接池引用，已退役时关闭最后一个引用的类加载器
+         */
+        private void release() {
+            boolean unused;
+            synchronized (this) {
+                poolReferences--;
+                unused = markClosedIfUnused();
+            }
+            if (unused) {
+                close();
+            }
+        }
+
+        /**
+         * 标记为退役，不再被新的调用方获取
+         */
+        private void retire() {
+            boolean unused;
+            synchronized (this) {
+                retired = true;
+                unused = markClosedIfUnused();
+            }
+            if (unused) {
+                close();
+            }
+        }
+
+        private synchronized boolean isRetired() {
+            return retired;
+        }
+
+        private boolean markClosedIfUnused() {
+            if (retired && poolReferences <= 0 && !closed) {
+                closed = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 关闭类加载器，在对象锁外执行，避免与 driversByInstance 的锁顺序相反
+         */
+        private void close() {
+            driversByInstance.remove(driver);
+            closeQuietly(classLoader);
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.wjy.mapper2sql.mcp.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程工具类
+ *
+ * 项目按 JDK 17 编译，虚拟线程（JDK 21）相关 API 通过反射调用：
+ * 1）运行在 JDK 21 及以上时创建每个任务一个虚拟线程的执行器
+ * 2）运行在更低版本时不支持虚拟线程，调用方回退到平台线程池
+ *
+ * 虚拟线程不限制并发数，调用方需要用 Semaphore 按资源（磁盘、数据库连接）限制同时执行的任务数
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class VirtualThreadUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadUtil.class);
+
+    private static final int MIN_JAVA_VERSION = 21;
+
+    // Thread.ofVirtual()
+    private static final Method OF_VIRTUAL;
+    // Thread.Builder.name(String prefix, long start)
+    private static final Method BUILDER_NAME;
+    // Thread.Builder.factory()
+    private static final Method BUILDER_FACTORY;
+    // Executors.newThreadPerTaskExecutor(ThreadFactory)
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        // JDK 19、20 中虚拟线程为预览特性，不启用预览时调用会抛出异常，因此只在 21 及以上版本使用
+        if (Runtime.version().feature() >= MIN_JAVA_VERSION) {
+            try {
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builderName = builderClass.getMethod("name", String.class, long.class);
+                builderFactory = builderClass.getMethod("factory");
+                newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual thread API not found on Java {}: {}", Runtime.version(), e.getMessage());
+                ofVirtual = null;
+            }
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreadUtil() {
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     *
+     * @return true表示支持
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建执行器
+     *
+     * 启用虚拟线程时每个任务一个虚拟线程，不限制并发数；否则为固定大小的平台线程池
+     *
+     * @param threadNamePrefix 线程名前缀
+     * @param poolSize         平台线程池大小，使用虚拟线程时忽略
+     * @param virtualThreads   是否使用虚拟线程，运行环境不支持时使用平台线程池
+     * @return 执行器
+     */
+    public static ExecutorService newExecutor(String threadNamePrefix, int poolSize, boolean virtualThreads) {
+        if (virtualThreads && isSupported()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), threadNamePrefix, 1L);
+                ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create virtual thread executor, using platform threads: {}", e.getMessage());
+            }
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.wjy.mapper2sql.mcp.bo;
+
+import com.alibaba.druid.DbType;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 不可变解析结果测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperResultTest {
+
+    @Test
+    void testOfKeepsOrderAndSharesStrings() {
+        MapperResult first = newResult();
+        MapperResult second = newResult();
+
+        assertEquals(Arrays.asList("selectById", "selectByName", "deleteById"),
+                new ArrayList<>(first.toSqlIdMap().keySet()));
+        assertSame(first.getNamespace(), second.getNamespace());
+        for (int i = 0; i < first.getStatementCount(); i++) {
+            assertSame(first.getId(i), second.getId(i));
+            assertSame(first.getSql(i), second.getSql(i));
+        }
+        assertEquals(Collections.singletonMap("user_name", JdbcType.VARCHAR), first.getResultColumnTypes());
+        assertEquals(SqlCommandType.SELECT, first.getType(0));
+        assertFalse(first.isTested());
+        assertNull(first.getTestResult(0));
+    }
+
+    @Test
+    void testRetainAndWithMockedSqls() {
+        MapperResult result = newResult();
+
+        MapperResult retained = result.retain(Arrays.asList("deleteById", "selectById", "notExists"));
+        assertEquals(Arrays.asList("selectById", "deleteById"), new ArrayList<>(retained.toSqlIdMap().keySet()));
+        assertEquals(-1, retained.indexOf("selectByName"));
+        assertEquals(1, retained.getResultColumnCount());
+        assertEquals(SqlCommandType.DELETE, retained.getType(1));
+
+        // 与原 SQL 相同的模拟结果使用原有实例
+        String unchanged = new String(result.getSql(1));
+        MapperResult mocked = result.withMockedSqls(
+                new String[] { "SELECT * FROM user WHERE id = 1;", unchanged, null });
+        assertTrue(mocked.isMocked());
+        assertEquals("SELECT * FROM user WHERE id = ?;", mocked.getSql(0));
+        assertEquals("SELECT * FROM user WHERE id = 1;", mocked.getMockedSql(0));
+        assertEquals("SELECT * FROM user WHERE id = 1;", mocked.getEffectiveSql(0));
+        assertSame(result.getSql(1), mocked.getMockedSql(1));
+        assertSame(result.getSql(2), mocked.getMockedSql(2));
+        assertFalse(result.isMocked());
+        assertNull(result.getMockedSql(0));
+        assertEquals(result.getSql(0), result.getEffectiveSql(0));
+
+        MapperResult tested = mocked.withTestResults(new Boolean[] { true, false, null },
+                new String[] { "", "error", null });
+        assertTrue(tested.isTested());
+        assertEquals(Boolean.FALSE, tested.getTestResult(1));
+        assertEquals("error", tested.getTestMsg(1));
+        assertNull(tested.getTestResult(2));
+        // 替换 SQL 后不保留测试结果
+        assertFalse(tested.withMockedSqls(new String[3]).isTested());
+    }
+
+    private static MapperResult newResult() {
+        Map<String, String> sqlIdMap = new LinkedHashMap<>();
+        sqlIdMap.put("selectById", new String("SELECT * FROM user WHERE id = ?;"));
+        sqlIdMap.put("selectByName", new String("SELECT * FROM user WHERE user_name = ?;"));
+        sqlIdMap.put("deleteById", new String("DELETE FROM user WHERE id = ?;"));
+        Map<String, SqlCommandType> sqlCommandTypes = new HashMap<>();
+        sqlCommandTypes.put("selectById", SqlCommandType.SELECT);
+        sqlCommandTypes.put("selectByName", SqlCommandType.SELECT);
+        sqlCommandTypes.put("deleteById", SqlCommandType.DELETE);
+        return MapperResult.of("/tmp/UserMapper.xml", new String("com.test.dao.UserDao"), DbType.mysql.name(),
+                sqlIdMap, sqlCommandTypes, Collections.singletonMap("user_name", JdbcType.VARCHAR));
+    }
+}
@@ -0,0 +1,169 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 解析结果缓存测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperParseCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testUnchangedFileServedFromCache() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        MapperResult first = cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+        MapperResult second = cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testTouchedFileWithSameContentIsNotReparsed() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testModifiedFileIsReparsed() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+        Files.writeString(file, "<mapper namespace=\"b\"/>");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testDbTypeAndMockFlagArePartOfKey() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, loads));
+        cache.getOrLoad(file, DbType.mysql, true, path -> newInfo(path, loads));
+        cache.getOrLoad(file, DbType.postgresql, false, path -> newInfo(path, loads));
+
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testMockedResultsAreScopedByDataSource() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(file, DbType.mysql, true, "orders", path -> newInfo(path, loads));
+        cache.getOrLoad(file, DbType.mysql, true, "users", path -> newInfo(path, loads));
+        // 不模拟参数的结果与数据源无关
+        cache.getOrLoad(file, DbType.mysql, false, "orders", path -> newInfo(path, loads));
+        cache.getOrLoad(file, DbType.mysql, false, "users", path -> newInfo(path, loads));
+        assertEquals(3, loads.get());
+
+        cache.invalidateMocked("orders");
+        cache.getOrLoad(file, DbType.mysql, true, "users", path -> newInfo(path, loads));
+        assertEquals(3, loads.get());
+        cache.getOrLoad(file, DbType.mysql, true, "orders", path -> newInfo(path, loads));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void testMockedEntryExpiresWithMetadataTtl() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false), null, 50);
+        AtomicInteger plainLoads = new AtomicInteger();
+        AtomicInteger mockLoads = new AtomicInteger();
+
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, plainLoads));
+        cache.getOrLoad(file, DbType.mysql, true, "users", path -> newInfo(path, mockLoads));
+        cache.getOrLoad(file, DbType.mysql, true, "users", path -> newInfo(path, mockLoads));
+        assertEquals(1, mockLoads.get());
+
+        // 超过有效期后重新模拟参数，未模拟参数的条目不过期
+        Thread.sleep(100);
+        cache.getOrLoad(file, DbType.mysql, true, "users", path -> newInfo(path, mockLoads));
+        cache.getOrLoad(file, DbType.mysql, false, path -> newInfo(path, plainLoads));
+        assertEquals(2, mockLoads.get());
+        assertEquals(1, plainLoads.get());
+    }
+
+    @Test
+    void testNonMapperFileIsCachedAsNull() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("b.xml"), "<beans/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.getOrLoad(file, DbType.mysql, false, path -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNull(cache.getOrLoad(file, DbType.mysql, false, path -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        Path a = Files.writeString(tempDir.resolve("a.xml"), "<mapper namespace=\"a\"/>");
+        Path b = Files.writeString(tempDir.resolve("b.xml"), "<mapper namespace=\"b\"/>");
+        Path c = Files.writeString(tempDir.resolve("c.xml"), "<mapper namespace=\"c\"/>");
+        MapperParseCache cache = new MapperParseCache(new ParseCacheConfig(true, 2, 1024 * 1024, false));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(a, DbType.mysql, false, path -> newInfo(path, loads));
+        cache.getOrLoad(b, DbType.mysql, false, path -> newInfo(path, loads));
+        // 访问a，使b成为最久未访问的条目
+        cache.getOrLoad(a, DbType.mysql, false, path -> newInfo(path, loads));
+        cache.getOrLoad(c, DbType.mysql, false, path -> newInfo(path, loads));
+        cache.getOrLoad(a, DbType.mysql, false, path -> newInfo(path, loads));
+        cache.getOrLoad(b, DbType.mysql, false, path -> newInfo(path, loads));
+
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.size());
+    }
+
+    private static MapperResult newInfo(String path, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return MapperResult.of(path, "ns", DbType.mysql.name(), Collections.singletonMap("selectById", "SELECT 1;"),
+                Collections.emptyMap());
+    }
+}
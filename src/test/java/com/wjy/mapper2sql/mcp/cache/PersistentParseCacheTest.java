@@ -0,0 +1,165 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+import com.wjy.mapper2sql.mcp.parse.MapperFileParser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 持久化解析结果缓存测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class PersistentParseCacheTest {
+
+    private static final String TEST_MAPPER = "src/test/resources/test-mapper.xml";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParseResultSurvivesReopen() throws Exception {
+        MapperResult parsed = new MapperFileParser(1).parse(TEST_MAPPER, DbType.mysql);
+        byte[] hash = FileFingerprint.hashContent(Paths.get(TEST_MAPPER));
+
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            cache.put(hash, DbType.mysql, parsed);
+        }
+
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            assertNull(cache.get(hash, DbType.postgresql, "copy.xml"));
+            PersistentParseCache.Hit hit = cache.get(hash, DbType.mysql, "copy.xml");
+            assertNotNull(hit);
+
+            MapperResult info = hit.getInfo();
+            assertEquals("copy.xml", info.getFilePath());
+            assertEquals(parsed.getNamespace(), info.getNamespace());
+            assertEquals(parsed.getDbTypeName(), info.getDbTypeName());
+            assertEquals(parsed.toSqlIdMap(), info.toSqlIdMap());
+            // 语句顺序与解析时一致
+            assertEquals(new ArrayList<>(parsed.toSqlIdMap().keySet()), new ArrayList<>(info.toSqlIdMap().keySet()));
+            assertEquals(parsed.getResultColumnTypes(), info.getResultColumnTypes());
+            for (int i = 0; i < parsed.getStatementCount(); i++) {
+                assertEquals(parsed.getType(i), info.getType(i));
+            }
+        }
+    }
+
+    @Test
+    void testTruncatedRecordIsDiscarded() throws Exception {
+        byte[] first = { 1 };
+        byte[] second = { 2 };
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            cache.put(first, DbType.mysql, null);
+            cache.put(second, DbType.mysql, null);
+        }
+        // 模拟写入第二条记录时进程退出
+        Path file = tempDir.resolve(PersistentParseCache.FILE_NAME);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            assertEquals(1, cache.size());
+            assertNotNull(cache.get(first, DbType.mysql, "a.xml"));
+            assertNull(cache.get(second, DbType.mysql, "b.xml"));
+            cache.put(second, DbType.mysql, null);
+        }
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    void testConcurrentOpenLeavesNoTempFiles() throws Exception {
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 100)) {
+            cache.put(new byte[] { 1 }, DbType.mysql, null);
+            cache.put(new byte[] { 1 }, DbType.postgresql, null);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> sizes = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                // 条目数上限为1，每次打开都会重写文件
+                sizes.add(executor.submit(() -> {
+                    try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 1)) {
+                        return cache.size();
+                    }
+                }));
+            }
+            for (Future<Integer> size : sizes) {
+                assertEquals(1, size.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Arrays.asList(PersistentParseCache.FILE_NAME, PersistentParseCache.LOCK_FILE_NAME),
+                    files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testOldestEntriesDroppedBeyondMaxEntries() throws Exception {
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 2)) {
+            for (byte i = 0; i < 3; i++) {
+                cache.put(new byte[] { i }, DbType.mysql, null);
+            }
+        }
+        try (PersistentParseCache cache = PersistentParseCache.open(tempDir, 2)) {
+            assertEquals(2, cache.size());
+            assertNull(cache.get(new byte[] { 0 }, DbType.mysql, "a.xml"));
+        }
+    }
+
+    @Test
+    void testUnchangedFileNotReparsedAfterRestart() throws Exception {
+        Path file = Files.copy(Paths.get(TEST_MAPPER), tempDir.resolve("UserMapper.xml"));
+        Path cacheDir = tempDir.resolve("cache");
+        ParseCacheConfig config = new ParseCacheConfig(true, 10, 1024 * 1024, false, cacheDir.toString(), 100);
+        MapperFileParser parser = new MapperFileParser(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        MapperParseCache cache = new MapperParseCache(config, PersistentParseCache.open(cacheDir, 100));
+        MapperResult first = cache.getOrLoad(file, DbType.mysql, false, path -> {
+            loads.incrementAndGet();
+            return parser.parse(path, DbType.mysql);
+        });
+        cache.close();
+
+        // 模拟服务重启，内存缓存为空
+        MapperParseCache restarted = new MapperParseCache(config, PersistentParseCache.open(cacheDir, 100));
+        MapperResult second = restarted.getOrLoad(file, DbType.mysql, false, path -> {
+            loads.incrementAndGet();
+            return parser.parse(path, DbType.mysql);
+        });
+        restarted.close();
+
+        assertEquals(1, loads.get());
+        assertEquals(first.toSqlIdMap(), second.toSqlIdMap());
+        assertEquals(1, restarted.getPersistentCache().getHitCount());
+    }
+}
@@ -0,0 +1,184 @@
+package com.wjy.mapper2sql.mcp.cache;
+
+import com.wjy.mapper2sql.mcp.config.TableMetadataCacheConfig;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 表字段元数据缓存测试类
+ *
+ * 使用模拟的 DatabaseMetaData，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class TableMetadataCacheTest {
+
+    @Test
+    void testRepeatedLookupQueriesOnce() {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, false));
+
+        cache.getColumnTypes("user", metadata::connection);
+        Map<String, JdbcType> columnTypes = cache.getColumnTypes("user", metadata::connection);
+
+        assertEquals(JdbcType.BIGINT, columnTypes.get("id"));
+        assertEquals(1, metadata.getColumnsCount.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void testInvalidatedTableIsQueriedAgain() {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, false));
+
+        cache.getColumnTypes("user", metadata::connection);
+        cache.invalidate("user");
+        cache.getColumnTypes("user", metadata::connection);
+
+        assertEquals(2, metadata.getColumnsCount.get());
+    }
+
+    @Test
+    void testExpiredEntryIsQueriedAgain() throws Exception {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 1, false));
+
+        cache.getColumnTypes("user", metadata::connection);
+        Thread.sleep(10);
+        cache.getColumnTypes("user", metadata::connection);
+
+        assertEquals(2, metadata.getColumnsCount.get());
+    }
+
+    @Test
+    void testWarmedUpTablesNeedNoConnection() throws Exception {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, true));
+        AtomicInteger connectionRequests = new AtomicInteger();
+
+        assertEquals(2, cache.warmUp(metadata.connection()));
+        Map<String, JdbcType> columnTypes = cache.getColumnTypes("orders", () -> {
+            connectionRequests.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(JdbcType.VARCHAR, columnTypes.get("order_no"));
+        assertEquals(0, connectionRequests.get());
+        assertEquals(1, metadata.getColumnsCount.get());
+    }
+
+    @Test
+    void testQualifiedNameQueriesCatalogAndSchema() {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, false));
+
+        cache.getColumnTypes("user", metadata::connection);
+        assertEquals(Arrays.asList("app", "public", "user"), metadata.lastGetColumnsArgs);
+
+        Map<String, JdbcType> columnTypes = cache.getColumnTypes("sales.orders", metadata::connection);
+        assertEquals(Arrays.asList("app", "sales", "orders"), metadata.lastGetColumnsArgs);
+        assertEquals(JdbcType.VARCHAR, columnTypes.get("order_no"));
+
+        cache.getColumnTypes("erp.sales.orders", metadata::connection);
+        assertEquals(Arrays.asList("erp", "sales", "orders"), metadata.lastGetColumnsArgs);
+    }
+
+    @Test
+    void testTwoPartNameIsCatalogWithoutSchemaSupport() {
+        FakeMetadata metadata = new FakeMetadata();
+        metadata.supportsSchemas = false;
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, false));
+
+        cache.getColumnTypes("sales.orders", metadata::connection);
+        assertEquals(Arrays.asList("sales", null, "orders"), metadata.lastGetColumnsArgs);
+    }
+
+    @Test
+    void testWarmUpUsesCurrentCatalogAndSchema() throws Exception {
+        FakeMetadata metadata = new FakeMetadata();
+        TableMetadataCache cache = new TableMetadataCache(new TableMetadataCacheConfig(true, 60_000, true));
+
+        cache.warmUp(metadata.connection());
+        assertEquals(Arrays.asList("app", "public", "%"), metadata.lastGetColumnsArgs);
+    }
+
+    /**
+     * 模拟的元数据，包含 user 和 orders 两个表，连接当前的 catalog 为 app、schema 为 public
+     */
+    private static final class FakeMetadata {
+        private static final List<String[]> COLUMNS = Arrays.asList(
+                new String[] { "user", "id", String.valueOf(Types.BIGINT) },
+                new String[] { "user", "name", String.valueOf(Types.VARCHAR) },
+                new String[] { "orders", "order_no", String.valueOf(Types.VARCHAR) });
+
+        private final AtomicInteger getColumnsCount = new AtomicInteger();
+        private List<Object> lastGetColumnsArgs;
+        private boolean supportsSchemas = true;
+
+        private Connection connection() {
+            DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { DatabaseMetaData.class }, (proxy, method, args) -> {
+                        if (method.getName().equals("getColumns")) {
+                            getColumnsCount.incrementAndGet();
+                            lastGetColumnsArgs = Arrays.asList(args[0], args[1], args[2]);
+                            return resultSet((String) args[2]);
+                        }
+                        if (method.getName().equals("supportsSchemasInTableDefinitions")) {
+                            return supportsSchemas;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getMetaData":
+                                return metaData;
+                            case "getCatalog":
+                                return "app";
+                            case "getSchema":
+                                return "public";
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private ResultSet resultSet(String tableNamePattern) {
+            Iterator<String[]> rows = COLUMNS.stream()
+                    .filter(row -> tableNamePattern.equals("%") || row[0].equals(tableNamePattern))
+                    .iterator();
+            String[][] current = new String[1][];
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                current[0] = rows.hasNext() ? rows.next() : null;
+                                return current[0] != null;
+                            case "getString":
+                                return args[0].equals("TABLE_NAME") ? current[0][0] : current[0][1];
+                            case "getInt":
+                                return Integer.parseInt(current[0][2]);
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
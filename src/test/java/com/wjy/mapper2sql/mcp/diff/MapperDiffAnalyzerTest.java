@@ -0,0 +1,169 @@
+package com.wjy.mapper2sql.mcp.diff;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.parse.MapperParser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * mapper 语句级差异分析测试类
+ *
+ * 在临时目录中创建 git 仓库，没有安装 git 时跳过
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperDiffAnalyzerTest {
+
+    private static final Path TEST_MAPPER = Paths.get("src/test/resources/test-mapper.xml");
+    private static final String LEGACY_MAPPER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+            + "<mapper namespace=\"com.test.dao.LegacyDao\">\n"
+            + "    <select id=\"selectAll\">SELECT * FROM legacy</select>\n"
+            + "</mapper>\n";
+    private static final String ORDER_MAPPER = LEGACY_MAPPER.replace("LegacyDao", "OrderDao")
+            .replace("selectAll", "selectByOrderId").replace("SELECT * FROM legacy",
+                    "SELECT * FROM orders WHERE id = #{id}");
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void checkGit() {
+        assumeTrue(gitAvailable(), "git is not installed");
+    }
+
+    @Test
+    void testStatementLevelDiff() throws Exception {
+        Path mapperDir = Files.createDirectories(tempDir.resolve("src/main/resources/mapper"));
+        Files.copy(TEST_MAPPER, mapperDir.resolve("UserMapper.xml"));
+        Files.write(mapperDir.resolve("LegacyMapper.xml"), LEGACY_MAPPER.getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("README.md"), "readme".getBytes(StandardCharsets.UTF_8));
+        git("init", "-q");
+        git("add", "-A");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "base");
+
+        // 修改一条语句，只改缩进的语句不算变化，删除一条语句
+        String user = new String(Files.readAllBytes(mapperDir.resolve("UserMapper.xml")), StandardCharsets.UTF_8);
+        user = user.replace("WHERE id = #{id}\n    </select>", "WHERE id = #{id} AND status = 1\n    </select>")
+                .replace("        WHERE username = #{username}", "            WHERE username = #{username}")
+                .replaceAll("(?s)\\s*<delete id=\"deleteByStatus\">.*?</delete>", "");
+        Files.write(mapperDir.resolve("UserMapper.xml"), user.getBytes(StandardCharsets.UTF_8));
+        // 未跟踪的新文件和未提交的删除
+        Files.write(mapperDir.resolve("OrderMapper.xml"), ORDER_MAPPER.getBytes(StandardCharsets.UTF_8));
+        Files.delete(mapperDir.resolve("LegacyMapper.xml"));
+        Files.write(tempDir.resolve("README.md"), "changed".getBytes(StandardCharsets.UTF_8));
+
+        try (MapperParser parser = new MapperParser(null, null, null, 1, false)) {
+            MapperDiffResult diff = new MapperDiffAnalyzer(parser, GitWorkingTree.DEFAULT_COMMAND_TIMEOUT_MS)
+                    .diff(tempDir.resolve("src").toString(), "HEAD", DbType.mysql);
+
+            assertEquals(3, diff.getChangedFiles());
+            assertEquals(5, diff.getUnchangedStatements());
+            assertFalse(diff.isTruncated());
+            assertEquals(40, diff.getBaseCommit().length());
+
+            Map<String, StatementChange> changes = diff.getChanges().stream()
+                    .collect(Collectors.toMap(change -> change.getNamespace() + "." + change.getId(),
+                            change -> change));
+            assertEquals(4, changes.size());
+
+            StatementChange modified = changes.get("com.test.dao.UserDao.selectById");
+            assertEquals(StatementChange.Type.MODIFIED, modified.getType());
+            assertEquals("src/main/resources/mapper/UserMapper.xml", modified.getFile());
+            assertFalse(modified.getBaseSql().contains("status = 1"));
+            assertTrue(modified.getSql().contains("status = 1"));
+
+            StatementChange removed = changes.get("com.test.dao.UserDao.deleteByStatus");
+            assertEquals(StatementChange.Type.REMOVED, removed.getType());
+            assertNull(removed.getSql());
+
+            assertEquals(StatementChange.Type.ADDED, changes.get("com.test.dao.OrderDao.selectByOrderId").getType());
+            StatementChange legacy = changes.get("com.test.dao.LegacyDao.selectAll");
+            assertEquals(StatementChange.Type.REMOVED, legacy.getType());
+            assertEquals("src/main/resources/mapper/LegacyMapper.xml", legacy.getFile());
+        }
+    }
+
+    @Test
+    void testFileThatFailsToParseIsRecorded() throws Exception {
+        Path mapperDir = Files.createDirectories(tempDir.resolve("mapper"));
+        Files.copy(TEST_MAPPER, mapperDir.resolve("UserMapper.xml"));
+        Files.write(mapperDir.resolve("LegacyMapper.xml"), LEGACY_MAPPER.getBytes(StandardCharsets.UTF_8));
+        git("init", "-q");
+        git("add", "-A");
+        git("-c", "user.name=test", "-c", "user.email=test@example.com", "commit", "-q", "-m", "base");
+
+        // 语句 id 重复，工作区的文件解析失败
+        String user = new String(Files.readAllBytes(mapperDir.resolve("UserMapper.xml")), StandardCharsets.UTF_8);
+        Files.write(mapperDir.resolve("UserMapper.xml"),
+                user.replace("selectByUsername", "selectById").getBytes(StandardCharsets.UTF_8));
+        Files.write(mapperDir.resolve("LegacyMapper.xml"),
+                LEGACY_MAPPER.replace("FROM legacy", "FROM legacy_v2").getBytes(StandardCharsets.UTF_8));
+
+        try (MapperParser parser = new MapperParser(null, null, null, 1, false)) {
+            MapperDiffResult diff = new MapperDiffAnalyzer(parser, GitWorkingTree.DEFAULT_COMMAND_TIMEOUT_MS)
+                    .diff(mapperDir.toString(), "HEAD", DbType.mysql);
+
+            assertEquals(2, diff.getChangedFiles());
+            assertEquals(Collections.singleton("mapper/UserMapper.xml"), diff.getErrors().keySet());
+            assertTrue(diff.getErrors().get("mapper/UserMapper.xml").startsWith("Failed to parse working tree version"));
+            // 解析失败的文件不产生变化，其他文件正常比较
+            assertEquals(1, diff.getChanges().size());
+            StatementChange legacy = diff.getChanges().get(0);
+            assertEquals(StatementChange.Type.MODIFIED, legacy.getType());
+            assertEquals("selectAll", legacy.getId());
+        }
+    }
+
+    @Test
+    void testInvalidRepositoryAndRevision() throws Exception {
+        IOException notRepository = assertThrows(IOException.class,
+                () -> GitWorkingTree.open(tempDir, GitWorkingTree.DEFAULT_COMMAND_TIMEOUT_MS));
+        assertTrue(notRepository.getMessage().startsWith("Not a git working tree"));
+
+        git("init", "-q");
+        GitWorkingTree git = GitWorkingTree.open(tempDir, GitWorkingTree.DEFAULT_COMMAND_TIMEOUT_MS);
+        assertEquals(tempDir.toRealPath(), git.getTopLevel());
+        assertThrows(IOException.class, () -> git.resolveCommit("--output=/tmp/x"));
+        IOException unknown = assertThrows(IOException.class, () -> git.resolveCommit("no-such-branch"));
+        assertEquals("Unknown revision: no-such-branch", unknown.getMessage());
+    }
+
+    private void git(String... args) throws Exception {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-C", tempDir.toString()));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            return new ProcessBuilder("git", "--version").start().waitFor() == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.config.ConfigurationLoader;
+import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcInitConfig;
+import com.wjy.mapper2sql.mcp.config.TableMetadataCacheConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 命名数据源注册表测试类
+ *
+ * 使用不存在的驱动 JAR，驱动加载失败，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class DataSourceRegistryTest {
+
+    private static final JdbcInitConfig LAZY = new JdbcInitConfig(JdbcInitConfig.Mode.LAZY, 1000, false);
+    private static final List<String> PROPERTIES = Arrays.asList("datasources", "datasource.orders.dbType",
+            "datasource.orders.jdbcDriverJar", "datasource.orders.jdbcUrl", "datasource.orders.userName",
+            "datasource.orders.password", "datasource.users.dbType", "datasource.users.jdbcUrl",
+            "datasource.broken.dbType", "datasource.broken.jdbcDriverJar", "datasource.broken.jdbcUrl",
+            "datasource.broken.userName", "datasource.broken.password");
+
+    @AfterEach
+    void clearProperties() {
+        PROPERTIES.forEach(System::clearProperty);
+    }
+
+    @Test
+    void testLoadsNamedDataSourcesAndSkipsInvalidOnes() {
+        System.setProperty("datasources", "orders, users, broken");
+        System.setProperty("datasource.orders.dbType", "postgresql");
+        System.setProperty("datasource.orders.jdbcDriverJar", "/path/not/exists/driver.jar");
+        System.setProperty("datasource.orders.jdbcUrl", "jdbc:postgresql://localhost:5432/orders");
+        System.setProperty("datasource.orders.userName", "orders");
+        System.setProperty("datasource.orders.password", "secret");
+        // 缺少用户名和密码
+        System.setProperty("datasource.users.dbType", "mysql");
+        System.setProperty("datasource.users.jdbcUrl", "jdbc:mysql://localhost:3306/users");
+        // 数据库类型不支持
+        System.setProperty("datasource.broken.dbType", "no-such-db");
+        System.setProperty("datasource.broken.jdbcDriverJar", "/path/not/exists/driver.jar");
+        System.setProperty("datasource.broken.jdbcUrl", "jdbc:broken://localhost");
+        System.setProperty("datasource.broken.userName", "root");
+        System.setProperty("datasource.broken.password", "secret");
+
+        Map<String, JdbcConnectionConfig> configs = ConfigurationLoader.loadDataSourceConfigs();
+
+        JdbcConnectionConfig orders = configs.get("orders");
+        assertNotNull(orders);
+        assertEquals("postgresql", orders.getDbType());
+        assertEquals("jdbc:postgresql://localhost:5432/orders", orders.getJdbcUrl());
+        assertNull(configs.get("users"));
+        assertNull(configs.get("broken"));
+    }
+
+    @Test
+    void testEachDataSourceHasItsOwnResources() {
+        JdbcConnectionConfig orders = newConfig("orders");
+        JdbcConnectionConfig users = newConfig("users");
+        Map<String, JdbcConnectionConfig> configs = new LinkedHashMap<>();
+        configs.put("orders", orders);
+        configs.put("users", users);
+
+        try (DataSourceRegistry registry = DataSourceRegistry.create(configs, null, LAZY,
+                new TableMetadataCacheConfig(true, 60_000, false), false)) {
+            assertEquals(Arrays.asList("orders", "users"), registry.getNames());
+            assertSame(orders, registry.get("orders").getConfig());
+            assertSame(users, registry.get(" users ").getConfig());
+            assertNotSame(registry.get("orders").getTableMetadataCache(),
+                    registry.get("users").getTableMetadataCache());
+            assertNull(registry.get("missing"));
+        }
+    }
+
+    @Test
+    void testDefaultDataSourceResolution() {
+        JdbcInitializer unnamed = newInitializer(ConfigurationLoader.DEFAULT_DATASOURCE);
+        JdbcInitializer orders = newInitializer("orders");
+
+        try (DataSourceRegistry registry = new DataSourceRegistry(Arrays.asList(orders, unnamed), null)) {
+            assertEquals(ConfigurationLoader.DEFAULT_DATASOURCE, registry.getDefaultName());
+            assertSame(unnamed, registry.get(null));
+        }
+        try (DataSourceRegistry registry = new DataSourceRegistry(Arrays.asList(orders, unnamed), "orders")) {
+            assertSame(orders, registry.get(""));
+        }
+        // 配置的默认数据源不存在，且没有 default 数据源时使用第一个
+        try (DataSourceRegistry registry = new DataSourceRegistry(Collections.singletonList(orders), "missing")) {
+            assertEquals("orders", registry.getDefaultName());
+        }
+        try (DataSourceRegistry registry = new DataSourceRegistry(Collections.emptyList(), null)) {
+            assertTrue(registry.isEmpty());
+            assertNull(registry.get(null));
+        }
+    }
+
+    private static JdbcConnectionConfig newConfig(String database) {
+        return new JdbcConnectionConfig("mysql", "com.example.Driver", "/path/not/exists/driver.jar",
+                "jdbc:mysql://localhost:3306/" + database, "root", "secret");
+    }
+
+    private static JdbcInitializer newInitializer(String name) {
+        return new JdbcInitializer(name, newConfig(name), LAZY, null, false, false);
+    }
+}
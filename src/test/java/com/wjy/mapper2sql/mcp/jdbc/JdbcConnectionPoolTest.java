@@ -0,0 +1,245 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.config.JdbcPoolConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBC连接池测试类
+ *
+ * 使用内存中的模拟驱动，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcConnectionPoolTest {
+
+    @Test
+    void testConnectionIsReusedAfterClose() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(2, 1000))) {
+            try (Connection conn = pool.getConnection()) {
+                conn.getAutoCommit();
+            }
+            try (Connection conn = pool.getConnection()) {
+                conn.getAutoCommit();
+            }
+            assertEquals(1, driver.connectCount.get());
+            assertEquals(1, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    void testBorrowTimesOutWhenPoolExhausted() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(1, 100))) {
+            Connection first = pool.getConnection();
+            assertThrows(SQLException.class, pool::getConnection);
+            first.close();
+            pool.getConnection().close();
+        }
+    }
+
+    @Test
+    void testInvalidConnectionIsReplacedOnBorrow() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(2, 1000))) {
+            pool.getConnection().close();
+            driver.valid.set(false);
+            Connection conn = pool.getConnection();
+            driver.valid.set(true);
+            conn.close();
+            assertEquals(2, driver.connectCount.get());
+        }
+    }
+
+    @Test
+    void testReturnedConnectionCannotBeUsed() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(1, 1000))) {
+            Connection conn = pool.getConnection();
+            conn.close();
+            assertTrue(conn.isClosed());
+            assertThrows(SQLException.class, conn::getAutoCommit);
+        }
+    }
+
+    @Test
+    void testOnCloseRunsAfterLastConnectionIsReturned() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        AtomicInteger closeCount = new AtomicInteger();
+        JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(2, 1000),
+                closeCount::incrementAndGet);
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        Connection physical = first.unwrap(Connection.class);
+
+        pool.close();
+        assertEquals(0, closeCount.get());
+        assertThrows(SQLException.class, pool::getConnection);
+
+        first.close();
+        assertTrue(physical.isClosed());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, closeCount.get());
+
+        second.close();
+        assertEquals(1, closeCount.get());
+        pool.close();
+        assertEquals(1, closeCount.get());
+    }
+
+    @Test
+    void testOnCloseRunsImmediatelyWhenIdle() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        AtomicInteger closeCount = new AtomicInteger();
+        JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(2, 1000),
+                closeCount::incrementAndGet);
+        pool.getConnection().close();
+
+        pool.close();
+        assertEquals(1, closeCount.get());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    void testConnectionStateIsResetOnReturn() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(1, 1000))) {
+            try (Connection conn = pool.getConnection()) {
+                conn.setReadOnly(true);
+                conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+                conn.setCatalog("other");
+            }
+            try (Connection conn = pool.getConnection()) {
+                assertFalse(conn.isReadOnly());
+                assertEquals(Connection.TRANSACTION_READ_COMMITTED, conn.getTransactionIsolation());
+                assertEquals("main", conn.getCatalog());
+            }
+            assertEquals(1, driver.connectCount.get());
+        }
+    }
+
+    @Test
+    void testConnectionIsClosedWhenStateResetFails() throws Exception {
+        CountingDriver driver = new CountingDriver();
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(driver, "jdbc:fake", "u", "p", config(1, 1000))) {
+            Connection conn = pool.getConnection();
+            conn.setReadOnly(true);
+            driver.failStateChange.set(true);
+            conn.close();
+            driver.failStateChange.set(false);
+
+            assertEquals(0, pool.getIdleCount());
+            try (Connection next = pool.getConnection()) {
+                assertFalse(next.isReadOnly());
+            }
+            assertEquals(2, driver.connectCount.get());
+        }
+    }
+
+    private static JdbcPoolConfig config(int maxPoolSize, long borrowTimeoutMs) {
+        return new JdbcPoolConfig(maxPoolSize, borrowTimeoutMs, 1, 60_000, 60_000, 60_000);
+    }
+
+    /**
+     * 模拟驱动，记录物理连接创建次数
+     */
+    private static class CountingDriver implements Driver {
+        private final AtomicInteger connectCount = new AtomicInteger();
+        private final AtomicBoolean valid = new AtomicBoolean(true);
+        // 为true时修改连接状态失败
+        private final AtomicBoolean failStateChange = new AtomicBoolean(false);
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            connectCount.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean(false);
+            AtomicBoolean readOnly = new AtomicBoolean(false);
+            AtomicInteger isolation = new AtomicInteger(Connection.TRANSACTION_READ_COMMITTED);
+            AtomicReference<String> catalog = new AtomicReference<>("main");
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && failStateChange.get()) {
+                            throw new SQLException("Connection state cannot be changed");
+                        }
+                        switch (method.getName()) {
+                            case "isValid":
+                                return valid.get() && !closed.get();
+                            case "isClosed":
+                                return closed.get();
+                            case "close":
+                                closed.set(true);
+                                return null;
+                            case "getAutoCommit":
+                                return true;
+                            case "isReadOnly":
+                                return readOnly.get();
+                            case "setReadOnly":
+                                readOnly.set((Boolean) args[0]);
+                                return null;
+                            case "getTransactionIsolation":
+                                return isolation.get();
+                            case "setTransactionIsolation":
+                                isolation.set((Integer) args[0]);
+                                return null;
+                            case "getCatalog":
+                                return catalog.get();
+                            case "setCatalog":
+                                catalog.set((String) args[0]);
+                                return null;
+                            case "unwrap":
+                                return proxy;
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:fake");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcInitConfig;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBC 资源初始化器测试类
+ *
+ * 使用不存在的驱动 JAR，驱动加载失败，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcInitializerTest {
+
+    private static final JdbcConnectionConfig CONFIG = new JdbcConnectionConfig("mysql", "com.example.Driver",
+            "/path/not/exists/driver.jar", "jdbc:mysql://localhost:3306/test", "root", "secret");
+
+    @Test
+    void testLazyInitializesOnFirstUse() throws Exception {
+        try (JdbcInitializer initializer = new JdbcInitializer(CONFIG,
+                new JdbcInitConfig(JdbcInitConfig.Mode.LAZY, 1000, false), null, false, false)) {
+            initializer.start();
+            assertFalse(initializer.isInitialized());
+
+            assertNull(initializer.getSqlTestExecutor());
+            assertTrue(initializer.isInitialized());
+        }
+    }
+
+    @Test
+    void testBackgroundInitializationIsAwaited() throws Exception {
+        try (JdbcInitializer initializer = new JdbcInitializer(CONFIG,
+                new JdbcInitConfig(JdbcInitConfig.Mode.BACKGROUND, 10_000, true), null, false, false)) {
+            initializer.start();
+
+            assertNull(initializer.getConnectionPool());
+            assertTrue(initializer.isInitialized());
+        }
+    }
+
+    @Test
+    void testCloseReleasesWaitingCallers() {
+        JdbcInitializer initializer = new JdbcInitializer(CONFIG,
+                new JdbcInitConfig(JdbcInitConfig.Mode.BACKGROUND, 60_000, false), null, false, false);
+        initializer.close();
+        initializer.start();
+
+        // 关闭后不再初始化，等待的调用方立即返回而不是等到超时
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertNull(initializer.getConnectionPool()));
+        assertFalse(initializer.isInitialized());
+    }
+}
@@ -0,0 +1,110 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.alibaba.druid.DbType;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SQL 执行计划查询工具测试类
+ *
+ * 使用模拟的 EXPLAIN 结果，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlExplainerTest {
+
+    @Test
+    void testMysqlPlanSumsRowsAndReportsFullScans() throws Exception {
+        Connection conn = connection(Arrays.asList("id", "table", "type", "rows"), Arrays.asList(
+                new Object[] { 1, "orders", "ALL", 1200L },
+                new Object[] { 1, "user", "eq_ref", 1L }));
+
+        assertEquals("rows=1201, fullScan=[orders]",
+                SqlExplainer.explain(conn, "SELECT * FROM orders o JOIN user u ON o.user_id = u.id;", DbType.mysql, 5));
+    }
+
+    @Test
+    void testPostgresqlPlanUsesRootNodeEstimate() throws Exception {
+        Connection conn = connection(Arrays.asList("QUERY PLAN"), Arrays.asList(
+                new Object[] { "Hash Join  (cost=1.09..36.20 rows=12 width=64)" },
+                new Object[] { "  ->  Seq Scan on orders o  (cost=0.00..32.60 rows=2260 width=32)" }));
+
+        assertEquals("rows=12, cost=36.20, fullScan=[orders]",
+                SqlExplainer.explain(conn, "SELECT * FROM orders o", DbType.postgresql, 5));
+    }
+
+    @Test
+    void testUnsupportedDatabaseType() {
+        assertFalse(SqlExplainer.isSupported(DbType.sqlserver));
+        assertThrows(SQLException.class, () -> SqlExplainer.explain(null, "SELECT 1", DbType.sqlserver, 5));
+    }
+
+    /**
+     * 模拟的连接，EXPLAIN 返回给定的列和行
+     */
+    private static Connection connection(List<String> columns, List<Object[]> rows) {
+        ClassLoader classLoader = SqlExplainerTest.class.getClassLoader();
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(classLoader,
+                new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return columns.size();
+                        case "getColumnLabel":
+                            return columns.get((Integer) args[0] - 1);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        int[] cursor = { -1 };
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(classLoader, new Class<?>[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++cursor[0] < rows.size();
+                        case "getString":
+                            return String.valueOf(rows.get(cursor[0])[(Integer) args[0] - 1]);
+                        case "getLong":
+                            return ((Number) rows.get(cursor[0])[(Integer) args[0] - 1]).longValue();
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        Statement statement = (Statement) Proxy.newProxyInstance(classLoader, new Class<?>[] { Statement.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setQueryTimeout":
+                        case "close":
+                            return null;
+                        case "executeQuery":
+                            return resultSet;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (Connection) Proxy.newProxyInstance(classLoader, new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("createStatement")) {
+                        return statement;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
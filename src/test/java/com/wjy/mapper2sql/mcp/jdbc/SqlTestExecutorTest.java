@@ -0,0 +1,221 @@
+package com.wjy.mapper2sql.mcp.jdbc;
+
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.config.SqlTestConfig;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL 测试执行器测试类
+ *
+ * 使用模拟的 Connection，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlTestExecutorTest {
+
+    // jdk21 profile 下为true，并行执行使用虚拟线程
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("virtualThreadsEnabled");
+
+    @Test
+    void testEachStatementIsRolledBackWithTimeout() throws Exception {
+        FakeDatabase database = new FakeDatabase(1);
+        MapperResult info = mapperResult("UserDao", "selectById", "SELECT 1", "deleteAll", "FAIL DELETE");
+
+        List<MapperResult> tested;
+        try (SqlTestExecutor executor = new SqlTestExecutor(new SqlTestConfig(1, 7, true), false)) {
+            tested = executor.runTests(Arrays.asList(info), database);
+        }
+
+        MapperResult result = tested.get(0);
+        assertTrue(result.getTestResult(result.indexOf("selectById")));
+        assertEquals("", result.getTestMsg(result.indexOf("selectById")));
+        assertFalse(result.getTestResult(result.indexOf("deleteAll")));
+        assertEquals("syntax error", result.getTestMsg(result.indexOf("deleteAll")));
+        assertEquals(2, database.rollbackCount.get());
+        assertEquals(7, database.queryTimeout.get());
+        assertTrue(database.autoCommit);
+        // 传入的解析结果可能来自缓存，不能被修改
+        assertFalse(info.isTested());
+    }
+
+    @Test
+    void testWorkersAreLimitedByConnections() throws Exception {
+        FakeDatabase database = new FakeDatabase(2);
+        List<MapperResult> infos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            infos.add(mapperResult("Dao" + i, "a", "SELECT 1", "b", "SELECT 2", "c", "SELECT 3"));
+        }
+
+        List<MapperResult> tested;
+        try (SqlTestExecutor executor = new SqlTestExecutor(new SqlTestConfig(4, 30, true), VIRTUAL_THREADS)) {
+            tested = executor.runTests(infos, database);
+        }
+
+        assertEquals(10, tested.size());
+        for (int i = 0; i < tested.size(); i++) {
+            assertEquals("Dao" + i, tested.get(i).getNamespace());
+            for (int j = 0; j < 3; j++) {
+                assertTrue(tested.get(i).getTestResult(j));
+            }
+        }
+        assertEquals(30, database.executeCount.get());
+        assertTrue(database.maxOpenConnections.get() <= 2);
+    }
+
+    @Test
+    void testUnavailableConnectionMarksStatementsNotExecuted() throws Exception {
+        ConnectionProvider unavailable = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("pool exhausted");
+            }
+
+            @Override
+            public int getMaxConnections() {
+                return 1;
+            }
+        };
+        MapperResult info = mapperResult("UserDao", "selectById", "SELECT 1");
+
+        List<MapperResult> tested;
+        try (SqlTestExecutor executor = new SqlTestExecutor(new SqlTestConfig(1, 30, true), false)) {
+            tested = executor.runTests(Arrays.asList(info), unavailable);
+        }
+
+        assertFalse(tested.get(0).getTestResult(0));
+        assertEquals("Not executed: Failed to get connection: pool exhausted", tested.get(0).getTestMsg(0));
+    }
+
+    @Test
+    void testDeadlineCancelsRunningStatementAndSkipsTheRest() throws Exception {
+        FakeDatabase database = new FakeDatabase(1);
+        MapperResult info = mapperResult("UserDao", "a", "SLOW SELECT 1", "b", "SELECT 2");
+        ToolDeadline deadline = ToolDeadline.after(60_000);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+        List<MapperResult> tested;
+        try (SqlTestExecutor executor = new SqlTestExecutor(new SqlTestConfig(1, 30, true), false);
+                ToolDeadline.Scope scope = deadline.bind()) {
+            // 模拟等待结果的线程发现截止时间已到
+            timer.schedule(deadline::expire, 200, TimeUnit.MILLISECONDS);
+            tested = executor.runTests(Arrays.asList(info), database);
+        } finally {
+            timer.shutdownNow();
+        }
+
+        MapperResult result = tested.get(0);
+        assertFalse(result.getTestResult(result.indexOf("a")));
+        assertEquals("statement cancelled", result.getTestMsg(result.indexOf("a")));
+        assertFalse(result.getTestResult(result.indexOf("b")));
+        assertEquals("Not executed: tool call deadline reached", result.getTestMsg(result.indexOf("b")));
+        assertEquals(1, database.executeCount.get());
+    }
+
+    private static MapperResult mapperResult(String namespace, String... idAndSql) {
+        Map<String, String> sqlIdMap = new LinkedHashMap<>();
+        for (int i = 0; i < idAndSql.length; i += 2) {
+            sqlIdMap.put(idAndSql[i], idAndSql[i + 1]);
+        }
+        return MapperResult.of(namespace + ".xml", namespace, "mysql", sqlIdMap, Collections.emptyMap());
+    }
+
+    /**
+     * 模拟的数据库，以 FAIL 开头的语句执行失败，以 SLOW 开头的语句阻塞到被取消
+     */
+    private static final class FakeDatabase implements ConnectionProvider {
+        private final int maxConnections;
+        private final AtomicInteger openConnections = new AtomicInteger();
+        private final AtomicInteger maxOpenConnections = new AtomicInteger();
+        private final AtomicInteger executeCount = new AtomicInteger();
+        private final AtomicInteger rollbackCount = new AtomicInteger();
+        private final AtomicInteger queryTimeout = new AtomicInteger();
+        private volatile boolean autoCommit = true;
+
+        private FakeDatabase(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        @Override
+        public Connection getConnection() {
+            maxOpenConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getAutoCommit":
+                                return autoCommit;
+                            case "setAutoCommit":
+                                autoCommit = (Boolean) args[0];
+                                return null;
+                            case "rollback":
+                                rollbackCount.incrementAndGet();
+                                return null;
+                            case "createStatement":
+                                return statement();
+                            case "close":
+                                openConnections.decrementAndGet();
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        @Override
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        private Statement statement() {
+            CountDownLatch cancelled = new CountDownLatch(1);
+            return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "setQueryTimeout":
+                                queryTimeout.set((Integer) args[0]);
+                                return null;
+                            case "cancel":
+                                cancelled.countDown();
+                                return null;
+                            case "execute":
+                                executeCount.incrementAndGet();
+                                if (((String) args[0]).startsWith("FAIL")) {
+                                    throw new SQLException("syntax error");
+                                }
+                                // 以 SLOW 开头的语句一直执行到被取消
+                                if (((String) args[0]).startsWith("SLOW")) {
+                                    cancelled.await(5, TimeUnit.SECONDS);
+                                    throw new SQLException("statement cancelled");
+                                }
+                                return true;
+                            case "close":
+                                return null;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.wjy.mapper2sql.mcp.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 服务运行指标测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class ServerMetricsTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        ServerMetricsJmxExporter.unregister();
+        ServerMetrics.clear();
+    }
+
+    @Test
+    void testStatsContainTimerPercentilesAndCacheHitRate() throws Exception {
+        for (int i = 1; i <= 100; i++) {
+            ServerMetrics.timer(ServerMetrics.TOOL_CALLS, "tool", "parse_mapper", "outcome", "success")
+                    .record(i, TimeUnit.MILLISECONDS);
+        }
+        ServerMetrics.increment(ServerMetrics.TOOL_REJECTED, "tool", "parse_mapper");
+        AtomicLong hits = new AtomicLong(3);
+        AtomicLong misses = new AtomicLong(1);
+        ServerMetrics.bindCache("parse", hits, h -> h.get(), h -> misses.get());
+
+        JsonNode stats = objectMapper.readTree(ServerMetrics.writeStats());
+
+        JsonNode timer = stats.get("timers").get(0);
+        assertEquals(ServerMetrics.TOOL_CALLS, timer.get("name").asText());
+        assertEquals("parse_mapper", timer.get("tags").get("tool").asText());
+        assertEquals(100, timer.get("count").asLong());
+        assertEquals(100.0, timer.get("maxMs").asDouble(), 0.001);
+        assertTrue(timer.get("p50Ms").asDouble() > 40 && timer.get("p50Ms").asDouble() < 60);
+        assertTrue(timer.get("p99Ms").asDouble() > 90);
+
+        JsonNode cache = stats.get("caches").get(0);
+        assertEquals("parse", cache.get("cache").asText());
+        assertEquals(0.75, cache.get("hitRate").asDouble(), 0.001);
+        assertEquals(3, stats.get("counters").size());
+    }
+
+    @Test
+    void testJmxExposesFlattenedMetrics() throws Exception {
+        ServerMetrics.timer(ServerMetrics.PARSE_FILE).record(5, TimeUnit.MILLISECONDS);
+        assertTrue(ServerMetricsJmxExporter.register());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ServerMetricsJmxExporter.OBJECT_NAME);
+        Map<String, Double> values = ServerMetrics.flatten();
+        assertEquals(1.0, values.get(ServerMetrics.PARSE_FILE + ".count"), 0.001);
+        assertEquals(1.0, (Double) server.getAttribute(name, ServerMetrics.PARSE_FILE + ".count"), 0.001);
+        assertTrue(server.getMBeanInfo(name).getAttributes().length >= 4);
+
+        ServerMetricsJmxExporter.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,171 @@
+package com.wjy.mapper2sql.mcp.output;
+
+import com.alibaba.druid.DbType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.diff.MapperDiffResult;
+import com.wjy.mapper2sql.mcp.diff.StatementChange;
+import com.wjy.mapper2sql.mcp.parse.MapperBatchResult;
+import com.wjy.mapper2sql.mcp.parse.MapperParsePage;
+import com.wjy.mapper2sql.util.OutPutUtil;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 解析结果 JSON 输出测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperResultJsonWriterTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testOutputMatchesOutPutUtilFormat() throws Exception {
+        List<MapperSqlInfo> results = Arrays.asList(newInfo("a"), newInfo("b"));
+
+        String expected = objectMapper.writeValueAsString(OutPutUtil.toLineList(results));
+
+        assertEquals(expected, MapperResultJsonWriter.write(
+                results.stream().map(MapperResult::of).collect(Collectors.toList())));
+    }
+
+    @Test
+    void testPageContainsPagingFields() throws Exception {
+        List<MapperResult> results = Arrays.asList(MapperResult.of(newInfo("a")));
+
+        JsonNode middle = objectMapper.readTree(MapperResultJsonWriter.write(new MapperParsePage(results, 10, 5, 20)));
+        JsonNode last = objectMapper.readTree(MapperResultJsonWriter.write(new MapperParsePage(results, 15, 5, 20)));
+
+        assertEquals(15, middle.get("nextOffset").asInt());
+        assertEquals(20, middle.get("totalFiles").asInt());
+        assertEquals(1, middle.get("results").size());
+        assertTrue(last.get("nextOffset").isNull());
+    }
+
+    @Test
+    void testBatchIsKeyedByPath() throws Exception {
+        MapperBatchResult batch = new MapperBatchResult(Arrays.asList(
+                new MapperBatchResult.PathResult("/repo/user", Arrays.asList(MapperResult.of(newInfo("a")),
+                        MapperResult.of(newInfo("b"))), 3, false,
+                        null),
+                MapperBatchResult.PathResult.error("/repo/missing", "Path not found: /repo/missing")), 3, 1, false);
+
+        JsonNode json = objectMapper.readTree(MapperResultJsonWriter.write(batch));
+
+        assertEquals(3, json.get("totalFiles").asInt());
+        assertEquals(1, json.get("duplicateFiles").asInt());
+        JsonNode user = json.get("results").get("/repo/user");
+        assertEquals(3, user.get("fileCount").asInt());
+        assertEquals(objectMapper.readTree(MapperResultJsonWriter.write(batch.getResults())), user.get("results"));
+        assertEquals("Path not found: /repo/missing", json.get("results").get("/repo/missing").get("error").asText());
+    }
+
+    @Test
+    void testDiffListsChangedStatements() throws Exception {
+        StatementChange modified = new StatementChange(StatementChange.Type.MODIFIED, "a", "selectById", "a.xml",
+                "SELECT 1", "SELECT 2").withTestResult("SELECT 2", Boolean.TRUE, "");
+        StatementChange removed = new StatementChange(StatementChange.Type.REMOVED, "a", "deleteById", "a.xml",
+                "DELETE FROM t", null);
+        StatementChange added = new StatementChange(StatementChange.Type.ADDED, "a", "insert", "a.xml", null,
+                "INSERT INTO t VALUES (1)").withTestResult("INSERT INTO t VALUES (1)", null, "");
+        MapperDiffResult diff = new MapperDiffResult("HEAD~1", "abc", Paths.get("/repo"), 2, 3,
+                Arrays.asList(modified, removed, added), Collections.singletonMap("b.xml", "Failed to parse"), false);
+
+        JsonNode json = objectMapper.readTree(MapperResultJsonWriter.write(diff));
+
+        assertEquals("HEAD~1", json.get("baseRevision").asText());
+        assertEquals(3, json.get("unchangedStatements").asInt());
+        JsonNode statements = json.get("statements");
+        assertEquals("MODIFIED", statements.get(0).get("change").asText());
+        assertEquals("SELECT 1", statements.get(0).get("baseSql").asText());
+        assertTrue(statements.get(0).get("testResult").isBoolean());
+        assertTrue(statements.get(0).get("testResult").asBoolean());
+        assertEquals("REMOVED", statements.get(1).get("change").asText());
+        assertFalse(statements.get(1).has("sql"));
+        assertFalse(statements.get(1).has("testResult"));
+        assertTrue(statements.get(2).get("testResult").isNull());
+        assertEquals("Failed to parse", json.get("errors").get("b.xml").asText());
+    }
+
+    @Test
+    void testStructuredOutputSelectsFields() throws Exception {
+        MapperResult mocked = MapperResult.of(newInfo("a"))
+                .withMockedSqls(new String[] { "SELECT *\nFROM t\nWHERE id = 2;", null });
+        MapperResult tested = mocked.withTestResults(new Boolean[] { true, null }, new String[] { "", null });
+        List<MapperResult> results = Collections.singletonList(tested);
+
+        JsonNode full = objectMapper.readTree(
+                MapperResultJsonWriter.write(results, OutputFormat.of("structured", null, null)));
+        JsonNode file = full.get(0);
+        assertEquals("/tmp/a.xml", file.get("file").asText());
+        assertEquals("a", file.get("namespace").asText());
+        JsonNode statement = file.get("statements").get(0);
+        assertEquals(tested.getId(0), statement.get("id").asText());
+        assertEquals("unknown", statement.get("type").asText());
+        assertEquals(tested.getSql(0), statement.get("sql").asText());
+        assertEquals(tested.getMockedSql(0), statement.get("mockedSql").asText());
+        assertTrue(statement.get("testResult").isBoolean());
+        assertTrue(file.get("statements").get(1).get("testResult").isNull());
+
+        JsonNode projected = objectMapper.readTree(MapperResultJsonWriter.write(results,
+                OutputFormat.of(null, Arrays.asList("mockedSql", "testResult"), true)));
+        JsonNode first = projected.get(0).get("statements").get(0);
+        JsonNode second = projected.get(0).get("statements").get(1);
+        assertEquals(Arrays.asList("id", "mockedSql", "testResult"), fieldNames(first));
+        // 未选择 sql 时与 sql 相同的 mockedSql 仍然输出，空的测试结果省略
+        assertEquals(Arrays.asList("id", "mockedSql"), fieldNames(second));
+
+        JsonNode idOnly = objectMapper.readTree(MapperResultJsonWriter.write(results,
+                OutputFormat.of(null, Collections.singletonList("id"), null)));
+        assertEquals(Collections.singletonList("id"), fieldNames(idOnly.get(0).get("statements").get(0)));
+
+        JsonNode compact = objectMapper.readTree(MapperResultJsonWriter.write(results,
+                OutputFormat.of("structured", null, true)));
+        assertFalse(compact.get(0).get("statements").get(1).has("mockedSql"));
+        assertFalse(compact.get(0).get("statements").get(0).has("testMsg"));
+    }
+
+    @Test
+    void testStructuredPageAndBatch() throws Exception {
+        OutputFormat format = OutputFormat.of("structured", Collections.singletonList("sql"), null);
+        List<MapperResult> results = Arrays.asList(MapperResult.of(newInfo("a")));
+
+        JsonNode page = objectMapper.readTree(
+                MapperResultJsonWriter.write(new MapperParsePage(results, 0, 1, 2), format));
+        assertEquals(1, page.get("nextOffset").asInt());
+        assertEquals(objectMapper.readTree(MapperResultJsonWriter.write(results, format)), page.get("results"));
+
+        MapperBatchResult batch = new MapperBatchResult(Collections.singletonList(
+                new MapperBatchResult.PathResult("/repo/user", results, 1, false, null)), 1, 0, false);
+        JsonNode json = objectMapper.readTree(MapperResultJsonWriter.write(batch, format));
+        assertEquals(page.get("results"), json.get("results").get("/repo/user").get("results"));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static MapperSqlInfo newInfo(String namespace) {
+        MapperSqlInfo info = new MapperSqlInfo("/tmp/" + namespace + ".xml", namespace, DbType.mysql.name());
+        info.getSqlIdMap().put("selectById", "SELECT *\nFROM t\nWHERE id = 1;");
+        info.getSqlIdMap().put("deleteById", "DELETE FROM t WHERE id = 1;");
+        return info;
+    }
+}
@@ -0,0 +1,68 @@
+package com.wjy.mapper2sql.mcp.output;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 输出格式参数测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class OutputFormatTest {
+
+    @Test
+    void testDefaultsToLines() {
+        assertSame(OutputFormat.LINES, OutputFormat.of(null, null, null));
+        assertSame(OutputFormat.LINES, OutputFormat.of(" LINES ", Collections.emptyList(), false));
+        assertFalse(OutputFormat.LINES.isStructured());
+    }
+
+    @Test
+    void testFieldsAndCompactSelectStructured() {
+        OutputFormat projected = OutputFormat.of(null, Arrays.asList("id", "SQL", "testResult"), null);
+        assertTrue(projected.isStructured());
+        assertFalse(projected.isCompact());
+        assertTrue(projected.includes(OutputFormat.Field.SQL));
+        assertTrue(projected.includes(OutputFormat.Field.TEST_RESULT));
+        assertFalse(projected.includes(OutputFormat.Field.MOCKED_SQL));
+
+        OutputFormat compact = OutputFormat.of(null, null, true);
+        assertTrue(compact.isStructured());
+        assertTrue(compact.isCompact());
+        for (OutputFormat.Field field : OutputFormat.Field.values()) {
+            assertTrue(compact.includes(field));
+        }
+    }
+
+    @Test
+    void testIdOnlyProjection() {
+        OutputFormat idOnly = OutputFormat.of(null, Collections.singletonList("id"), null);
+        assertTrue(idOnly.isStructured());
+        for (OutputFormat.Field field : OutputFormat.Field.values()) {
+            assertFalse(idOnly.includes(field));
+        }
+        // 空白字段名不算投影
+        assertSame(OutputFormat.LINES, OutputFormat.of(null, Arrays.asList(" ", null), null));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        IllegalArgumentException format = assertThrows(IllegalArgumentException.class,
+                () -> OutputFormat.of("xml", null, null));
+        assertEquals("Unsupported format: xml, expected one of [lines, structured]", format.getMessage());
+        IllegalArgumentException field = assertThrows(IllegalArgumentException.class,
+                () -> OutputFormat.of("structured", Collections.singletonList("resultMap"), null));
+        assertEquals("Unsupported field: resultMap, expected one of [type, sql, mockedSql, testResult, testMsg]",
+                field.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> OutputFormat.of("lines", null, true));
+    }
+}
@@ -0,0 +1,104 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多路径批量解析测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperBatchResultTest {
+
+    private static final Path TEST_MAPPER = Paths.get("src/test/resources/test-mapper.xml");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOverlappingPathsAreParsedOnce() throws Exception {
+        Files.createDirectories(tempDir.resolve("user"));
+        Files.createDirectories(tempDir.resolve("order"));
+        Files.copy(TEST_MAPPER, tempDir.resolve("user/UserMapper.xml"));
+        Files.copy(TEST_MAPPER, tempDir.resolve("order/OrderMapper.xml"));
+        Files.write(tempDir.resolve("order/readme.txt"), "not a mapper".getBytes());
+
+        String userDir = tempDir.resolve("user").toString();
+        String glob = tempDir.toString().replace('\\', '/') + "/*/*Mapper.xml";
+        String missing = tempDir.resolve("missing").toString();
+        List<String> paths = Arrays.asList(userDir, glob, missing, userDir);
+
+        try (MapperParser parser = new MapperParser(null, null, null, 2, false)) {
+            MapperBatchResult batch = parser.parseMapperBatch(paths, DbType.mysql, false, null);
+
+            assertFalse(batch.isTruncated());
+            assertEquals(2, batch.getTotalFiles());
+            assertEquals(1, batch.getDuplicateFiles());
+            // 重复的路径只处理一次
+            assertEquals(3, batch.getPathResults().size());
+
+            MapperBatchResult.PathResult user = batch.getPathResults().get(0);
+            assertEquals(userDir, user.getPath());
+            assertEquals(1, user.getFileCount());
+            assertEquals(1, user.getResults().size());
+            assertNull(user.getError());
+
+            // UserMapper.xml 已归属于第一个路径，glob 只保留 OrderMapper.xml，readme.txt 不匹配
+            MapperBatchResult.PathResult matched = batch.getPathResults().get(1);
+            assertEquals(1, matched.getFileCount());
+            assertEquals(1, matched.getResults().size());
+            assertTrue(matched.getResults().get(0).getFilePath().endsWith("OrderMapper.xml"));
+
+            MapperBatchResult.PathResult notFound = batch.getPathResults().get(2);
+            assertEquals("Path not found: " + missing, notFound.getError());
+            assertTrue(notFound.getResults().isEmpty());
+        }
+    }
+
+    @Test
+    void testWithResultsKeepsPathGrouping() {
+        MapperResult a = mapperResult("/tmp/a.xml", "a");
+        MapperResult b = mapperResult("/tmp/b.xml", "b");
+        MapperResult c = mapperResult("/tmp/c.xml", "c");
+        MapperBatchResult batch = new MapperBatchResult(Arrays.asList(
+                new MapperBatchResult.PathResult("first", Arrays.asList(a, b), 2, false, null),
+                MapperBatchResult.PathResult.error("missing", "Path not found: missing"),
+                new MapperBatchResult.PathResult("second", Collections.singletonList(c), 1, false, null)), 3, 0,
+                false);
+
+        assertEquals(Arrays.asList(a, b, c), batch.getResults());
+
+        MapperResult testedA = mapperResult("/tmp/a.xml", "a");
+        MapperResult testedB = mapperResult("/tmp/b.xml", "b");
+        MapperResult testedC = mapperResult("/tmp/c.xml", "c");
+        MapperBatchResult tested = batch.withResults(Arrays.asList(testedA, testedB, testedC), true);
+
+        assertTrue(tested.isTruncated());
+        assertEquals(Arrays.asList(testedA, testedB), tested.getPathResults().get(0).getResults());
+        assertEquals("Path not found: missing", tested.getPathResults().get(1).getError());
+        assertSame(testedC, tested.getPathResults().get(2).getResults().get(0));
+        assertTrue(tested.getPathResults().get(2).isTruncated());
+    }
+
+    private static MapperResult mapperResult(String filePath, String namespace) {
+        return MapperResult.of(filePath, namespace, DbType.mysql.name(), Collections.emptyMap(),
+                Collections.emptyMap());
+    }
+}
@@ -0,0 +1,108 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * mapper 目录监听器测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperDirectoryWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLeastRecentlyUsedRootIsUnregistered() throws Exception {
+        Path first = Files.createDirectories(tempDir.toRealPath().resolve("first"));
+        Path second = Files.createDirectories(tempDir.toRealPath().resolve("second"));
+        Path third = Files.createDirectories(tempDir.toRealPath().resolve("third"));
+        Files.write(first.resolve("A.xml"), "<mapper/>".getBytes());
+        Files.write(second.resolve("B.xml"), "<mapper/>".getBytes());
+        Files.write(third.resolve("C.xml"), "<mapper/>".getBytes());
+
+        MapperParseCache parseCache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, true));
+        try (MapperDirectoryWatcher watcher = new MapperDirectoryWatcher(parseCache, 2)) {
+            watcher.listFiles(first.toString());
+            watcher.listFiles(second.toString());
+            watcher.listFiles(first.toString());
+            assertEquals(2, watcher.getWatchedRootCount());
+
+            // 超出上限时注销最久未访问的 second，first 仍在监听
+            assertEquals(Collections.singletonList(third.resolve("C.xml")), watcher.listFiles(third.toString()));
+            assertEquals(2, watcher.getWatchedRootCount());
+            Path added = Files.write(first.resolve("D.xml"), "<mapper/>".getBytes());
+            assertTrue(awaitListed(watcher, first, added));
+
+            // 被注销的目录再次访问时重新建立索引
+            Files.write(second.resolve("E.xml"), "<mapper/>".getBytes());
+            assertEquals(Arrays.asList(second.resolve("B.xml"), second.resolve("E.xml")),
+                    watcher.listFiles(second.toString()));
+            assertEquals(2, watcher.getWatchedRootCount());
+        }
+    }
+
+    @Test
+    void testRegistrationFailureFallsBackToScanning() throws Exception {
+        Path root = Files.createDirectories(tempDir.toRealPath().resolve("root"));
+        Path failing = Files.createDirectories(root.resolve("b-failing"));
+        Files.createDirectories(root.resolve("a-ok"));
+        Files.write(failing.resolve("A.xml"), "<mapper/>".getBytes());
+
+        MapperParseCache parseCache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, true));
+        MapperDirectoryWatcher watcher = new MapperDirectoryWatcher(parseCache, 2) {
+            @Override
+            WatchKey register(Path dir) throws IOException {
+                // 模拟超出 inotify 监听数上限
+                if (dir.equals(failing)) {
+                    throw new IOException("User limit of inotify watches reached");
+                }
+                return super.register(dir);
+            }
+        };
+        MapperParser parser = new MapperParser(parseCache, watcher, null, 1, false);
+        try {
+            assertNull(watcher.listFiles(root.toString()));
+            assertEquals(0, watcher.getWatchedRootCount());
+            assertEquals(0, watcher.getWatchedDirCount());
+            // 解析回退为遍历目录
+            assertEquals(1, parser.parseMapperPage(root.toString(), DbType.mysql, false, null, 0, 10)
+                    .getFileCount());
+
+            // 不影响其他目录的监听
+            Path other = Files.createDirectories(tempDir.toRealPath().resolve("other"));
+            assertEquals(Collections.emptyList(), watcher.listFiles(other.toString()));
+            assertEquals(1, watcher.getWatchedDirCount());
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static boolean awaitListed(MapperDirectoryWatcher watcher, Path root, Path file) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (watcher.listFiles(root.toString()).contains(file)) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
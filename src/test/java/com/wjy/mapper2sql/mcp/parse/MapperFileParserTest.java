@@ -0,0 +1,62 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.parse.SqlParse;
+
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 单个 mapper 文件解析器测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperFileParserTest {
+
+    private static final String TEST_MAPPER = "src/test/resources/test-mapper.xml";
+
+    @Test
+    void testReusedConfigurationMatchesSqlParse() throws Exception {
+        MapperResult expected = MapperResult.of(SqlParse.parseMapperFile(TEST_MAPPER, DbType.mysql));
+        MapperFileParser parser = new MapperFileParser(1);
+
+        // 第二次解析使用第一次归还的 Configuration
+        MapperResult first = parser.parse(TEST_MAPPER, DbType.mysql);
+        MapperResult second = parser.parse(TEST_MAPPER, DbType.mysql);
+
+        assertEquals(1, parser.getPooledCount());
+        for (MapperResult actual : new MapperResult[] { first, second }) {
+            assertEquals(expected.getNamespace(), actual.getNamespace());
+            assertEquals(expected.toSqlIdMap(), actual.toSqlIdMap());
+            // 语句顺序与 mapper2sql 的输出一致
+            assertEquals(new ArrayList<>(expected.toSqlIdMap().keySet()), new ArrayList<>(actual.toSqlIdMap().keySet()));
+            assertEquals(expected.getResultColumnTypes(), actual.getResultColumnTypes());
+        }
+        assertFalse(first.getResultColumnTypes().isEmpty());
+        assertEquals(SqlCommandType.SELECT, first.getType(first.indexOf("selectById")));
+        assertEquals(SqlCommandType.DELETE, first.getType(first.indexOf("deleteByStatus")));
+    }
+
+    @Test
+    void testIdentifiersAndSqlAreShared() throws Exception {
+        MapperFileParser parser = new MapperFileParser(1);
+        MapperResult first = parser.parse(TEST_MAPPER, DbType.mysql);
+        MapperResult second = parser.parse(TEST_MAPPER, DbType.mysql);
+
+        // 两次解析得到的 namespace、语句 id 和内容相同的 SQL 为同一个实例
+        assertSame(first.getNamespace(), second.getNamespace());
+        for (int i = 0; i < first.getStatementCount(); i++) {
+            int index = second.indexOf(first.getId(i));
+            assertSame(first.getId(i), second.getId(index));
+            assertSame(first.getSql(i), second.getSql(index));
+        }
+    }
+}
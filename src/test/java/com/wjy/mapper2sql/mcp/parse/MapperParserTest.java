@@ -0,0 +1,277 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+import com.wjy.mapper2sql.mcp.jdbc.ConnectionProvider;
+import com.wjy.mapper2sql.mcp.tool.ToolDeadline;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * mapper 解析器测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperParserTest {
+
+    private static final Path TEST_MAPPER = Paths.get("src/test/resources/test-mapper.xml");
+    private static final int MAPPER_COUNT = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testParallelOutputMatchesSerialOrder() throws Exception {
+        writeMappers();
+        Files.write(tempDir.resolve("readme.txt"), "text".getBytes());
+
+        try (MapperParser serial = new MapperParser(null, null, null, 1, false);
+                MapperParser parallel = new MapperParser(null, null, null, 4, false)) {
+            List<MapperResult> expected = serial.parseMapper(tempDir.toString(), DbType.mysql, false, null);
+            List<MapperResult> actual = parallel.parseMapper(tempDir.toString(), DbType.mysql, false, null);
+
+            assertEquals(MAPPER_COUNT, expected.size());
+            assertEquals(filePaths(expected), filePaths(actual));
+        }
+    }
+
+    @Test
+    void testFailedFileIsSkippedWithoutTruncating() throws Exception {
+        writeMappers();
+        // 是 mapper 文件，语句 id 重复，解析失败
+        String content = new String(Files.readAllBytes(TEST_MAPPER), StandardCharsets.UTF_8);
+        Files.write(tempDir.resolve("UserMapper3a.xml"), content.replace("selectByUsername", "selectById")
+                .getBytes(StandardCharsets.UTF_8));
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false)) {
+            MapperParsePage page = parser.parseMapperPage(tempDir.toString(), DbType.mysql, false, null, 0, 100);
+
+            assertFalse(page.isTruncated());
+            assertEquals(MAPPER_COUNT + 1, page.getFileCount());
+            assertEquals(MAPPER_COUNT, page.getResults().size());
+            assertFalse(filePaths(page.getResults()).contains(tempDir.resolve("UserMapper3a.xml").toString()));
+        }
+    }
+
+    @Test
+    void testMockWorkersAreCappedByMaxConnections() throws Exception {
+        writeMappers();
+        AtomicInteger borrowed = new AtomicInteger();
+        ConnectionProvider provider = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() {
+                // 每个工作线程只借一次连接，借出次数即为使用数据库的工作线程数
+                borrowed.incrementAndGet();
+                return null;
+            }
+
+            @Override
+            public int getMaxConnections() {
+                return 1;
+            }
+        };
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false)) {
+            List<MapperResult> results = parser.parseMapper(tempDir.toString(), DbType.mysql, true, provider);
+
+            assertEquals(MAPPER_COUNT, results.size());
+            assertEquals(1, borrowed.get());
+        }
+    }
+
+    @Test
+    void testDeadlineCutsResultsToCompletedPrefix() throws Exception {
+        writeMappers();
+        ToolDeadline deadline = ToolDeadline.after(60_000);
+        ConnectionProvider provider = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() {
+                // 解析第一个文件时截止时间到达
+                deadline.expire();
+                return null;
+            }
+
+            @Override
+            public int getMaxConnections() {
+                return 1;
+            }
+        };
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false);
+                ToolDeadline.Scope scope = deadline.bind()) {
+            MapperParsePage page = parser.parseMapperPage(tempDir.toString(), DbType.mysql, true, provider, 0, 100);
+
+            assertTrue(page.isTruncated());
+            assertEquals(1, page.getFileCount());
+            assertEquals(Integer.valueOf(1), page.getNextOffset());
+            assertEquals(1, page.getResults().size());
+        }
+    }
+
+    @Test
+    void testParallelDeadlineResultsArePrefixOfFullRun() throws Exception {
+        writeMappers();
+        List<String> all;
+        try (MapperParser serial = new MapperParser(null, null, null, 1, false)) {
+            all = filePaths(serial.parseMapper(tempDir.toString(), DbType.mysql, false, null));
+        }
+
+        ToolDeadline deadline = ToolDeadline.after(60_000);
+        AtomicInteger borrowed = new AtomicInteger();
+        ConnectionProvider provider = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() {
+                // 第二个借出连接的工作线程处理文件时截止时间到达，其他工作线程可能已完成后面的文件
+                if (borrowed.incrementAndGet() == 2) {
+                    deadline.expire();
+                }
+                return null;
+            }
+
+            @Override
+            public int getMaxConnections() {
+                return 4;
+            }
+        };
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false);
+                ToolDeadline.Scope scope = deadline.bind()) {
+            MapperParsePage page = parser.parseMapperPage(tempDir.toString(), DbType.mysql, true, provider, 0, 100);
+
+            assertEquals(page.getFileCount() < MAPPER_COUNT, page.isTruncated());
+            // 所有文件都是 mapper，结果与完整解析的前 fileCount 个文件一致
+            assertEquals(all.subList(0, page.getFileCount()), filePaths(page.getResults()));
+        }
+    }
+
+    @Test
+    void testPageCountsNonMapperFiles() throws Exception {
+        writeMappers();
+        // 按路径排序时 UserMapper2.txt 位于 UserMapper1.xml 和 UserMapper2.xml 之间
+        Files.write(tempDir.resolve("UserMapper2.txt"), "text".getBytes());
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false)) {
+            MapperParsePage page = parser.parseMapperPage(tempDir.toString(), DbType.mysql, false, null, 1, 3);
+            assertEquals(3, page.getFileCount());
+            assertEquals(MAPPER_COUNT + 1, page.getTotalFiles());
+            assertEquals(Integer.valueOf(4), page.getNextOffset());
+            assertEquals(Arrays.asList(mapperPath(1), mapperPath(2)), filePaths(page.getResults()));
+
+            MapperParsePage last = parser.parseMapperPage(tempDir.toString(), DbType.mysql, false, null, 7, 5);
+            assertEquals(2, last.getFileCount());
+            assertNull(last.getNextOffset());
+            assertEquals(Arrays.asList(mapperPath(6), mapperPath(7)), filePaths(last.getResults()));
+        }
+    }
+
+    @Test
+    void testOffsetPastEndReturnsEmptyPage() throws Exception {
+        writeMappers();
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false)) {
+            MapperParsePage page = parser.parseMapperPage(tempDir.toString(), DbType.mysql, false, null, 100, 10);
+
+            assertEquals(0, page.getFileCount());
+            assertEquals(MAPPER_COUNT, page.getTotalFiles());
+            assertNull(page.getNextOffset());
+            assertFalse(page.isTruncated());
+            assertTrue(page.getResults().isEmpty());
+        }
+    }
+
+    @Test
+    void testTruncatedRunResumesFromNextOffset() throws Exception {
+        writeMappers();
+        ToolDeadline deadline = ToolDeadline.after(60_000);
+        ConnectionProvider provider = new ConnectionProvider() {
+            @Override
+            public Connection getConnection() {
+                deadline.expire();
+                return null;
+            }
+
+            @Override
+            public int getMaxConnections() {
+                return 1;
+            }
+        };
+
+        try (MapperParser parser = new MapperParser(null, null, null, 4, false)) {
+            MapperParsePage first;
+            try (ToolDeadline.Scope scope = deadline.bind()) {
+                first = parser.parseMapperPage(tempDir.toString(), DbType.mysql, true, provider, 0, 100);
+            }
+            assertTrue(first.isTruncated());
+
+            MapperParsePage rest = parser.parseMapperPage(tempDir.toString(), DbType.mysql, true, provider,
+                    first.getNextOffset(), 100);
+            assertFalse(rest.isTruncated());
+            assertNull(rest.getNextOffset());
+
+            List<String> resumed = new ArrayList<>(filePaths(first.getResults()));
+            resumed.addAll(filePaths(rest.getResults()));
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < MAPPER_COUNT; i++) {
+                expected.add(mapperPath(i));
+            }
+            assertEquals(expected, resumed);
+        }
+    }
+
+    @Test
+    void testWatchedAndScannedOrderMatch() throws Exception {
+        Path root = tempDir.toRealPath();
+        Files.createDirectories(root.resolve("b"));
+        Files.createDirectories(root.resolve("a"));
+        Files.copy(TEST_MAPPER, root.resolve("b").resolve("UserMapper.xml"));
+        Files.copy(TEST_MAPPER, root.resolve("a").resolve("UserMapper.xml"));
+        Files.copy(TEST_MAPPER, root.resolve("UserMapper.xml"));
+        Files.write(root.resolve("readme.txt"), "text".getBytes());
+
+        MapperParseCache parseCache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, true));
+        try (MapperParser scanned = new MapperParser(null, null, null, 1, false);
+                MapperParser watched = new MapperParser(parseCache, new MapperDirectoryWatcher(parseCache), null, 1,
+                        false)) {
+            MapperParsePage expected = scanned.parseMapperPage(root.toString(), DbType.mysql, false, null, 1, 2);
+            MapperParsePage actual = watched.parseMapperPage(root.toString(), DbType.mysql, false, null, 1, 2);
+
+            assertEquals(Arrays.asList(root.resolve("a").resolve("UserMapper.xml").toString(),
+                    root.resolve("b").resolve("UserMapper.xml").toString()), filePaths(expected.getResults()));
+            assertEquals(filePaths(expected.getResults()), filePaths(actual.getResults()));
+        }
+    }
+
+    private void writeMappers() throws Exception {
+        for (int i = 0; i < MAPPER_COUNT; i++) {
+            Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper" + i + ".xml"));
+        }
+    }
+
+    private String mapperPath(int i) {
+        return tempDir.resolve("UserMapper" + i + ".xml").toString();
+    }
+
+    private static List<String> filePaths(List<MapperResult> results) {
+        return results.stream().map(MapperResult::getFilePath).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,165 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mcp.bo.MapperResult;
+import com.wjy.mapper2sql.mcp.cache.MapperParseCache;
+import com.wjy.mapper2sql.mcp.config.ParseCacheConfig;
+import com.wjy.mapper2sql.parse.SqlParse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * mapper 语句索引测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class MapperStatementIndexTest {
+
+    private static final Path TEST_MAPPER = Paths.get("src/test/resources/test-mapper.xml");
+    private static final String NAMESPACE = "com.test.dao.UserDao";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFindsStatementAndSkipsNonMapperFiles() throws Exception {
+        Path mapper = Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        Files.write(tempDir.resolve("pom.xml"), "<project><select id=\"selectById\"/></project>".getBytes());
+        Files.write(tempDir.resolve("broken.xml"), "<mapper namespace=".getBytes());
+
+        MapperStatementIndex index = new MapperStatementIndex();
+        MapperStatementIndex.StatementLocation location = index.find(tempDir, NAMESPACE, "selectById",
+                MapperStatementIndexTest::walk, false);
+
+        assertNotNull(location);
+        assertEquals(mapper, location.getFile());
+        assertNull(index.find(tempDir, NAMESPACE, "notExists", MapperStatementIndexTest::walk, false));
+        assertNull(index.find(tempDir, "com.other.Dao", "selectById", MapperStatementIndexTest::walk, false));
+        assertEquals(1, index.getIndexedRootCount());
+    }
+
+    @Test
+    void testIndexIsBuiltOncePerDirectory() throws Exception {
+        Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        int[] listCount = new int[1];
+        MapperStatementIndex.FileLister lister = root -> {
+            listCount[0]++;
+            return walk(root);
+        };
+
+        MapperStatementIndex index = new MapperStatementIndex();
+        index.find(tempDir, NAMESPACE, "selectById", lister, false);
+        index.find(tempDir, NAMESPACE, "selectByUsername", lister, false);
+        assertEquals(1, listCount[0]);
+
+        index.find(tempDir, NAMESPACE, "selectById", lister, true);
+        assertEquals(2, listCount[0]);
+    }
+
+    @Test
+    void testIndexIsStaleOnlyWhenFilesChange() throws Exception {
+        Path mapper = Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        Files.write(tempDir.resolve("readme.txt"), "text".getBytes());
+        MapperStatementIndex index = new MapperStatementIndex();
+        assertTrue(index.isStale(tempDir, MapperStatementIndexTest::walk));
+
+        index.find(tempDir, NAMESPACE, "selectById", MapperStatementIndexTest::walk, false);
+        assertFalse(index.isStale(tempDir, MapperStatementIndexTest::walk));
+        // 非 XML 文件不影响索引
+        Files.write(tempDir.resolve("notes.txt"), "text".getBytes());
+        assertFalse(index.isStale(tempDir, MapperStatementIndexTest::walk));
+
+        Files.setLastModifiedTime(mapper, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertTrue(index.isStale(tempDir, MapperStatementIndexTest::walk));
+
+        index.find(tempDir, NAMESPACE, "selectById", MapperStatementIndexTest::walk, true);
+        Files.copy(TEST_MAPPER, tempDir.resolve("OtherMapper.xml"));
+        assertTrue(index.isStale(tempDir, MapperStatementIndexTest::walk));
+    }
+
+    @Test
+    void testParseStatementMissRebuildsOnlyWhenFilesChanged() throws Exception {
+        Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        MapperParser parser = new MapperParser(null, null, null, 1, false);
+        try {
+            assertNull(parser.parseStatement(tempDir.toString(), "com.test.dao.OrderDao", "selectById",
+                    DbType.mysql, false, null));
+
+            // 新增文件中的语句在重建索引后找到
+            String orderMapper = new String(Files.readAllBytes(TEST_MAPPER)).replace(NAMESPACE,
+                    "com.test.dao.OrderDao");
+            Path added = Files.write(tempDir.resolve("OrderMapper.xml"), orderMapper.getBytes());
+            MapperResult info = parser.parseStatement(tempDir.toString(), "com.test.dao.OrderDao", "selectById",
+                    DbType.mysql, false, null);
+            assertNotNull(info);
+            assertEquals(added.toString(), info.getFilePath());
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Test
+    void testParseStatementReturnsOnlyRequestedStatement() throws Exception {
+        Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        MapperSqlInfo expected = SqlParse.parseMapperFile(TEST_MAPPER.toString(), DbType.mysql);
+
+        MapperParseCache parseCache = new MapperParseCache(new ParseCacheConfig(true, 10, 1024 * 1024, false));
+        MapperParser parser = new MapperParser(parseCache, null, null, 1, false);
+        try {
+            MapperResult info = parser.parseStatement(tempDir.toString(), NAMESPACE, "selectById", DbType.mysql,
+                    false, null);
+
+            assertNotNull(info);
+            assertEquals(NAMESPACE, info.getNamespace());
+            assertEquals(Collections.singletonMap("selectById", expected.getSqlIdMap().get("selectById")),
+                    info.toSqlIdMap());
+            assertNull(parser.parseStatement(tempDir.toString(), NAMESPACE, "notExists", DbType.mysql, false, null));
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Test
+    void testParseStatementRebuildsIndexWhenFileMoved() throws Exception {
+        Path mapper = Files.copy(TEST_MAPPER, tempDir.resolve("UserMapper.xml"));
+        MapperParser parser = new MapperParser(null, null, null, 1, false);
+        try {
+            assertNotNull(parser.parseStatement(tempDir.toString(), NAMESPACE, "selectById", DbType.mysql, true,
+                    null));
+
+            Path moved = Files.createDirectories(tempDir.resolve("moved")).resolve("UserMapper.xml");
+            Files.move(mapper, moved);
+
+            MapperResult info = parser.parseStatement(tempDir.toString(), NAMESPACE, "selectById", DbType.mysql,
+                    true, null);
+            assertNotNull(info);
+            assertEquals(moved.toString(), info.getFilePath());
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static List<Path> walk(Path root) throws Exception {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
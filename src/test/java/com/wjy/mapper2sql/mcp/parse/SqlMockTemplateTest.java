@@ -0,0 +1,113 @@
+package com.wjy.mapper2sql.mcp.parse;
+
+import com.alibaba.druid.DbType;
+import com.wjy.mapper2sql.bo.MapperSqlInfo;
+import com.wjy.mapper2sql.mock.SqlMock;
+import com.wjy.mapper2sql.parse.SqlParse;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 参数模拟模板测试类
+ *
+ * 模拟值是随机的，与 SqlMock.mockSql 比较时先把两边的模拟值按格式替换为固定标记
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class SqlMockTemplateTest {
+
+    private static final String TEST_MAPPER = "src/test/resources/test-mapper.xml";
+
+    @Test
+    void testRenderMatchesSqlMock() throws Exception {
+        HashMap<String, JdbcType> columnTypes = new HashMap<>();
+        columnTypes.put("id", JdbcType.BIGINT);
+        columnTypes.put("username", JdbcType.VARCHAR);
+        columnTypes.put("email", JdbcType.VARCHAR);
+        columnTypes.put("create_time", JdbcType.TIMESTAMP);
+        columnTypes.put("status", JdbcType.INTEGER);
+        columnTypes.put("enabled", JdbcType.BOOLEAN);
+        columnTypes.put("avatar", JdbcType.BLOB);
+        // 字段类型未知时保留占位符
+        columnTypes.put("remark", null);
+
+        List<String> sqlList = new ArrayList<>(Arrays.asList(
+                "select * from users where id in (?, ?) and username like concat('%', ?, '%') limit ?, ?",
+                "select u.id from users u where u.create_time > ? and u.enabled = ? and u.avatar = ? order by id limit ? offset ?",
+                "update users set remark = ?, status = ? where id = ?",
+                "select id from users where ? = id or status between ? and ?",
+                "select count(*) from users"));
+        MapperSqlInfo info = SqlParse.parseMapperFile(TEST_MAPPER, DbType.mysql);
+        sqlList.addAll(info.getSqlIdMap().values());
+
+        for (String sql : sqlList) {
+            SqlMockTemplate template = SqlMockTemplate.compile(sql, DbType.mysql, "?");
+            String expected = SqlMock.mockSql(sql, DbType.mysql, "?", columnTypes);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(mask(expected), mask(template.render(columnTypes)), sql);
+            }
+        }
+    }
+
+    @Test
+    void testSlotsAndTables() {
+        SqlMockTemplate template = SqlMockTemplate.compile(
+                "select o.id from orders o join users u on o.user_id = u.id where u.id = ? and o.status = ?",
+                DbType.mysql, "?");
+
+        assertEquals(2, template.getSlotCount());
+        assertEquals(Arrays.asList("orders", "users"), template.getTables());
+
+        // 没有字段类型时原样保留占位符
+        String rendered = template.render(Collections.emptyMap());
+        assertEquals(SqlMock.mockSql(template.getSql(), DbType.mysql, "?", new HashMap<>()), rendered);
+
+        Map<String, JdbcType> columnTypes = Collections.singletonMap("status", JdbcType.CHAR);
+        assertTrue(template.render(columnTypes).matches("(?s).*o\\.status = '[0-9a-f]{4}'.*"));
+    }
+
+    @Test
+    void testCacheRecompilesChangedSql() {
+        SqlMockTemplateCache cache = new SqlMockTemplateCache(2);
+        String sql = "select * from users where id = ?";
+
+        SqlMockTemplate first = cache.getOrCompile("com.test.UserMapper", "selectById", sql, DbType.mysql);
+        assertSame(first, cache.getOrCompile("com.test.UserMapper", "selectById", new String(sql), DbType.mysql));
+        assertEquals(1, cache.getHitCount());
+
+        // 文件修改后同一语句 id 的 SQL 变化，重新编译
+        SqlMockTemplate changed = cache.getOrCompile("com.test.UserMapper", "selectById",
+                "select * from users where username = ?", DbType.mysql);
+        assertNotSame(first, changed);
+        // 数据库类型不同的模板分别缓存
+        assertNotSame(changed, cache.getOrCompile("com.test.UserMapper", "selectById",
+                "select * from users where username = ?", DbType.postgresql));
+        assertEquals(2, cache.size());
+
+        // 超过上限时整体清空
+        cache.getOrCompile("com.test.UserMapper", "deleteUser", "delete from users where id = ?", DbType.mysql);
+        assertEquals(1, cache.size());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    private static String mask(String sql) {
+        return sql.replaceAll("'\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}'", "<time>")
+                .replaceAll("'[0-9a-f]{4}'", "<string>")
+                .replaceAll("\\b(true|false)\\b", "<boolean>")
+                .replaceAll("\\b\\d\\b", "<number>");
+    }
+}
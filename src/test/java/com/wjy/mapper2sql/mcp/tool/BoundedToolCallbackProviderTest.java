@@ -0,0 +1,205 @@
+package com.wjy.mapper2sql.mcp.tool;
+
+import com.wjy.mapper2sql.mcp.config.ToolExecutorConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 有界线程池工具回调提供者测试类
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class BoundedToolCallbackProviderTest {
+
+    // jdk21 profile 下为true，工具调用使用虚拟线程执行
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("virtualThreadsEnabled");
+
+    @Test
+    void testDelegatesCallAndDefinition() {
+        try (BoundedToolCallbackProvider provider = new BoundedToolCallbackProvider(
+                ToolCallbackProvider.from(new EchoToolCallback(null, null, null)), new ToolExecutorConfig(2, 2),
+                VIRTUAL_THREADS)) {
+            ToolCallback callback = provider.getToolCallbacks()[0];
+
+            assertEquals("echo", callback.getToolDefinition().name());
+            assertEquals("echo:{}", callback.call("{}"));
+            assertNotEquals(Thread.currentThread().getName(), callback.call("thread"));
+        }
+    }
+
+    @Test
+    void testLimitsConcurrencyAndRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try (BoundedToolCallbackProvider provider = new BoundedToolCallbackProvider(
+                ToolCallbackProvider.from(new EchoToolCallback(started, release, running, maxRunning)),
+                new ToolExecutorConfig(1, 1), VIRTUAL_THREADS)) {
+            ToolCallback callback = provider.getToolCallbacks()[0];
+
+            // 第一个调用占满线程，第二个调用进入队列，第三个调用被拒绝
+            Future<String> first = clients.submit(() -> callback.call("first"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> second = clients.submit(() -> callback.call("second"));
+            waitUntilQueued(provider);
+            assertTrue(callback.call("third").startsWith("Error: Server is busy"));
+
+            release.countDown();
+            assertEquals("echo:first", first.get(5, TimeUnit.SECONDS));
+            assertEquals("echo:second", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, maxRunning.get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDeadlineReturnsPartialResultAndRunsCancelActions() {
+        AtomicBoolean statementCancelled = new AtomicBoolean();
+        try (BoundedToolCallbackProvider provider = new BoundedToolCallbackProvider(
+                ToolCallbackProvider.from(new DeadlineToolCallback(statementCancelled)),
+                new ToolExecutorConfig(1, 1, 200), VIRTUAL_THREADS)) {
+            ToolCallback callback = provider.getToolCallbacks()[0];
+
+            long start = System.nanoTime();
+            assertEquals("partial", callback.call("{}"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+            assertTrue(statementCancelled.get());
+        }
+    }
+
+    @Test
+    void testInterruptedCallerCancelsToolCall() throws Exception {
+        AtomicBoolean statementCancelled = new AtomicBoolean();
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+        try (BoundedToolCallbackProvider provider = new BoundedToolCallbackProvider(
+                ToolCallbackProvider.from(new DeadlineToolCallback(statementCancelled)),
+                new ToolExecutorConfig(1, 1), VIRTUAL_THREADS)) {
+            ToolCallback callback = provider.getToolCallbacks()[0];
+
+            // 模拟客户端取消请求，等待结果的线程被中断
+            Future<String> result = clients.submit(() -> callback.call("{}"));
+            Thread.sleep(100);
+            result.cancel(true);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((!statementCancelled.get() || provider.getActiveCount() > 0)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(statementCancelled.get());
+            assertEquals(0, provider.getActiveCount());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void waitUntilQueued(BoundedToolCallbackProvider provider) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (provider.getQueuedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, provider.getQueuedCount());
+    }
+
+    /**
+     * 模拟长时间执行的工具，注册取消动作后一直执行到截止时间或被取消
+     */
+    private static class DeadlineToolCallback implements ToolCallback {
+
+        private final AtomicBoolean statementCancelled;
+
+        DeadlineToolCallback(AtomicBoolean statementCancelled) {
+            this.statementCancelled = statementCancelled;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder().name("slow").description("slow").inputSchema("{}").build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            ToolDeadline deadline = ToolDeadline.current();
+            try (ToolDeadline.Registration registration = deadline.onCancel(() -> statementCancelled.set(true))) {
+                while (!deadline.isExpired()) {
+                    Thread.sleep(10);
+                }
+                return "partial";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            }
+        }
+    }
+
+    /**
+     * 返回输入内容的工具，可选地阻塞直到放行，并记录同时执行的调用数
+     */
+    private static class EchoToolCallback implements ToolCallback {
+
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        EchoToolCallback(CountDownLatch started, CountDownLatch release, AtomicInteger running) {
+            this(started, release, running, new AtomicInteger());
+        }
+
+        EchoToolCallback(CountDownLatch started, CountDownLatch release, AtomicInteger running,
+                AtomicInteger maxRunning) {
+            this.started = started;
+            this.release = release;
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return ToolDefinition.builder().name("echo").description("echo").inputSchema("{}").build();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            if ("thread".equals(toolInput)) {
+                return Thread.currentThread().getName();
+            }
+            if (running != null) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            }
+            try {
+                if (started != null) {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return "echo:" + toolInput;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            } finally {
+                if (running != null) {
+                    running.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.wjy.mapper2sql.mcp.util;
+
+import com.alibaba.druid.mock.MockDriver;
+import com.alibaba.druid.proxy.DruidDriver;
+import com.wjy.mapper2sql.mcp.config.JdbcConnectionConfig;
+import com.wjy.mapper2sql.mcp.config.JdbcPoolConfig;
+import com.wjy.mapper2sql.mcp.jdbc.JdbcConnectionPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.sql.Driver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDBC驱动注册表测试类
+ *
+ * 使用复制到临时目录的 Druid JAR 中的 DruidDriver 和 MockDriver 作为外部驱动，不依赖真实数据库
+ *
+ * @author handsomestWei
+ * @version 1.0.0
+ */
+public class JdbcDriverLoaderUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void clearDrivers() {
+        JdbcDriverLoaderUtil.clearLoadedDriver();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneDriverInstance() throws Exception {
+        JdbcConnectionConfig config = newConfig(copyDriverJar(), DruidDriver.class.getName());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Driver>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return JdbcDriverLoaderUtil.getOrLoadDriver(config);
+                }));
+            }
+            start.countDown();
+
+            Driver first = futures.get(0).get();
+            assertInstanceOf(DruidDriver.class, first);
+            for (Future<Driver> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDriversAreKeyedByJarAndClassName() throws Exception {
+        Path jar = copyDriverJar();
+        Driver druid = JdbcDriverLoaderUtil.getOrLoadDriver(newConfig(jar, DruidDriver.class.getName()));
+        Driver mock = JdbcDriverLoaderUtil.getOrLoadDriver(newConfig(jar, MockDriver.class.getName()));
+        Driver otherJar = JdbcDriverLoaderUtil.getOrLoadDriver(
+                newConfig(Files.copy(jar, tempDir.resolve("other.jar")), DruidDriver.class.getName()));
+
+        assertInstanceOf(MockDriver.class, mock);
+        assertNotSame(druid, otherJar);
+        // 相对路径与绝对路径指向同一个文件时为同一个键
+        Path relative = Paths.get("").toAbsolutePath().relativize(jar);
+        assertSame(druid, JdbcDriverLoaderUtil.getOrLoadDriver(newConfig(relative, DruidDriver.class.getName())));
+        assertNull(JdbcDriverLoaderUtil.getOrLoadDriver(newConfig(jar, "com.example.NotExistsDriver")));
+    }
+
+    @Test
+    void testReplacedJarIsReloaded() throws Exception {
+        Path jar = copyDriverJar();
+        JdbcConnectionConfig config = newConfig(jar, DruidDriver.class.getName());
+        assertNotNull(JdbcDriverLoaderUtil.loadJdbcDriver(config));
+        Driver before = JdbcDriverLoaderUtil.getOrLoadDriver(config);
+
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        Driver after = JdbcDriverLoaderUtil.getOrLoadDriver(config);
+
+        assertNotSame(before, after);
+        assertSame(after, JdbcDriverLoaderUtil.getOrLoadDriver(config));
+        // 当前驱动同样切换为重新加载的驱动
+        assertTrue(JdbcDriverLoaderUtil.isDriverLoaded());
+        assertTrue(JdbcDriverLoaderUtil.getDriverStatusInfo().contains(DruidDriver.class.getName()));
+    }
+
+    @Test
+    void testSupersededClassLoaderClosedAfterLastPool() throws Exception {
+        Path jar = copyDriverJar();
+        JdbcConnectionConfig config = newConfig(jar, DruidDriver.class.getName());
+        JdbcPoolConfig poolConfig = new JdbcPoolConfig(1, 1000, 1, 60_000, 60_000, 60_000);
+        Driver before = JdbcDriverLoaderUtil.getOrLoadDriver(config);
+        JdbcConnectionPool first = JdbcDriverLoaderUtil.createConnectionPool(config, poolConfig, before);
+        JdbcConnectionPool second = JdbcDriverLoaderUtil.createConnectionPool(config, poolConfig, before);
+
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+        assertNotSame(before, JdbcDriverLoaderUtil.getOrLoadDriver(config));
+
+        // 仍被连接池使用的类加载器不关闭，旧驱动还可以创建连接池
+        first.close();
+        first.close();
+        JdbcConnectionPool third = JdbcDriverLoaderUtil.createConnectionPool(config, poolConfig, before);
+        assertNotNull(third);
+        third.close();
+        assertTrue(JdbcDriverLoaderUtil.getDriverStatusInfo().contains("still used by pools: 1"));
+        // 最后一个连接池关闭后类加载器关闭
+        second.close();
+        assertFalse(JdbcDriverLoaderUtil.getDriverStatusInfo().contains("still used by pools"));
+    }
+
+    @Test
+    void testClearRemovesAllDrivers() throws Exception {
+        JdbcConnectionConfig config = newConfig(copyDriverJar(), DruidDriver.class.getName());
+        Driver before = JdbcDriverLoaderUtil.getOrLoadDriver(config);
+        JdbcDriverLoaderUtil.loadJdbcDriver(config);
+
+        JdbcDriverLoaderUtil.clearLoadedDriver();
+
+        assertFalse(JdbcDriverLoaderUtil.isDriverLoaded());
+        assertNull(JdbcDriverLoaderUtil.createConnection("jdbc:mock:test", "sa", "sa"));
+        assertEquals("JDBC driver not loaded", JdbcDriverLoaderUtil.getDriverStatusInfo());
+        assertNotSame(before, JdbcDriverLoaderUtil.getOrLoadDriver(config));
+    }
+
+    private Path copyDriverJar() throws Exception {
+        Path druidJar = Paths.get(DruidDriver.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        return Files.copy(druidJar, tempDir.resolve("driver.jar"));
+    }
+
+    private static JdbcConnectionConfig newConfig(Path jar, String driverClassName) {
+        return new JdbcConnectionConfig("mysql", driverClassName, jar.toString(), "jdbc:mock:test", "sa", "sa");
+    }
+}